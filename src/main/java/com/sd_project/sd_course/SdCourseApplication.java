@@ -2,8 +2,12 @@ package com.sd_project.sd_course;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC pools are built per shard and replica by ReactiveConfig; a Boot-managed ConnectionFactory
+// and its ReactiveTransactionManager would compete with the JPA transaction manager
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class SdCourseApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,80 @@
+package com.sd_project.sd_course.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Exact row counts cached per table and filter signature.
+ *
+ * An entry is reused until its table is written on this node (see {@link TableVersions}) or its TTL,
+ * which bounds staleness from writes on other nodes, runs out.
+ */
+@Component
+public class CountCache {
+
+    private record Entry(long version, long count, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TableVersions tableVersions;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    public CountCache(TableVersions tableVersions,
+                      @Value("${app.count-cache.ttl-ms:30000}") long ttlMs,
+                      @Value("${app.count-cache.max-entries:10000}") int maxEntries) {
+        this.tableVersions = tableVersions;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Cached count for the signature, or the counter's result if there is no fresh entry
+     */
+    public long get(String table, String signature, LongSupplier counter) {
+        Long cached = getIfPresent(table, signature);
+        if (cached != null) {
+            return cached;
+        }
+        long version = version(table);
+        long count = counter.getAsLong();
+        put(table, signature, version, count);
+        return count;
+    }
+
+    /**
+     * Fresh cached count for the signature, or null; for callers that count without blocking
+     */
+    public Long getIfPresent(String table, String signature) {
+        Entry entry = entries.get(table + ':' + signature);
+        if (entry != null && tableVersions.isCurrent(table, entry.version())
+                && entry.expiresAt() > System.currentTimeMillis()) {
+            return entry.count();
+        }
+        return null;
+    }
+
+    /**
+     * Current version of the table; read it before counting and pass it to {@link #put}
+     */
+    public long version(String table) {
+        return tableVersions.current(table);
+    }
+
+    /**
+     * Remember a count made at the given table version; it is never served once the table has moved on
+     */
+    public void put(String table, String signature, long versionBeforeCount, long count) {
+        if (!tableVersions.canStore(table, versionBeforeCount)) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(table + ':' + signature, new Entry(versionBeforeCount, count, System.currentTimeMillis() + ttlMs));
+    }
+}
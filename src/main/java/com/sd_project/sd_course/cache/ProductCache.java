@@ -0,0 +1,83 @@
+package com.sd_project.sd_course.cache;
+
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.transaction.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product responses by id, held in the "products" cache.
+ *
+ * Loads are stamped with the products table version read before the query, and a load is only stored
+ * if no product write committed in the meantime, so a slow reader cannot put back a row that a write
+ * has just evicted. Entries expire after a TTL to pick up writes made on other nodes. Requests that must read
+ * their own writes bypass the cache, and loads that may come from a lagging replica are not stored; see
+ * {@link TableVersions}.
+ */
+@Component
+public class ProductCache {
+
+    public static final String PRODUCTS_TABLE = "products";
+    private static final String CACHE_NAME = "products";
+
+    private record Entry(ProductResponse product, long expiresAt) {
+    }
+
+    private final CacheManager cacheManager;
+    private final TableVersions tableVersions;
+    private final long ttlMs;
+
+    public ProductCache(CacheManager cacheManager,
+                        TableVersions tableVersions,
+                        @Value("${app.product-cache.ttl-ms:60000}") long ttlMs) {
+        this.cacheManager = cacheManager;
+        this.tableVersions = tableVersions;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Catalog version to pass to {@link #put}; read it before loading from the database
+     */
+    public long version() {
+        return tableVersions.current(PRODUCTS_TABLE);
+    }
+
+    public ProductResponse get(Long id) {
+        if (!tableVersions.isCacheReadable()) {
+            return null;
+        }
+        Entry entry = cache().get(id, Entry.class);
+        if (entry == null || entry.expiresAt() < System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.product();
+    }
+
+    public void put(long versionBeforeLoad, ProductResponse product) {
+        if (tableVersions.canStore(PRODUCTS_TABLE, versionBeforeLoad)) {
+            cache().put(product.getId(), new Entry(product, System.currentTimeMillis() + ttlMs));
+        }
+    }
+
+    /**
+     * Evict now and again once the current transaction commits
+     */
+    public void evictAfterCommit(Long id) {
+        cache().evict(id);
+        AfterCommit.run(() -> cache().evict(id));
+    }
+
+    /**
+     * Drop every product, e.g. after a change to data embedded in all responses such as category names
+     */
+    public void clearAfterCommit() {
+        cache().clear();
+        AfterCommit.run(() -> cache().clear());
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+}
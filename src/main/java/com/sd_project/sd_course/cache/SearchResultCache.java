@@ -0,0 +1,105 @@
+package com.sd_project.sd_course.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Product ids of recent search result pages, keyed by the normalized filters and page.
+ *
+ * Only ids are stored; callers hydrate them through {@link ProductCache}. Every entry is stamped with
+ * the catalog (products table) version it was computed at and is ignored once any product has been
+ * written since. Entries expire after the TTL and the cache is bounded to the configured size; reads
+ * and writes do not take a shared lock.
+ */
+@Component
+public class SearchResultCache {
+
+    /**
+     * Normalized search: keyword trimmed, lower-cased and with runs of whitespace collapsed;
+     * prices without trailing zeros
+     */
+    public record SearchKey(String kind, String keyword, Long categoryId, String minPrice, String maxPrice,
+                            Boolean inStock, long offset, int size, String sort, boolean withTotal) {
+
+        public static SearchKey of(String kind, String keyword, Long categoryId,
+                                   BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                   Pageable pageable, boolean withTotal) {
+            return new SearchKey(kind, normalize(keyword), categoryId, normalize(minPrice), normalize(maxPrice),
+                    inStock, pageable.getOffset(), pageable.getPageSize(), pageable.getSort().toString(), withTotal);
+        }
+
+        private static String normalize(String keyword) {
+            if (keyword == null || keyword.isBlank()) {
+                return null;
+            }
+            return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+
+        private static String normalize(BigDecimal price) {
+            return price == null ? null : price.stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /**
+     * One page of results; total is null unless the search counted it
+     */
+    public record SearchResult(List<Long> ids, boolean hasNext, Long total) {
+    }
+
+    private record Entry(long version, SearchResult result) {
+    }
+
+    private final TableVersions tableVersions;
+    private final Cache<SearchKey, Entry> entries;
+
+    @Autowired
+    public SearchResultCache(TableVersions tableVersions,
+                             @Value("${app.search-cache.ttl-ms:30000}") long ttlMs,
+                             @Value("${app.search-cache.max-entries:2000}") int maxEntries) {
+        this(tableVersions, ttlMs, maxEntries, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    SearchResultCache(TableVersions tableVersions, long ttlMs, int maxEntries, Ticker ticker, Executor maintenance) {
+        this.tableVersions = tableVersions;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .ticker(ticker)
+                .executor(maintenance)
+                .build();
+    }
+
+    /**
+     * Current catalog version; read it before running the search whose result is stored with {@link #put}
+     */
+    public long version() {
+        return tableVersions.current(ProductCache.PRODUCTS_TABLE);
+    }
+
+    public SearchResult get(SearchKey key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || !tableVersions.isCurrent(ProductCache.PRODUCTS_TABLE, entry.version())) {
+            return null;
+        }
+        return entry.result();
+    }
+
+    public void put(SearchKey key, long versionBeforeSearch, SearchResult result) {
+        if (!tableVersions.canStore(ProductCache.PRODUCTS_TABLE, versionBeforeSearch)) {
+            return;
+        }
+        entries.put(key, new Entry(versionBeforeSearch, result));
+    }
+}
@@ -0,0 +1,121 @@
+package com.sd_project.sd_course.cache;
+
+import com.sd_project.sd_course.datasource.ConsistencyContext;
+import com.sd_project.sd_course.datasource.ReplicaSet;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-table write counters for stamping cached query results.
+ *
+ * A table's version is bumped after every committed transaction that wrote to it, so a cached value
+ * stamped with an older version is stale. Versions are local to this node; caches that must also see
+ * writes made on other nodes bound their entries with a TTL.
+ *
+ * A value read from a replica is only as new as the replica. A version to stamp a read with is only handed out
+ * while every replica in rotation has replayed this node's writes, and never to a request that must read its
+ * own writes; otherwise the stamp is {@link #UNCACHEABLE} and the value is not stored. Such a request is not
+ * served cached values either, as they may predate a write it made through another node.
+ */
+@Component
+public class TableVersions {
+
+    /**
+     * Stamp of a value that must not be cached; never equal to a table's version
+     */
+    public static final long UNCACHEABLE = -1;
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final ReplicaSet replicaSet;
+
+    /**
+     * The replica set is absent in slices that only start JPA, which then read and write one database
+     */
+    @Autowired
+    public TableVersions(ObjectProvider<ReplicaSet> replicaSet) {
+        this(replicaSet.getIfAvailable());
+    }
+
+    public TableVersions(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+    }
+
+    /**
+     * For a database without replicas
+     */
+    public TableVersions() {
+        this((ReplicaSet) null);
+    }
+
+    /**
+     * Version to stamp on a value read now; read it before running the query the value comes from
+     */
+    public long current(String table) {
+        if (!isCacheReadable() || (replicaSet != null && !replicaSet.hasReplayedLocalWrites())) {
+            return UNCACHEABLE;
+        }
+        return counter(table).get();
+    }
+
+    /**
+     * Whether a cached value stamped with this version may be served to the current request
+     */
+    public boolean isCurrent(String table, long version) {
+        return isCacheReadable() && counter(table).get() == version;
+    }
+
+    /**
+     * Whether a value stamped before it was read may be stored: nothing has been written to the table since
+     * and the value cannot have come from a replica behind this node's writes
+     */
+    public boolean canStore(String table, long versionBeforeRead) {
+        return versionBeforeRead != UNCACHEABLE && current(table) == versionBeforeRead;
+    }
+
+    /**
+     * False for a request carrying a consistency token, whose reads must see its own writes
+     */
+    public boolean isCacheReadable() {
+        return ConsistencyContext.getRequiredLsn() == 0;
+    }
+
+    /**
+     * Bump the table's version once the current transaction commits, or right away outside a transaction
+     */
+    public void bumpAfterCommit(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter(table).incrementAndGet();
+            return;
+        }
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(synchronization -> synchronization instanceof TableBump bump && bump.table.equals(table));
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new TableBump(table));
+        }
+    }
+
+    private AtomicLong counter(String table) {
+        return versions.computeIfAbsent(table, key -> new AtomicLong());
+    }
+
+    private final class TableBump implements TransactionSynchronization {
+
+        private final String table;
+
+        private TableBump(String table) {
+            this.table = table;
+        }
+
+        @Override
+        public void afterCommit() {
+            counter(table).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sd_project.sd_course.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.Table;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener that bumps the entity's table version in {@link TableVersions} on every write.
+ * Hibernate obtains it from the Spring context, so it can be added with @EntityListeners.
+ */
+@Component
+@RequiredArgsConstructor
+public class TableWriteListener {
+
+    private final TableVersions tableVersions;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        Table table = entity.getClass().getAnnotation(Table.class);
+        tableVersions.bumpAfterCommit(table != null ? table.name() : entity.getClass().getSimpleName());
+    }
+}
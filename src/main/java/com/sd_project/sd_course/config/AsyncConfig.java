@@ -0,0 +1,12 @@
+package com.sd_project.sd_course.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+    // @Async methods run on Boot's applicationTaskExecutor, which uses virtual threads
+    // when spring.threads.virtual.enabled=true. BCrypt deliberately stays on the bounded
+    // platform-thread loginExecutor so password hashing cannot occupy every carrier thread.
+}
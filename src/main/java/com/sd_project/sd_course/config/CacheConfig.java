@@ -1,22 +1,34 @@
 package com.sd_project.sd_course.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    /**
+     * Bounded caches whose entries expire after a fixed time, so stale and rarely used keys are dropped
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
+    public CacheManager cacheManager(@Value("${app.cache.max-entries:10000}") long maxEntries,
+                                     @Value("${app.cache.ttl-ms:600000}") long ttlMs) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
                 "categories",
-                "products", 
+                "products",
                 "users",
                 "productsByCategory"
         );
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs)));
+        return cacheManager;
     }
-} 
\ No newline at end of file
+}
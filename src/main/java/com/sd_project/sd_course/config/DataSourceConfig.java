@@ -0,0 +1,153 @@
+package com.sd_project.sd_course.config;
+
+import com.sd_project.sd_course.datasource.ReplicaSet;
+import com.sd_project.sd_course.datasource.ReplicationProperties;
+import com.sd_project.sd_course.datasource.WorkloadRoutingDataSource;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.sharding.ShardSet;
+import com.sd_project.sd_course.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One Hikari pool per workload class (bulkheads), so a slow admin transaction or a login storm
+ * cannot take the connections storefront reads need. All pools use spring.datasource.* for the
+ * connection itself; sizes and timeouts come from app.datasource.pools.&lt;workload&gt;.*.
+ * Each pool is named after its workload, which tags its hikaricp.* metrics. Flyway migrates through
+ * the write pool.
+ *
+ * Optional streaming replicas (app.datasource.replication.replicas) take over catalog reads;
+ * their pools are sized from app.datasource.pools.replica.*.
+ *
+ * Additional product shards (app.datasource.sharding.shards) get one pool each, sized from
+ * app.datasource.pools.shard.*; the main database is shard 0.
+ */
+@Configuration
+@EnableConfigurationProperties({ReplicationProperties.class, ShardingProperties.class})
+public class DataSourceConfig {
+
+    private static final String REPLICA_POOL_PREFIX = "app.datasource.pools.replica";
+    private static final String SHARD_POOL_PREFIX = "app.datasource.pools.shard";
+
+    @Bean
+    @ConfigurationProperties("app.datasource.pools.catalog")
+    public HikariDataSource catalogDataSource(DataSourceProperties properties) {
+        return createPool(properties, "catalog");
+    }
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("app.datasource.pools.write")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return createPool(properties, "write");
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.pools.auth")
+    public HikariDataSource authDataSource(DataSourceProperties properties) {
+        return createPool(properties, "auth");
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(ReplicationProperties replication,
+                                 DataSourceProperties properties,
+                                 Environment environment,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Qualifier("catalogDataSource") DataSource catalogDataSource) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicationProperties.Replica replica : replication.getReplicas()) {
+            if (!StringUtils.hasText(replica.getUrl())) {
+                continue;
+            }
+            HikariDataSource dataSource = createExternalPool(properties, environment, meterRegistry,
+                    replica.getUrl(), replica.getUsername(), replica.getPassword(),
+                    REPLICA_POOL_PREFIX, "replica-" + replicas.size());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        return new ReplicaSet(replicas, catalogDataSource, replication.getMaxLagBytes());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardSet shardSet(ShardingProperties sharding,
+                             DataSourceProperties properties,
+                             Environment environment,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (ShardingProperties.Shard shard : sharding.getShards()) {
+            if (!StringUtils.hasText(shard.getUrl())) {
+                continue;
+            }
+            shards.add(createExternalPool(properties, environment, meterRegistry,
+                    shard.getUrl(), shard.getUsername(), shard.getPassword(),
+                    SHARD_POOL_PREFIX, "shard-" + (shards.size() + 1)));
+        }
+        return new ShardSet(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("catalogDataSource") DataSource catalogDataSource,
+                                 @Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("authDataSource") DataSource authDataSource,
+                                 ReplicaSet replicaSet,
+                                 ShardSet shardSet) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(replicaSet, shardSet);
+        routing.setTargetDataSources(Map.of(
+                WorkloadType.CATALOG, catalogDataSource,
+                WorkloadType.WRITE, writeDataSource,
+                WorkloadType.AUTH, authDataSource
+        ));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+
+    private static HikariDataSource createExternalPool(DataSourceProperties properties,
+                                                       Environment environment,
+                                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                                       String url, String username, String password,
+                                                       String poolPrefix, String name) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username != null ? username : properties.determineUsername())
+                .password(password != null ? password : properties.determinePassword())
+                .build();
+        Binder.get(environment).bind(poolPrefix, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+}
@@ -0,0 +1,18 @@
+package com.sd_project.sd_course.config;
+
+import com.sd_project.sd_course.dto.response.FieldsFilter;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Write responses annotated with the fields filter in full unless a request selects fields
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldsFilterCustomizer() {
+        return builder -> builder.filters(FieldsFilter.all());
+    }
+}
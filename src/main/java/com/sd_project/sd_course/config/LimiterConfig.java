@@ -0,0 +1,12 @@
+package com.sd_project.sd_course.config;
+
+import com.sd_project.sd_course.limiter.ConcurrencyLimitProperties;
+import com.sd_project.sd_course.limiter.RateLimitProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, ConcurrencyLimitProperties.class})
+public class LimiterConfig {
+    // Binds app.rate-limit.* and app.concurrency-limit.* for the limiter filters
+}
@@ -0,0 +1,26 @@
+package com.sd_project.sd_course.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class LoginExecutorConfig {
+
+    /**
+     * Dedicated pool for password verification so that BCrypt cost is capped at a fixed number of cores.
+     * A full queue rejects immediately instead of piling login requests onto request threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor(@Value("${app.auth.login.threads:2}") int threads,
+                                                @Value("${app.auth.login.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,124 @@
+package com.sd_project.sd_course.config;
+
+import com.sd_project.sd_course.datasource.ReactiveRoutingConnectionFactory;
+import com.sd_project.sd_course.datasource.ReplicaSet;
+import com.sd_project.sd_course.datasource.ReplicationProperties;
+import com.sd_project.sd_course.reactive.ReactiveProperties;
+import com.sd_project.sd_course.sharding.ReactiveShardSet;
+import com.sd_project.sd_course.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariConfig;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * R2DBC pools for the reactive read API, laid out like the JDBC pools of {@link DataSourceConfig}.
+ *
+ * The main database gets a catalog pool sized from app.datasource.pools.catalog.*, and its reads go to the
+ * replicas of app.datasource.replication.replicas (pools.replica.*) whenever the {@link ReplicaSet} health
+ * checks allow. Additional shards get one pool each, sized from pools.shard.*. The R2DBC url is derived from
+ * the JDBC one, with the same credentials, and shards are numbered the same way, so ids route to the same
+ * shard. The sizes are the same keys Hikari reads: maximum-pool-size, minimum-idle, connection-timeout,
+ * idle-timeout and max-lifetime.
+ */
+@Configuration
+@EnableConfigurationProperties(ReactiveProperties.class)
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveConfig {
+
+    private static final String JDBC_PREFIX = "jdbc:";
+    private static final String CATALOG_POOL_PREFIX = "app.datasource.pools.catalog";
+    private static final String REPLICA_POOL_PREFIX = "app.datasource.pools.replica";
+    private static final String SHARD_POOL_PREFIX = "app.datasource.pools.shard";
+
+    @Bean(destroyMethod = "close")
+    public ReactiveShardSet reactiveShardSet(DataSourceProperties properties,
+                                             ReplicationProperties replication,
+                                             ShardingProperties sharding,
+                                             ReplicaSet replicaSet,
+                                             Environment environment) {
+        List<ConnectionPool> pools = new ArrayList<>();
+        ConnectionPool catalog = createPool(environment, CATALOG_POOL_PREFIX, "reactive-catalog",
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+        pools.add(catalog);
+
+        // Skips blank urls exactly as DataSourceConfig does, so positions match the replica set's
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (ReplicationProperties.Replica replica : replication.getReplicas()) {
+            if (!StringUtils.hasText(replica.getUrl())) {
+                continue;
+            }
+            replicas.add(createPool(environment, REPLICA_POOL_PREFIX, "reactive-replica-" + replicas.size(),
+                    replica.getUrl(),
+                    replica.getUsername() != null ? replica.getUsername() : properties.determineUsername(),
+                    replica.getPassword() != null ? replica.getPassword() : properties.determinePassword()));
+        }
+        pools.addAll(replicas);
+
+        List<ReactiveRoutingConnectionFactory> shards = new ArrayList<>();
+        shards.add(new ReactiveRoutingConnectionFactory(catalog, replicas, replicaSet));
+        for (ShardingProperties.Shard shard : sharding.getShards()) {
+            if (!StringUtils.hasText(shard.getUrl())) {
+                continue;
+            }
+            ConnectionPool pool = createPool(environment, SHARD_POOL_PREFIX, "reactive-shard-" + shards.size(),
+                    shard.getUrl(),
+                    StringUtils.hasText(shard.getUsername()) ? shard.getUsername() : properties.determineUsername(),
+                    StringUtils.hasText(shard.getPassword()) ? shard.getPassword() : properties.determinePassword());
+            pools.add(pool);
+            shards.add(new ReactiveRoutingConnectionFactory(pool, List.of(), replicaSet));
+        }
+        return new ReactiveShardSet(shards, pools);
+    }
+
+    private static ConnectionPool createPool(Environment environment, String poolPrefix, String name,
+                                             String jdbcUrl, String username, String password) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(toR2dbcUrl(jdbcUrl)).mutate();
+        if (StringUtils.hasText(username)) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+
+        HikariConfig sizing = Binder.get(environment).bind(poolPrefix, Bindable.ofInstance(new HikariConfig()))
+                .orElseGet(HikariConfig::new);
+        int maxSize = sizing.getMaximumPoolSize() > 0 ? sizing.getMaximumPoolSize() : 10;
+        int minIdle = sizing.getMinimumIdle() >= 0 ? Math.min(sizing.getMinimumIdle(), maxSize) : maxSize;
+        ConnectionPoolConfiguration.Builder pool = ConnectionPoolConfiguration.builder(
+                        ConnectionFactories.get(options.build()))
+                .name(name)
+                .initialSize(minIdle)
+                .minIdle(minIdle)
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(sizing.getConnectionTimeout()));
+        if (sizing.getIdleTimeout() > 0) {
+            pool.maxIdleTime(Duration.ofMillis(sizing.getIdleTimeout()));
+        }
+        if (sizing.getMaxLifetime() > 0) {
+            pool.maxLifeTime(Duration.ofMillis(sizing.getMaxLifetime()));
+        }
+        return new ConnectionPool(pool.build());
+    }
+
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith(JDBC_PREFIX)) {
+            throw new IllegalArgumentException("Expected a JDBC url: " + jdbcUrl);
+        }
+        return "r2dbc:" + jdbcUrl.substring(JDBC_PREFIX.length());
+    }
+}
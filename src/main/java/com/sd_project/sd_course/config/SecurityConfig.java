@@ -1,8 +1,12 @@
 package com.sd_project.sd_course.config;
 
+import com.sd_project.sd_course.limiter.ConcurrencyLimitFilter;
+import com.sd_project.sd_course.limiter.RateLimitFilter;
+import com.sd_project.sd_course.security.ApiKeyAuthenticationFilter;
 import com.sd_project.sd_course.security.JwtAuthenticationEntryPoint;
 import com.sd_project.sd_course.security.JwtAuthenticationFilter;
 import com.sd_project.sd_course.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +22,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
@@ -29,6 +34,9 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ApiKeyAuthenticationFilter apiKeyAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -54,6 +62,10 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Async dispatches (e.g. the end of a product stream) continue a request that was
+                        // already authorized, and the token filters do not run again for them
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Only authentication endpoints are public
                         .requestMatchers("/api/auth/**").permitAll()
                         
@@ -69,10 +81,17 @@ public class SecurityConfig {
                         
                         // All product endpoints require authentication
                         .requestMatchers(HttpMethod.GET, "/api/products/**").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/products/batch").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/products").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
                         
+                        // Change feed of product and category changes
+                        .requestMatchers(HttpMethod.GET, "/api/feed").authenticated()
+                        
+                        // API key management is admin only
+                        .requestMatchers("/api/api-keys/**").hasRole("ADMIN")
+                        
                         // User management endpoints
                         .requestMatchers("/api/users/**").authenticated()
                         
@@ -82,6 +101,10 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(apiKeyAuthenticationFilter, JwtAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+        // After authorization, so requests that will get 401 or 403 never take a concurrency permit
+        http.addFilterAfter(concurrencyLimitFilter, AuthorizationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,83 @@
+package com.sd_project.sd_course.controller;
+
+import com.sd_project.sd_course.dto.request.ApiKeyCreateRequest;
+import com.sd_project.sd_course.dto.response.ApiKeyResponse;
+import com.sd_project.sd_course.dto.response.MessageResponse;
+import com.sd_project.sd_course.service.ApiKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/api-keys")
+@RequiredArgsConstructor
+@Tag(name = "API Keys", description = "API key management for service accounts (Admin only)")
+@SecurityRequirement(name = "bearerAuth")
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+
+    @Operation(summary = "List API keys", description = "List all issued API keys without their secrets (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "API keys retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ApiKeyResponse>> getAllApiKeys() {
+        log.info("GET /api/api-keys");
+        return ResponseEntity.ok(apiKeyService.getAllApiKeys());
+    }
+
+    @Operation(summary = "Create API key",
+            description = "Issue an API key for a user; the key is only returned in this response (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "API key created successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiKeyResponse> createApiKey(
+            @Parameter(description = "API key creation request", required = true)
+            @Valid @RequestBody ApiKeyCreateRequest request) {
+
+        log.info("POST /api/api-keys - Creating API key '{}' for user {}", request.getName(), request.getUserId());
+        ApiKeyResponse apiKey = apiKeyService.createApiKey(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(apiKey);
+    }
+
+    @Operation(summary = "Revoke API key", description = "Revoke an API key (Admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "API key revoked successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required"),
+            @ApiResponse(responseCode = "404", description = "API key not found")
+    })
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> revokeApiKey(
+            @Parameter(description = "API key ID", required = true)
+            @PathVariable Long id) {
+
+        log.info("DELETE /api/api-keys/{}", id);
+        apiKeyService.revokeApiKey(id);
+        return ResponseEntity.ok(new MessageResponse("API key revoked successfully"));
+    }
+}
@@ -7,6 +7,7 @@ import com.sd_project.sd_course.dto.response.MessageResponse;
 import com.sd_project.sd_course.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -29,8 +30,9 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Authenticate user", description = "Authenticate user and return JWT tokens")
-    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        JwtResponse response = authService.authenticateUser(loginRequest);
+    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                        HttpServletRequest request) {
+        JwtResponse response = authService.authenticateUser(loginRequest, request.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -40,4 +42,11 @@ public class AuthController {
         JwtResponse response = authService.refreshToken(refreshToken);
         return ResponseEntity.ok(response);
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/logout")
+    @Operation(summary = "Revoke refresh token", description = "Revoke a refresh token so it can no longer be used")
+    public ResponseEntity<MessageResponse> logout(@RequestParam String refreshToken) {
+        MessageResponse response = authService.revokeRefreshToken(refreshToken);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -2,6 +2,7 @@ package com.sd_project.sd_course.controller;
 
 import com.sd_project.sd_course.dto.request.CategoryCreateRequest;
 import com.sd_project.sd_course.dto.request.CategoryUpdateRequest;
+import com.sd_project.sd_course.dto.request.FieldSelection;
 import com.sd_project.sd_course.dto.response.CategoryResponse;
 import com.sd_project.sd_course.dto.response.MessageResponse;
 import com.sd_project.sd_course.service.CategoryService;
@@ -14,9 +15,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -50,18 +51,24 @@ public class CategoryController {
             @Parameter(description = "Sort by field")
             @RequestParam(required = false, defaultValue = "name") String sortBy,
             @Parameter(description = "Sort direction")
-            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
+            @RequestParam(required = false, defaultValue = "asc") String sortDir,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name; only their columns are selected")
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/categories - paginated: {}, page: {}, size: {}", paginated, page, size);
         
+        FieldSelection selection = FieldSelection.forCategories(fields);
         if (paginated) {
             Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
             Pageable pageable = PageRequest.of(page, size, sort);
-            Page<CategoryResponse> categoryPage = categoryService.getAllCategories(pageable);
+            Slice<CategoryResponse> categoryPage = categoryService.getAllCategories(pageable, selection);
             return ResponseEntity.ok(categoryPage.getContent());
-        } else {
+        } else if (selection.isAll()) {
             List<CategoryResponse> categories = categoryService.getAllCategories();
             return ResponseEntity.ok(categories);
+        } else {
+            List<CategoryResponse> categories = categoryService.getAllCategories(selection);
+            return ResponseEntity.ok(categories);
         }
     }
 
@@ -74,10 +81,12 @@ public class CategoryController {
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategoryById(
             @Parameter(description = "Category ID", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name; only their columns are selected")
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/categories/{}", id);
-        CategoryResponse category = categoryService.getCategoryById(id);
+        CategoryResponse category = categoryService.getCategoryById(id, FieldSelection.forCategories(fields));
         return ResponseEntity.ok(category);
     }
 
@@ -90,10 +99,13 @@ public class CategoryController {
     @GetMapping("/search")
     public ResponseEntity<List<CategoryResponse>> searchCategories(
             @Parameter(description = "Search keyword", required = true)
-            @RequestParam String keyword) {
+            @RequestParam String keyword,
+            @Parameter(description = "Comma-separated fields to return, e.g. id,name; only their columns are selected")
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/categories/search?keyword={}", keyword);
-        List<CategoryResponse> categories = categoryService.searchCategories(keyword);
+        List<CategoryResponse> categories = categoryService.searchCategories(keyword,
+                FieldSelection.forCategories(fields));
         return ResponseEntity.ok(categories);
     }
 
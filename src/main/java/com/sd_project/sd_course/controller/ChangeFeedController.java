@@ -0,0 +1,69 @@
+package com.sd_project.sd_course.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/feed")
+@RequiredArgsConstructor
+@Tag(name = "Change Feed", description = "Committed product and category changes for downstream consumers")
+public class ChangeFeedController {
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String HAS_MORE_HEADER = "X-Has-More";
+
+    private final ChangeFeedService changeFeedService;
+    private final ObjectMapper objectMapper;
+
+    @Operation(summary = "Read the change feed",
+               description = "Product and category changes after the cursor in the order they were published, one "
+                       + "JSON object per line. Each line carries the cursor that resumes after it; X-Next-Cursor "
+                       + "resumes after the page and X-Has-More says whether to ask again right away. Events can be "
+                       + "delivered more than once, so consumers should apply them idempotently")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Events retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+            @ApiResponse(responseCode = "410", description = "Cursor too old; rebuild and replay without a cursor"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getEvents(
+            @Parameter(description = "Cursor from the previous page; omit to replay every retained event")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of events")
+            @RequestParam(required = false, defaultValue = "500") int limit) {
+
+        log.info("GET /api/feed - cursor: {}, limit: {}", cursor, limit);
+        // Read before the response starts, so that a bad cursor fails with a status code
+        ChangeFeedResponse page = changeFeedService.getEvents(cursor, limit);
+        StreamingResponseBody body = out -> {
+            for (ChangeFeedEventResponse event : page.getEvents()) {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                .header(HAS_MORE_HEADER, String.valueOf(page.isHasMore()))
+                .body(body);
+    }
+}
@@ -0,0 +1,37 @@
+package com.sd_project.sd_course.controller;
+
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.dto.response.FieldsFilter;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.List;
+
+/**
+ * Writes only the fields named in the fields= parameter of product and category responses.
+ * The controllers have already validated the names.
+ */
+@ControllerAdvice(assignableTypes = {ProductController.class, CategoryController.class})
+public class FieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    private static final String FIELDS_PARAMETER = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        List<String> fields = FieldSelection.names(servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER));
+        if (!fields.isEmpty()) {
+            bodyContainer.setFilters(FieldsFilter.only(fields));
+        }
+    }
+}
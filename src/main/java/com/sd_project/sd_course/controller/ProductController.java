@@ -1,10 +1,21 @@
 package com.sd_project.sd_course.controller;
 
+import com.sd_project.sd_course.dto.request.CountMode;
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.dto.request.ProductBatchRequest;
 import com.sd_project.sd_course.dto.request.ProductCreateRequest;
 import com.sd_project.sd_course.dto.request.ProductUpdateRequest;
 import com.sd_project.sd_course.dto.response.MessageResponse;
+import com.sd_project.sd_course.dto.response.ProductBatchItemResponse;
+import com.sd_project.sd_course.dto.response.ProductDeltaItemResponse;
+import com.sd_project.sd_course.dto.response.ProductDeltaResponse;
 import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.dto.response.SuggestionResponse;
 import com.sd_project.sd_course.service.ProductService;
+import com.sd_project.sd_course.service.ProductSyncService;
+import com.sd_project.sd_course.stream.ProductChangeBroadcaster;
+import com.sd_project.sd_course.suggest.SuggestionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,17 +25,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -33,7 +49,18 @@ import java.util.List;
 @Tag(name = "Products", description = "Product management operations")
 public class ProductController {
 
+    private static final String HAS_NEXT_HEADER = "X-Has-Next";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TOTAL_ESTIMATED_HEADER = "X-Total-Count-Estimated";
+    private static final String SYNC_TOKEN_HEADER = "X-Sync-Token";
+    private static final String FIELDS_DESCRIPTION = "Comma-separated fields to return, e.g. id,name,price,stockStatus; "
+            + "list endpoints then select only the matching columns";
+
     private final ProductService productService;
+    private final SuggestionService suggestionService;
+    private final ProductChangeBroadcaster productChangeBroadcaster;
+    private final ProductSyncService productSyncService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Get all products", description = "Retrieve all products with pagination")
     @ApiResponses(value = {
@@ -49,14 +76,19 @@ public class ProductController {
             @Parameter(description = "Sort by field")
             @RequestParam(required = false, defaultValue = "name") String sortBy,
             @Parameter(description = "Sort direction")
-            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
+            @RequestParam(required = false, defaultValue = "asc") String sortDir,
+            @Parameter(description = "Total to report in X-Total-Count: none, estimate or exact")
+            @RequestParam(required = false, defaultValue = "none") String total,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products - page: {}, size: {}, sortBy: {}, sortDir: {}", page, size, sortBy, sortDir);
         
         Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponse> productPage = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(productPage.getContent());
+        CountMode countMode = CountMode.from(total);
+        Slice<ProductResponse> products = productService.getAllProducts(pageable, FieldSelection.forProducts(fields));
+        return listResponse(products, countMode, productService.countAllProducts(countMode));
     }
 
     @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID")
@@ -68,13 +100,56 @@ public class ProductController {
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(
             @Parameter(description = "Product ID", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products/{}", id);
+        // Products come whole from the product cache; the selection only trims the JSON
+        FieldSelection.validateForProducts(fields);
         ProductResponse product = productService.getProductById(id);
         return ResponseEntity.ok(product);
     }
 
+    @Operation(summary = "Get products by IDs",
+               description = "Retrieve several products in one request; results follow the order of the IDs")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved; missing IDs are marked as not found"),
+            @ApiResponse(responseCode = "400", description = "No IDs or too many IDs"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductBatchItemResponse>> getProductsByIds(
+            @Parameter(description = "Comma-separated product IDs", required = true)
+            @RequestParam List<Long> ids,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
+
+        log.info("GET /api/products/batch - {} ids", ids.size());
+        // Products come whole from the product cache; the selection only trims the JSON
+        FieldSelection.validateForProducts(fields);
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    @Operation(summary = "Get products by IDs (request body)",
+               description = "Same as GET /api/products/batch, for ID lists too long for a URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved; missing IDs are marked as not found"),
+            @ApiResponse(responseCode = "400", description = "No IDs or too many IDs"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductBatchItemResponse>> getProductsByIds(
+            @Valid @RequestBody ProductBatchRequest request,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
+
+        log.info("POST /api/products/batch - {} ids", request.getIds().size());
+        // Products come whole from the product cache; the selection only trims the JSON
+        FieldSelection.validateForProducts(fields);
+        return ResponseEntity.ok(productService.getProductsByIds(request.getIds()));
+    }
+
     @Operation(summary = "Search products", description = "Search products by name or description")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully"),
@@ -88,13 +163,99 @@ public class ProductController {
             @Parameter(description = "Page number (0-based)")
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Page size")
-            @RequestParam(required = false, defaultValue = "20") int size) {
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products/search?keyword={}, page: {}, size: {}", keyword, page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> productPage = productService.searchProducts(keyword, pageable);
-        return ResponseEntity.ok(productPage.getContent());
+        Slice<ProductResponse> products = productService.searchProducts(keyword, pageable,
+                FieldSelection.forProducts(fields));
+        return listResponse(products, CountMode.NONE, null);
+    }
+
+    @Operation(summary = "Suggest products and categories",
+               description = "Most viewed product and category names with a word starting with the prefix")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @Parameter(description = "Prefix typed so far", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions")
+            @RequestParam(required = false, defaultValue = "10") int limit) {
+
+        log.debug("GET /api/products/suggest?prefix={}, limit: {}", prefix, limit);
+        return ResponseEntity.ok(suggestionService.suggest(prefix, limit));
+    }
+
+    @Operation(summary = "Stream product changes",
+               description = "Server-Sent Events stream of price, stock and other changes to products as they are "
+                       + "committed, optionally only for some products or categories")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "503", description = "Too many open streams")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @Parameter(description = "Comma-separated product IDs to follow")
+            @RequestParam(required = false) List<Long> ids,
+            @Parameter(description = "Comma-separated category IDs to follow")
+            @RequestParam(required = false) List<Long> categoryIds) {
+
+        log.debug("GET /api/products/stream - ids: {}, categoryIds: {}", ids, categoryIds);
+        return productChangeBroadcaster.subscribe(
+                ids != null ? Set.copyOf(ids) : Set.of(),
+                categoryIds != null ? Set.copyOf(categoryIds) : Set.of());
+    }
+
+    @Operation(summary = "Get product changes since a sync token",
+               description = "Products created, updated or deleted after the since token, oldest first. Without a "
+                       + "token the whole catalog is returned. With Accept: application/x-ndjson every change up to "
+                       + "now is streamed, one JSON object per line, and X-Sync-Token holds the token for next time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid token or limit"),
+            @ApiResponse(responseCode = "410", description = "Token too old; sync again without a token"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<?> getProductChanges(
+            @Parameter(description = "Sync token from the previous sync; omit for a full download")
+            @RequestParam(required = false) String since,
+            @Parameter(description = "Maximum number of changes per page")
+            @RequestParam(required = false, defaultValue = "500") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        log.info("GET /api/products/changes - since: {}, limit: {}", since, limit);
+        String until = productSyncService.currentToken();
+        ProductDeltaResponse first = productSyncService.getChanges(since, until, limit);
+        if (!acceptsNdjson(accept)) {
+            return ResponseEntity.ok(first);
+        }
+
+        // The first page is read up front so that a bad token fails with a status code, not a cut-off stream
+        StreamingResponseBody body = out -> {
+            ProductDeltaResponse page = first;
+            while (true) {
+                for (ProductDeltaItemResponse change : page.getChanges()) {
+                    out.write(objectMapper.writeValueAsBytes(change));
+                    out.write('\n');
+                }
+                out.flush();
+                if (!page.isHasMore()) {
+                    break;
+                }
+                page = productSyncService.getChanges(page.getNextToken(), until, limit);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(SYNC_TOKEN_HEADER, until)
+                .body(body);
     }
 
     @Operation(summary = "Advanced product search", description = "Search products with multiple filters")
@@ -104,7 +265,7 @@ public class ProductController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/search/advanced")
-    public ResponseEntity<Page<ProductResponse>> advancedSearchProducts(
+    public ResponseEntity<Slice<ProductResponse>> advancedSearchProducts(
             @Parameter(description = "Search keyword for name/description")
             @RequestParam(required = false) String keyword,
             @Parameter(description = "Category ID filter")
@@ -119,10 +280,14 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Page size")
             @RequestParam(required = false, defaultValue = "20") int size,
-            @Parameter(description = "Sort by field")
+            @Parameter(description = "Sort by field (id, name, price or createdAt)")
             @RequestParam(required = false, defaultValue = "name") String sortBy,
             @Parameter(description = "Sort direction")
-            @RequestParam(required = false, defaultValue = "asc") String sortDir) {
+            @RequestParam(required = false, defaultValue = "asc") String sortDir,
+            @Parameter(description = "Count matching products and include totals in the response")
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products/search/advanced - keyword: {}, categoryId: {}, minPrice: {}, maxPrice: {}, inStock: {}", 
                 keyword, categoryId, minPrice, maxPrice, inStock);
@@ -130,8 +295,9 @@ public class ProductController {
         Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<ProductResponse> productPage = productService.advancedSearchProducts(
-                keyword, categoryId, minPrice, maxPrice, inStock, pageable);
+        Slice<ProductResponse> productPage = productService.advancedSearchProducts(
+                keyword, categoryId, minPrice, maxPrice, inStock, pageable, includeTotal,
+                FieldSelection.forProducts(fields));
         
         return ResponseEntity.ok(productPage);
     }
@@ -151,14 +317,21 @@ public class ProductController {
             @Parameter(description = "Page number (0-based)")
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Page size")
-            @RequestParam(required = false, defaultValue = "20") int size) {
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @Parameter(description = "Total to report in X-Total-Count: none, estimate or exact")
+            @RequestParam(required = false, defaultValue = "none") String total,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products/price-range?minPrice={}, maxPrice={}, page: {}, size: {}", 
                 minPrice, maxPrice, page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> productPage = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
-        return ResponseEntity.ok(productPage.getContent());
+        CountMode countMode = CountMode.from(total);
+        Slice<ProductResponse> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable,
+                FieldSelection.forProducts(fields));
+        return listResponse(products, countMode,
+                productService.countProductsByPriceRange(minPrice, maxPrice, countMode));
     }
 
     @Operation(summary = "Get products in stock", description = "Retrieve products that are currently in stock")
@@ -171,13 +344,18 @@ public class ProductController {
             @Parameter(description = "Page number (0-based)")
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Page size")
-            @RequestParam(required = false, defaultValue = "20") int size) {
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @Parameter(description = "Total to report in X-Total-Count: none, estimate or exact")
+            @RequestParam(required = false, defaultValue = "none") String total,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products/in-stock - page: {}, size: {}", page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> productPage = productService.getProductsInStock(pageable);
-        return ResponseEntity.ok(productPage.getContent());
+        CountMode countMode = CountMode.from(total);
+        Slice<ProductResponse> products = productService.getProductsInStock(pageable, FieldSelection.forProducts(fields));
+        return listResponse(products, countMode, productService.countProductsInStock(countMode));
     }
 
     @Operation(summary = "Get products by category", description = "Retrieve products from a specific category")
@@ -193,13 +371,19 @@ public class ProductController {
             @Parameter(description = "Page number (0-based)")
             @RequestParam(required = false, defaultValue = "0") int page,
             @Parameter(description = "Page size")
-            @RequestParam(required = false, defaultValue = "20") int size) {
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @Parameter(description = "Total to report in X-Total-Count: none, estimate or exact")
+            @RequestParam(required = false, defaultValue = "none") String total,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields) {
         
         log.info("GET /api/products/category/{} - page: {}, size: {}", categoryId, page, size);
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> productPage = productService.getProductsByCategory(categoryId, pageable);
-        return ResponseEntity.ok(productPage.getContent());
+        CountMode countMode = CountMode.from(total);
+        Slice<ProductResponse> products = productService.getProductsByCategory(categoryId, pageable,
+                FieldSelection.forProducts(fields));
+        return listResponse(products, countMode, productService.countProductsByCategory(categoryId, countMode));
     }
 
     @Operation(summary = "Create new product", description = "Create a new product (Admin only)")
@@ -288,4 +472,23 @@ public class ProductController {
         ProductResponse product = productService.updateStock(id, quantity);
         return ResponseEntity.ok(product);
     }
-} 
\ No newline at end of file
+
+    /**
+     * List body with paging in headers: X-Has-Next always, X-Total-Count when a total was requested
+     */
+    private static ResponseEntity<List<ProductResponse>> listResponse(Slice<ProductResponse> slice,
+                                                                      CountMode countMode, Long total) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HAS_NEXT_HEADER, String.valueOf(slice.hasNext()));
+        if (total != null) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(total));
+            response.header(TOTAL_ESTIMATED_HEADER, String.valueOf(countMode == CountMode.ESTIMATE));
+        }
+        return response.body(slice.getContent());
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+}
@@ -0,0 +1,129 @@
+package com.sd_project.sd_course.converter;
+
+import com.google.protobuf.Timestamp;
+import com.sd_project.sd_course.dto.response.CategoryResponse;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.proto.Category;
+import com.sd_project.sd_course.proto.CategoryInfo;
+import com.sd_project.sd_course.proto.CategoryList;
+import com.sd_project.sd_course.proto.Decimal;
+import com.sd_project.sd_course.proto.Product;
+import com.sd_project.sd_course.proto.ProductList;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Maps API responses to the protobuf messages in catalog.proto. Null response fields are left unset.
+ * Timestamps are interpreted in the server's time zone, as they are when stored.
+ */
+public final class ProtobufMessages {
+
+    private ProtobufMessages() {
+    }
+
+    public static Product toProduct(ProductResponse response) {
+        Product.Builder product = Product.newBuilder();
+        if (response.getId() != null) {
+            product.setId(response.getId());
+        }
+        if (response.getName() != null) {
+            product.setName(response.getName());
+        }
+        if (response.getDescription() != null) {
+            product.setDescription(response.getDescription());
+        }
+        if (response.getPrice() != null) {
+            product.setPrice(toDecimal(response.getPrice()));
+        }
+        if (response.getStockQuantity() != null) {
+            product.setStockQuantity(response.getStockQuantity());
+        }
+        if (response.getStockStatus() != null) {
+            product.setStockStatus(response.getStockStatus());
+        }
+        if (response.getCategory() != null) {
+            CategoryInfo.Builder category = CategoryInfo.newBuilder();
+            if (response.getCategory().getId() != null) {
+                category.setId(response.getCategory().getId());
+            }
+            if (response.getCategory().getName() != null) {
+                category.setName(response.getCategory().getName());
+            }
+            product.setCategory(category);
+        }
+        if (response.getCreatedAt() != null) {
+            product.setCreatedAt(toTimestamp(response.getCreatedAt()));
+        }
+        if (response.getUpdatedAt() != null) {
+            product.setUpdatedAt(toTimestamp(response.getUpdatedAt()));
+        }
+        return product.build();
+    }
+
+    public static Category toCategory(CategoryResponse response) {
+        Category.Builder category = Category.newBuilder();
+        if (response.getId() != null) {
+            category.setId(response.getId());
+        }
+        if (response.getName() != null) {
+            category.setName(response.getName());
+        }
+        if (response.getDescription() != null) {
+            category.setDescription(response.getDescription());
+        }
+        if (response.getProductCount() != null) {
+            category.setProductCount(response.getProductCount());
+        }
+        if (response.getCreatedAt() != null) {
+            category.setCreatedAt(toTimestamp(response.getCreatedAt()));
+        }
+        if (response.getUpdatedAt() != null) {
+            category.setUpdatedAt(toTimestamp(response.getUpdatedAt()));
+        }
+        return category.build();
+    }
+
+    public static ProductList toProductList(Iterable<?> products, Boolean hasNext, Long total) {
+        ProductList.Builder list = ProductList.newBuilder();
+        for (Object product : products) {
+            list.addProducts(toProduct((ProductResponse) product));
+        }
+        if (hasNext != null) {
+            list.setHasNext(hasNext);
+        }
+        if (total != null) {
+            list.setTotal(total);
+        }
+        return list.build();
+    }
+
+    public static CategoryList toCategoryList(Iterable<?> categories) {
+        CategoryList.Builder list = CategoryList.newBuilder();
+        for (Object category : categories) {
+            list.addCategories(toCategory((CategoryResponse) category));
+        }
+        return list.build();
+    }
+
+    public static Decimal toDecimal(BigDecimal value) {
+        return Decimal.newBuilder()
+                .setUnscaled(value.unscaledValue().longValueExact())
+                .setScale(value.scale())
+                .build();
+    }
+
+    public static BigDecimal fromDecimal(Decimal value) {
+        return BigDecimal.valueOf(value.getUnscaled(), value.getScale());
+    }
+
+    public static Timestamp toTimestamp(LocalDateTime value) {
+        Instant instant = value.atZone(ZoneId.systemDefault()).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+    }
+}
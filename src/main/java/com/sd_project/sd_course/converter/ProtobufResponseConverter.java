@@ -0,0 +1,111 @@
+package com.sd_project.sd_course.converter;
+
+import com.google.protobuf.Message;
+import com.sd_project.sd_course.dto.response.CategoryResponse;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Writes product and category responses, and lists or slices of them, as the protobuf messages in
+ * catalog.proto. Write-only: request bodies stay JSON.
+ */
+public class ProtobufResponseConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ProtobufResponseConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProductResponse.class.isAssignableFrom(clazz) || CategoryResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && elementType(type != null ? type : clazz) != null;
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        toMessage(body, elementType(type != null ? type : body.getClass())).writeTo(outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    private static Message toMessage(Object body, Class<?> elementType) {
+        if (body instanceof ProductResponse product) {
+            return ProtobufMessages.toProduct(product);
+        }
+        if (body instanceof CategoryResponse category) {
+            return ProtobufMessages.toCategory(category);
+        }
+        if (body instanceof Slice<?> slice && elementType == ProductResponse.class) {
+            Long total = slice instanceof Page<?> page ? page.getTotalElements() : null;
+            return ProtobufMessages.toProductList(slice.getContent(), slice.hasNext(), total);
+        }
+        if (body instanceof Collection<?> products && elementType == ProductResponse.class) {
+            return ProtobufMessages.toProductList(products, null, null);
+        }
+        if (body instanceof Collection<?> categories && elementType == CategoryResponse.class) {
+            return ProtobufMessages.toCategoryList(categories);
+        }
+        throw new HttpMessageNotWritableException("No protobuf message for " + body.getClass().getName());
+    }
+
+    /**
+     * The response type a body of this type holds, or null if it cannot be written as protobuf
+     */
+    private static Class<?> elementType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return ProductResponse.class.isAssignableFrom(clazz) || CategoryResponse.class.isAssignableFrom(clazz)
+                    ? clazz
+                    : null;
+        }
+        if (type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && (Collection.class.isAssignableFrom(raw) || Slice.class.isAssignableFrom(raw))
+                && parameterized.getActualTypeArguments().length == 1
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+            if (element == ProductResponse.class) {
+                return ProductResponse.class;
+            }
+            if (element == CategoryResponse.class && Collection.class.isAssignableFrom(raw)) {
+                return CategoryResponse.class;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sd_project.sd_course.datasource;
+
+/**
+ * The WAL position the current request's reads must observe (read-your-writes).
+ * Zero means any healthy replica will do.
+ */
+public final class ConsistencyContext {
+
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
+    /**
+     * Reactor context key holding the required position of a reactive request
+     */
+    public static final String CONTEXT_KEY = ConsistencyContext.class.getName() + ".requiredLsn";
+
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+
+    private ConsistencyContext() {
+    }
+
+    public static long getRequiredLsn() {
+        Long lsn = REQUIRED_LSN.get();
+        return lsn == null ? 0 : lsn;
+    }
+
+    /**
+     * Raise the required position; it never moves backwards within a request
+     */
+    public static void require(long lsn) {
+        if (lsn > getRequiredLsn()) {
+            REQUIRED_LSN.set(lsn);
+        }
+    }
+
+    public static void clear() {
+        REQUIRED_LSN.remove();
+    }
+}
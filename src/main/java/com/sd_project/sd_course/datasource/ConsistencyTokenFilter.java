@@ -0,0 +1,40 @@
+package com.sd_project.sd_course.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Reads the consistency token a client got from an earlier write, so this request's reads
+ * only go to replicas that have replayed that write
+ */
+@Component
+@Slf4j
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(ConsistencyContext.CONSISTENCY_TOKEN_HEADER);
+        if (StringUtils.hasText(token)) {
+            try {
+                ConsistencyContext.require(ReplicaSet.parseLsn(token.trim()));
+            } catch (IllegalArgumentException ex) {
+                log.debug("Ignoring malformed consistency token: {}", token);
+            }
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConsistencyContext.clear();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.sd_project.sd_course.datasource;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * After a write transaction commits, hands the client the primary's WAL position as a consistency token
+ * and makes the rest of the request read at or after it. Runs before other after-commit work, so caches see
+ * the write's position in {@link ReplicaSet#hasReplayedLocalWrites()} before their table versions move on.
+ */
+@Slf4j
+final class ConsistencyTokenSynchronization implements TransactionSynchronization {
+
+    private final ReplicaSet replicaSet;
+
+    private ConsistencyTokenSynchronization(ReplicaSet replicaSet) {
+        this.replicaSet = replicaSet;
+    }
+
+    /**
+     * Register once for the current transaction
+     */
+    static void registerIfAbsent(ReplicaSet replicaSet) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ConsistencyTokenSynchronization) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new ConsistencyTokenSynchronization(replicaSet));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void afterCommit() {
+        long lsn;
+        try {
+            lsn = replicaSet.currentPrimaryLsn();
+        } catch (Exception ex) {
+            log.warn("Could not read primary WAL position after commit: {}", ex.getMessage());
+            return;
+        }
+        replicaSet.recordLocalWrite(lsn);
+        ConsistencyContext.require(lsn);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(ConsistencyContext.CONSISTENCY_TOKEN_HEADER, ReplicaSet.formatLsn(lsn));
+            }
+        }
+    }
+}
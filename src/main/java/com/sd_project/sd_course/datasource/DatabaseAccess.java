@@ -0,0 +1,71 @@
+package com.sd_project.sd_course.datasource;
+
+import reactor.util.context.ContextView;
+
+/**
+ * Records whether a unit of work obtained a physical database connection.
+ *
+ * Connections are acquired lazily, so cache hits, validation failures and in-memory endpoints never
+ * reach the routing data source. The concurrency limiter uses this to learn only from requests whose
+ * latency actually includes the database.
+ */
+public final class DatabaseAccess {
+
+    /**
+     * Reactor context key under which a reactive request carries its recorder
+     */
+    public static final Class<Recorder> CONTEXT_KEY = Recorder.class;
+
+    private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<>();
+
+    private DatabaseAccess() {
+    }
+
+    public static final class Recorder {
+
+        private volatile boolean used;
+
+        public boolean isUsed() {
+            return used;
+        }
+    }
+
+    /**
+     * Start recording on this thread
+     */
+    public static Recorder begin() {
+        Recorder recorder = new Recorder();
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * Recorder of the current thread, or null; pass it to {@link #attach} on threads doing work on its behalf
+     */
+    public static Recorder current() {
+        return CURRENT.get();
+    }
+
+    public static void attach(Recorder recorder) {
+        if (recorder == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(recorder);
+        }
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static void markUsed() {
+        Recorder recorder = CURRENT.get();
+        if (recorder != null) {
+            recorder.used = true;
+        }
+    }
+
+    static void markUsed(ContextView context) {
+        context.<Recorder>getOrEmpty(CONTEXT_KEY).ifPresent(recorder -> recorder.used = true);
+    }
+}
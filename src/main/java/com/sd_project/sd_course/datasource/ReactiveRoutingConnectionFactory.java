@@ -0,0 +1,53 @@
+package com.sd_project.sd_course.datasource;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The R2DBC counterpart of {@link WorkloadRoutingDataSource} for the reactive read API.
+ *
+ * Every connection is a catalog read. On the main database it goes to a replica that the {@link ReplicaSet}
+ * health checks consider caught up with the request's consistency token, falling back to the primary pool.
+ * The request's {@link DatabaseAccess} recorder and token travel in the Reactor context, since a reactive
+ * request has no thread of its own.
+ */
+public class ReactiveRoutingConnectionFactory implements ConnectionFactory {
+
+    private final ConnectionFactory primary;
+    private final List<? extends ConnectionFactory> replicas;
+    private final ReplicaSet replicaSet;
+
+    /**
+     * @param replicas pools in the order of the replica set's replicas; empty for a shard without replicas
+     */
+    public ReactiveRoutingConnectionFactory(ConnectionFactory primary, List<? extends ConnectionFactory> replicas,
+                                            ReplicaSet replicaSet) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.replicaSet = replicaSet;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            DatabaseAccess.markUsed(context);
+            ConnectionFactory target = primary;
+            if (!replicas.isEmpty()) {
+                int replica = replicaSet.chooseIndex(context.getOrDefault(ConsistencyContext.CONTEXT_KEY, 0L));
+                if (replica >= 0 && replica < replicas.size()) {
+                    target = replicas.get(replica);
+                }
+            }
+            return Mono.from(target.create());
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+}
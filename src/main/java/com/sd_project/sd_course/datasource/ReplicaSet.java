@@ -0,0 +1,166 @@
+package com.sd_project.sd_course.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read replicas with their health and WAL replay position.
+ *
+ * A background check records each replica's replay LSN and drops replicas that are unreachable,
+ * not in recovery, or too far behind the primary. Reads are balanced round-robin over replicas
+ * that are healthy and have replayed at least the position a caller asks for. Positions are
+ * sampled, so a replica is only ever considered further behind than it really is, never ahead.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    private final List<Replica> replicas;
+    private final JdbcTemplate primary;
+    private final long maxLagBytes;
+    private final AtomicInteger next = new AtomicInteger();
+    /**
+     * Primary WAL position after the latest write committed through this node
+     */
+    private final AtomicLong localWriteLsn = new AtomicLong();
+
+    public ReplicaSet(List<HikariDataSource> replicaDataSources, DataSource primaryDataSource, long maxLagBytes) {
+        this.replicas = replicaDataSources.stream().map(Replica::new).toList();
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.maxLagBytes = maxLagBytes;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy;
+        private volatile long replayLsn;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Pick a healthy replica that has replayed at least the given LSN, or null if none qualifies
+     */
+    public DataSource choose(long requiredLsn) {
+        int index = chooseIndex(requiredLsn);
+        return index < 0 ? null : replicas.get(index).dataSource;
+    }
+
+    /**
+     * Position of a qualifying replica in app.datasource.replication.replicas (blank entries skipped), or -1;
+     * lets pools of another driver follow the same health checks
+     */
+    public int chooseIndex(long requiredLsn) {
+        int size = replicas.size();
+        if (size == 0) {
+            return -1;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            Replica replica = replicas.get(index);
+            if (replica.healthy && replica.replayLsn >= requiredLsn) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Note a write committed through this node, at the primary's WAL position read after its commit
+     */
+    public void recordLocalWrite(long lsn) {
+        localWriteLsn.accumulateAndGet(lsn, Math::max);
+    }
+
+    /**
+     * Whether every replica in rotation has replayed all writes committed through this node, so a read
+     * from any of them is as new as one from the primary
+     */
+    public boolean hasReplayedLocalWrites() {
+        long required = localWriteLsn.get();
+        for (Replica replica : replicas) {
+            if (replica.healthy && replica.replayLsn < required) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Current WAL position of the primary; everything committed so far is at or before it
+     */
+    public long currentPrimaryLsn() {
+        return parseLsn(primary.queryForObject("SELECT pg_current_wal_lsn()::text", String.class));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replication.check-interval-ms:1000}")
+    public void checkReplicas() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        long primaryLsn = -1;
+        try {
+            primaryLsn = currentPrimaryLsn();
+        } catch (Exception ex) {
+            log.warn("Could not read primary WAL position: {}", ex.getMessage());
+        }
+
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                String lsn = replica.jdbcTemplate.queryForObject("SELECT pg_last_wal_replay_lsn()::text", String.class);
+                if (lsn == null) {
+                    // Not in recovery: a promoted or misconfigured node must not serve replica reads
+                    healthy = false;
+                } else {
+                    replica.replayLsn = parseLsn(lsn);
+                    healthy = primaryLsn < 0 || primaryLsn - replica.replayLsn <= maxLagBytes;
+                }
+            } catch (Exception ex) {
+                log.debug("Replica {} check failed: {}", replica.dataSource.getPoolName(), ex.getMessage());
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is now {}", replica.dataSource.getPoolName(), healthy ? "serving reads" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * Parse a PostgreSQL LSN in its text form, e.g. 16/B374D848
+     */
+    public static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Invalid LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn.substring(0, slash), 16);
+        long low = Long.parseLong(lsn.substring(slash + 1), 16);
+        return (high << 32) | low;
+    }
+
+    public static String formatLsn(long lsn) {
+        return Long.toHexString(lsn >>> 32).toUpperCase() + "/" + Long.toHexString(lsn & 0xFFFFFFFFL).toUpperCase();
+    }
+}
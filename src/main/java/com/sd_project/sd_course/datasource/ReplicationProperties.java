@@ -0,0 +1,42 @@
+package com.sd_project.sd_course.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replication")
+public class ReplicationProperties {
+
+    /**
+     * Streaming replicas that serve read-only transactions; entries with a blank url are ignored
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * How often replica health and replay position are checked
+     */
+    private long checkIntervalMs = 1_000;
+
+    /**
+     * Replicas further behind the primary than this many bytes of WAL stop receiving reads
+     */
+    private long maxLagBytes = 16L * 1024 * 1024;
+
+    @Data
+    public static class Replica {
+        private String url;
+
+        /**
+         * Defaults to spring.datasource.username
+         */
+        private String username;
+
+        /**
+         * Defaults to spring.datasource.password
+         */
+        private String password;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sd_project.sd_course.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link Workload} declarations. Runs outside the transaction interceptor so the workload
+ * is known before the transaction asks for a connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WorkloadAspect {
+
+    @Around("@within(com.sd_project.sd_course.datasource.Workload) || @annotation(com.sd_project.sd_course.datasource.Workload)")
+    public Object applyWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        Workload workload = findWorkload(joinPoint);
+        if (workload == null) {
+            return joinPoint.proceed();
+        }
+        WorkloadType previous = WorkloadContext.enter(workload.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+
+    private Workload findWorkload(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Workload onMethod = AnnotatedElementUtils.findMergedAnnotation(signature.getMethod(), Workload.class);
+        if (onMethod != null) {
+            return onMethod;
+        }
+        return AnnotatedElementUtils.findMergedAnnotation(joinPoint.getTarget().getClass(), Workload.class);
+    }
+}
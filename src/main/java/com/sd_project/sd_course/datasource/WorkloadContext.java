@@ -0,0 +1,52 @@
+package com.sd_project.sd_course.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the workload explicitly declared for the current thread via {@link Workload}
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadType> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    /**
+     * Declare a workload and return the previous one, to be passed back to {@link #restore}
+     */
+    public static WorkloadType enter(WorkloadType workload) {
+        WorkloadType previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    /**
+     * The workload declared on this thread, or null if none was
+     */
+    public static WorkloadType declared() {
+        return CURRENT.get();
+    }
+
+    public static void restore(WorkloadType previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Workload for a connection requested now: the declared one, otherwise catalog for
+     * read-only transactions and write for everything else
+     */
+    public static WorkloadType resolve() {
+        WorkloadType declared = CURRENT.get();
+        if (declared != null) {
+            return declared;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? WorkloadType.CATALOG
+                : WorkloadType.WRITE;
+    }
+}
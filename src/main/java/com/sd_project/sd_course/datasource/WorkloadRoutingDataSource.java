@@ -0,0 +1,56 @@
+package com.sd_project.sd_course.datasource;
+
+import com.sd_project.sd_course.sharding.ShardContext;
+import com.sd_project.sd_course.sharding.ShardSet;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Picks the connection pool for the current shard and workload.
+ *
+ * Additional product shards have a single pool each. On the main database (shard 0), catalog
+ * reads go to a replica that has caught up with the caller's consistency token, falling back
+ * to the primary's catalog pool. Write transactions register for a consistency token on commit.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a connection
+ * before the transaction's read-only flag is published, so routing has to wait until the first
+ * statement actually needs a physical connection.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaSet replicaSet;
+    private final ShardSet shardSet;
+
+    public WorkloadRoutingDataSource(ReplicaSet replicaSet, ShardSet shardSet) {
+        this.replicaSet = replicaSet;
+        this.shardSet = shardSet;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.resolve();
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        DatabaseAccess.markUsed();
+        int shard = ShardContext.current();
+        if (shard != 0) {
+            return shardSet.getDataSource(shard);
+        }
+        if (!replicaSet.isEmpty()) {
+            WorkloadType workload = WorkloadContext.resolve();
+            if (workload == WorkloadType.CATALOG) {
+                DataSource replica = replicaSet.choose(ConsistencyContext.getRequiredLsn());
+                if (replica != null) {
+                    return replica;
+                }
+            } else if (workload == WorkloadType.WRITE && TransactionSynchronizationManager.isSynchronizationActive()) {
+                ConsistencyTokenSynchronization.registerIfAbsent(replicaSet);
+            }
+        }
+        return super.determineTargetDataSource();
+    }
+}
@@ -0,0 +1,22 @@
+package com.sd_project.sd_course.datasource;
+
+/**
+ * Workload classes that each get their own connection pool
+ */
+public enum WorkloadType {
+
+    /**
+     * Storefront reads: product and category browsing, search, read-only transactions
+     */
+    CATALOG,
+
+    /**
+     * Admin writes and any other read-write transaction
+     */
+    WRITE,
+
+    /**
+     * Login, registration, token refresh and user lookups for authentication
+     */
+    AUTH
+}
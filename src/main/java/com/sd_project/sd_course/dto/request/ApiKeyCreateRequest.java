@@ -0,0 +1,31 @@
+package com.sd_project.sd_course.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to issue an API key for a service account")
+public class ApiKeyCreateRequest {
+
+    @NotNull(message = "User ID is required")
+    @Positive(message = "User ID must be positive")
+    @Schema(description = "ID of the user the key authenticates as", example = "5", required = true)
+    private Long userId;
+
+    @NotBlank(message = "Key name is required")
+    @Size(max = 100, message = "Key name cannot exceed 100 characters")
+    @Schema(description = "Label identifying the client", example = "pricing-sync-job", required = true)
+    private String name;
+
+    @Positive(message = "Expiry must be positive")
+    @Schema(description = "Days until the key expires; omit for a non-expiring key", example = "365")
+    private Integer expiresInDays;
+}
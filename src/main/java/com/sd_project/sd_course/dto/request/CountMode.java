@@ -0,0 +1,34 @@
+package com.sd_project.sd_course.dto.request;
+
+import com.sd_project.sd_course.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * How a list endpoint reports the total number of matching rows
+ */
+public enum CountMode {
+
+    /**
+     * No total; no count query runs
+     */
+    NONE,
+
+    /**
+     * Estimate from planner statistics
+     */
+    ESTIMATE,
+
+    /**
+     * Exact count, cached until the table is written
+     */
+    EXACT;
+
+    public static CountMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown total mode '" + value + "'; use none, estimate or exact");
+        }
+    }
+}
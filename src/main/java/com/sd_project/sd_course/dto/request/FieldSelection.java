@@ -0,0 +1,111 @@
+package com.sd_project.sd_course.dto.request;
+
+import com.sd_project.sd_course.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Response fields requested with the fields= parameter of the product and category read endpoints.
+ *
+ * Each field maps to the entity attributes it is built from, so a query can select just those columns.
+ * An empty selection means every field.
+ */
+public record FieldSelection(Set<String> fields, Set<String> attributes) {
+
+    public static final FieldSelection ALL = new FieldSelection(Set.of(), Set.of());
+
+    private static final Map<String, List<String>> PRODUCT_FIELDS = new LinkedHashMap<>();
+    private static final Map<String, List<String>> CATEGORY_FIELDS = new LinkedHashMap<>();
+
+    static {
+        PRODUCT_FIELDS.put("id", List.of("id"));
+        PRODUCT_FIELDS.put("name", List.of("name"));
+        PRODUCT_FIELDS.put("description", List.of("description"));
+        PRODUCT_FIELDS.put("price", List.of("price"));
+        PRODUCT_FIELDS.put("stockQuantity", List.of("stockQuantity"));
+        PRODUCT_FIELDS.put("stockStatus", List.of("stockQuantity"));
+        PRODUCT_FIELDS.put("category", List.of("category.id", "category.name"));
+        PRODUCT_FIELDS.put("createdAt", List.of("createdAt"));
+        PRODUCT_FIELDS.put("updatedAt", List.of("updatedAt"));
+
+        CATEGORY_FIELDS.put("id", List.of("id"));
+        CATEGORY_FIELDS.put("name", List.of("name"));
+        CATEGORY_FIELDS.put("description", List.of("description"));
+        CATEGORY_FIELDS.put("productCount", List.of("id"));
+        CATEGORY_FIELDS.put("createdAt", List.of("createdAt"));
+        CATEGORY_FIELDS.put("updatedAt", List.of("updatedAt"));
+    }
+
+    public static FieldSelection forProducts(String fields) {
+        return parse(fields, PRODUCT_FIELDS);
+    }
+
+    /**
+     * Reject unknown names in a fields= value for an endpoint that returns whole cached products and leaves
+     * the trimming to the JSON writer
+     */
+    public static void validateForProducts(String fields) {
+        forProducts(fields);
+    }
+
+    public static FieldSelection forCategories(String fields) {
+        return parse(fields, CATEGORY_FIELDS);
+    }
+
+    /**
+     * Field names in a fields= value, without validating them
+     */
+    public static List<String> names(String fields) {
+        if (fields == null) {
+            return List.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    public boolean includes(String field) {
+        return isAll() || fields.contains(field);
+    }
+
+    /**
+     * Attributes to select: the id, the requested fields' attributes and the properties sorted on
+     */
+    public List<String> attributesSortedBy(Sort sort) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        selected.addAll(attributes);
+        sort.forEach(order -> selected.add(order.getProperty()));
+        return new ArrayList<>(selected);
+    }
+
+    private static FieldSelection parse(String fields, Map<String, List<String>> known) {
+        List<String> names = names(fields);
+        if (names.isEmpty()) {
+            return ALL;
+        }
+        Set<String> attributes = new LinkedHashSet<>();
+        for (String name : names) {
+            List<String> fieldAttributes = known.get(name);
+            if (fieldAttributes == null) {
+                throw new BadRequestException("Unknown field '" + name + "'. Allowed fields: "
+                        + String.join(", ", known.keySet()));
+            }
+            attributes.addAll(fieldAttributes);
+        }
+        return new FieldSelection(Set.copyOf(names), attributes);
+    }
+}
@@ -0,0 +1,21 @@
+package com.sd_project.sd_course.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request to fetch several products by ID")
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "At least one product ID is required")
+    @Schema(description = "Product IDs, in the order the results should be returned", example = "[1, 2, 3]", required = true)
+    private List<@NotNull(message = "Product IDs cannot be null") Long> ids;
+}
@@ -0,0 +1,46 @@
+package com.sd_project.sd_course.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "API key details")
+public class ApiKeyResponse {
+
+    @Schema(description = "API key ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Label identifying the client", example = "pricing-sync-job")
+    private String name;
+
+    @Schema(description = "First characters of the key, for identification", example = "sk_4f9a2c")
+    private String keyPrefix;
+
+    @Schema(description = "Full key; only returned once, when the key is created")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String key;
+
+    @Schema(description = "ID of the user the key authenticates as", example = "5")
+    private Long userId;
+
+    @Schema(description = "Username the key authenticates as", example = "pricing-service")
+    private String username;
+
+    @Schema(description = "Whether the key has been revoked", example = "false")
+    private boolean revoked;
+
+    @Schema(description = "Key expiry timestamp", example = "2025-01-15T10:30:00")
+    private LocalDateTime expiresAt;
+
+    @Schema(description = "Key creation timestamp", example = "2024-01-15T10:30:00")
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.sd_project.sd_course.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Category response with details")
+@JsonFilter(FieldsFilter.ID)
 public class CategoryResponse {
     
     @Schema(description = "Category ID", example = "1")
@@ -0,0 +1,38 @@
+package com.sd_project.sd_course.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A committed product or category change in the change feed")
+public class ChangeFeedEventResponse {
+
+    @Schema(description = "Cursor that resumes the feed right after this event", example = "1042")
+    private String cursor;
+
+    @Schema(description = "What changed: PRODUCT or CATEGORY", example = "PRODUCT")
+    private String aggregateType;
+
+    @Schema(description = "ID of the product or category", example = "42")
+    private Long aggregateId;
+
+    @Schema(description = "Kind of change: CREATED, UPDATED, STOCK_CHANGED or DELETED", example = "UPDATED")
+    private String eventType;
+
+    @JsonRawValue
+    @Schema(description = "The product or category after the change, plus previousCategoryId when a product "
+            + "moved; only its IDs for deletions")
+    private String payload;
+
+    @Schema(description = "When the change was made", example = "2024-01-20T14:45:00")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.sd_project.sd_course.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of the change feed after a cursor")
+public class ChangeFeedResponse {
+
+    @Schema(description = "Events in the order they were published")
+    private List<ChangeFeedEventResponse> events;
+
+    @Schema(description = "Cursor to pass on the next request", example = "1042")
+    private String nextCursor;
+
+    @Schema(description = "Whether more events are waiting; if so, request again with nextCursor right away",
+            example = "false")
+    private boolean hasMore;
+}
@@ -0,0 +1,34 @@
+package com.sd_project.sd_course.dto.response;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Jackson filter applied to responses that support the fields= parameter
+ */
+public final class FieldsFilter {
+
+    public static final String ID = "fields";
+
+    private FieldsFilter() {
+    }
+
+    /**
+     * Default provider: every property is written
+     */
+    public static FilterProvider all() {
+        return new SimpleFilterProvider().addFilter(ID, SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    /**
+     * Provider that writes only the named properties of filtered responses
+     */
+    public static FilterProvider only(Collection<String> fields) {
+        return new SimpleFilterProvider()
+                .addFilter(ID, SimpleBeanPropertyFilter.filterOutAllExcept(new HashSet<>(fields)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.sd_project.sd_course.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result for one requested product ID")
+public class ProductBatchItemResponse {
+
+    @Schema(description = "Requested product ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Whether the product exists", example = "true")
+    private boolean found;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "The product, omitted when it was not found")
+    private ProductResponse product;
+}
@@ -0,0 +1,49 @@
+package com.sd_project.sd_course.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "A committed change to a product, pushed on the product stream")
+public class ProductChangeResponse {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+    public static final String DELETED = "DELETED";
+
+    @Schema(description = "Kind of change: CREATED, UPDATED, STOCK_CHANGED or DELETED", example = "STOCK_CHANGED")
+    private String type;
+
+    @Schema(description = "Product ID", example = "1")
+    private Long productId;
+
+    @Schema(description = "Category ID after the change", example = "1")
+    private Long categoryId;
+
+    @Schema(description = "Product name, omitted for deletions", example = "iPhone 15 Pro")
+    private String name;
+
+    @Schema(description = "Price after the change, omitted for deletions", example = "999.99")
+    private BigDecimal price;
+
+    @Schema(description = "Stock quantity after the change, omitted for deletions", example = "42")
+    private Integer stockQuantity;
+
+    @Schema(description = "Stock status after the change, omitted for deletions", example = "IN_STOCK")
+    private String stockStatus;
+
+    @Schema(description = "When the change was made", example = "2024-01-20T14:45:00")
+    private LocalDateTime changedAt;
+}
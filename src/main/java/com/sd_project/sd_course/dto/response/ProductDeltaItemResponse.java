@@ -0,0 +1,34 @@
+package com.sd_project.sd_course.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A product created, updated or deleted since the sync token")
+public class ProductDeltaItemResponse {
+
+    @Schema(description = "Product ID", example = "42")
+    private Long id;
+
+    @Schema(description = "Whether the product was deleted and should be removed", example = "false")
+    private boolean deleted;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "The product as it is now, omitted for deletions")
+    private ProductResponse product;
+
+    @Schema(description = "When the product last changed", example = "2024-01-20T14:45:00")
+    private LocalDateTime changedAt;
+
+    @Schema(description = "Sync token that resumes right after this change")
+    private String token;
+}
@@ -0,0 +1,27 @@
+package com.sd_project.sd_course.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of product changes since a sync token")
+public class ProductDeltaResponse {
+
+    @Schema(description = "Changes in the order they were made")
+    private List<ProductDeltaItemResponse> changes;
+
+    @Schema(description = "Token to pass as since on the next request")
+    private String nextToken;
+
+    @Schema(description = "Whether more changes are waiting; if so, request again with nextToken right away",
+            example = "false")
+    private boolean hasMore;
+}
@@ -1,5 +1,6 @@
 package com.sd_project.sd_course.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Product response with details")
+@JsonFilter(FieldsFilter.ID)
 public class ProductResponse {
     
     @Schema(description = "Product ID", example = "1")
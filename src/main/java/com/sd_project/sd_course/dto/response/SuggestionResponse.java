@@ -0,0 +1,24 @@
+package com.sd_project.sd_course.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Search suggestion")
+public class SuggestionResponse {
+
+    @Schema(description = "Text to show", example = "iPhone 15 Pro")
+    private String text;
+
+    @Schema(description = "What the suggestion refers to", example = "PRODUCT")
+    private String type;
+
+    @Schema(description = "ID of the product or category", example = "1")
+    private Long id;
+}
@@ -0,0 +1,63 @@
+package com.sd_project.sd_course.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed change to a product or category, waiting for the relay or already in the change feed
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String PRODUCT = "PRODUCT";
+    public static final String CATEGORY = "CATEGORY";
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+    public static final String DELETED = "DELETED";
+
+    /**
+     * Payload field of a product UPDATED event that moved the product to another category
+     */
+    public static final String PREVIOUS_CATEGORY_ID = "previousCategoryId";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 20)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 20)
+    private String eventType;
+
+    /**
+     * JSON of the product or category after the change; only the id fields for deletions
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Place in the change feed, assigned by the relay; null until published
+     */
+    @Column(name = "position")
+    private Long position;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+}
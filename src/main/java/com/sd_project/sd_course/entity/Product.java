@@ -1,5 +1,6 @@
 package com.sd_project.sd_course.entity;
 
+import com.sd_project.sd_course.cache.TableWriteListener;
 import com.sd_project.sd_course.exception.InsufficientStockException;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -8,6 +9,7 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(TableWriteListener.class)
 @Table(name = "products")
 @Getter
 @Setter
@@ -37,7 +39,7 @@ public class Product extends BaseEntity {
     private Integer stockQuantity;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "category_id")
+    @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
     public boolean isInStock() {
@@ -73,18 +75,22 @@ public class Product extends BaseEntity {
     }
 
     public StockStatus getStockStatus() {
-        if (stockQuantity == null || stockQuantity == 0) {
-            return StockStatus.OUT_OF_STOCK;
-        } else if (stockQuantity <= 10) {
-            return StockStatus.LOW_STOCK;
-        } else {
-            return StockStatus.IN_STOCK;
-        }
+        return StockStatus.of(stockQuantity);
     }
 
     public enum StockStatus {
         IN_STOCK,
         LOW_STOCK,
-        OUT_OF_STOCK
+        OUT_OF_STOCK;
+
+        public static StockStatus of(Integer stockQuantity) {
+            if (stockQuantity == null || stockQuantity == 0) {
+                return OUT_OF_STOCK;
+            } else if (stockQuantity <= 10) {
+                return LOW_STOCK;
+            } else {
+                return IN_STOCK;
+            }
+        }
     }
 } 
\ No newline at end of file
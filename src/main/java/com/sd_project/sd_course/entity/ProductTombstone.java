@@ -0,0 +1,30 @@
+package com.sd_project.sd_course.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted product, so delta sync can tell clients to remove it
+ */
+@Entity
+@Table(name = "product_tombstones",
+        indexes = @Index(name = "idx_product_tombstones_deleted_at", columnList = "deleted_at, product_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "deleted_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime deletedAt;
+}
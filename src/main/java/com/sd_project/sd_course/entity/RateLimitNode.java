@@ -0,0 +1,23 @@
+package com.sd_project.sd_course.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "rate_limit_nodes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitNode {
+
+    @Id
+    @Column(name = "node_id", length = 36, nullable = false, updatable = false)
+    private String nodeId;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDateTime lastSeen;
+}
@@ -0,0 +1,31 @@
+package com.sd_project.sd_course.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "revoked_refresh_tokens",
+        indexes = @Index(name = "idx_revoked_refresh_tokens_expires_at", columnList = "expires_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedRefreshToken {
+
+    @Id
+    @Column(name = "jti", nullable = false, updatable = false)
+    private UUID jti;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -1,5 +1,6 @@
 package com.sd_project.sd_course.entity;
 
+import com.sd_project.sd_course.cache.TableWriteListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -10,6 +11,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(TableWriteListener.class)
 @Table(name = "users",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = "username"),
@@ -0,0 +1,33 @@
+package com.sd_project.sd_course.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_security_versions",
+        indexes = {
+                @Index(name = "idx_user_security_versions_updated_at", columnList = "updated_at"),
+                @Index(name = "idx_user_security_versions_revoked_before", columnList = "revoked_before")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSecurityVersion {
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    /**
+     * Epoch milliseconds; tokens whose version is not after this are rejected
+     */
+    @Column(name = "revoked_before", nullable = false)
+    private Long revokedBefore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,61 @@
+package com.sd_project.sd_course.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts committed changes by event type, and products that sell out, from the {@link DomainEventBus}.
+ *
+ * Counts are collected in plain fields over a batch and added to the meters once at its end, so a burst of
+ * writes costs one meter update per type rather than one per change.
+ */
+@Component
+public class CatalogChangeMetrics implements DomainEventConsumer {
+
+    private static final String METRIC_PREFIX = "app.catalog";
+
+    private final Counter[] changes;
+    private final Counter soldOut;
+    private final long[] pendingChanges;
+    private long pendingSoldOut;
+
+    public CatalogChangeMetrics(MeterRegistry meterRegistry) {
+        DomainEventType[] types = DomainEventType.values();
+        this.changes = new Counter[types.length];
+        for (DomainEventType type : types) {
+            changes[type.ordinal()] = Counter.builder(METRIC_PREFIX + ".changes")
+                    .description("Committed product, category and user changes")
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        }
+        this.soldOut = Counter.builder(METRIC_PREFIX + ".products.sold-out")
+                .description("Stock changes that left a product out of stock")
+                .register(meterRegistry);
+        this.pendingChanges = new long[types.length];
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        pendingChanges[event.getType().ordinal()]++;
+        if (event.getType() == DomainEventType.PRODUCT_STOCK_CHANGED && event.getStockQuantity() == 0) {
+            pendingSoldOut++;
+        }
+        if (endOfBatch) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        for (int i = 0; i < pendingChanges.length; i++) {
+            if (pendingChanges[i] > 0) {
+                changes[i].increment(pendingChanges[i]);
+                pendingChanges[i] = 0;
+            }
+        }
+        if (pendingSoldOut > 0) {
+            soldOut.increment(pendingSoldOut);
+            pendingSoldOut = 0;
+        }
+    }
+}
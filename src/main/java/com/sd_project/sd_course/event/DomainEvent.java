@@ -0,0 +1,60 @@
+package com.sd_project.sd_course.event;
+
+/**
+ * One slot of the {@link DomainEventBus} ring buffer.
+ *
+ * Slots are allocated once and overwritten as the ring wraps, so a consumer must copy what it needs
+ * during {@link DomainEventConsumer#onEvent} and not keep the event.
+ */
+public final class DomainEvent {
+
+    /**
+     * Value of categoryId and stockQuantity for events that do not have one
+     */
+    public static final int NONE = -1;
+
+    private DomainEventType type;
+    private long id;
+    private long categoryId;
+    private int stockQuantity;
+
+    DomainEvent() {
+    }
+
+    void set(DomainEventType type, long id, long categoryId, int stockQuantity) {
+        this.type = type;
+        this.id = id;
+        this.categoryId = categoryId;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public DomainEventType getType() {
+        return type;
+    }
+
+    /**
+     * ID of the product, category or user that changed
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Category of the product, the category itself for category events, or {@link #NONE} for users
+     */
+    public long getCategoryId() {
+        return categoryId;
+    }
+
+    /**
+     * Stock of the product after the change, or {@link #NONE}
+     */
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return type + "[id=" + id + ", categoryId=" + categoryId + ", stockQuantity=" + stockQuantity + "]";
+    }
+}
@@ -0,0 +1,367 @@
+package com.sd_project.sd_course.event;
+
+import com.sd_project.sd_course.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Hands committed product, category and user changes to {@link DomainEventConsumer}s off the request thread.
+ *
+ * Events go into a pre-allocated ring buffer: a publisher claims the next sequence with a compare-and-set,
+ * fills in that slot and marks it published, without locks or allocating an event. Every consumer has its own
+ * thread and sequence, reads everything published since its last batch, and then releases those slots.
+ * A publish costs the same however many consumers there are. Only when the ring is full does the publisher
+ * look at the consumers again; it spins briefly for the slowest one and then drops the event, so an after-commit
+ * callback never holds its thread or connection waiting for a derived view. Consumers that hold up the ring are
+ * marked slow until they catch up. An idle consumer parks until a publisher wakes it.
+ */
+@Slf4j
+@Component
+public class DomainEventBus implements SmartLifecycle {
+
+    private static final String METRIC_PREFIX = "app.events";
+    private static final int SPIN_TRIES = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final class Consumer implements Runnable {
+
+        private final DomainEventConsumer delegate;
+        /**
+         * Last sequence this consumer has finished with; starts at the cursor, as earlier slots are stale
+         */
+        private final AtomicLong sequence = new AtomicLong(cursor.get());
+        private final Counter errors;
+        private final Counter overruns;
+        /**
+         * Set by a publisher that dropped an event because of this consumer, cleared once it has caught up
+         */
+        private volatile boolean slow;
+        private volatile boolean parked;
+        private volatile Thread thread;
+
+        private Consumer(DomainEventConsumer delegate) {
+            this.delegate = delegate;
+            this.errors = Counter.builder(METRIC_PREFIX + ".consumer.errors")
+                    .description("Events a consumer failed to handle")
+                    .tag("consumer", delegate.name())
+                    .register(meterRegistry);
+            this.overruns = Counter.builder(METRIC_PREFIX + ".consumer.overruns")
+                    .description("Events dropped because the consumer had not yet freed their slot")
+                    .tag("consumer", delegate.name())
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".consumer.slow", this, consumer -> consumer.slow ? 1 : 0)
+                    .description("Whether the consumer has filled the ring and events are being dropped")
+                    .tag("consumer", delegate.name())
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".consumer.lag", this, consumer -> cursor.get() - consumer.sequence.get())
+                    .description("Events published but not yet handled by the consumer")
+                    .tag("consumer", delegate.name())
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            int idleCount = 0;
+            while (true) {
+                long next = sequence.get() + 1;
+                long last = lastPublished(next);
+                if (last < next) {
+                    if (!running) {
+                        return;
+                    }
+                    if (idleCount++ < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        await(next);
+                        idleCount = 0;
+                    }
+                    continue;
+                }
+                idleCount = 0;
+                for (long current = next; current <= last; current++) {
+                    try {
+                        delegate.onEvent(slots[index(current)], current, current == last);
+                    } catch (RuntimeException ex) {
+                        errors.increment();
+                        log.error("Domain event consumer {} failed on {}", delegate.name(), slots[index(current)], ex);
+                    }
+                }
+                sequence.set(last);
+                if (slow && cursor.get() - last < slots.length / 2) {
+                    slow = false;
+                    log.info("Domain event consumer {} has caught up", delegate.name());
+                }
+            }
+        }
+
+        /**
+         * Park until a publisher wakes it. The consumer announces itself before checking for events one last
+         * time, and publishers check for parked consumers after publishing, so a wake-up cannot be missed.
+         */
+        private void await(long next) {
+            parked = true;
+            parkedConsumers.incrementAndGet();
+            try {
+                if (running && lastPublished(next) < next) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                parked = false;
+                parkedConsumers.decrementAndGet();
+            }
+        }
+
+        private void markSlow(long wrapPoint) {
+            overruns.increment();
+            if (!slow) {
+                slow = true;
+                log.warn("Domain event consumer {} is {} events behind; dropping events until it catches up",
+                        delegate.name(), wrapPoint - sequence.get() + slots.length - 1);
+            }
+        }
+    }
+
+    private final Supplier<List<DomainEventConsumer>> consumerSource;
+    private final MeterRegistry meterRegistry;
+    private final DomainEvent[] slots;
+    /**
+     * Sequence last published in each slot; a slot holds the event for a sequence once this equals it
+     */
+    private final AtomicLongArray published;
+    private final int mask;
+    /**
+     * Highest sequence claimed by a publisher
+     */
+    private final AtomicLong cursor = new AtomicLong(-1);
+    /**
+     * Slowest consumer's sequence when last looked at; may lag behind it, which only costs another look
+     */
+    private volatile long gatingSequence = -1;
+    private volatile List<Consumer> consumers = List.of();
+    /**
+     * Consumers parked for want of events; publishers only look for whom to wake when this is above zero
+     */
+    private final AtomicInteger parkedConsumers = new AtomicInteger();
+    private volatile boolean running;
+    private final Counter publishedEvents;
+    private final Counter dropped;
+
+    @Autowired
+    public DomainEventBus(ObjectProvider<DomainEventConsumer> consumers,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.events.buffer-size:8192}") int bufferSize) {
+        this(() -> consumers.orderedStream().toList(), meterRegistry, bufferSize);
+    }
+
+    DomainEventBus(Supplier<List<DomainEventConsumer>> consumerSource, MeterRegistry meterRegistry,
+                   int bufferSize) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Event buffer size must be a power of two, was " + bufferSize);
+        }
+        this.consumerSource = consumerSource;
+        this.meterRegistry = meterRegistry;
+        this.slots = new DomainEvent[bufferSize];
+        this.published = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            slots[i] = new DomainEvent();
+            published.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.publishedEvents = Counter.builder(METRIC_PREFIX + ".published")
+                .description("Domain events published")
+                .register(meterRegistry);
+        this.dropped = Counter.builder(METRIC_PREFIX + ".dropped")
+                .description("Domain events dropped because a slow consumer had filled the ring")
+                .register(meterRegistry);
+    }
+
+    public void productSaved(long id, long categoryId, int stockQuantity) {
+        publishAfterCommit(DomainEventType.PRODUCT_SAVED, id, categoryId, stockQuantity);
+    }
+
+    public void productStockChanged(long id, long categoryId, int stockQuantity) {
+        publishAfterCommit(DomainEventType.PRODUCT_STOCK_CHANGED, id, categoryId, stockQuantity);
+    }
+
+    public void productDeleted(long id, long categoryId) {
+        publishAfterCommit(DomainEventType.PRODUCT_DELETED, id, categoryId, DomainEvent.NONE);
+    }
+
+    public void categorySaved(long id) {
+        publishAfterCommit(DomainEventType.CATEGORY_SAVED, id, id, DomainEvent.NONE);
+    }
+
+    public void categoryDeleted(long id) {
+        publishAfterCommit(DomainEventType.CATEGORY_DELETED, id, id, DomainEvent.NONE);
+    }
+
+    public void userSaved(long id) {
+        publishAfterCommit(DomainEventType.USER_SAVED, id, DomainEvent.NONE, DomainEvent.NONE);
+    }
+
+    public void userDeleted(long id) {
+        publishAfterCommit(DomainEventType.USER_DELETED, id, DomainEvent.NONE, DomainEvent.NONE);
+    }
+
+    /**
+     * Publish an event now
+     *
+     * @return false if it was dropped because the ring was full
+     */
+    public boolean publish(DomainEventType type, long id, long categoryId, int stockQuantity) {
+        if (consumers.isEmpty()) {
+            return true;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            log.debug("Dropped {} event for {}; the ring is full", type, id);
+            return false;
+        }
+        int index = index(sequence);
+        slots[index].set(type, id, categoryId, stockQuantity);
+        published.set(index, sequence);
+        publishedEvents.increment();
+        if (parkedConsumers.get() > 0) {
+            wakeParkedConsumers();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void start() {
+        List<Consumer> started = new ArrayList<>();
+        for (DomainEventConsumer delegate : consumerSource.get()) {
+            started.add(new Consumer(delegate));
+        }
+        running = true;
+        consumers = List.copyOf(started);
+        for (Consumer consumer : consumers) {
+            consumer.thread = Thread.ofPlatform()
+                    .name("domain-events-" + consumer.delegate.name())
+                    .daemon()
+                    .start(consumer);
+        }
+        log.info("Domain event bus started with {} consumers and {} slots", consumers.size(), slots.length);
+    }
+
+    /**
+     * Consumers finish what was published before they stop
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        consumers = List.of();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before and stopped after the web server, so that requests always have consumers behind them
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Next sequence, spinning briefly while the slot is still unread by some consumer; -1 if it stays unread
+     */
+    private long claim() {
+        int attempts = 0;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - slots.length;
+            if (wrapPoint > gatingSequence) {
+                long gating = slowestConsumerSequence();
+                gatingSequence = gating;
+                if (wrapPoint > gating) {
+                    if (attempts++ < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    markSlowConsumers(wrapPoint);
+                    return -1;
+                }
+            }
+            if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private void markSlowConsumers(long wrapPoint) {
+        for (Consumer consumer : consumers) {
+            if (wrapPoint > consumer.sequence.get()) {
+                consumer.markSlow(wrapPoint);
+            }
+        }
+    }
+
+    private void wakeParkedConsumers() {
+        for (Consumer consumer : consumers) {
+            if (consumer.parked) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    private long slowestConsumerSequence() {
+        long slowest = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * Last sequence from next on that has been published without a gap, or next - 1 if next has not been
+     */
+    private long lastPublished(long next) {
+        long claimed = cursor.get();
+        long sequence = next;
+        while (sequence <= claimed && published.get(index(sequence)) == sequence) {
+            sequence++;
+        }
+        return sequence - 1;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private void publishAfterCommit(DomainEventType type, long id, long categoryId, int stockQuantity) {
+        AfterCommit.run(() -> publish(type, id, categoryId, stockQuantity));
+    }
+}
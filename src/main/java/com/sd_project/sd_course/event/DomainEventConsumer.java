@@ -0,0 +1,24 @@
+package com.sd_project.sd_course.event;
+
+/**
+ * Derived view kept up to date from the {@link DomainEventBus}.
+ *
+ * Each consumer runs on its own thread and sees every event in publish order. Events arrive in batches of
+ * whatever has been published since the last one, so work such as writes or cache updates can be collected
+ * and applied once at the end of the batch.
+ */
+public interface DomainEventConsumer {
+
+    /**
+     * @param event      reused slot; copy what is needed before returning
+     * @param endOfBatch whether this is the last event available for now
+     */
+    void onEvent(DomainEvent event, long sequence, boolean endOfBatch);
+
+    /**
+     * Name for the consumer's thread and metrics
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
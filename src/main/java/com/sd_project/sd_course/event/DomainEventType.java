@@ -0,0 +1,14 @@
+package com.sd_project.sd_course.event;
+
+/**
+ * Kinds of committed changes published on the {@link DomainEventBus}
+ */
+public enum DomainEventType {
+    PRODUCT_SAVED,
+    PRODUCT_STOCK_CHANGED,
+    PRODUCT_DELETED,
+    CATEGORY_SAVED,
+    CATEGORY_DELETED,
+    USER_SAVED,
+    USER_DELETED
+}
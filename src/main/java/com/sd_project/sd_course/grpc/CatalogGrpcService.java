@@ -0,0 +1,160 @@
+package com.sd_project.sd_course.grpc;
+
+import com.sd_project.sd_course.converter.ProtobufMessages;
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.dto.response.ProductBatchItemResponse;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.sd_project.sd_course.exception.ServiceUnavailableException;
+import com.sd_project.sd_course.exception.TooManyRequestsException;
+import com.sd_project.sd_course.proto.BatchGetProductsRequest;
+import com.sd_project.sd_course.proto.BatchGetProductsResponse;
+import com.sd_project.sd_course.proto.CatalogServiceGrpc;
+import com.sd_project.sd_course.proto.Category;
+import com.sd_project.sd_course.proto.GetCategoryRequest;
+import com.sd_project.sd_course.proto.GetProductRequest;
+import com.sd_project.sd_course.proto.Product;
+import com.sd_project.sd_course.proto.StreamCategoriesRequest;
+import com.sd_project.sd_course.proto.StreamProductsRequest;
+import com.sd_project.sd_course.service.CategoryService;
+import com.sd_project.sd_course.service.ProductService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+/**
+ * gRPC front end for the catalog read paths. Every call goes through the same ProductService and
+ * CategoryService methods as the REST controllers, so caching, sharding and validation are shared.
+ */
+@Slf4j
+@Component
+public class CatalogGrpcService extends CatalogServiceGrpc.CatalogServiceImplBase {
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final int defaultBatchSize;
+    private final int maxBatchSize;
+
+    public CatalogGrpcService(ProductService productService, CategoryService categoryService,
+                              @Value("${app.grpc.stream.default-batch-size:500}") int defaultBatchSize,
+                              @Value("${app.grpc.stream.max-batch-size:2000}") int maxBatchSize) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.defaultBatchSize = defaultBatchSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void getProduct(GetProductRequest request, StreamObserver<Product> responseObserver) {
+        unary(responseObserver, () -> ProtobufMessages.toProduct(productService.getProductById(request.getId())));
+    }
+
+    @Override
+    public void batchGetProducts(BatchGetProductsRequest request,
+                                 StreamObserver<BatchGetProductsResponse> responseObserver) {
+        unary(responseObserver, () -> {
+            BatchGetProductsResponse.Builder response = BatchGetProductsResponse.newBuilder();
+            for (ProductBatchItemResponse item : productService.getProductsByIds(request.getIdsList())) {
+                BatchGetProductsResponse.Item.Builder entry = BatchGetProductsResponse.Item.newBuilder()
+                        .setId(item.getId())
+                        .setFound(item.isFound());
+                if (item.getProduct() != null) {
+                    entry.setProduct(ProtobufMessages.toProduct(item.getProduct()));
+                }
+                response.addItems(entry);
+            }
+            return response.build();
+        });
+    }
+
+    /**
+     * Keyset scan in id order. Each batch is read only once the client has consumed the previous one,
+     * and a broken stream can be resumed with after_id set to the last id received.
+     */
+    @Override
+    public void streamProducts(StreamProductsRequest request, StreamObserver<Product> responseObserver) {
+        int batchSize = request.getBatchSize() > 0 ? Math.min(request.getBatchSize(), maxBatchSize) : defaultBatchSize;
+        String keyword = request.hasKeyword() ? request.getKeyword() : null;
+        Long categoryId = request.hasCategoryId() ? request.getCategoryId() : null;
+        BigDecimal minPrice = request.hasMinPrice() ? ProtobufMessages.fromDecimal(request.getMinPrice()) : null;
+        BigDecimal maxPrice = request.hasMaxPrice() ? ProtobufMessages.fromDecimal(request.getMaxPrice()) : null;
+        Boolean inStock = request.hasInStock() ? request.getInStock() : null;
+        log.debug("Streaming products over gRPC in batches of {}", batchSize);
+
+        Supplier<FlowControlledStream.Batch<ProductResponse>> nextBatch = new Supplier<>() {
+            private Long afterId = request.hasAfterId() ? request.getAfterId() : null;
+
+            @Override
+            public FlowControlledStream.Batch<ProductResponse> get() {
+                Slice<ProductResponse> batch = productService.scanProducts(
+                        keyword, categoryId, minPrice, maxPrice, inStock, afterId, batchSize);
+                if (batch.hasContent()) {
+                    afterId = batch.getContent().get(batch.getNumberOfElements() - 1).getId();
+                }
+                return new FlowControlledStream.Batch<>(batch.getContent(), !batch.hasNext());
+            }
+        };
+        FlowControlledStream.start((ServerCallStreamObserver<Product>) responseObserver, nextBatch,
+                ProtobufMessages::toProduct, CatalogGrpcService::toStatus);
+    }
+
+    @Override
+    public void getCategory(GetCategoryRequest request, StreamObserver<Category> responseObserver) {
+        unary(responseObserver, () -> ProtobufMessages.toCategory(
+                categoryService.getCategoryById(request.getId(), FieldSelection.ALL)));
+    }
+
+    @Override
+    public void streamCategories(StreamCategoriesRequest request, StreamObserver<Category> responseObserver) {
+        FlowControlledStream.start((ServerCallStreamObserver<Category>) responseObserver,
+                () -> new FlowControlledStream.Batch<>(categoryService.getAllCategories(), true),
+                ProtobufMessages::toCategory, CatalogGrpcService::toStatus);
+    }
+
+    private static <T> void unary(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Map service exceptions to the status codes matching the REST API's HTTP statuses
+     */
+    static StatusRuntimeException toStatus(RuntimeException ex) {
+        if (ex instanceof StatusRuntimeException status) {
+            return status;
+        }
+        Status status;
+        if (ex instanceof ResourceNotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (ex instanceof BadRequestException || ex instanceof IllegalArgumentException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (ex instanceof AccessDeniedException) {
+            status = Status.PERMISSION_DENIED;
+        } else if (ex instanceof TooManyRequestsException) {
+            status = Status.RESOURCE_EXHAUSTED;
+        } else if (ex instanceof ServiceUnavailableException) {
+            status = Status.UNAVAILABLE;
+        } else {
+            log.error("Unexpected error in gRPC call", ex);
+            return Status.INTERNAL.withDescription("An unexpected error occurred").asRuntimeException();
+        }
+        return status.withDescription(ex.getMessage()).asRuntimeException();
+    }
+}
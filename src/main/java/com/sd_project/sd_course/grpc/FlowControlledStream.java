@@ -0,0 +1,86 @@
+package com.sd_project.sd_course.grpc;
+
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Server-streaming response that reads the next batch only when the client has taken the previous one.
+ *
+ * Messages are sent while the transport is ready; when the client falls behind, sending stops and resumes
+ * from the on-ready callback, so at most one batch is held in memory per stream.
+ *
+ * gRPC runs the callbacks of one call one after another, so the state needs no lock, and no monitor is
+ * held while a batch is read on a virtual thread.
+ */
+final class FlowControlledStream<T, M> implements Runnable {
+
+    /**
+     * A batch of items and whether it is the last
+     */
+    record Batch<T>(List<T> items, boolean last) {
+    }
+
+    private final ServerCallStreamObserver<M> observer;
+    private final Supplier<Batch<T>> nextBatch;
+    private final Function<T, M> toMessage;
+    private final Function<RuntimeException, RuntimeException> toStatus;
+
+    private final Deque<T> buffer = new ArrayDeque<>();
+    private boolean last;
+    private boolean done;
+
+    private FlowControlledStream(ServerCallStreamObserver<M> observer, Supplier<Batch<T>> nextBatch,
+                                 Function<T, M> toMessage, Function<RuntimeException, RuntimeException> toStatus) {
+        this.observer = observer;
+        this.nextBatch = nextBatch;
+        this.toMessage = toMessage;
+        this.toStatus = toStatus;
+    }
+
+    /**
+     * Start streaming; sending continues from the observer's on-ready callbacks
+     */
+    static <T, M> void start(ServerCallStreamObserver<M> observer, Supplier<Batch<T>> nextBatch,
+                             Function<T, M> toMessage, Function<RuntimeException, RuntimeException> toStatus) {
+        FlowControlledStream<T, M> stream = new FlowControlledStream<>(observer, nextBatch, toMessage, toStatus);
+        observer.setOnCancelHandler(stream::cancel);
+        observer.setOnReadyHandler(stream);
+    }
+
+    @Override
+    public void run() {
+        if (done) {
+            return;
+        }
+        try {
+            while (observer.isReady()) {
+                if (buffer.isEmpty()) {
+                    if (last) {
+                        done = true;
+                        observer.onCompleted();
+                        return;
+                    }
+                    Batch<T> batch = nextBatch.get();
+                    buffer.addAll(batch.items());
+                    last = batch.last() || batch.items().isEmpty();
+                    continue;
+                }
+                observer.onNext(toMessage.apply(buffer.poll()));
+            }
+        } catch (RuntimeException ex) {
+            done = true;
+            buffer.clear();
+            observer.onError(toStatus.apply(ex));
+        }
+    }
+
+    private void cancel() {
+        done = true;
+        buffer.clear();
+    }
+}
@@ -0,0 +1,126 @@
+package com.sd_project.sd_course.grpc;
+
+import com.sd_project.sd_course.security.BearerTokenAuthenticator;
+import com.sd_project.sd_course.security.UserPrincipal;
+import com.sd_project.sd_course.service.ApiKeyService;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Authenticates gRPC calls with the same credentials as the REST API: a bearer access token in the
+ * "authorization" metadata or an API key in "x-api-key". Unauthenticated calls are closed with
+ * UNAUTHENTICATED. The principal is in the SecurityContext during every callback of the call, including
+ * the on-ready callbacks that drive streaming responses.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GrpcAuthenticationInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> API_KEY =
+            Metadata.Key.of("x-api-key", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final BearerTokenAuthenticator bearerTokenAuthenticator;
+    private final ApiKeyService apiKeyService;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        Authentication authentication;
+        try {
+            authentication = authenticate(headers);
+        } catch (RuntimeException ex) {
+            log.debug("Rejected gRPC credentials", ex);
+            authentication = null;
+        }
+        if (authentication == null) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Valid access token or API key required"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        Authentication principal = authentication;
+        ServerCall.Listener<ReqT> delegate = withAuthentication(principal, () -> next.startCall(call, headers));
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onMessage(ReqT message) {
+                withAuthentication(principal, () -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                withAuthentication(principal, super::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                withAuthentication(principal, super::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                withAuthentication(principal, super::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                withAuthentication(principal, super::onReady);
+            }
+        };
+    }
+
+    private Authentication authenticate(Metadata headers) {
+        UserDetails user = bearerTokenAuthenticator.authenticate(
+                bearerTokenAuthenticator.tokenFromHeader(headers.get(AUTHORIZATION)));
+        if (user != null) {
+            return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        }
+        String rawKey = headers.get(API_KEY);
+        if (StringUtils.hasText(rawKey)) {
+            ApiKeyService.ApiKeyAuthentication apiKey = apiKeyService.authenticate(rawKey);
+            if (apiKey != null) {
+                UserPrincipal apiKeyPrincipal = apiKey.principal();
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(apiKeyPrincipal, null, apiKeyPrincipal.getAuthorities());
+                // Lets the rate limiter budget the key rather than its owner, as it does for REST
+                authentication.setDetails(apiKey);
+                return authentication;
+            }
+        }
+        return null;
+    }
+
+    private static void withAuthentication(Authentication authentication, Runnable callback) {
+        withAuthentication(authentication, () -> {
+            callback.run();
+            return null;
+        });
+    }
+
+    private static <T> T withAuthentication(Authentication authentication, java.util.function.Supplier<T> callback) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            return callback.get();
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+}
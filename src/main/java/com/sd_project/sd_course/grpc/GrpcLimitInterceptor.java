@@ -0,0 +1,196 @@
+package com.sd_project.sd_course.grpc;
+
+import com.sd_project.sd_course.datasource.DatabaseAccess;
+import com.sd_project.sd_course.limiter.AdaptiveConcurrencyLimit;
+import com.sd_project.sd_course.limiter.ConcurrencyLimiters;
+import com.sd_project.sd_course.limiter.RateLimiter;
+import com.sd_project.sd_course.service.ApiKeyService;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Applies the REST API's rate and concurrency limits to gRPC calls. Installed inside
+ * {@link GrpcAuthenticationInterceptor}, so unauthenticated calls never take a token or a permit.
+ *
+ * Rate limits use the caller's buckets with the path /grpc/{full method name}, so app.rate-limit.routes
+ * can match gRPC methods. Unary calls also take a read permit of the "products" or "categories" route
+ * class and give it back when the call closes; server streams are paced by the client and, like the
+ * REST change stream, are left out of the concurrency limits. Over-limit calls are closed with
+ * RESOURCE_EXHAUSTED or UNAVAILABLE, the gRPC counterparts of 429 and 503.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GrpcLimitInterceptor implements ServerInterceptor {
+
+    static final String PATH_PREFIX = "/grpc/";
+
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiters concurrencyLimiters;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        if (rateLimiter.isEnabled()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            long waitNanos = rateLimiter.tryAcquire("POST", PATH_PREFIX + method.getFullMethodName(),
+                    callerKey(call, authentication), authentication);
+            if (waitNanos > 0) {
+                return closed(call, Status.RESOURCE_EXHAUSTED.withDescription("Rate limit exceeded. Retry after "
+                        + RateLimiter.retryAfterSeconds(waitNanos) + " seconds."));
+            }
+        }
+
+        ConcurrencyLimiters.Route route = method.getType() == MethodDescriptor.MethodType.UNARY
+                ? concurrencyLimiters.forName(routeOf(method))
+                : null;
+        if (route == null) {
+            return next.startCall(call, headers);
+        }
+        AdaptiveConcurrencyLimit limit = route.limit(true);
+        if (!limit.tryAcquire()) {
+            route.rejected(true);
+            log.debug("Concurrency limit reached for {} ({})", method.getFullMethodName(), route.getName());
+            return closed(call, Status.UNAVAILABLE.withDescription("Read capacity exhausted. Please retry shortly."));
+        }
+        return new LimitedCall<>(call, limit).start(headers, next);
+    }
+
+    /**
+     * Route class of a catalog method
+     */
+    static String routeOf(MethodDescriptor<?, ?> method) {
+        String name = method.getBareMethodName();
+        return name != null && name.contains("Categor") ? "categories" : "products";
+    }
+
+    private static String callerKey(ServerCall<?, ?> call, Authentication authentication) {
+        Long apiKeyId = authentication != null
+                && authentication.getDetails() instanceof ApiKeyService.ApiKeyAuthentication apiKey
+                ? apiKey.keyId()
+                : null;
+        return RateLimiter.callerKey(apiKeyId, authentication,
+                String.valueOf(call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR)));
+    }
+
+    private static <ReqT> ServerCall.Listener<ReqT> closed(ServerCall<ReqT, ?> call, Status status) {
+        call.close(status, new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+
+    /**
+     * Holds one permit from start until the call closes. Every callback records database access, so the
+     * limit learns only from calls that reached the database.
+     */
+    private static final class LimitedCall<ReqT, RespT> extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final DatabaseAccess.Recorder database = new DatabaseAccess.Recorder();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final long start = System.nanoTime();
+        private volatile ConcurrencyLimiters.Outcome outcome = ConcurrencyLimiters.Outcome.FAILED;
+
+        private LimitedCall(ServerCall<ReqT, RespT> delegate, AdaptiveConcurrencyLimit limit) {
+            super(delegate);
+            this.limit = limit;
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            outcome = outcomeOf(status);
+            super.close(status, trailers);
+        }
+
+        ServerCall.Listener<ReqT> start(Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+            ServerCall.Listener<ReqT> delegate;
+            try {
+                delegate = recording(() -> next.startCall(this, headers));
+            } catch (RuntimeException ex) {
+                release();
+                throw ex;
+            }
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+                @Override
+                public void onMessage(ReqT message) {
+                    recording(() -> super.onMessage(message));
+                }
+
+                @Override
+                public void onHalfClose() {
+                    recording(super::onHalfClose);
+                }
+
+                @Override
+                public void onReady() {
+                    recording(super::onReady);
+                }
+
+                @Override
+                public void onCancel() {
+                    try {
+                        super.onCancel();
+                    } finally {
+                        release();
+                    }
+                }
+
+                @Override
+                public void onComplete() {
+                    try {
+                        super.onComplete();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+        }
+
+        private void recording(Runnable callback) {
+            recording(() -> {
+                callback.run();
+                return null;
+            });
+        }
+
+        private <T> T recording(Supplier<T> callback) {
+            DatabaseAccess.Recorder previous = DatabaseAccess.current();
+            DatabaseAccess.attach(database);
+            try {
+                return callback.get();
+            } finally {
+                DatabaseAccess.attach(previous);
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                ConcurrencyLimiters.release(limit, System.nanoTime() - start, outcome, database);
+            }
+        }
+
+        private static ConcurrencyLimiters.Outcome outcomeOf(Status status) {
+            return switch (status.getCode()) {
+                case OK -> ConcurrencyLimiters.Outcome.SUCCEEDED;
+                case INTERNAL, UNKNOWN, UNAVAILABLE, DEADLINE_EXCEEDED, DATA_LOSS -> ConcurrencyLimiters.Outcome.FAILED;
+                default -> ConcurrencyLimiters.Outcome.REJECTED;
+            };
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.sd_project.sd_course.grpc;
+
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerCredentials;
+import io.grpc.ServerInterceptors;
+import io.grpc.TlsServerCredentials;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the internal gRPC server on its own port next to the servlet container.
+ *
+ * Off unless app.grpc.enabled is set. The server listens on app.grpc.address only, loopback by default,
+ * and refuses to start on any other address without a TLS certificate and key. Calls are authenticated
+ * and then rate and concurrency limited like REST requests.
+ *
+ * Calls run on virtual threads like the servlet requests do, so a blocking database read in one call
+ * does not hold a platform thread. On shutdown new calls are refused and running streams get the grace
+ * period to finish.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true")
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private final CatalogGrpcService catalogGrpcService;
+    private final GrpcAuthenticationInterceptor authenticationInterceptor;
+    private final GrpcLimitInterceptor limitInterceptor;
+    private final String address;
+    private final int port;
+    private final String certificateChain;
+    private final String privateKey;
+    private final long shutdownGraceMs;
+
+    private ExecutorService executor;
+    private Server server;
+
+    public GrpcServerLifecycle(CatalogGrpcService catalogGrpcService,
+                               GrpcAuthenticationInterceptor authenticationInterceptor,
+                               GrpcLimitInterceptor limitInterceptor,
+                               @Value("${app.grpc.address:127.0.0.1}") String address,
+                               @Value("${app.grpc.port:9090}") int port,
+                               @Value("${app.grpc.tls.certificate-chain:}") String certificateChain,
+                               @Value("${app.grpc.tls.private-key:}") String privateKey,
+                               @Value("${app.grpc.shutdown-grace-ms:10000}") long shutdownGraceMs) {
+        this.catalogGrpcService = catalogGrpcService;
+        this.authenticationInterceptor = authenticationInterceptor;
+        this.limitInterceptor = limitInterceptor;
+        this.address = address;
+        this.port = port;
+        this.certificateChain = certificateChain;
+        this.privateKey = privateKey;
+        this.shutdownGraceMs = shutdownGraceMs;
+    }
+
+    @Override
+    public synchronized void start() {
+        InetSocketAddress bindAddress = new InetSocketAddress(address, port);
+        ServerCredentials credentials = credentials(bindAddress);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            // The last interceptor runs first: authenticate, then limit
+            server = NettyServerBuilder.forAddress(bindAddress, credentials)
+                    .executor(executor)
+                    .addService(ServerInterceptors.intercept(catalogGrpcService,
+                            limitInterceptor, authenticationInterceptor))
+                    .build()
+                    .start();
+        } catch (IOException ex) {
+            executor.shutdown();
+            throw new UncheckedIOException("Could not start gRPC server on " + bindAddress, ex);
+        }
+        log.info("gRPC server started on {}:{} ({})", address, server.getPort(),
+                credentials instanceof TlsServerCredentials ? "TLS" : "plaintext");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceMs, TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+            server = null;
+            log.info("gRPC server stopped");
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    private ServerCredentials credentials(InetSocketAddress bindAddress) {
+        if (StringUtils.hasText(certificateChain) && StringUtils.hasText(privateKey)) {
+            try {
+                return TlsServerCredentials.create(new File(certificateChain), new File(privateKey));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not read the gRPC TLS certificate or key", ex);
+            }
+        }
+        InetAddress host = bindAddress.getAddress();
+        if (host == null || !host.isLoopbackAddress()) {
+            throw new IllegalStateException("gRPC on " + address + " requires app.grpc.tls.certificate-chain and "
+                    + "app.grpc.tls.private-key; without TLS it may only listen on a loopback address");
+        }
+        return InsecureServerCredentials.create();
+    }
+}
@@ -0,0 +1,139 @@
+package com.sd_project.sd_course.limiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that learns the in-flight count at which latency starts to rise (TCP Vegas style).
+ *
+ * The lowest observed latency is taken as the no-load latency. From each sample the limiter estimates
+ * how many requests are queued, limit * (1 - noLoadRtt / rtt), and grows the limit while that queue is
+ * short and shrinks it when it gets long. Requests beyond the limit are refused up front, so excess load
+ * never waits on the connection pool. Admission is a CAS; the limit is updated by whichever releasing
+ * thread gets the update lock, and the others skip the update rather than wait.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int PROBE_INTERVAL = 1000;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile double limit;
+
+    // Guarded by updateLock
+    private long noLoadRttNanos;
+    private int samplesUntilProbe = nextProbe();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Try to admit a request; a true result must be paired with exactly one release
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finish an admitted request.
+     *
+     * @param rttNanos how long the request took
+     * @param dropped  whether it failed in a way that signals overload (timeouts, pool exhaustion)
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, dropped, inFlightAtRelease);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Finish an admitted request whose latency says nothing about the database, such as one answered
+     * from a cache or rejected before it ran a query
+     */
+    public void releaseUnsampled() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(long rttNanos, boolean dropped, int inFlightAtRelease) {
+        double current = limit;
+        if (dropped) {
+            limit = clamp(current * DROP_BACKOFF);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        if (--samplesUntilProbe <= 0) {
+            // Forget the old minimum now and then so a permanently slower database is accepted as normal
+            noLoadRttNanos = rttNanos;
+            samplesUntilProbe = nextProbe();
+            return;
+        }
+        if (inFlightAtRelease * 2 < current) {
+            // Demand is well below the limit, so latency says nothing about it
+            return;
+        }
+
+        double queued = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+        double log = Math.max(1, Math.log10(current));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+
+        double next;
+        if (queued <= log) {
+            next = current + beta;
+        } else if (queued < alpha) {
+            next = current + log;
+        } else if (queued > beta) {
+            next = current - log;
+        } else {
+            return;
+        }
+        limit = clamp(next);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    private static int nextProbe() {
+        return PROBE_INTERVAL + ThreadLocalRandom.current().nextInt(PROBE_INTERVAL);
+    }
+}
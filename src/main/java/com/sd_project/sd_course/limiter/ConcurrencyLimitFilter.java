@@ -0,0 +1,98 @@
+package com.sd_project.sd_course.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.datasource.DatabaseAccess;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sheds load in front of the database-bound endpoints before it can queue on the connection pool.
+ *
+ * Runs after authorization, so unauthenticated and forbidden requests never take a permit. Each route
+ * class has its own read and write limit (see {@link ConcurrencyLimiters}), and only successful requests
+ * that actually ran a query are used as latency samples. Requests over the limit get 503 immediately.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimiters limiters;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiters limiters, ObjectMapper objectMapper) {
+        this.limiters = limiters;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiters.forPath(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        ConcurrencyLimiters.Route route = limiters.forPath(request.getServletPath());
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AdaptiveConcurrencyLimit limit = route.limit(read);
+
+        if (!limit.tryAcquire()) {
+            route.rejected(read);
+            reject(request, response, route, read);
+            return;
+        }
+
+        long start = System.nanoTime();
+        DatabaseAccess.Recorder database = DatabaseAccess.begin();
+        ConcurrencyLimiters.Outcome outcome = ConcurrencyLimiters.Outcome.FAILED;
+        try {
+            filterChain.doFilter(request, response);
+            outcome = outcomeOf(response.getStatus());
+        } finally {
+            DatabaseAccess.end();
+            ConcurrencyLimiters.release(limit, System.nanoTime() - start, outcome, database);
+        }
+    }
+
+    private static ConcurrencyLimiters.Outcome outcomeOf(int status) {
+        if (status >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            return ConcurrencyLimiters.Outcome.FAILED;
+        }
+        return status >= HttpStatus.BAD_REQUEST.value()
+                ? ConcurrencyLimiters.Outcome.REJECTED
+                : ConcurrencyLimiters.Outcome.SUCCEEDED;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        ConcurrencyLimiters.Route route, boolean read) throws IOException {
+        log.debug("Concurrency limit reached for {} {} ({})", request.getMethod(), request.getServletPath(),
+                route.getName());
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", (read ? "Read" : "Write") + " capacity exhausted. Please retry shortly.");
+        body.put("path", request.getServletPath());
+        body.put("timestamp", System.currentTimeMillis());
+
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,62 @@
+package com.sd_project.sd_course.limiter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Route classes, each with its own read and write limit, mapped to the path patterns they cover.
+     * The first matching class wins.
+     */
+    private Map<String, List<String>> routes = defaultRoutes();
+
+    /**
+     * Paths that never take a permit: long-lived streams would hold one for as long as they are open,
+     * and in-memory endpoints never queue on a connection pool
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/api/products/stream", "/api/products/suggest"));
+
+    /**
+     * Limit for GET and HEAD requests, per route class
+     */
+    private Limit read = new Limit(20, 4, 200);
+
+    /**
+     * Limit for every other method, per route class; these are admin writes holding row locks
+     */
+    private Limit write = new Limit(5, 1, 20);
+
+    private static Map<String, List<String>> defaultRoutes() {
+        Map<String, List<String>> routes = new LinkedHashMap<>();
+        routes.put("products", List.of("/api/products/**"));
+        routes.put("categories", List.of("/api/categories/**"));
+        routes.put("users", List.of("/api/users/**"));
+        return routes;
+    }
+
+    @Data
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Limit() {
+        }
+
+        public Limit(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.sd_project.sd_course.limiter;
+
+import com.sd_project.sd_course.datasource.DatabaseAccess;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The adaptive concurrency limits of every route class, shared by all transports that reach the database.
+ *
+ * Each route class has one limit for reads and one for writes, so a burst of product searches cannot
+ * shrink the limit for user lookups, and catalog reads cannot starve admin writes.
+ */
+@Component
+public class ConcurrencyLimiters {
+
+    private static final String METRIC_PREFIX = "app.concurrency";
+
+    private final ConcurrencyLimitProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> excludedPaths;
+    private final List<Route> routes = new ArrayList<>();
+
+    public ConcurrencyLimiters(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.excludedPaths = List.copyOf(properties.getExcludedPaths());
+        for (Map.Entry<String, List<String>> route : properties.getRoutes().entrySet()) {
+            routes.add(new Route(route.getKey(), List.copyOf(route.getValue()),
+                    properties.getRead(), properties.getWrite(), meterRegistry));
+        }
+    }
+
+    /**
+     * How an admitted request ended
+     */
+    public enum Outcome {
+        SUCCEEDED,
+        /**
+         * Client error such as 401, 404 or a validation failure; says nothing about load
+         */
+        REJECTED,
+        FAILED
+    }
+
+    /**
+     * Limits of one route class
+     */
+    public static final class Route {
+
+        private final String name;
+        private final List<String> patterns;
+        private final AdaptiveConcurrencyLimit read;
+        private final AdaptiveConcurrencyLimit write;
+        private final Counter readRejections;
+        private final Counter writeRejections;
+
+        private Route(String name, List<String> patterns,
+                      ConcurrencyLimitProperties.Limit read, ConcurrencyLimitProperties.Limit write,
+                      MeterRegistry meterRegistry) {
+            this.name = name;
+            this.patterns = patterns;
+            this.read = create(read);
+            this.write = create(write);
+            this.readRejections = register(meterRegistry, name, "read", this.read);
+            this.writeRejections = register(meterRegistry, name, "write", this.write);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public AdaptiveConcurrencyLimit limit(boolean forRead) {
+            return forRead ? read : write;
+        }
+
+        public void rejected(boolean forRead) {
+            (forRead ? readRejections : writeRejections).increment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Route class for a request path, or null if the path is excluded or not limited
+     */
+    public Route forPath(String path) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        for (String pattern : excludedPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return null;
+            }
+        }
+        for (Route route : routes) {
+            for (String pattern : route.patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Route class by name, for transports without request paths; null if unknown or limiting is off
+     */
+    public Route forName(String name) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return routes.stream().filter(route -> route.name.equals(name)).findFirst().orElse(null);
+    }
+
+    /**
+     * Return a permit. Only requests that actually obtained a connection teach the limit anything:
+     * their successes are latency samples and their server errors are treated as overload. Everything
+     * else, such as cache hits and client errors, just gives the permit back.
+     */
+    public static void release(AdaptiveConcurrencyLimit limit, long rttNanos, Outcome outcome,
+                               DatabaseAccess.Recorder database) {
+        if (database == null || !database.isUsed() || outcome == Outcome.REJECTED) {
+            limit.releaseUnsampled();
+        } else {
+            limit.release(rttNanos, outcome == Outcome.FAILED);
+        }
+    }
+
+    private static AdaptiveConcurrencyLimit create(ConcurrencyLimitProperties.Limit limit) {
+        return new AdaptiveConcurrencyLimit(limit.getInitialLimit(), limit.getMinLimit(), limit.getMaxLimit());
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String route, String type,
+                                    AdaptiveConcurrencyLimit limit) {
+        Gauge.builder(METRIC_PREFIX + ".limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("route", route)
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests currently admitted")
+                .tag("route", route)
+                .tag("type", type)
+                .register(meterRegistry);
+        return Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Requests shed by the concurrency limiter")
+                .tag("route", route)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.sd_project.sd_course.limiter;
+
+import com.sd_project.sd_course.repository.RateLimitNodeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Shares rate budgets between application nodes.
+ *
+ * Each node heartbeats into the rate_limit_nodes table and counts how many nodes are alive. Buckets stay
+ * local and lock-free; every node simply refills at rate / activeNodes, so the cluster as a whole admits
+ * the configured rate. The database is touched once per sync interval rather than once per request.
+ * When cluster mode is off the divisor is always 1.
+ */
+@Component
+@Slf4j
+public class RateLimitClusterCoordinator {
+
+    private final RateLimitNodeRepository rateLimitNodeRepository;
+    private final RateLimitProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile int activeNodes = 1;
+
+    public RateLimitClusterCoordinator(RateLimitNodeRepository rateLimitNodeRepository,
+                                       RateLimitProperties properties) {
+        this.rateLimitNodeRepository = rateLimitNodeRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Number of nodes currently sharing each principal's budget
+     */
+    public int getActiveNodes() {
+        return activeNodes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.rate-limit.cluster.sync-interval-ms:5000}",
+               initialDelayString = "${app.rate-limit.cluster.sync-interval-ms:5000}")
+    public void sync() {
+        if (!properties.getCluster().isEnabled()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime cutoff = now.minusNanos(properties.getCluster().getNodeTimeoutMs() * 1_000_000);
+            rateLimitNodeRepository.heartbeat(nodeId, now);
+            rateLimitNodeRepository.deleteInactiveBefore(cutoff);
+            int counted = (int) Math.max(1, rateLimitNodeRepository.countActiveSince(cutoff));
+            if (counted != activeNodes) {
+                log.info("Rate limit budget now shared across {} nodes", counted);
+            }
+            activeNodes = counted;
+        } catch (Exception ex) {
+            // Keep the last known node count; a database hiccup must not change admission rates
+            log.warn("Could not sync rate limit nodes: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!properties.getCluster().isEnabled()) {
+            return;
+        }
+        try {
+            rateLimitNodeRepository.deleteById(nodeId);
+        } catch (Exception ex) {
+            log.debug("Could not deregister rate limit node: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.sd_project.sd_course.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.security.ApiKeyAuthenticationFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-principal rate limiting, applied after authentication so that budgets follow the caller rather
+ * than the connection. The buckets live in {@link RateLimiter}, which the other transports share.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String callerKey = RateLimiter.callerKey(
+                (Long) request.getAttribute(ApiKeyAuthenticationFilter.API_KEY_ID_ATTRIBUTE),
+                authentication, request.getRemoteAddr());
+
+        long waitNanos = rateLimiter.tryAcquire(request.getMethod(), request.getServletPath(), callerKey,
+                authentication);
+        if (waitNanos > 0) {
+            reject(request, response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = RateLimiter.retryAfterSeconds(waitNanos);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Rate limit exceeded. Retry after " + retryAfterSeconds + " seconds.");
+        body.put("path", request.getServletPath());
+        body.put("timestamp", System.currentTimeMillis());
+
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,67 @@
+package com.sd_project.sd_course.limiter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Rate applied to requests that match no route rule
+     */
+    private Rate defaultRate = new Rate(20, 40);
+
+    /**
+     * Route-specific rates, evaluated in order; the first matching rule wins
+     */
+    private List<RouteRate> routes = new ArrayList<>();
+
+    /**
+     * Multipliers applied to a rate for principals holding a role (e.g. ADMIN=5)
+     */
+    private Map<String, Double> roleMultipliers = new HashMap<>();
+
+    /**
+     * Buckets untouched for this long are dropped
+     */
+    private long idleEvictionMs = 600_000;
+
+    private Cluster cluster = new Cluster();
+
+    @Data
+    public static class Rate {
+        private double requestsPerSecond;
+        private int burst;
+
+        public Rate() {
+        }
+
+        public Rate(double requestsPerSecond, int burst) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+        }
+    }
+
+    @Data
+    public static class RouteRate {
+        private String pattern;
+        private String method;
+        private double requestsPerSecond;
+        private int burst;
+    }
+
+    @Data
+    public static class Cluster {
+        private boolean enabled = false;
+        private long syncIntervalMs = 5_000;
+        private long nodeTimeoutMs = 15_000;
+    }
+}
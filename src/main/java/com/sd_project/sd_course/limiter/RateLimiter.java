@@ -0,0 +1,145 @@
+package com.sd_project.sd_course.limiter;
+
+import com.sd_project.sd_course.security.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-caller token buckets behind the rate limits, shared by all transports.
+ *
+ * Callers are identified by API key id, then user id, then remote address. Each caller gets one bucket
+ * per route rule, so a client hammering an expensive search cannot spend the budget of cheap reads
+ * (or the database connections other tenants need).
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final int DEFAULT_RULE = -1;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final RateLimitProperties properties;
+    private final RateLimitClusterCoordinator clusterCoordinator;
+    private final List<RateLimitProperties.RouteRate> routes;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitProperties properties, RateLimitClusterCoordinator clusterCoordinator) {
+        this.properties = properties;
+        this.clusterCoordinator = clusterCoordinator;
+        this.routes = List.copyOf(properties.getRoutes());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Caller identity for {@link #tryAcquire}
+     */
+    public static String callerKey(Long apiKeyId, Authentication authentication, String remoteAddress) {
+        if (apiKeyId != null) {
+            return "key:" + apiKeyId;
+        }
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        return "ip:" + remoteAddress;
+    }
+
+    /**
+     * Take a token for one request of the caller
+     *
+     * @return 0 if the request is admitted, otherwise nanoseconds until the caller's bucket has a token
+     */
+    public long tryAcquire(String method, String path, String callerKey, Authentication authentication) {
+        int rule = matchRule(method, path);
+        double requestsPerSecond = rule == DEFAULT_RULE
+                ? properties.getDefaultRate().getRequestsPerSecond()
+                : routes.get(rule).getRequestsPerSecond();
+        int burst = rule == DEFAULT_RULE
+                ? properties.getDefaultRate().getBurst()
+                : routes.get(rule).getBurst();
+
+        double multiplier = roleMultiplier(authentication);
+        int nodes = clusterCoordinator.getActiveNodes();
+
+        long intervalNanos = (long) (NANOS_PER_SECOND * nodes / (requestsPerSecond * multiplier));
+        int nodeBurst = Math.max(1, (int) Math.round(burst * multiplier / nodes));
+
+        String key = callerKey + '#' + rule;
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            TokenBucket created = new TokenBucket(now);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+
+        long waitNanos = bucket.tryAcquire(now, intervalNanos, nodeBurst);
+        if (waitNanos > 0) {
+            log.debug("Rate limit exceeded for {}", key);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Whole seconds to put in a Retry-After for a wait returned by {@link #tryAcquire}
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    /**
+     * Drop buckets that have been full for a while; an absent bucket behaves exactly like a full one
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.idle-eviction-ms:600000}",
+               initialDelayString = "${app.rate-limit.idle-eviction-ms:600000}")
+    public void evictIdleBuckets() {
+        long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdleSince(idleSince));
+        log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+    }
+
+    private int matchRule(String method, String path) {
+        for (int i = 0; i < routes.size(); i++) {
+            RateLimitProperties.RouteRate route = routes.get(i);
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(method))
+                    && pathMatcher.match(route.getPattern(), path)) {
+                return i;
+            }
+        }
+        return DEFAULT_RULE;
+    }
+
+    private double roleMultiplier(Authentication authentication) {
+        Map<String, Double> multipliers = properties.getRoleMultipliers();
+        if (authentication == null || multipliers.isEmpty()) {
+            return 1.0;
+        }
+        double multiplier = 1.0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String role = authority.getAuthority();
+            if (role != null && role.startsWith(ROLE_PREFIX)) {
+                Double roleMultiplier = multipliers.get(role.substring(ROLE_PREFIX.length()));
+                if (roleMultiplier != null) {
+                    multiplier = Math.max(multiplier, roleMultiplier);
+                }
+            }
+        }
+        return multiplier;
+    }
+}
@@ -0,0 +1,47 @@
+package com.sd_project.sd_course.limiter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Instead of storing a token count and a refill timestamp, the bucket stores a single value: the
+ * time at which it would be completely refilled (the generic cell rate algorithm). Taking a token
+ * pushes that time forward by one emission interval, and the request is allowed as long as the
+ * bucket would not need to be more than burst tokens in debt. One CAS per request, no allocation.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Try to take one token.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token becomes available
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, int burst) {
+        long capacityNanos = intervalNanos * burst;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long debt = next - nowNanos;
+            if (debt > capacityNanos) {
+                return debt - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket has been full, and therefore unused, since the given time
+     */
+    boolean isIdleSince(long nanos) {
+        return fullAt.get() < nanos;
+    }
+}
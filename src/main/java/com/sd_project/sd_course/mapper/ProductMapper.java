@@ -6,6 +6,10 @@ import com.sd_project.sd_course.dto.response.ProductResponse;
 import com.sd_project.sd_course.entity.Product;
 import org.mapstruct.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
 
@@ -17,6 +21,31 @@ public interface ProductMapper {
     @Mapping(target = "category.name", source = "category.name")
     ProductResponse toResponse(Product product);
 
+    /**
+     * Map a row of selected product attributes, keyed as in FieldSelection ("category.name"), to a response
+     * with only the fields whose attributes were selected; the others stay null. A row with every attribute
+     * maps to the same response as {@link #toResponse(Product)}.
+     */
+    default ProductResponse toPartialResponse(Map<String, Object> row) {
+        Integer stockQuantity = (Integer) row.get("stockQuantity");
+        return ProductResponse.builder()
+                .id((Long) row.get("id"))
+                .name((String) row.get("name"))
+                .description((String) row.get("description"))
+                .price((BigDecimal) row.get("price"))
+                .stockQuantity(stockQuantity)
+                .stockStatus(row.containsKey("stockQuantity") ? Product.StockStatus.of(stockQuantity).name() : null)
+                .category(row.containsKey("category.id")
+                        ? ProductResponse.CategoryInfo.builder()
+                                .id((Long) row.get("category.id"))
+                                .name((String) row.get("category.name"))
+                                .build()
+                        : null)
+                .createdAt((LocalDateTime) row.get("createdAt"))
+                .updatedAt((LocalDateTime) row.get("updatedAt"))
+                .build();
+    }
+
     /**
      * Map ProductCreateRequest to Product entity
      */
@@ -0,0 +1,71 @@
+package com.sd_project.sd_course.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Records catalog changes in the outbox table of the shard the change was made on.
+ *
+ * The row is written by the same transaction as the change, so it exists exactly when the change committed;
+ * {@link OutboxRelay} then publishes it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Add an event to the current transaction
+     *
+     * @param payload state after the change, serialized as JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        record(aggregateType, aggregateId, eventType, payload, Map.of());
+    }
+
+    /**
+     * Add an event to the current transaction, with fields that are not part of the state itself
+     *
+     * @param extraFields added next to the payload's own fields, such as what a value was before the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Object payload,
+                       Map<String, ?> extraFields) {
+        String json;
+        try {
+            if (extraFields.isEmpty()) {
+                json = objectMapper.writeValueAsString(payload);
+            } else {
+                ObjectNode node = objectMapper.valueToTree(payload);
+                extraFields.forEach((name, value) -> node.set(name, objectMapper.valueToTree(value)));
+                json = objectMapper.writeValueAsString(node);
+            }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // Failing the change is better than committing it without its event
+            throw new IllegalStateException("Could not serialize " + aggregateType + " " + aggregateId + " event", e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .createdAt(LocalDateTime.now())
+                .build());
+        log.debug("Recorded {} event for {} {}", eventType, aggregateType, aggregateId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.sd_project.sd_course.outbox;
+
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.repository.OutboxEventRepository;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes outbox events: gives them their place in the change feed and hands them to subscribers.
+ *
+ * Each shard is drained on its own, oldest event first, in batches. A batch is published in one transaction
+ * holding a Postgres advisory lock, so only one node relays a shard at a time and positions are handed out
+ * in a single sequence with no gaps, whatever order the writing transactions committed in. Subscribers are
+ * called before that transaction commits; if one fails or the commit does, the batch stays unpublished and
+ * is delivered again on the next run.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String METRIC_PREFIX = "app.outbox.relay";
+
+    /**
+     * Advisory lock key shared by every node relaying the same shard
+     */
+    private static final long RELAY_LOCK_KEY = 0x6F7574626F78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transaction;
+    private final ObjectProvider<OutboxSubscriber> subscribers;
+    private final int batchSize;
+    private final Counter relayed;
+    private final Counter failed;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager,
+                       ObjectProvider<OutboxSubscriber> subscribers,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.relay.batch-size:500}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.subscribers = subscribers;
+        this.batchSize = batchSize;
+        this.relayed = Counter.builder(METRIC_PREFIX + ".relayed")
+                .description("Outbox events published to the change feed")
+                .register(meterRegistry);
+        this.failed = Counter.builder(METRIC_PREFIX + ".failed")
+                .description("Outbox batches rolled back to be delivered again")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain every shard's backlog
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            try {
+                int published;
+                do {
+                    published = relayBatch(shard);
+                } while (published == batchSize);
+            } catch (Exception ex) {
+                failed.increment();
+                log.warn("Could not relay outbox events on shard {}: {}", shard, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Publish the next batch of one shard
+     *
+     * @return events published; 0 if there were none or another node holds the shard's relay lock
+     */
+    int relayBatch(int shard) {
+        Integer published = shardRouter.onShard(shard, () -> transaction.execute(status -> {
+            if (!outboxEventRepository.tryLock(RELAY_LOCK_KEY)) {
+                return 0;
+            }
+            List<OutboxEvent> batch = outboxEventRepository.findUnpublished(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            long position = outboxEventRepository.findMaxPosition();
+            LocalDateTime now = LocalDateTime.now();
+            for (OutboxEvent event : batch) {
+                event.setPosition(++position);
+                event.setPublishedAt(now);
+            }
+            subscribers.orderedStream().forEach(subscriber -> subscriber.onEvents(shard, batch));
+            return batch.size();
+        }));
+        if (published != null && published > 0) {
+            relayed.increment(published);
+            log.debug("Relayed {} outbox events on shard {}", published, shard);
+        }
+        return published != null ? published : 0;
+    }
+}
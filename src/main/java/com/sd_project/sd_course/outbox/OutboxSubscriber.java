@@ -0,0 +1,16 @@
+package com.sd_project.sd_course.outbox;
+
+import com.sd_project.sd_course.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * In-process consumer of published outbox events.
+ *
+ * Batches arrive in feed order, one shard at a time, on the node running the relay. Delivery is at least once:
+ * if any subscriber throws, the batch is published again on the next run, so handling must be idempotent.
+ */
+public interface OutboxSubscriber {
+
+    void onEvents(int shard, List<OutboxEvent> events);
+}
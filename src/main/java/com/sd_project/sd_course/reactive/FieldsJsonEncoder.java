@@ -0,0 +1,31 @@
+package com.sd_project.sd_course.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+
+/**
+ * JSON and NDJSON encoder that writes only the fields= selection of product and category responses,
+ * the reactive counterpart of FieldsResponseBodyAdvice. Handlers pass the filters as a response hint.
+ */
+class FieldsJsonEncoder extends Jackson2JsonEncoder {
+
+    static final String FILTERS_HINT = FieldsJsonEncoder.class.getName() + ".filters";
+
+    FieldsJsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType, ResolvableType elementType,
+                                           Map<String, Object> hints) {
+        ObjectWriter customized = super.customizeWriter(writer, mimeType, elementType, hints);
+        Object filters = hints != null ? hints.get(FILTERS_HINT) : null;
+        return filters instanceof FilterProvider provider ? customized.with(provider) : customized;
+    }
+}
@@ -0,0 +1,115 @@
+package com.sd_project.sd_course.reactive;
+
+import com.sd_project.sd_course.security.BearerTokenAuthenticator;
+import com.sd_project.sd_course.security.UserPrincipal;
+import com.sd_project.sd_course.service.ApiKeyService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+/**
+ * Requires the same credentials as the servlet API: a bearer access token or an X-API-Key header.
+ *
+ * Resolving a credential may hit the database (legacy tokens, API keys whose owner changed), so it runs
+ * on a virtual thread and never blocks an event-loop thread.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveAuthenticationFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+    private static final String AUTHENTICATION_ATTRIBUTE = ReactiveAuthenticationFilter.class.getName() + ".authentication";
+
+    private final BearerTokenAuthenticator bearerTokenAuthenticator;
+    private final ApiKeyService apiKeyService;
+    private final ReactiveErrorHandler errorHandler;
+    private final Scheduler scheduler = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "reactive-auth");
+
+    public ReactiveAuthenticationFilter(BearerTokenAuthenticator bearerTokenAuthenticator,
+                                        ApiKeyService apiKeyService,
+                                        ReactiveErrorHandler errorHandler) {
+        this.bearerTokenAuthenticator = bearerTokenAuthenticator;
+        this.apiKeyService = apiKeyService;
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String authorization = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        String apiKey = request.headers().firstHeader(API_KEY_HEADER);
+        if (!StringUtils.hasText(authorization) && !StringUtils.hasText(apiKey)) {
+            return unauthorized(request);
+        }
+        return Mono.fromCallable(() -> Optional.ofNullable(authenticate(authorization, apiKey)))
+                .subscribeOn(scheduler)
+                .onErrorResume(RuntimeException.class, ex -> {
+                    log.debug("Rejected credentials: {}", ex.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(authentication -> {
+                    if (authentication.isEmpty()) {
+                        return unauthorized(request);
+                    }
+                    request.attributes().put(AUTHENTICATION_ATTRIBUTE, authentication.get());
+                    return next.handle(request);
+                });
+    }
+
+    /**
+     * The caller's authentication, for filters inside this one
+     */
+    public static Authentication authentication(ServerRequest request) {
+        return (Authentication) request.attributes().get(AUTHENTICATION_ATTRIBUTE);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * The authentication the servlet filters would set up, or null; API keys keep their key in the details
+     * so the rate limiter budgets the key rather than its owner
+     */
+    private Authentication authenticate(String authorization, String apiKey) {
+        UserDetails user = bearerTokenAuthenticator.authenticate(bearerTokenAuthenticator.tokenFromHeader(authorization));
+        if (user != null) {
+            return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        }
+        if (StringUtils.hasText(apiKey)) {
+            ApiKeyService.ApiKeyAuthentication key = apiKeyService.authenticate(apiKey);
+            if (key != null) {
+                UserPrincipal principal = key.principal();
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                authentication.setDetails(key);
+                return authentication;
+            }
+        }
+        return null;
+    }
+
+    private Mono<ServerResponse> unauthorized(ServerRequest request) {
+        return errorHandler.respond(request, HttpStatus.UNAUTHORIZED, "Unauthorized",
+                "Access denied. Please provide a valid JWT token.");
+    }
+}
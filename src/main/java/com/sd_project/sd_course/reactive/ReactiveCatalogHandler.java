@@ -0,0 +1,527 @@
+package com.sd_project.sd_course.reactive;
+
+import com.sd_project.sd_course.cache.CountCache;
+import com.sd_project.sd_course.cache.ProductCache;
+import com.sd_project.sd_course.cache.SearchResultCache;
+import com.sd_project.sd_course.cache.SearchResultCache.SearchKey;
+import com.sd_project.sd_course.cache.SearchResultCache.SearchResult;
+import com.sd_project.sd_course.cache.TableVersions;
+import com.sd_project.sd_course.dto.request.CountMode;
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.dto.request.ProductBatchRequest;
+import com.sd_project.sd_course.dto.response.CategoryResponse;
+import com.sd_project.sd_course.dto.response.FieldsFilter;
+import com.sd_project.sd_course.dto.response.ProductBatchItemResponse;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.sd_project.sd_course.mapper.CategoryMapper;
+import com.sd_project.sd_course.mapper.ProductMapper;
+import com.sd_project.sd_course.repository.ProductFilter;
+import com.sd_project.sd_course.repository.ReactiveCatalogRepository;
+import com.sd_project.sd_course.repository.ReactiveCatalogRepository.RowOrder;
+import com.sd_project.sd_course.suggest.SuggestionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Read endpoints of ProductController and CategoryController on the non-blocking stack.
+ *
+ * Parameters, defaults, headers and bodies are the same as on the servlet stack, and responses are
+ * built with the same mappers and DTOs. As there, fields= selects only the columns it needs, searches
+ * are served from the search result cache, exact totals from the count cache and products by id from
+ * the product cache; the caches are the servlet stack's, so either API warms them for the other.
+ * List endpoints additionally stream every matching product as NDJSON when the client sends
+ * Accept: application/x-ndjson.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveCatalogHandler {
+
+    private static final String HAS_NEXT_HEADER = "X-Has-Next";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TOTAL_ESTIMATED_HEADER = "X-Total-Count-Estimated";
+    private static final String FIELDS_PARAMETER = "fields";
+
+    /**
+     * Sort properties backed by an index on products, as for the servlet advanced search
+     */
+    private static final Set<String> SEARCH_SORT_PROPERTIES = Set.of("id", "name", "price", "createdAt");
+    private static final RowOrder<Map<String, Object>> BY_ID =
+            ReactiveCatalogRepository.productOrder("id", Sort.Direction.ASC);
+    private static final RowOrder<Map<String, Object>> BY_NAME =
+            ReactiveCatalogRepository.productOrder("name", Sort.Direction.ASC);
+
+    private final ReactiveCatalogRepository repository;
+    private final ProductMapper productMapper;
+    private final CategoryMapper categoryMapper;
+    private final ProductCache productCache;
+    private final SearchResultCache searchResultCache;
+    private final CountCache countCache;
+    private final SuggestionService suggestionService;
+    private final int fetchSize;
+    private final int maxBatchIds;
+
+    public ReactiveCatalogHandler(ReactiveCatalogRepository repository,
+                                  ProductMapper productMapper,
+                                  CategoryMapper categoryMapper,
+                                  ProductCache productCache,
+                                  SearchResultCache searchResultCache,
+                                  CountCache countCache,
+                                  SuggestionService suggestionService,
+                                  ReactiveProperties properties,
+                                  @Value("${app.products.batch.max-ids:200}") int maxBatchIds) {
+        this.repository = repository;
+        this.productMapper = productMapper;
+        this.categoryMapper = categoryMapper;
+        this.productCache = productCache;
+        this.searchResultCache = searchResultCache;
+        this.countCache = countCache;
+        this.suggestionService = suggestionService;
+        this.fetchSize = properties.getFetchSize();
+        this.maxBatchIds = maxBatchIds;
+    }
+
+    public Mono<ServerResponse> getAllProducts(ServerRequest request) {
+        log.debug("Reactive GET /api/products");
+        return productList(request, ProductFilter.NONE,
+                productOrder(request, ReactiveCatalogRepository::productOrder), countMode(request));
+    }
+
+    /**
+     * Products come whole from the product cache, as on the servlet stack; the selection only trims the JSON
+     */
+    public Mono<ServerResponse> getProductById(ServerRequest request) {
+        long id = pathId(request, "id");
+        log.debug("Reactive GET /api/products/{}", id);
+        FieldSelection.validateForProducts(fields(request));
+        suggestionService.recordView(SuggestionService.PRODUCT, id);
+        boolean useCaches = usesCaches(request);
+        ProductResponse cached = useCaches ? productCache.get(id) : null;
+        Mono<ProductResponse> product;
+        if (cached != null) {
+            product = Mono.just(cached);
+        } else {
+            long version = useCaches ? productCache.version() : TableVersions.UNCACHEABLE;
+            product = repository.findProductById(id)
+                    .map(productMapper::toPartialResponse)
+                    .doOnNext(loaded -> productCache.put(version, loaded))
+                    .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Product", "id", id)));
+        }
+        return product.flatMap(body -> ok(request).bodyValue(body));
+    }
+
+    public Mono<ServerResponse> getProductsByIds(ServerRequest request) {
+        List<Long> ids = new ArrayList<>();
+        for (String value : request.queryParams().getOrDefault("ids", List.of())) {
+            for (String id : value.split(",")) {
+                if (!id.isBlank()) {
+                    ids.add(parse("ids", id.trim(), Long::valueOf));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new BadRequestException("Required parameter 'ids' is not present");
+        }
+        return batchResponse(request, ids);
+    }
+
+    public Mono<ServerResponse> postProductsByIds(ServerRequest request) {
+        return request.bodyToMono(ProductBatchRequest.class)
+                .defaultIfEmpty(new ProductBatchRequest())
+                .flatMap(body -> {
+                    if (body.getIds() == null || body.getIds().isEmpty()) {
+                        return Mono.error(new BadRequestException("At least one product ID is required"));
+                    }
+                    return batchResponse(request, body.getIds());
+                });
+    }
+
+    public Mono<ServerResponse> searchProducts(ServerRequest request) {
+        String keyword = requiredParam(request, "keyword");
+        log.debug("Reactive GET /api/products/search?keyword={}", keyword);
+        FieldSelection fields = FieldSelection.forProducts(fields(request));
+        ProductFilter filter = new ProductFilter(keyword, null, null, null, null);
+        if (acceptsNdjson(request)) {
+            return productStream(request, filter, BY_ID, fields);
+        }
+        // Unsorted like the servlet controller's page, so both APIs share the cached result
+        PageRequest page = pageRequest(request, 20);
+        SearchKey key = SearchKey.of("search", keyword, null, null, null, null, page, false);
+        return cachedSearch(request, key, fields, () -> productPage(filter, BY_ID, fields, page)
+                        .map(rows -> productsPage(rows, page, null)))
+                .flatMap(result -> ok(request)
+                        .header(HAS_NEXT_HEADER, String.valueOf(result.hasNext()))
+                        .bodyValue(result.content()));
+    }
+
+    public Mono<ServerResponse> suggest(ServerRequest request) {
+        String prefix = requiredParam(request, "prefix");
+        int limit = intParam(request, "limit", 10);
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suggestionService.suggest(prefix, limit));
+    }
+
+    public Mono<ServerResponse> advancedSearchProducts(ServerRequest request) {
+        ProductFilter filter = new ProductFilter(
+                param(request, "keyword", null),
+                optionalParam(request, "categoryId", Long::valueOf),
+                optionalParam(request, "minPrice", BigDecimal::new),
+                optionalParam(request, "maxPrice", BigDecimal::new),
+                optionalParam(request, "inStock", Boolean::valueOf));
+        log.debug("Reactive GET /api/products/search/advanced - {}", filter);
+        RowOrder<Map<String, Object>> order = productOrder(request, (property, direction) -> {
+            if (!SEARCH_SORT_PROPERTIES.contains(property)) {
+                throw new BadRequestException("Cannot sort by '" + property + "'; sortable fields are "
+                        + String.join(", ", SEARCH_SORT_PROPERTIES.stream().sorted().toList()));
+            }
+            return ReactiveCatalogRepository.productOrder(property, direction);
+        });
+        boolean includeTotal = Boolean.parseBoolean(param(request, "includeTotal", "false"));
+        FieldSelection fields = FieldSelection.forProducts(fields(request));
+
+        if (acceptsNdjson(request)) {
+            return productStream(request, filter, order, fields);
+        }
+        PageRequest page = PageRequest.of(intParam(request, "page", 0), intParam(request, "size", 20), order.sort());
+        SearchKey key = SearchKey.of("advanced", filter.keyword(), filter.categoryId(), filter.minPrice(),
+                filter.maxPrice(), filter.inStock(), page, includeTotal);
+        return cachedSearch(request, key, fields, () -> Mono.zip(productPage(filter, order, fields, page),
+                                total(request, filter, includeTotal ? CountMode.EXACT : CountMode.NONE))
+                        .map(result -> productsPage(result.getT1(), page, result.getT2().orElse(null))))
+                .flatMap(result -> ok(request).bodyValue(result.total() != null
+                        ? new PageImpl<>(result.content(), page, result.total())
+                        : new SliceImpl<>(result.content(), page, result.hasNext())));
+    }
+
+    public Mono<ServerResponse> getProductsByPriceRange(ServerRequest request) {
+        BigDecimal minPrice = parse("minPrice", requiredParam(request, "minPrice"), BigDecimal::new);
+        BigDecimal maxPrice = parse("maxPrice", requiredParam(request, "maxPrice"), BigDecimal::new);
+        log.debug("Reactive GET /api/products/price-range?minPrice={}, maxPrice={}", minPrice, maxPrice);
+        return productList(request, new ProductFilter(null, null, minPrice, maxPrice, null), BY_ID, countMode(request));
+    }
+
+    public Mono<ServerResponse> getProductsInStock(ServerRequest request) {
+        log.debug("Reactive GET /api/products/in-stock");
+        return productList(request, new ProductFilter(null, null, null, null, true), BY_ID, countMode(request));
+    }
+
+    public Mono<ServerResponse> getProductsByCategory(ServerRequest request) {
+        long categoryId = pathId(request, "categoryId");
+        log.debug("Reactive GET /api/products/category/{}", categoryId);
+        FieldSelection.forProducts(fields(request));
+        CountMode countMode = countMode(request);
+        return repository.categoryExists(categoryId)
+                .flatMap(exists -> {
+                    if (!exists) {
+                        return Mono.error(new ResourceNotFoundException("Category", "id", categoryId));
+                    }
+                    suggestionService.recordView(SuggestionService.CATEGORY, categoryId);
+                    return productList(request, new ProductFilter(null, categoryId, null, null, null), BY_NAME, countMode);
+                });
+    }
+
+    public Mono<ServerResponse> getAllCategories(ServerRequest request) {
+        log.debug("Reactive GET /api/categories");
+        FieldSelection selection = FieldSelection.forCategories(fields(request));
+        Flux<Category> categories;
+        if (Boolean.parseBoolean(param(request, "paginated", "false"))) {
+            PageRequest page = pageRequest(request, 10);
+            RowOrder<Category> order = ReactiveCatalogRepository.categoryOrder(
+                    param(request, "sortBy", "name"), direction(request));
+            categories = repository.findCategories(order, page.getOffset(), page.getPageSize());
+        } else {
+            categories = repository.findCategories(
+                    ReactiveCatalogRepository.categoryOrder("name", Sort.Direction.ASC), 0, null);
+        }
+        return withProductCounts(categories, selection).flatMap(body -> ok(request).bodyValue(body));
+    }
+
+    public Mono<ServerResponse> getCategoryById(ServerRequest request) {
+        long id = pathId(request, "id");
+        log.debug("Reactive GET /api/categories/{}", id);
+        FieldSelection selection = FieldSelection.forCategories(fields(request));
+        return withProductCounts(repository.findCategoryById(id).flux(), selection)
+                .flatMap(categories -> categories.isEmpty()
+                        ? Mono.error(new ResourceNotFoundException("Category", "id", id))
+                        : ok(request).bodyValue(categories.get(0)));
+    }
+
+    public Mono<ServerResponse> searchCategories(ServerRequest request) {
+        String keyword = requiredParam(request, "keyword");
+        log.debug("Reactive GET /api/categories/search?keyword={}", keyword);
+        FieldSelection selection = FieldSelection.forCategories(fields(request));
+        return withProductCounts(repository.searchCategories(keyword), selection)
+                .flatMap(body -> ok(request).bodyValue(body));
+    }
+
+    /**
+     * List body with paging in headers, as on the servlet stack: X-Has-Next always, X-Total-Count when a
+     * total was requested. With Accept: application/x-ndjson every match is streamed instead.
+     */
+    private Mono<ServerResponse> productList(ServerRequest request, ProductFilter filter,
+                                             RowOrder<Map<String, Object>> order, CountMode countMode) {
+        FieldSelection fields = FieldSelection.forProducts(fields(request));
+        if (acceptsNdjson(request)) {
+            return productStream(request, filter, order, fields);
+        }
+        PageRequest page = pageRequest(request, 20);
+        return Mono.zip(productPage(filter, order, fields, page), total(request, filter, countMode))
+                .flatMap(result -> {
+                    List<ProductResponse> rows = result.getT1();
+                    boolean hasNext = rows.size() > page.getPageSize();
+                    ServerResponse.BodyBuilder response = ok(request).header(HAS_NEXT_HEADER, String.valueOf(hasNext));
+                    result.getT2().ifPresent(total -> response
+                            .header(TOTAL_COUNT_HEADER, String.valueOf(total))
+                            .header(TOTAL_ESTIMATED_HEADER, String.valueOf(countMode == CountMode.ESTIMATE)));
+                    return response.bodyValue(hasNext ? rows.subList(0, page.getPageSize()) : rows);
+                });
+    }
+
+    /**
+     * Every matching product as NDJSON. Rows are read from the database only as fast as the client reads
+     * the response, so the stream holds at most a fetch of rows per shard in memory.
+     */
+    private Mono<ServerResponse> productStream(ServerRequest request, ProductFilter filter,
+                                               RowOrder<Map<String, Object>> order, FieldSelection fields) {
+        Flux<ProductResponse> products = repository.streamProducts(filter, order, fields, fetchSize)
+                .map(productMapper::toPartialResponse);
+        return ok(request).contentType(MediaType.APPLICATION_NDJSON).body(products, ProductResponse.class);
+    }
+
+    /**
+     * One row beyond the page, which tells whether there is a next page
+     */
+    private Mono<List<ProductResponse>> productPage(ProductFilter filter, RowOrder<Map<String, Object>> order,
+                                                    FieldSelection fields, PageRequest page) {
+        return repository.findProducts(filter, order, fields, page.getOffset(), page.getPageSize() + 1)
+                .map(productMapper::toPartialResponse)
+                .collectList();
+    }
+
+    /**
+     * A search page from one row beyond it; total is null unless it was counted
+     */
+    private static ProductsPage productsPage(List<ProductResponse> rows, PageRequest page, Long total) {
+        boolean hasNext = rows.size() > page.getPageSize();
+        return new ProductsPage(hasNext ? rows.subList(0, page.getPageSize()) : rows, hasNext, total);
+    }
+
+    private record ProductsPage(List<ProductResponse> content, boolean hasNext, Long total) {
+    }
+
+    /**
+     * Exact totals come from the count cache when fresh and are cached after counting, under the same
+     * signature the servlet stack uses for the filter
+     */
+    private Mono<Optional<Long>> total(ServerRequest request, ProductFilter filter, CountMode countMode) {
+        Mono<Long> total;
+        if (countMode == CountMode.EXACT && usesCaches(request)) {
+            Long cached = countCache.getIfPresent(ProductCache.PRODUCTS_TABLE, filter.signature());
+            if (cached != null) {
+                total = Mono.just(cached);
+            } else {
+                long version = countCache.version(ProductCache.PRODUCTS_TABLE);
+                total = repository.countProducts(filter, countMode)
+                        .doOnNext(count -> countCache.put(ProductCache.PRODUCTS_TABLE, filter.signature(), version, count));
+            }
+        } else {
+            total = repository.countProducts(filter, countMode);
+        }
+        return total.map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * Serve a search page from the result cache, hydrating its ids through the product cache, as
+     * ProductService.cachedSearch does. On a miss, or if a cached product has disappeared, run the search and
+     * remember the ids it returned; only whole products go into the product cache.
+     */
+    private Mono<ProductsPage> cachedSearch(ServerRequest request, SearchKey key, FieldSelection fields,
+                                            Supplier<Mono<ProductsPage>> search) {
+        if (!usesCaches(request)) {
+            return search.get();
+        }
+        SearchResult cached = searchResultCache.get(key);
+        Mono<ProductsPage> hit = cached == null ? Mono.empty() : loadProducts(cached.ids(), true)
+                .filter(products -> products.size() == cached.ids().size())
+                .map(products -> new ProductsPage(cached.ids().stream().map(products::get).toList(),
+                        cached.hasNext(), cached.total()));
+        return hit.switchIfEmpty(Mono.defer(() -> {
+            long version = searchResultCache.version();
+            return search.get().doOnNext(result -> {
+                if (fields.isAll()) {
+                    result.content().forEach(product -> productCache.put(version, product));
+                }
+                searchResultCache.put(key, version, new SearchResult(
+                        result.content().stream().map(ProductResponse::getId).toList(), result.hasNext(), result.total()));
+            });
+        }));
+    }
+
+    private Mono<ServerResponse> batchResponse(ServerRequest request, List<Long> ids) {
+        if (ids.contains(null)) {
+            throw new BadRequestException("Product IDs cannot be null");
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new BadRequestException("At most " + maxBatchIds + " product IDs can be fetched at once");
+        }
+        FieldSelection.validateForProducts(fields(request));
+        log.debug("Reactive batch lookup of {} products", ids.size());
+
+        return loadProducts(new LinkedHashSet<>(ids), usesCaches(request)).flatMap(found -> ok(request).bodyValue(ids.stream()
+                .map(id -> ProductBatchItemResponse.builder()
+                        .id(id)
+                        .found(found.containsKey(id))
+                        .product(found.get(id))
+                        .build())
+                .toList()));
+    }
+
+    /**
+     * Whole products by id, from the product cache where possible and otherwise with one query per shard
+     * that holds any of the missing ids. Ids that do not exist are absent from the result.
+     */
+    private Mono<Map<Long, ProductResponse>> loadProducts(Collection<Long> ids, boolean useCaches) {
+        Map<Long, ProductResponse> found = new ConcurrentHashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            ProductResponse cached = useCaches ? productCache.get(id) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Mono.just(found);
+        }
+        long version = useCaches ? productCache.version() : TableVersions.UNCACHEABLE;
+        return repository.findProductsByIds(misses)
+                .map(productMapper::toPartialResponse)
+                .doOnNext(product -> {
+                    found.put(product.getId(), product);
+                    productCache.put(version, product);
+                })
+                .then(Mono.fromSupplier(() -> found));
+    }
+
+    /**
+     * Category responses; products are counted over all shards only if productCount was selected
+     */
+    private Mono<List<CategoryResponse>> withProductCounts(Flux<Category> categories, FieldSelection selection) {
+        return categories.collectList().flatMap(list -> {
+            if (!selection.includes("productCount")) {
+                return Mono.just(list.stream().map(categoryMapper::toResponse).toList());
+            }
+            return repository.countProductsByCategory(list.stream().map(Category::getId).collect(Collectors.toSet()))
+                    .map(counts -> list.stream()
+                            .map(category -> categoryMapper.toResponseWithProductCount(
+                                    category, counts.getOrDefault(category.getId(), 0L)))
+                            .toList());
+        });
+    }
+
+    /**
+     * 200 with JSON; when fields= is given, only the named fields of products and categories are written
+     */
+    /**
+     * A request with a consistency token must see its own write, which a cached value may predate. Reactive
+     * requests carry the token in the Reactor context rather than ConsistencyContext, so the caches cannot tell
+     */
+    private static boolean usesCaches(ServerRequest request) {
+        return ReactiveReadServer.requiredLsn(request) == 0;
+    }
+
+    private static ServerResponse.BodyBuilder ok(ServerRequest request) {
+        ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+        List<String> fields = FieldSelection.names(fields(request));
+        if (!fields.isEmpty()) {
+            response.hint(FieldsJsonEncoder.FILTERS_HINT, FieldsFilter.only(fields));
+        }
+        return response;
+    }
+
+    private static boolean acceptsNdjson(ServerRequest request) {
+        return request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    private static RowOrder<Map<String, Object>> productOrder(
+            ServerRequest request, BiFunction<String, Sort.Direction, RowOrder<Map<String, Object>>> order) {
+        return order.apply(param(request, "sortBy", "name"), direction(request));
+    }
+
+    private static Sort.Direction direction(ServerRequest request) {
+        return param(request, "sortDir", "asc").equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+
+    private static PageRequest pageRequest(ServerRequest request, int defaultSize) {
+        return PageRequest.of(intParam(request, "page", 0), intParam(request, "size", defaultSize));
+    }
+
+    private static CountMode countMode(ServerRequest request) {
+        return CountMode.from(param(request, "total", "none"));
+    }
+
+    private static String fields(ServerRequest request) {
+        return request.queryParam(FIELDS_PARAMETER).orElse(null);
+    }
+
+    private static long pathId(ServerRequest request, String name) {
+        return parse(name, request.pathVariable(name), Long::valueOf);
+    }
+
+    private static String param(ServerRequest request, String name, String defaultValue) {
+        return request.queryParam(name).filter(StringUtils::hasText).orElse(defaultValue);
+    }
+
+    private static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new BadRequestException("Required parameter '" + name + "' is not present"));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        Integer value = optionalParam(request, name, Integer::valueOf);
+        return value != null ? value : defaultValue;
+    }
+
+    private static <T> T optionalParam(ServerRequest request, String name, Function<String, T> parser) {
+        String value = param(request, name, null);
+        return value == null ? null : parse(name, value, parser);
+    }
+
+    private static <T> T parse(String name, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid value '" + value + "' for parameter '" + name + "'");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.sd_project.sd_course.reactive;
+
+import com.sd_project.sd_course.dto.response.ErrorResponse;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.sd_project.sd_course.exception.ServiceUnavailableException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Error bodies of the reactive API, with the status codes and error names of GlobalExceptionHandler
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveErrorHandler {
+
+    public Mono<ServerResponse> handle(Throwable ex, ServerRequest request) {
+        if (ex instanceof ResourceNotFoundException) {
+            log.error("Resource not found: {}", ex.getMessage());
+            return respond(request, HttpStatus.NOT_FOUND, "RESOURCE_NOT_FOUND", ex.getMessage());
+        }
+        if (ex instanceof BadRequestException || ex instanceof IllegalArgumentException) {
+            log.error("Bad request: {}", ex.getMessage());
+            return respond(request, HttpStatus.BAD_REQUEST, "BAD_REQUEST", ex.getMessage());
+        }
+        if (ex instanceof ServerWebInputException input) {
+            log.error("Malformed request: {}", input.getReason());
+            return respond(request, HttpStatus.BAD_REQUEST, "MALFORMED_JSON", input.getReason());
+        }
+        if (ex instanceof ServiceUnavailableException || isTimeout(ex)) {
+            // Pool acquisition and shard queries both time out; either way the database is saturated
+            log.error("Service unavailable: {}", ex.getMessage());
+            return respond(request, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE",
+                    "The catalog is temporarily overloaded, please retry");
+        }
+        log.error("Unexpected error occurred", ex);
+        return respond(request, HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_SERVER_ERROR",
+                "An unexpected error occurred");
+    }
+
+    public Mono<ServerResponse> respond(ServerRequest request, HttpStatus status, String error, String message) {
+        return respond(request, status, error, message, headers -> {
+        });
+    }
+
+    public Mono<ServerResponse> respond(ServerRequest request, HttpStatus status, String error, String message,
+                                        Consumer<HttpHeaders> headers) {
+        ErrorResponse body = ErrorResponse.builder()
+                .status(status.value())
+                .error(error)
+                .message(message)
+                .path(request.path())
+                .timestamp(LocalDateTime.now())
+                .build();
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).headers(headers).bodyValue(body);
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof R2dbcTimeoutException
+                    || cause instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+package com.sd_project.sd_course.reactive;
+
+import com.sd_project.sd_course.datasource.DatabaseAccess;
+import com.sd_project.sd_course.limiter.AdaptiveConcurrencyLimit;
+import com.sd_project.sd_course.limiter.ConcurrencyLimiters;
+import com.sd_project.sd_course.limiter.RateLimiter;
+import com.sd_project.sd_course.service.ApiKeyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Applies the REST API's rate and concurrency limits to the reactive read API. Installed inside
+ * {@link ReactiveAuthenticationFilter}, so unauthenticated requests never take a token or a permit.
+ *
+ * Rate limits use the caller's buckets and the request path, exactly as RateLimitFilter does, and
+ * over-budget requests get 429 with Retry-After. Requests of a limited route class take a permit as
+ * ConcurrencyLimitFilter would and give it back once the handler has produced its response, which these
+ * handlers do only after their queries ran; over-limit requests get 503. The limit learns only from
+ * requests that obtained a connection, which the R2DBC connection factory records in the Reactor context.
+ *
+ * Which routes are exempt is decided by app.concurrency-limit.excluded-paths, never by what the client
+ * asks for. A response streamed as NDJSON reads the database while its body is written, so it keeps its
+ * permit until then; being paced by the client, it gives the permit back without a latency sample.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveLimitFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiters concurrencyLimiters;
+    private final ReactiveErrorHandler errorHandler;
+
+    public ReactiveLimitFilter(RateLimiter rateLimiter,
+                               ConcurrencyLimiters concurrencyLimiters,
+                               ReactiveErrorHandler errorHandler) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        if (rateLimiter.isEnabled()) {
+            Authentication authentication = ReactiveAuthenticationFilter.authentication(request);
+            long waitNanos = rateLimiter.tryAcquire(request.methodName(), request.path(),
+                    callerKey(request, authentication), authentication);
+            if (waitNanos > 0) {
+                long retryAfterSeconds = RateLimiter.retryAfterSeconds(waitNanos);
+                return errorHandler.respond(request, HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS",
+                        "Rate limit exceeded. Retry after " + retryAfterSeconds + " seconds.",
+                        headers -> headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds)));
+            }
+        }
+
+        ConcurrencyLimiters.Route route = concurrencyLimiters.forPath(request.path());
+        if (route == null) {
+            return next.handle(request);
+        }
+        boolean read = HttpMethod.GET.equals(request.method()) || HttpMethod.HEAD.equals(request.method());
+        AdaptiveConcurrencyLimit limit = route.limit(read);
+        if (!limit.tryAcquire()) {
+            route.rejected(read);
+            log.debug("Concurrency limit reached for {} {} ({})", request.methodName(), request.path(), route.getName());
+            return errorHandler.respond(request, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE",
+                    (read ? "Read" : "Write") + " capacity exhausted. Please retry shortly.",
+                    headers -> headers.set(HttpHeaders.RETRY_AFTER, "1"));
+        }
+
+        long start = System.nanoTime();
+        DatabaseAccess.Recorder database = new DatabaseAccess.Recorder();
+        AtomicBoolean released = new AtomicBoolean();
+        Consumer<ConcurrencyLimiters.Outcome> release = outcome -> {
+            if (released.compareAndSet(false, true)) {
+                ConcurrencyLimiters.release(limit, System.nanoTime() - start, outcome, database);
+            }
+        };
+        // Released before the response is passed on, so the permit is free by the time the client has it,
+        // unless the body is a stream that still has to read the database
+        return Mono.defer(() -> next.handle(request))
+                .map(response -> {
+                    if (isStream(response)) {
+                        return (ServerResponse) new ReleasedWhenWritten(response, () -> {
+                            if (released.compareAndSet(false, true)) {
+                                limit.releaseUnsampled();
+                            }
+                        });
+                    }
+                    release.accept(outcomeOf(response.statusCode()));
+                    return response;
+                })
+                .doOnSuccess(response -> {
+                    if (response == null) {
+                        release.accept(ConcurrencyLimiters.Outcome.SUCCEEDED);
+                    }
+                })
+                .doOnError(ex -> release.accept(ConcurrencyLimiters.Outcome.FAILED))
+                // A client that went away says nothing about load
+                .doOnCancel(() -> release.accept(ConcurrencyLimiters.Outcome.REJECTED))
+                .contextWrite(context -> context.put(DatabaseAccess.CONTEXT_KEY, database));
+    }
+
+    private static String callerKey(ServerRequest request, Authentication authentication) {
+        Long apiKeyId = authentication != null
+                && authentication.getDetails() instanceof ApiKeyService.ApiKeyAuthentication apiKey
+                ? apiKey.keyId()
+                : null;
+        String remoteAddress = request.remoteAddress()
+                .map(InetSocketAddress::getAddress)
+                .map(InetAddress::getHostAddress)
+                .orElse(null);
+        return RateLimiter.callerKey(apiKeyId, authentication, remoteAddress);
+    }
+
+    private static boolean isStream(ServerResponse response) {
+        return MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(response.headers().getContentType());
+    }
+
+    private static ConcurrencyLimiters.Outcome outcomeOf(HttpStatusCode status) {
+        if (status.is5xxServerError()) {
+            return ConcurrencyLimiters.Outcome.FAILED;
+        }
+        return status.isError() ? ConcurrencyLimiters.Outcome.REJECTED : ConcurrencyLimiters.Outcome.SUCCEEDED;
+    }
+
+    /**
+     * A response that runs an action once its body has been written, has failed or was cancelled, or once
+     * the write ended without reading the body at all, as for HEAD
+     */
+    private static final class ReleasedWhenWritten implements ServerResponse {
+
+        private final ServerResponse delegate;
+        private final Runnable release;
+
+        private ReleasedWhenWritten(ServerResponse delegate, Runnable release) {
+            this.delegate = delegate;
+            this.release = release;
+        }
+
+        @Override
+        public HttpStatusCode statusCode() {
+            return delegate.statusCode();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public int rawStatusCode() {
+            return delegate.rawStatusCode();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return delegate.headers();
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> cookies() {
+            return delegate.cookies();
+        }
+
+        @Override
+        public Mono<Void> writeTo(ServerWebExchange exchange, Context context) {
+            AtomicBoolean bodyRead = new AtomicBoolean();
+            ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    return super.writeWith(Flux.from(body)
+                            .doOnSubscribe(subscription -> bodyRead.set(true))
+                            .doFinally(signal -> release.run()));
+                }
+
+                @Override
+                public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                    return super.writeAndFlushWith(Flux.from(body)
+                            .doOnSubscribe(subscription -> bodyRead.set(true))
+                            .doFinally(signal -> release.run()));
+                }
+            };
+            return Mono.defer(() -> delegate.writeTo(exchange.mutate().response(response).build(), context))
+                    .doFinally(signal -> {
+                        if (signal != SignalType.ON_COMPLETE || !bodyRead.get()) {
+                            release.run();
+                        }
+                    });
+        }
+    }
+}
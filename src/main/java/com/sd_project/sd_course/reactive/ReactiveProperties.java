@@ -0,0 +1,29 @@
+package com.sd_project.sd_course.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveProperties {
+
+    /**
+     * Serve the non-blocking read API
+     */
+    private boolean enabled = true;
+
+    /**
+     * Address the reactive server listens on; loopback unless it is meant to be reachable from elsewhere
+     */
+    private String address = "127.0.0.1";
+
+    /**
+     * Port of the reactive server; the servlet stack keeps server.port
+     */
+    private int port = 8081;
+
+    /**
+     * Rows requested from PostgreSQL per round trip while streaming NDJSON
+     */
+    private int fetchSize = 500;
+}
@@ -0,0 +1,147 @@
+package com.sd_project.sd_course.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.datasource.ConsistencyContext;
+import com.sd_project.sd_course.datasource.ReplicaSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+/**
+ * Runs the non-blocking read API on Reactor Netty, on its own port next to the servlet container.
+ *
+ * Requests are served by a few event-loop threads and database reads go through R2DBC, so an open
+ * request holds neither a thread nor, while it waits, a connection. Writes stay on the servlet stack.
+ * The server listens on app.reactive.address only, loopback by default.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(10);
+
+    private final ReactiveCatalogHandler handler;
+    private final ReactiveAuthenticationFilter authenticationFilter;
+    private final ReactiveLimitFilter limitFilter;
+    private final ReactiveErrorHandler errorHandler;
+    private final ObjectMapper objectMapper;
+    private final String address;
+    private final int port;
+
+    private DisposableServer server;
+
+    public ReactiveReadServer(ReactiveCatalogHandler handler,
+                              ReactiveAuthenticationFilter authenticationFilter,
+                              ReactiveLimitFilter limitFilter,
+                              ReactiveErrorHandler errorHandler,
+                              ObjectMapper objectMapper,
+                              ReactiveProperties properties) {
+        this.handler = handler;
+        this.authenticationFilter = authenticationFilter;
+        this.limitFilter = limitFilter;
+        this.errorHandler = errorHandler;
+        this.objectMapper = objectMapper;
+        this.address = properties.getAddress();
+        this.port = properties.getPort();
+    }
+
+    /**
+     * The read routes of ProductController and CategoryController; specific paths before /{id}.
+     * Filters run in the order they are added: authentication, limits, consistency token, error mapping.
+     */
+    RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/products", handler::getAllProducts)
+                .GET("/api/products/batch", handler::getProductsByIds)
+                .POST("/api/products/batch", handler::postProductsByIds)
+                .GET("/api/products/search/advanced", handler::advancedSearchProducts)
+                .GET("/api/products/search", handler::searchProducts)
+                .GET("/api/products/suggest", handler::suggest)
+                .GET("/api/products/price-range", handler::getProductsByPriceRange)
+                .GET("/api/products/in-stock", handler::getProductsInStock)
+                .GET("/api/products/category/{categoryId}", handler::getProductsByCategory)
+                .GET("/api/products/{id}", handler::getProductById)
+                .GET("/api/categories", handler::getAllCategories)
+                .GET("/api/categories/search", handler::searchCategories)
+                .GET("/api/categories/{id}", handler::getCategoryById)
+                .filter(authenticationFilter)
+                .filter(limitFilter)
+                .filter((request, next) -> next.handle(request)
+                        .contextWrite(context -> context.put(ConsistencyContext.CONTEXT_KEY, requiredLsn(request))))
+                // Errors thrown while a handler assembles its pipeline are handled like errors signalled by it,
+                // and inside the limit filter, so it sees the status they are answered with
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(ex -> errorHandler.handle(ex, request)))
+                .build();
+    }
+
+    /**
+     * Position named by the request's consistency token, so its reads only go to replicas that have
+     * replayed the client's earlier write; 0 without a valid token
+     */
+    static long requiredLsn(ServerRequest request) {
+        String token = request.headers().firstHeader(ConsistencyContext.CONSISTENCY_TOKEN_HEADER);
+        if (StringUtils.hasText(token)) {
+            try {
+                return ReplicaSet.parseLsn(token.trim());
+            } catch (IllegalArgumentException ex) {
+                log.debug("Ignoring malformed consistency token: {}", token);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * JSON and NDJSON with the application's ObjectMapper, so bodies match the servlet stack's
+     */
+    HandlerStrategies handlerStrategies() {
+        return HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new FieldsJsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+    }
+
+    @Override
+    public synchronized void start() {
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(routes(), handlerStrategies());
+        server = HttpServer.create()
+                .host(address)
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive read server started on {}:{}", address, server.port());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.disposeNow(SHUTDOWN_GRACE);
+        server = null;
+        log.info("Reactive read server stopped");
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+}
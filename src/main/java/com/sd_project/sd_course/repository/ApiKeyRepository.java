@@ -0,0 +1,46 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+
+    /**
+     * Find all non-revoked keys together with their owners and roles
+     */
+    @Query("SELECT DISTINCT k FROM ApiKey k JOIN FETCH k.user u LEFT JOIN FETCH u.roles WHERE k.revoked = false")
+    List<ApiKey> findAllActiveWithUser();
+
+    /**
+     * Find a key by its hash together with its owner and roles
+     */
+    @Query("SELECT k FROM ApiKey k JOIN FETCH k.user u LEFT JOIN FETCH u.roles WHERE k.keyHash = :keyHash")
+    Optional<ApiKey> findByKeyHashWithUser(@Param("keyHash") String keyHash);
+
+    /**
+     * Find all keys ordered by creation date (newest first)
+     */
+    @Query("SELECT k FROM ApiKey k JOIN FETCH k.user ORDER BY k.createdAt DESC")
+    List<ApiKey> findAllWithUser();
+
+    /**
+     * Revoke a key, stamping updated_at with the database clock so other nodes polling by it see the change
+     */
+    @Modifying
+    @Query("UPDATE ApiKey k SET k.revoked = true, k.updatedAt = CURRENT_TIMESTAMP WHERE k.id = :id")
+    int revoke(@Param("id") Long id);
+
+    /**
+     * Keys revoked since the given time, for nodes catching up with each other
+     */
+    List<ApiKey> findByRevokedTrueAndUpdatedAtAfter(LocalDateTime since);
+}
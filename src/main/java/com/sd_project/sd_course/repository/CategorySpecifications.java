@@ -0,0 +1,27 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.Category;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+/**
+ * Category predicates for queries that select only some columns with {@link SelectedColumnsQuery}
+ */
+public final class CategorySpecifications {
+
+    private CategorySpecifications() {
+    }
+
+    public static Specification<Category> hasId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    /**
+     * upper(name) LIKE '%KEYWORD%', the same predicate as findByNameContainingIgnoreCase
+     */
+    public static Specification<Category> nameContains(String keyword) {
+        String pattern = "%" + ProductSpecifications.escapeLike(keyword.toUpperCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.upper(root.get("name")), pattern, ProductSpecifications.LIKE_ESCAPE);
+    }
+}
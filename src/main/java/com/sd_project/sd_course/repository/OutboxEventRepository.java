@@ -0,0 +1,51 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Take the relay lock for the current transaction; false if another node holds it
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLock(@Param("key") long key);
+
+    /**
+     * Events not yet published, oldest first
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position IS NULL ORDER BY e.id")
+    List<OutboxEvent> findUnpublished(Limit limit);
+
+    /**
+     * Highest position handed out so far, or 0
+     */
+    @Query("SELECT COALESCE(MAX(e.position), 0) FROM OutboxEvent e")
+    long findMaxPosition();
+
+    /**
+     * Published events after the given position, in position order
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.position > :after ORDER BY e.position")
+    List<OutboxEvent> findPublishedAfter(@Param("after") long after, Limit limit);
+
+    /**
+     * Remove events published before the cutoff. The latest event is always kept, so positions carry on
+     * from it and a cursor behind the removed events shows up as a gap.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before " +
+           "AND e.position < (SELECT MAX(l.position) FROM OutboxEvent l)")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,30 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/**
+ * The product search filters of both APIs. Null or blank filters are left out of the query.
+ *
+ * JPA queries use {@link #toSpecification()}; the reactive repository renders the same conditions as SQL.
+ * {@link #signature()} names the combination for the count cache, so both APIs share cached totals.
+ */
+public record ProductFilter(String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                            Boolean inStock) {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, null, null);
+
+    public boolean hasKeyword() {
+        return keyword != null && !keyword.isBlank();
+    }
+
+    public Specification<Product> toSpecification() {
+        return ProductSpecifications.matching(keyword, categoryId, minPrice, maxPrice, inStock);
+    }
+
+    public String signature() {
+        return "search:" + keyword + ':' + categoryId + ':' + minPrice + ':' + maxPrice + ':' + inStock;
+    }
+}
@@ -1,19 +1,39 @@
 package com.sd_project.sd_course.repository;
 
 import com.sd_project.sd_course.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    /**
+     * Product id and name
+     */
+    interface ProductName {
+        Long getId();
+
+        String getName();
+    }
+
+    /**
+     * Find the id and name of every product
+     */
+    @Query("SELECT p.id AS id, p.name AS name FROM Product p")
+    List<ProductName> findAllNames();
 
     /**
      * Find product by name (case-insensitive)
@@ -25,6 +45,30 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
+    /**
+     * Find products by ID with their categories in one query
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Products changed after (since, afterId) and before until, with their categories, in (updatedAt, id) order.
+     * The plain updatedAt >= since bound lets the index range start at the watermark.
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.category " +
+           "WHERE p.updatedAt >= :since AND (p.updatedAt > :since OR p.id > :afterId) " +
+           "AND p.updatedAt < :until ORDER BY p.updatedAt, p.id")
+    List<Product> findChangedBetween(@Param("since") LocalDateTime since,
+                                     @Param("afterId") Long afterId,
+                                     @Param("until") LocalDateTime until,
+                                     Limit limit);
+
+    /**
+     * The database clock that sets products.updated_at and product_tombstones.deleted_at, in the session time zone
+     */
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentTimestamp();
+
     /**
      * Find products by category ID (list)
      */
@@ -40,7 +84,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * Find products by price range
      */
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
-    Page<Product> findByPriceBetween(@Param("minPrice") BigDecimal minPrice, 
+    Slice<Product> findByPriceBetween(@Param("minPrice") BigDecimal minPrice, 
                                    @Param("maxPrice") BigDecimal maxPrice, 
                                    Pageable pageable);
 
@@ -49,7 +93,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
            "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Product> searchByNameOrDescription(@Param("searchTerm") String searchTerm, Pageable pageable);
+    Slice<Product> searchByNameOrDescription(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     /**
      * Find products by name containing text (case-insensitive)
@@ -96,26 +140,25 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * Find products by category ID ordered by name
      */
-    Page<Product> findByCategoryIdOrderByNameAsc(Long categoryId, Pageable pageable);
+    Slice<Product> findByCategoryIdOrderByNameAsc(Long categoryId, Pageable pageable);
 
     /**
      * Find products with stock quantity greater than specified value
      */
-    Page<Product> findByStockQuantityGreaterThan(Integer stockQuantity, Pageable pageable);
+    Slice<Product> findByStockQuantityGreaterThan(Integer stockQuantity, Pageable pageable);
+
+    /**
+     * Count products with stock quantity greater than specified value
+     */
+    long countByStockQuantityGreaterThan(Integer stockQuantity);
+
+    /**
+     * Count products by price range
+     */
+    long countByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
 
     /**
-     * Advanced search with multiple filters
+     * Find a slice of all products, without counting them
      */
-    @Query("SELECT p FROM Product p WHERE " +
-           "(:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
-           "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-           "(:inStock IS NULL OR (:inStock = true AND p.stockQuantity > 0) OR (:inStock = false AND p.stockQuantity = 0))")
-    Page<Product> findWithFilters(@Param("keyword") String keyword,
-                                  @Param("categoryId") Long categoryId,
-                                  @Param("minPrice") BigDecimal minPrice,
-                                  @Param("maxPrice") BigDecimal maxPrice,
-                                  @Param("inStock") Boolean inStock,
-                                  Pageable pageable);
-} 
\ No newline at end of file
+    Slice<Product> findAllBy(Pageable pageable);
+}
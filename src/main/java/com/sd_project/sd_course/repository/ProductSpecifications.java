@@ -0,0 +1,92 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Product search predicates for {@link ProductRepository}.
+ *
+ * Only the filters that are actually supplied end up in the WHERE clause, so PostgreSQL plans each
+ * combination on its own and can use the category, price, stock and trigram indexes that match it.
+ */
+public final class ProductSpecifications {
+
+    static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Combine the given filters; null or blank filters are left out
+     */
+    public static Specification<Product> matching(String keyword, Long categoryId,
+                                                  BigDecimal minPrice, BigDecimal maxPrice,
+                                                  Boolean inStock) {
+        List<Specification<Product>> filters = new ArrayList<>();
+        if (keyword != null && !keyword.isBlank()) {
+            filters.add(nameOrDescriptionContains(keyword));
+        }
+        if (categoryId != null) {
+            filters.add(inCategory(categoryId));
+        }
+        if (minPrice != null) {
+            filters.add(priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add(priceAtMost(maxPrice));
+        }
+        if (inStock != null) {
+            filters.add(inStock ? inStock() : outOfStock());
+        }
+        return Specification.allOf(filters);
+    }
+
+    /**
+     * lower(name) LIKE '%keyword%' OR lower(description) LIKE '%keyword%', served by the trigram indexes
+     */
+    public static Specification<Product> nameOrDescriptionContains(String keyword) {
+        String pattern = "%" + escapeLike(keyword.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE),
+                cb.like(cb.lower(root.get("description")), pattern, LIKE_ESCAPE));
+    }
+
+    /**
+     * id > afterId, for keyset scans in id order
+     */
+    public static Specification<Product> idGreaterThan(Long afterId) {
+        return (root, query, cb) -> cb.gt(root.get("id"), afterId);
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    /**
+     * stock_quantity > 0 as a literal, so the partial in-stock indexes apply
+     */
+    public static Specification<Product> inStock() {
+        return (root, query, cb) -> cb.gt(root.get("stockQuantity"), cb.literal(0));
+    }
+
+    public static Specification<Product> outOfStock() {
+        return (root, query, cb) -> cb.equal(root.get("stockQuantity"), cb.literal(0));
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,46 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    /**
+     * Record a deleted product; deleted_at is set by the database like products.updated_at
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_tombstones (product_id, category_id) VALUES (:productId, :categoryId) " +
+                   "ON CONFLICT (product_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Long productId, @Param("categoryId") Long categoryId);
+
+    /**
+     * Tombstones after (since, afterId) and before until, in (deletedAt, productId) order.
+     * The plain deletedAt >= since bound lets the index range start at the watermark.
+     */
+    @Query("SELECT t FROM ProductTombstone t " +
+           "WHERE t.deletedAt >= :since AND (t.deletedAt > :since OR t.productId > :afterId) " +
+           "AND t.deletedAt < :until ORDER BY t.deletedAt, t.productId")
+    List<ProductTombstone> findDeletedBetween(@Param("since") LocalDateTime since,
+                                              @Param("afterId") Long afterId,
+                                              @Param("until") LocalDateTime until,
+                                              Limit limit);
+
+    /**
+     * Remove tombstones older than the retention
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductTombstone t WHERE t.deletedAt < :before")
+    int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
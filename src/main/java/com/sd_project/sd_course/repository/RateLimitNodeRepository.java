@@ -0,0 +1,39 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.RateLimitNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RateLimitNodeRepository extends JpaRepository<RateLimitNode, String> {
+
+    /**
+     * Record that a node is alive, registering it on first call
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO rate_limit_nodes (node_id, last_seen) VALUES (:nodeId, :now) " +
+                   "ON CONFLICT (node_id) DO UPDATE SET last_seen = EXCLUDED.last_seen",
+           nativeQuery = true)
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    /**
+     * Count nodes that have sent a heartbeat since the given time
+     */
+    @Query("SELECT COUNT(n) FROM RateLimitNode n WHERE n.lastSeen > :since")
+    long countActiveSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Remove nodes that stopped sending heartbeats
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RateLimitNode n WHERE n.lastSeen <= :before")
+    int deleteInactiveBefore(@Param("before") LocalDateTime before);
+}
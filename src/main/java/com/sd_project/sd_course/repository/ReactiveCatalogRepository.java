@@ -0,0 +1,410 @@
+package com.sd_project.sd_course.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.dto.request.CountMode;
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.sharding.ReactiveShardSet;
+import com.sd_project.sd_course.sharding.ShardingProperties;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Non-blocking product and category reads for the reactive API, in the same SQL shapes as the
+ * ProductRepository queries so they use the same indexes.
+ *
+ * Products are read as rows of the attributes a {@link FieldSelection} names, keyed the same way as the
+ * rows of {@link SelectedColumnsQuery}, so both APIs select only the requested columns and map rows with
+ * ProductMapper.toPartialResponse. Filters are the shared {@link ProductFilter}.
+ *
+ * Product queries run on every shard at once and the sorted shard results are merged as they arrive;
+ * categories are read from shard 0, which holds the original of every category.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveCatalogRepository {
+
+    private static final String PRODUCTS = " FROM products p";
+    private static final String CATEGORY_JOIN = " JOIN categories c ON c.id = p.category_id";
+    private static final String CATEGORY_COLUMNS = "SELECT c.id, c.name, c.description, c.created_at, c.updated_at " +
+            "FROM categories c";
+    private static final String ESCAPE = " ESCAPE '" + ProductSpecifications.LIKE_ESCAPE + "'";
+
+    /**
+     * Column of each product attribute; category.name is the only one that needs the categories join
+     */
+    private static final Map<String, ProductColumn> PRODUCT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        PRODUCT_COLUMNS.put("id", new ProductColumn("p.id", Long.class));
+        PRODUCT_COLUMNS.put("name", new ProductColumn("p.name", String.class));
+        PRODUCT_COLUMNS.put("description", new ProductColumn("p.description", String.class));
+        PRODUCT_COLUMNS.put("price", new ProductColumn("p.price", BigDecimal.class));
+        PRODUCT_COLUMNS.put("stockQuantity", new ProductColumn("p.stock_quantity", Integer.class));
+        PRODUCT_COLUMNS.put("category.id", new ProductColumn("p.category_id", Long.class));
+        PRODUCT_COLUMNS.put("category.name", new ProductColumn("c.name", String.class));
+        PRODUCT_COLUMNS.put("createdAt", new ProductColumn("p.created_at", LocalDateTime.class));
+        PRODUCT_COLUMNS.put("updatedAt", new ProductColumn("p.updated_at", LocalDateTime.class));
+    }
+
+    private static final Set<String> PRODUCT_SORT_PROPERTIES =
+            Set.of("id", "name", "price", "stockQuantity", "createdAt", "updatedAt");
+    private static final Map<String, SortColumn<Category>> CATEGORY_SORT_COLUMNS = Map.of(
+            "id", new SortColumn<>("c.id", Comparator.comparing(Category::getId)),
+            "name", new SortColumn<>("c.name", nullsLast(Category::getName)),
+            "createdAt", new SortColumn<>("c.created_at", nullsLast(Category::getCreatedAt)),
+            "updatedAt", new SortColumn<>("c.updated_at", nullsLast(Category::getUpdatedAt)));
+
+    private static final List<String> ALL_ATTRIBUTES = List.copyOf(PRODUCT_COLUMNS.keySet());
+
+    private final ReactiveShardSet shards;
+    private final ObjectMapper objectMapper;
+    private final Duration queryTimeout;
+
+    public ReactiveCatalogRepository(ReactiveShardSet shards, ObjectMapper objectMapper,
+                                     ShardingProperties sharding) {
+        this.shards = shards;
+        this.objectMapper = objectMapper;
+        this.queryTimeout = Duration.ofMillis(sharding.getQueryTimeoutMs());
+    }
+
+    /**
+     * ORDER BY clause with the id as tie-breaker, the same order in memory for merging shard results,
+     * and the order as a Sort, whose properties have to be selected
+     */
+    public record RowOrder<T>(String sql, Comparator<T> comparator, Sort sort) {
+    }
+
+    private record SortColumn<T>(String column, Comparator<T> ascending) {
+    }
+
+    private record ProductColumn(String sql, Class<?> type) {
+    }
+
+    public static RowOrder<Map<String, Object>> productOrder(String property, Sort.Direction direction) {
+        if (!PRODUCT_SORT_PROPERTIES.contains(property)) {
+            throw unsortable(property, PRODUCT_SORT_PROPERTIES);
+        }
+        return order(new SortColumn<>(PRODUCT_COLUMNS.get(property).sql(), nullsLast(row -> attribute(row, property))),
+                "p.id", row -> (Long) row.get("id"), property, direction);
+    }
+
+    public static RowOrder<Category> categoryOrder(String property, Sort.Direction direction) {
+        SortColumn<Category> column = CATEGORY_SORT_COLUMNS.get(property);
+        if (column == null) {
+            throw unsortable(property, CATEGORY_SORT_COLUMNS.keySet());
+        }
+        return order(column, "c.id", Category::getId, property, direction);
+    }
+
+    /**
+     * Every attribute of the product, as the product cache needs it
+     */
+    public Mono<Map<String, Object>> findProductById(long id) {
+        int shard = shards.shardForProduct(id);
+        if (shard < 0) {
+            return Mono.empty();
+        }
+        return bind(shards.getClient(shard).sql(productSelect(ALL_ATTRIBUTES) + " WHERE p.id = :id"), Map.of("id", id))
+                .map(row -> toRow(row, ALL_ATTRIBUTES))
+                .one();
+    }
+
+    /**
+     * Every attribute of the products with the given ids, in one query per shard that holds any of them;
+     * unknown ids are skipped
+     */
+    public Flux<Map<String, Object>> findProductsByIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        for (Long id : ids) {
+            int shard = shards.shardForProduct(id);
+            if (shard >= 0) {
+                idsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(id);
+            }
+        }
+        String sql = productSelect(ALL_ATTRIBUTES) + " WHERE p.id = ANY(:ids)";
+        return Flux.fromIterable(idsByShard.entrySet())
+                .flatMap(shardIds -> shards.getClient(shardIds.getKey()).sql(sql)
+                        .bind("ids", shardIds.getValue().toArray(new Long[0]))
+                        .map(row -> toRow(row, ALL_ATTRIBUTES))
+                        .all())
+                .timeout(queryTimeout);
+    }
+
+    /**
+     * One page of the products matching the filter, with the selected attributes. Every shard returns its
+     * first offset + limit rows in order and the merge skips the offset, so no shard sends more than a page
+     * beyond the offset.
+     */
+    public Flux<Map<String, Object>> findProducts(ProductFilter filter, RowOrder<Map<String, Object>> order,
+                                                  FieldSelection fields, long offset, int limit) {
+        List<String> attributes = attributes(fields, order);
+        Map<String, Object> binds = new LinkedHashMap<>();
+        String sql = productSelect(attributes) + where(filter, binds) + " ORDER BY " + order.sql();
+        if (shards.size() == 1) {
+            binds.put("limit", limit);
+            binds.put("offset", offset);
+            return select(0, sql + " LIMIT :limit OFFSET :offset", binds, attributes, 0).timeout(queryTimeout);
+        }
+        binds.put("limit", offset + limit);
+        return mergeShards(order.comparator(), shard -> select(shard, sql + " LIMIT :limit", binds, attributes, 0))
+                .skip(offset)
+                .take(limit)
+                .timeout(queryTimeout);
+    }
+
+    /**
+     * Every product matching the filter, read from a cursor fetchSize rows at a time as the subscriber
+     * requests them, so a slow consumer holds back the database reads instead of buffering rows
+     */
+    public Flux<Map<String, Object>> streamProducts(ProductFilter filter, RowOrder<Map<String, Object>> order,
+                                                    FieldSelection fields, int fetchSize) {
+        List<String> attributes = attributes(fields, order);
+        Map<String, Object> binds = new LinkedHashMap<>();
+        String sql = productSelect(attributes) + where(filter, binds) + " ORDER BY " + order.sql();
+        return mergeShards(order.comparator(), shard -> select(shard, sql, binds, attributes, fetchSize));
+    }
+
+    /**
+     * Total of the products matching the filter over all shards; empty for {@link CountMode#NONE}
+     */
+    public Mono<Long> countProducts(ProductFilter filter, CountMode mode) {
+        Map<String, Object> binds = new LinkedHashMap<>();
+        String where = where(filter, binds);
+        return switch (mode) {
+            case NONE -> Mono.empty();
+            case EXACT -> sumOnAllShards(shard ->
+                    bind(shards.getClient(shard).sql("SELECT count(*) FROM products p" + where), binds)
+                            .map(row -> row.get(0, Long.class))
+                            .one());
+            case ESTIMATE -> sumOnAllShards(shard ->
+                    bind(shards.getClient(shard).sql("EXPLAIN (FORMAT JSON) SELECT 1 FROM products p" + where), binds)
+                            .map(row -> planRows(row.get(0, String.class)))
+                            .one());
+        };
+    }
+
+    public Mono<Category> findCategoryById(long id) {
+        return shards.getClient(0).sql(CATEGORY_COLUMNS + " WHERE c.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogRepository::toCategory)
+                .one();
+    }
+
+    public Mono<Boolean> categoryExists(long id) {
+        return shards.getClient(0).sql("SELECT 1 FROM categories WHERE id = :id")
+                .bind("id", id)
+                .map(row -> true)
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Categories in the given order; a null limit returns all of them
+     */
+    public Flux<Category> findCategories(RowOrder<Category> order, long offset, Integer limit) {
+        Map<String, Object> binds = new LinkedHashMap<>();
+        String sql = CATEGORY_COLUMNS + " ORDER BY " + order.sql();
+        if (limit != null) {
+            binds.put("limit", limit);
+            binds.put("offset", offset);
+            sql += " LIMIT :limit OFFSET :offset";
+        }
+        return bind(shards.getClient(0).sql(sql), binds)
+                .map(ReactiveCatalogRepository::toCategory)
+                .all();
+    }
+
+    /**
+     * upper(name) LIKE '%KEYWORD%', as CategoryRepository.findByNameContainingIgnoreCaseOrderByNameAsc
+     */
+    public Flux<Category> searchCategories(String keyword) {
+        return shards.getClient(0).sql(CATEGORY_COLUMNS + " WHERE upper(c.name) LIKE :pattern" + ESCAPE +
+                        " ORDER BY " + categoryOrder("name", Sort.Direction.ASC).sql())
+                .bind("pattern", "%" + ProductSpecifications.escapeLike(keyword.toUpperCase(Locale.ROOT)) + "%")
+                .map(ReactiveCatalogRepository::toCategory)
+                .all();
+    }
+
+    /**
+     * Products per category over all shards; categories without products are absent from the map
+     */
+    public Mono<Map<Long, Long>> countProductsByCategory(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        Long[] ids = categoryIds.toArray(new Long[0]);
+        return Flux.range(0, shards.size())
+                .flatMap(shard -> shards.getClient(shard)
+                        .sql("SELECT category_id, count(*) AS products FROM products " +
+                                "WHERE category_id = ANY(:ids) GROUP BY category_id")
+                        .bind("ids", ids)
+                        .map(row -> Map.entry(row.get("category_id", Long.class), row.get("products", Long.class)))
+                        .all())
+                .collect(HashMap<Long, Long>::new, (counts, entry) -> counts.merge(entry.getKey(), entry.getValue(), Long::sum))
+                .map(Map::copyOf)
+                .timeout(queryTimeout);
+    }
+
+    private Flux<Map<String, Object>> select(int shard, String sql, Map<String, Object> binds,
+                                             List<String> attributes, int fetchSize) {
+        DatabaseClient.GenericExecuteSpec spec = bind(shards.getClient(shard).sql(sql), binds);
+        if (fetchSize > 0) {
+            spec = spec.filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)));
+        }
+        return spec.map(row -> toRow(row, attributes)).all();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Flux<Map<String, Object>> mergeShards(Comparator<Map<String, Object>> comparator,
+                                                  IntFunction<Flux<Map<String, Object>>> query) {
+        if (shards.size() == 1) {
+            return query.apply(0);
+        }
+        List<Flux<Map<String, Object>>> perShard = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            perShard.add(query.apply(shard));
+        }
+        return Flux.mergeComparing(comparator, perShard.toArray(new Flux[0]));
+    }
+
+    private Mono<Long> sumOnAllShards(IntFunction<Mono<Long>> count) {
+        return Flux.range(0, shards.size())
+                .flatMap(count::apply)
+                .reduce(0L, Long::sum)
+                .timeout(queryTimeout);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          Map<String, Object> binds) {
+        for (Map.Entry<String, Object> bind : binds.entrySet()) {
+            spec = spec.bind(bind.getKey(), bind.getValue());
+        }
+        return spec;
+    }
+
+    /**
+     * The conditions of {@link ProductFilter#toSpecification()} as SQL
+     */
+    private static String where(ProductFilter filter, Map<String, Object> binds) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.hasKeyword()) {
+            String pattern = "%" + ProductSpecifications.escapeLike(filter.keyword().trim().toLowerCase(Locale.ROOT)) + "%";
+            binds.put("namePattern", pattern);
+            binds.put("descriptionPattern", pattern);
+            conditions.add("(lower(p.name) LIKE :namePattern" + ESCAPE +
+                    " OR lower(p.description) LIKE :descriptionPattern" + ESCAPE + ")");
+        }
+        if (filter.categoryId() != null) {
+            binds.put("categoryId", filter.categoryId());
+            conditions.add("p.category_id = :categoryId");
+        }
+        if (filter.minPrice() != null) {
+            binds.put("minPrice", filter.minPrice());
+            conditions.add("p.price >= :minPrice");
+        }
+        if (filter.maxPrice() != null) {
+            binds.put("maxPrice", filter.maxPrice());
+            conditions.add("p.price <= :maxPrice");
+        }
+        if (filter.inStock() != null) {
+            // Literal comparison, so the partial in-stock indexes apply
+            conditions.add(filter.inStock() ? "p.stock_quantity > 0" : "p.stock_quantity = 0");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Every attribute without a selection; otherwise the selected ones, the id and the sorted properties
+     */
+    private static List<String> attributes(FieldSelection fields, RowOrder<?> order) {
+        return fields.isAll() ? ALL_ATTRIBUTES : fields.attributesSortedBy(order.sort());
+    }
+
+    private static String productSelect(List<String> attributes) {
+        StringJoiner columns = new StringJoiner(", ", "SELECT ", PRODUCTS);
+        for (String attribute : attributes) {
+            columns.add(PRODUCT_COLUMNS.get(attribute).sql());
+        }
+        return attributes.contains("category.name") ? columns + CATEGORY_JOIN : columns.toString();
+    }
+
+    private static <T> RowOrder<T> order(SortColumn<T> column, String idColumn, Function<T, Long> id,
+                                         String property, Sort.Direction direction) {
+        boolean descending = direction == Sort.Direction.DESC;
+        // PostgreSQL puts nulls last when ascending and first when descending, as the reversed comparator does
+        Comparator<T> comparator = descending ? column.ascending().reversed() : column.ascending();
+        String sql = column.column() + (descending ? " DESC" : "");
+        if (!column.column().equals(idColumn)) {
+            sql += ", " + idColumn;
+            comparator = comparator.thenComparing(id, Comparator.naturalOrder());
+        }
+        return new RowOrder<>(sql, comparator, Sort.by(direction, property));
+    }
+
+    private static BadRequestException unsortable(String property, Collection<String> sortable) {
+        return new BadRequestException("Cannot sort by '" + property + "'; sortable fields are "
+                + String.join(", ", sortable.stream().sorted().toList()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> attribute(Map<String, Object> row, String attribute) {
+        return (Comparable<Object>) row.get(attribute);
+    }
+
+    private static <T, U extends Comparable<? super U>> Comparator<T> nullsLast(
+            Function<T, U> key) {
+        return Comparator.comparing(key, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    private long planRows(String plan) {
+        try {
+            return objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to read query plan", ex);
+        }
+    }
+
+    private static Map<String, Object> toRow(Readable row, List<String> attributes) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < attributes.size(); i++) {
+            String attribute = attributes.get(i);
+            values.put(attribute, row.get(i, PRODUCT_COLUMNS.get(attribute).type()));
+        }
+        return values;
+    }
+
+    private static Category toCategory(Readable row) {
+        Category category = Category.builder()
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .build();
+        category.setId(row.get("id", Long.class));
+        category.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        category.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return category;
+    }
+}
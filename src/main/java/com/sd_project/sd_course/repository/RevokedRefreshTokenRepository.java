@@ -0,0 +1,45 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.RevokedRefreshToken;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedRefreshTokenRepository extends JpaRepository<RevokedRefreshToken, UUID> {
+
+    /**
+     * Record a token id as revoked; returns 0 if it was already revoked
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO revoked_refresh_tokens (jti, user_id, expires_at, revoked_at) " +
+                   "VALUES (:jti, :userId, :expiresAt, :revokedAt) ON CONFLICT (jti) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("jti") UUID jti,
+                       @Param("userId") Long userId,
+                       @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("revokedAt") LocalDateTime revokedAt);
+
+    /**
+     * Page through ids of revocations that have not expired yet, in id order
+     */
+    @Query("SELECT r.jti FROM RevokedRefreshToken r WHERE r.expiresAt > :now AND r.jti > :after ORDER BY r.jti")
+    List<UUID> findActiveIdsAfter(@Param("now") LocalDateTime now, @Param("after") UUID after, Limit limit);
+
+    /**
+     * Remove revocations whose tokens have expired anyway
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedRefreshToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
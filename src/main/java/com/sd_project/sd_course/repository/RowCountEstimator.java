@@ -0,0 +1,52 @@
+package com.sd_project.sd_course.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Row counts estimated from PostgreSQL planner statistics instead of counting rows.
+ *
+ * Estimates are as fresh as the last ANALYZE (or autovacuum) of the table; they cost a catalog lookup
+ * or a plan, never a scan.
+ */
+@Repository
+public class RowCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RowCountEstimator(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Estimated rows in a table, summed over its leaf partitions if it is partitioned. ANALYZE on a partitioned
+     * table also records the whole tree's rows on the parent, so only the leaves, which hold the rows, are
+     * counted; a plain table is its own only leaf.
+     */
+    public long estimateTableRows(String table) {
+        Long rows = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::bigint " +
+                "FROM pg_partition_tree(?::regclass) t JOIN pg_class c ON c.oid = t.relid " +
+                "WHERE t.isleaf",
+                Long.class, table);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Rows the planner expects the query to return
+     */
+    public long estimateRows(String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        try {
+            return objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to read query plan", ex);
+        }
+    }
+}
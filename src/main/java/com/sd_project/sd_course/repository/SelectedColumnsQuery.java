@@ -0,0 +1,108 @@
+package com.sd_project.sd_course.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Specification queries that select only the given attributes instead of whole entities.
+ *
+ * Columns that are not selected, such as a product's description, are never read from PostgreSQL.
+ * An attribute may follow one association ("category.name"), which is joined. Rows come back as maps
+ * keyed by attribute.
+ */
+@Repository
+public class SelectedColumnsQuery {
+
+    private final EntityManager entityManager;
+
+    public SelectedColumnsQuery(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * One slice of rows, fetching a single extra row to tell whether another slice follows
+     */
+    public <T> Slice<Map<String, Object>> findSlice(Class<T> type, Specification<T> filter,
+                                                    List<String> attributes, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(find(type, filter, attributes, pageable.getSort(), 0, -1), pageable, false);
+        }
+        int size = pageable.getPageSize();
+        List<Map<String, Object>> rows = find(type, filter, attributes, pageable.getSort(),
+                pageable.getOffset(), size + 1);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+    }
+
+    public <T> List<Map<String, Object>> findAll(Class<T> type, Specification<T> filter,
+                                                 List<String> attributes, Sort sort) {
+        return find(type, filter, attributes, sort, 0, -1);
+    }
+
+    private <T> List<Map<String, Object>> find(Class<T> type, Specification<T> filter, List<String> attributes,
+                                               Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(path(root, joins, attribute));
+        }
+        query.multiselect(selections);
+
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset));
+        if (limit >= 0) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 0; i < attributes.size(); i++) {
+                row.put(attributes.get(i), tuple.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Path<?> path(Root<?> root, Map<String, From<?, ?>> joins, String attribute) {
+        int dot = attribute.indexOf('.');
+        if (dot < 0) {
+            return root.get(attribute);
+        }
+        String association = attribute.substring(0, dot);
+        From<?, ?> join = joins.computeIfAbsent(association, root::join);
+        return join.get(attribute.substring(dot + 1));
+    }
+}
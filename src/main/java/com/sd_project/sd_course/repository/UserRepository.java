@@ -1,6 +1,8 @@
 package com.sd_project.sd_course.repository;
 
 import com.sd_project.sd_course.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -36,4 +38,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Check if email exists
      */
     Boolean existsByEmail(String email);
+
+    /**
+     * Find a slice of all users, without counting them
+     */
+    Slice<User> findAllBy(Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.entity.UserSecurityVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserSecurityVersionRepository extends JpaRepository<UserSecurityVersion, Long> {
+
+    /**
+     * Raise the user's threshold, never lowering it. Runs in its own transaction because it is called
+     * after the triggering change has committed, or right before a refresh is rejected.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO user_security_versions (user_id, revoked_before, updated_at) " +
+                   "VALUES (:userId, :revokedBefore, CURRENT_TIMESTAMP) ON CONFLICT (user_id) DO UPDATE " +
+                   "SET revoked_before = GREATEST(user_security_versions.revoked_before, EXCLUDED.revoked_before), " +
+                   "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int raise(@Param("userId") Long userId, @Param("revokedBefore") long revokedBefore);
+
+    @Query("SELECT v.revokedBefore FROM UserSecurityVersion v WHERE v.userId = :userId")
+    Optional<Long> findRevokedBefore(@Param("userId") Long userId);
+
+    /**
+     * Thresholds raised since the given time, for nodes catching up with each other
+     */
+    List<UserSecurityVersion> findByUpdatedAtAfter(LocalDateTime since);
+
+    /**
+     * Remove thresholds that no unexpired token can fall under any more
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserSecurityVersion v WHERE v.revokedBefore < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") long cutoff);
+}
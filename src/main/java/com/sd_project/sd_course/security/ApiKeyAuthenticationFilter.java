@@ -0,0 +1,59 @@
+package com.sd_project.sd_course.security;
+
+import com.sd_project.sd_course.service.ApiKeyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates machine clients presenting an X-Api-Key header, without BCrypt or database access
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-Api-Key";
+    public static final String API_KEY_ID_ATTRIBUTE = ApiKeyAuthenticationFilter.class.getName() + ".keyId";
+
+    private final ApiKeyService apiKeyService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        String rawKey = request.getHeader(API_KEY_HEADER);
+
+        if (StringUtils.hasText(rawKey) && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                ApiKeyService.ApiKeyAuthentication apiKey = apiKeyService.authenticate(rawKey);
+                if (apiKey != null) {
+                    UserPrincipal principal = apiKey.principal();
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    request.setAttribute(API_KEY_ID_ATTRIBUTE, apiKey.keyId());
+                } else {
+                    log.debug("Rejected unknown or inactive API key");
+                }
+            } catch (Exception ex) {
+                log.error("Could not set API key authentication in security context", ex);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
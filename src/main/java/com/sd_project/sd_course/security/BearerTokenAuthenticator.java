@@ -0,0 +1,58 @@
+package com.sd_project.sd_course.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Resolves the user behind an access token; shared by the servlet filter and the gRPC interceptor
+ */
+@Component
+@RequiredArgsConstructor
+public class BearerTokenAuthenticator {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenProvider tokenProvider;
+    private final UserDetailsService userDetailsService;
+
+    /**
+     * The token from an Authorization header value, or null if it is not a bearer token
+     */
+    public String tokenFromHeader(String authorization) {
+        if (StringUtils.hasText(authorization) && authorization.startsWith(BEARER_PREFIX)) {
+            return authorization.substring(BEARER_PREFIX.length());
+        }
+        return null;
+    }
+
+    /**
+     * The user for a valid access token, or null if the token is invalid or a refresh token.
+     * Refresh tokens are only accepted by the refresh endpoint.
+     */
+    public UserDetails authenticate(String jwt) {
+        Claims claims = StringUtils.hasText(jwt) ? tokenProvider.getValidClaims(jwt) : null;
+        if (claims == null || tokenProvider.isRefreshToken(claims)) {
+            return null;
+        }
+        return resolveUserDetails(claims);
+    }
+
+    /**
+     * Tokens issued with embedded claims are trusted as-is; only legacy tokens fall back to a user lookup
+     */
+    private UserDetails resolveUserDetails(Claims claims) {
+        if (!tokenProvider.hasEmbeddedPrincipal(claims)) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        UserDetails userDetails = tokenProvider.getPrincipalFromClaims(claims);
+        if (userDetails == null) {
+            throw new BadCredentialsException("Token has been revoked");
+        }
+        return userDetails;
+    }
+}
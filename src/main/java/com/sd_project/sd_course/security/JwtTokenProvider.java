@@ -5,49 +5,83 @@ import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String VERSION_CLAIM = "ver";
+    private static final String TYPE_CLAIM = "typ";
+    private static final String ACCESS_TYPE = "access";
+    private static final String REFRESH_TYPE = "refresh";
+
     private final SecretKey secretKey;
     private final long jwtExpirationInMs;
     private final long refreshExpirationInMs;
+    private final SecurityVersionRegistry securityVersionRegistry;
 
     public JwtTokenProvider(@Value("${app.jwt.secret}") String jwtSecret,
                            @Value("${app.jwt.expiration-in-ms}") long jwtExpirationInMs,
-                           @Value("${app.jwt.refresh-expiration-in-ms}") long refreshExpirationInMs) {
+                           @Value("${app.jwt.refresh-expiration-in-ms}") long refreshExpirationInMs,
+                           SecurityVersionRegistry securityVersionRegistry) {
         this.secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
         this.jwtExpirationInMs = jwtExpirationInMs;
         this.refreshExpirationInMs = refreshExpirationInMs;
+        this.securityVersionRegistry = securityVersionRegistry;
     }
 
     public String generateToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return generateTokenFromUsername(userPrincipal.getUsername());
+        return generateToken(userPrincipal);
     }
 
-    public String generateTokenFromUsername(String username) {
+    /**
+     * Generate an access token that carries everything needed to rebuild the principal without a database lookup
+     */
+    public String generateToken(UserPrincipal userPrincipal) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
 
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, roles)
+                .claim(VERSION_CLAIM, securityVersionRegistry.currentVersion())
+                .claim(TYPE_CLAIM, ACCESS_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .signWith(secretKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String generateRefreshToken(String username) {
+    /**
+     * Generate a single-use refresh token identified by a random jti
+     */
+    public String generateRefreshToken(UserPrincipal userPrincipal) {
         Date expiryDate = new Date(System.currentTimeMillis() + refreshExpirationInMs);
 
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject(userPrincipal.getUsername())
+                .setId(UUID.randomUUID().toString())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(VERSION_CLAIM, securityVersionRegistry.currentVersion())
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
                 .signWith(secretKey, SignatureAlgorithm.HS512)
@@ -64,13 +98,91 @@ public class JwtTokenProvider {
         return claims.getSubject();
     }
 
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
+    }
+
+    /**
+     * Token id of a refresh token, or null if the token has none
+     */
+    public UUID getTokenId(Claims claims) {
+        try {
+            return claims.getId() == null ? null : UUID.fromString(claims.getId());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public Long getUserIdFromClaims(Claims claims) {
+        return claims.get(USER_ID_CLAIM, Long.class);
+    }
+
+    /**
+     * Check the token's security version against the registry
+     */
+    public boolean isVersionCurrent(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        Long version = claims.get(VERSION_CLAIM, Long.class);
+        return userId != null && version != null && securityVersionRegistry.isCurrent(userId, version);
+    }
+
+    /**
+     * Check the token's security version against the shared table as well, for refresh tokens that
+     * outlive a node's view of the registry
+     */
+    public boolean isVersionCurrentInStore(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        Long version = claims.get(VERSION_CLAIM, Long.class);
+        return userId != null && version != null && securityVersionRegistry.isCurrentInStore(userId, version);
+    }
+
+    /**
+     * Tokens issued before roles were embedded only carry the username
+     */
+    public boolean hasEmbeddedPrincipal(Claims claims) {
+        return claims.get(USER_ID_CLAIM) != null
+                && claims.get(VERSION_CLAIM) != null
+                && claims.get(ROLES_CLAIM) != null;
+    }
+
+    /**
+     * Rebuild the principal from token claims, or return null if its security version has been revoked
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        Collection<?> roles = claims.get(ROLES_CLAIM, Collection.class);
+        if (!isVersionCurrent(claims)) {
+            log.debug("Rejecting token for user {} issued before its security version was bumped", userId);
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+
+        return new UserPrincipal(
+                userId,
+                claims.getSubject(),
+                claims.get(EMAIL_CLAIM, String.class),
+                null,
+                authorities
+        );
+    }
+
     public boolean validateToken(String token) {
+        return getValidClaims(token) != null;
+    }
+
+    /**
+     * Parse and verify the token once, returning its claims or null if it is not valid
+     */
+    public Claims getValidClaims(String token) {
         try {
-            Jwts.parser()
+            return Jwts.parser()
                     .verifyWith(secretKey)
                     .build()
-                    .parseSignedClaims(token);
-            return true;
+                    .parseSignedClaims(token)
+                    .getPayload();
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -82,7 +194,7 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
     }
 
     public Date getExpirationDateFromToken(String token) {
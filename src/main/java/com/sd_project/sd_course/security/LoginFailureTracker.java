@@ -0,0 +1,140 @@
+package com.sd_project.sd_course.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free tracker of failed logins per source address and per username from each source.
+ *
+ * Username failures are counted per source, so guessing one account's password from one address gets that
+ * address blocked for that account while its owner can still sign in from anywhere else; a username alone
+ * never blocks, which would let anyone lock an account out. Guessing spread over many usernames from one
+ * address is caught by the per-source count.
+ *
+ * Failures are counted in a count-min sketch, so memory is fixed regardless of how many distinct
+ * sources or usernames an attacker cycles through. Counts are kept for the current and previous
+ * time window; the older window is cleared when a new one starts. The sketch may overestimate a
+ * count but never underestimates it, and hashing is seeded per process so collisions cannot be
+ * precomputed to lock out a chosen victim.
+ */
+@Component
+public class LoginFailureTracker {
+
+    private static final int DEPTH = 4;
+    private static final long SOURCE_DOMAIN = 0x5bd1e995L;
+    private static final long USERNAME_AT_SOURCE_DOMAIN = 0x27d4eb2fL;
+
+    private final AtomicIntegerArray[] windows;
+    private final AtomicLong currentEpoch = new AtomicLong();
+    private final int mask;
+    private final long seed;
+    private final long windowInMs;
+    private final int maxFailuresPerSource;
+    private final int maxFailuresPerUsernameAndSource;
+
+    public LoginFailureTracker(@Value("${app.auth.login.sketch-width:16384}") int width,
+                               @Value("${app.auth.login.failure-window-ms:300000}") long windowInMs,
+                               @Value("${app.auth.login.max-failures-per-source:20}") int maxFailuresPerSource,
+                               @Value("${app.auth.login.max-failures-per-username-and-source:10}") int maxFailuresPerUsernameAndSource) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two");
+        }
+        this.windows = new AtomicIntegerArray[]{
+                new AtomicIntegerArray(DEPTH * width),
+                new AtomicIntegerArray(DEPTH * width)
+        };
+        this.mask = width - 1;
+        this.seed = new SecureRandom().nextLong();
+        this.windowInMs = windowInMs;
+        this.maxFailuresPerSource = maxFailuresPerSource;
+        this.maxFailuresPerUsernameAndSource = maxFailuresPerUsernameAndSource;
+        this.currentEpoch.set(System.currentTimeMillis() / windowInMs);
+    }
+
+    /**
+     * Check whether a login attempt may proceed to password verification
+     */
+    public boolean isBlocked(String source, String username) {
+        long epoch = advance();
+        return estimate(epoch, hash(source, SOURCE_DOMAIN)) >= maxFailuresPerSource
+                || estimate(epoch, usernameAtSource(source, username)) >= maxFailuresPerUsernameAndSource;
+    }
+
+    public void recordFailure(String source, String username) {
+        long epoch = advance();
+        increment(epoch, hash(source, SOURCE_DOMAIN));
+        increment(epoch, usernameAtSource(source, username));
+    }
+
+    /**
+     * Seconds until the oldest window holding failures expires
+     */
+    public long getRetryAfterSeconds() {
+        long windowEnd = (currentEpoch.get() + 1) * windowInMs;
+        return Math.max(1, (windowEnd - System.currentTimeMillis()) / 1000);
+    }
+
+    private long advance() {
+        long epoch = System.currentTimeMillis() / windowInMs;
+        long previous = currentEpoch.get();
+        if (epoch > previous && currentEpoch.compareAndSet(previous, epoch)) {
+            clear(windows[(int) (epoch & 1)]);
+            if (epoch - previous > 1) {
+                clear(windows[(int) ((epoch - 1) & 1)]);
+            }
+        }
+        return epoch;
+    }
+
+    private int estimate(long epoch, long hash) {
+        AtomicIntegerArray current = windows[(int) (epoch & 1)];
+        AtomicIntegerArray previous = windows[(int) ((epoch - 1) & 1)];
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(row, hash);
+            min = Math.min(min, current.get(index) + previous.get(index));
+        }
+        return min;
+    }
+
+    private void increment(long epoch, long hash) {
+        AtomicIntegerArray current = windows[(int) (epoch & 1)];
+        for (int row = 0; row < DEPTH; row++) {
+            current.incrementAndGet(index(row, hash));
+        }
+    }
+
+    private int index(int row, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    private long usernameAtSource(String source, String username) {
+        return hash(username, hash(source, USERNAME_AT_SOURCE_DOMAIN));
+    }
+
+    private long hash(String key, long domain) {
+        long h = seed ^ domain;
+        if (key != null) {
+            for (int i = 0; i < key.length(); i++) {
+                h ^= Character.toLowerCase(key.charAt(i));
+                h *= 0x100000001b3L;
+            }
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static void clear(AtomicIntegerArray array) {
+        for (int i = 0; i < array.length(); i++) {
+            array.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sd_project.sd_course.security;
+
+import com.sd_project.sd_course.datasource.Workload;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.repository.RevokedRefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records refresh token ids that have been used or revoked.
+ *
+ * The revoked_refresh_tokens table is the source of truth; an in-memory Bloom filter in front of it
+ * answers "definitely not revoked" without touching the database. The filter never forgets an entry
+ * before the next compaction has rebuilt it from the table, and the previous generation is kept for
+ * one more cycle so revocations committed during a rebuild are not lost.
+ */
+@Component
+@Slf4j
+@Workload(WorkloadType.AUTH)
+public class RefreshTokenRevocationStore {
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final RevokedRefreshTokenRepository revokedRefreshTokenRepository;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile BloomFilter rebuilding;
+
+    public RefreshTokenRevocationStore(RevokedRefreshTokenRepository revokedRefreshTokenRepository,
+                                       @Value("${app.jwt.revocation.expected-entries:1000000}") long expectedEntries,
+                                       @Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedRefreshTokenRepository = revokedRefreshTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Check whether a refresh token id has been used or revoked.
+     * Only ids the filter cannot rule out cost a primary-key lookup.
+     */
+    public boolean isRevoked(UUID jti) {
+        BloomFilter older = previous;
+        if (!current.mightContain(jti) && (older == null || !older.mightContain(jti))) {
+            return false;
+        }
+        return revokedRefreshTokenRepository.existsById(jti);
+    }
+
+    /**
+     * Atomically mark a refresh token id as revoked.
+     *
+     * @return true if this call revoked it, false if it had already been used or revoked
+     */
+    public boolean revoke(UUID jti, Long userId, Date expiresAt) {
+        remember(jti);
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        return revokedRefreshTokenRepository.insertIfAbsent(jti, userId, expiry, LocalDateTime.now()) == 1;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Drop expired revocations and rebuild the filter so it does not saturate over time
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.compaction-interval-ms:3600000}",
+               initialDelayString = "${app.jwt.revocation.compaction-interval-ms:3600000}")
+    public void compact() {
+        int removed = revokedRefreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Compacted {} expired refresh token revocations", removed);
+        rebuild();
+    }
+
+    private void remember(UUID jti) {
+        current.add(jti);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(jti);
+        }
+    }
+
+    private void rebuild() {
+        BloomFilter next = new BloomFilter(expectedEntries, falsePositiveRate);
+        rebuilding = next;
+
+        LocalDateTime now = LocalDateTime.now();
+        UUID after = MIN_UUID;
+        long loaded = 0;
+        List<UUID> batch;
+        do {
+            batch = revokedRefreshTokenRepository.findActiveIdsAfter(now, after, Limit.of(LOAD_BATCH_SIZE));
+            for (UUID jti : batch) {
+                next.add(jti);
+            }
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        previous = current;
+        current = next;
+        rebuilding = null;
+        log.info("Loaded {} active refresh token revocations", loaded);
+    }
+}
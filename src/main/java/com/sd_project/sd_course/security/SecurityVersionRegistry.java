@@ -0,0 +1,142 @@
+package com.sd_project.sd_course.security;
+
+import com.sd_project.sd_course.datasource.Workload;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.entity.UserSecurityVersion;
+import com.sd_project.sd_course.repository.UserSecurityVersionRepository;
+import com.sd_project.sd_course.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks per-user security versions so that access tokens can be trusted without a database lookup.
+ *
+ * Every token carries the epoch (in milliseconds) at which it was issued as its security version.
+ * When a user's roles change, the account is deleted or a rotated refresh token is replayed, the user's
+ * version is bumped to the current epoch and every token issued before that moment is rejected.
+ *
+ * Bumps are written to the user_security_versions table so they survive restarts and reach every node:
+ * access tokens are checked against the in-memory copy, which polls the table for bumps made elsewhere,
+ * while refresh token exchanges check the table itself. Entries live as long as the longest-lived token,
+ * which is the refresh token.
+ */
+@Component
+@Slf4j
+@Workload(WorkloadType.AUTH)
+public class SecurityVersionRegistry {
+
+    /**
+     * Re-read a little before the newest row already seen, so a bump committed out of order is not missed
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    private final UserSecurityVersionRepository userSecurityVersionRepository;
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+    private final long retentionInMs;
+
+    private volatile LocalDateTime syncedUpTo;
+
+    public SecurityVersionRegistry(UserSecurityVersionRepository userSecurityVersionRepository,
+                                   @Value("${app.jwt.expiration-in-ms}") long jwtExpirationInMs,
+                                   @Value("${app.jwt.refresh-expiration-in-ms}") long refreshExpirationInMs) {
+        this.userSecurityVersionRepository = userSecurityVersionRepository;
+        this.retentionInMs = Math.max(jwtExpirationInMs, refreshExpirationInMs);
+    }
+
+    /**
+     * Version to embed in a token issued right now
+     */
+    public long currentVersion() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Invalidate every token issued to the user up to now, on this node at once and on the others
+     * with their next sync
+     */
+    public void bump(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedBefore.merge(userId, now, Math::max);
+        userSecurityVersionRepository.raise(userId, now);
+        log.debug("Security version bumped for user {}", userId);
+    }
+
+    /**
+     * Invalidate the user's tokens once the current transaction commits. Bumping before the commit would let a
+     * token issued in between still carry the old roles with a version past the bump.
+     */
+    public void bumpAfterCommit(Long userId) {
+        AfterCommit.run(() -> bump(userId));
+    }
+
+    /**
+     * Check whether a token carrying the given version is still valid for the user
+     */
+    public boolean isCurrent(Long userId, long version) {
+        Long threshold = revokedBefore.get(userId);
+        return threshold == null || version > threshold;
+    }
+
+    /**
+     * Like {@link #isCurrent} but also consults the table, so a bump made on another node counts before
+     * this node has synced. Meant for paths that hit the database anyway, such as refreshing a token.
+     */
+    public boolean isCurrentInStore(Long userId, long version) {
+        if (!isCurrent(userId, version)) {
+            return false;
+        }
+        return userSecurityVersionRepository.findRevokedBefore(userId)
+                .map(threshold -> version > threshold)
+                .orElse(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        sync();
+    }
+
+    /**
+     * Pick up bumps made on other nodes since the last sync
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.security-version.sync-interval-ms:5000}",
+               initialDelayString = "${app.jwt.security-version.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime since = syncedUpTo;
+        List<UserSecurityVersion> changed = since == null
+                ? userSecurityVersionRepository.findAll()
+                : userSecurityVersionRepository.findByUpdatedAtAfter(since.minus(SYNC_OVERLAP));
+        LocalDateTime newest = since;
+        for (UserSecurityVersion version : changed) {
+            revokedBefore.merge(version.getUserId(), version.getRevokedBefore(), Math::max);
+            if (newest == null || version.getUpdatedAt().isAfter(newest)) {
+                newest = version.getUpdatedAt();
+            }
+        }
+        syncedUpTo = newest != null ? newest : LocalDateTime.of(1970, 1, 1, 0, 0);
+        if (since == null) {
+            log.info("Loaded {} user security versions", changed.size());
+        }
+    }
+
+    /**
+     * Forget thresholds older than any token that could still be presented
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.security-version.compaction-interval-ms:3600000}",
+               initialDelayString = "${app.jwt.security-version.compaction-interval-ms:3600000}")
+    public void compact() {
+        long cutoff = System.currentTimeMillis() - retentionInMs;
+        revokedBefore.values().removeIf(version -> version < cutoff);
+        int removed = userSecurityVersionRepository.deleteRevokedBefore(cutoff);
+        log.info("Compacted {} expired user security versions", removed);
+    }
+}
@@ -0,0 +1,276 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.datasource.Workload;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.dto.request.ApiKeyCreateRequest;
+import com.sd_project.sd_course.dto.response.ApiKeyResponse;
+import com.sd_project.sd_course.entity.ApiKey;
+import com.sd_project.sd_course.entity.User;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.sd_project.sd_course.repository.ApiKeyRepository;
+import com.sd_project.sd_course.repository.UserRepository;
+import com.sd_project.sd_course.security.SecurityVersionRegistry;
+import com.sd_project.sd_course.security.UserPrincipal;
+import com.sd_project.sd_course.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and resolves long-lived API keys for service accounts.
+ *
+ * Only a keyed HMAC-SHA256 of each key is stored. Active keys are held in memory by hash together with a
+ * snapshot of the owner's principal, so authenticating a request costs one HMAC and one map lookup, with
+ * no BCrypt and no database access. A snapshot is reloaded when the owner's security version changes.
+ *
+ * The index only changes once the issuing or revoking transaction has committed. A revoked key stays in the
+ * index as a marker until a full refresh that started after the revocation drops it, so a refresh or reload
+ * whose query raced with the revocation cannot bring the key back. Revocations made on other nodes are
+ * picked up by polling api_keys by updated_at, which revoking stamps with the database clock.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ApiKeyService {
+
+    private static final String KEY_PREFIX = "sk_";
+    private static final int KEY_BYTES = 32;
+    private static final int DISPLAY_PREFIX_LENGTH = 9;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * Re-read a little before the newest revocation already seen, so one committed out of order is not missed
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+
+    /**
+     * Index entry of a revoked key; never matches a presented key
+     */
+    private static final IndexedKey REVOKED = new IndexedKey(null, new byte[0], null, null, 0);
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final UserRepository userRepository;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final SecretKeySpec hashingKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, IndexedKey> index = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime revocationsSyncedUpTo;
+
+    public ApiKeyService(ApiKeyRepository apiKeyRepository,
+                         UserRepository userRepository,
+                         SecurityVersionRegistry securityVersionRegistry,
+                         @Value("${app.api-key.secret:${app.jwt.secret}}") String secret) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.userRepository = userRepository;
+        this.securityVersionRegistry = securityVersionRegistry;
+        this.hashingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    /**
+     * An authenticated key: the owning principal plus the key id for per-client accounting
+     */
+    public record ApiKeyAuthentication(Long keyId, UserPrincipal principal) {
+    }
+
+    private record IndexedKey(Long keyId, byte[] hash, UserPrincipal principal,
+                              LocalDateTime expiresAt, long loadedVersion) {
+    }
+
+    /**
+     * Resolve a presented key, or return null if it is unknown, expired or revoked.
+     * Runs on every API-key request and is normally answered from the index, so it does not open a
+     * transaction; the rare reload runs in the repository's own.
+     */
+    @Workload(WorkloadType.AUTH)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ApiKeyAuthentication authenticate(String rawKey) {
+        if (rawKey == null || !rawKey.startsWith(KEY_PREFIX)) {
+            return null;
+        }
+        byte[] hash = hmac(rawKey);
+        String hashHex = HexFormat.of().formatHex(hash);
+
+        IndexedKey entry = index.get(hashHex);
+        if (entry == null || entry == REVOKED || !MessageDigest.isEqual(entry.hash(), hash)) {
+            return null;
+        }
+        if (!securityVersionRegistry.isCurrent(entry.principal().getId(), entry.loadedVersion())) {
+            entry = reload(hashHex);
+            if (entry == null) {
+                return null;
+            }
+        }
+        if (entry.expiresAt() != null && entry.expiresAt().isBefore(LocalDateTime.now())) {
+            return null;
+        }
+        return new ApiKeyAuthentication(entry.keyId(), entry.principal());
+    }
+
+    public List<ApiKeyResponse> getAllApiKeys() {
+        log.debug("Fetching all API keys");
+        return apiKeyRepository.findAllWithUser().stream()
+                .map(apiKey -> mapToResponse(apiKey, null))
+                .toList();
+    }
+
+    @Transactional
+    public ApiKeyResponse createApiKey(ApiKeyCreateRequest request) {
+        log.debug("Creating API key '{}' for user id: {}", request.getName(), request.getUserId());
+
+        User user = userRepository.findById(request.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getUserId()));
+
+        byte[] secret = new byte[KEY_BYTES];
+        secureRandom.nextBytes(secret);
+        String rawKey = KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        ApiKey apiKey = ApiKey.builder()
+                .name(request.getName())
+                .keyPrefix(rawKey.substring(0, DISPLAY_PREFIX_LENGTH))
+                .keyHash(HexFormat.of().formatHex(hmac(rawKey)))
+                .user(user)
+                .expiresAt(request.getExpiresInDays() == null ? null
+                        : LocalDateTime.now().plusDays(request.getExpiresInDays()))
+                .revoked(false)
+                .build();
+
+        ApiKey savedKey = apiKeyRepository.save(apiKey);
+        IndexedKey indexedKey = toIndexedKey(savedKey);
+        AfterCommit.run(() -> addToIndex(savedKey.getKeyHash(), indexedKey));
+        log.info("API key created successfully with id: {}", savedKey.getId());
+
+        return mapToResponse(savedKey, rawKey);
+    }
+
+    @Transactional
+    public void revokeApiKey(Long id) {
+        log.debug("Revoking API key with id: {}", id);
+
+        ApiKey apiKey = apiKeyRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("ApiKey", "id", id));
+        apiKeyRepository.revoke(id);
+        AfterCommit.run(() -> markRevoked(apiKey.getKeyHash()));
+
+        log.info("API key revoked successfully with id: {}", id);
+    }
+
+    /**
+     * Rebuild the in-memory index from the database; picks up keys issued on other nodes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.api-key.refresh-interval-ms:60000}",
+               initialDelayString = "${app.api-key.refresh-interval-ms:60000}")
+    public void refreshIndex() {
+        // Keys issued or revoked while the query runs may be missing from or stale in the result, so only drop
+        // entries, revocation markers included, that were indexed before it started
+        Set<String> previouslyIndexed = new HashSet<>(index.keySet());
+        Map<String, IndexedKey> loaded = new HashMap<>();
+        for (ApiKey apiKey : apiKeyRepository.findAllActiveWithUser()) {
+            if (apiKey.isActive()) {
+                loaded.put(apiKey.getKeyHash(), toIndexedKey(apiKey));
+            }
+        }
+        loaded.forEach(this::addToIndex);
+        previouslyIndexed.removeAll(loaded.keySet());
+        previouslyIndexed.forEach(index::remove);
+        log.debug("API key index refreshed with {} active keys", loaded.size());
+    }
+
+    /**
+     * Drop keys revoked on other nodes since the last sync, long before the next full refresh
+     */
+    @Scheduled(fixedDelayString = "${app.api-key.revocation-sync-interval-ms:5000}",
+               initialDelayString = "${app.api-key.revocation-sync-interval-ms:5000}")
+    public void syncRevocations() {
+        LocalDateTime since = revocationsSyncedUpTo;
+        List<ApiKey> revoked = apiKeyRepository.findByRevokedTrueAndUpdatedAtAfter(
+                since == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : since.minus(SYNC_OVERLAP));
+        LocalDateTime newest = since;
+        for (ApiKey apiKey : revoked) {
+            markRevoked(apiKey.getKeyHash());
+            if (newest == null || apiKey.getUpdatedAt().isAfter(newest)) {
+                newest = apiKey.getUpdatedAt();
+            }
+        }
+        revocationsSyncedUpTo = newest;
+    }
+
+    private IndexedKey reload(String hashHex) {
+        IndexedKey reloaded = apiKeyRepository.findByKeyHashWithUser(hashHex)
+                .filter(ApiKey::isActive)
+                .map(this::toIndexedKey)
+                .orElse(null);
+        if (reloaded == null) {
+            // Revoked or expired, neither of which is ever undone
+            markRevoked(hashHex);
+            return null;
+        }
+        addToIndex(hashHex, reloaded);
+        return index.get(hashHex) == REVOKED ? null : reloaded;
+    }
+
+    private void addToIndex(String hashHex, IndexedKey entry) {
+        index.compute(hashHex, (hash, current) -> current == REVOKED ? REVOKED : entry);
+    }
+
+    private void markRevoked(String hashHex) {
+        index.put(hashHex, REVOKED);
+    }
+
+    private IndexedKey toIndexedKey(ApiKey apiKey) {
+        return new IndexedKey(
+                apiKey.getId(),
+                HexFormat.of().parseHex(apiKey.getKeyHash()),
+                UserPrincipal.create(apiKey.getUser()),
+                apiKey.getExpiresAt(),
+                securityVersionRegistry.currentVersion()
+        );
+    }
+
+    private byte[] hmac(String rawKey) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hashingKey);
+            return mac.doFinal(rawKey.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to hash API key", ex);
+        }
+    }
+
+    private ApiKeyResponse mapToResponse(ApiKey apiKey, String rawKey) {
+        return ApiKeyResponse.builder()
+                .id(apiKey.getId())
+                .name(apiKey.getName())
+                .keyPrefix(apiKey.getKeyPrefix())
+                .key(rawKey)
+                .userId(apiKey.getUser().getId())
+                .username(apiKey.getUser().getUsername())
+                .revoked(apiKey.isRevoked())
+                .expiresAt(apiKey.getExpiresAt())
+                .createdAt(apiKey.getCreatedAt())
+                .build();
+    }
+}
@@ -1,18 +1,30 @@
 package com.sd_project.sd_course.service;
 
+import com.sd_project.sd_course.datasource.Workload;
+import com.sd_project.sd_course.datasource.WorkloadType;
 import com.sd_project.sd_course.dto.request.LoginRequest;
 import com.sd_project.sd_course.dto.request.RegisterRequest;
 import com.sd_project.sd_course.dto.response.JwtResponse;
 import com.sd_project.sd_course.dto.response.MessageResponse;
 import com.sd_project.sd_course.entity.Role;
 import com.sd_project.sd_course.entity.User;
+import com.sd_project.sd_course.event.DomainEventBus;
+import com.sd_project.sd_course.exception.TooManyRequestsException;
 import com.sd_project.sd_course.repository.RoleRepository;
 import com.sd_project.sd_course.repository.UserRepository;
 import com.sd_project.sd_course.security.JwtTokenProvider;
+import com.sd_project.sd_course.security.LoginFailureTracker;
+import com.sd_project.sd_course.security.RefreshTokenRevocationStore;
+import com.sd_project.sd_course.security.SecurityVersionRegistry;
 import com.sd_project.sd_course.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,11 +35,17 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Workload(WorkloadType.AUTH)
 public class AuthService {
 
     private final AuthenticationManager authenticationManager;
@@ -35,6 +53,14 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final LoginFailureTracker loginFailureTracker;
+    private final RefreshTokenRevocationStore revocationStore;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final ThreadPoolTaskExecutor loginExecutor;
+    private final DomainEventBus domainEventBus;
+
+    @Value("${app.auth.login.timeout-ms:5000}")
+    private long loginTimeoutInMs;
 
     @Transactional
     public MessageResponse registerUser(RegisterRequest registerRequest) {
@@ -63,24 +89,29 @@ public class AuthService {
         user.setRoles(roles);
 
         userRepository.save(user);
+        domainEventBus.userSaved(user.getId());
         log.info("User registered successfully: {}", user.getUsername());
 
         return new MessageResponse("User registered successfully!");
     }
 
-    public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsernameOrEmail(),
-                        loginRequest.getPassword()
-                )
-        );
+    public JwtResponse authenticateUser(LoginRequest loginRequest, String clientAddress) {
+        String username = loginRequest.getUsernameOrEmail();
+
+        // Reject known-bad sources before spending any CPU on password hashing
+        if (loginFailureTracker.isBlocked(clientAddress, username)) {
+            log.warn("Login blocked for {} from {} after repeated failures", username, clientAddress);
+            throw new TooManyRequestsException("Too many failed login attempts, please try again later",
+                    loginFailureTracker.getRetryAfterSeconds());
+        }
+
+        Authentication authentication = verifyCredentials(loginRequest, clientAddress);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
         String accessToken = tokenProvider.generateToken(authentication);
-        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal.getUsername());
+        String refreshToken = tokenProvider.generateRefreshToken(userPrincipal);
 
         List<String> roles = userPrincipal.getAuthorities().stream()
                 .map(item -> item.getAuthority())
@@ -98,29 +129,100 @@ public class AuthService {
         );
     }
 
+    /**
+     * Run password verification on the bounded login executor and wait for its result
+     */
+    private Authentication verifyCredentials(LoginRequest loginRequest, String clientAddress) {
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
+                loginRequest.getUsernameOrEmail(),
+                loginRequest.getPassword()
+        );
+
+        Future<Authentication> result;
+        try {
+            result = loginExecutor.submit(() -> authenticationManager.authenticate(token));
+        } catch (TaskRejectedException ex) {
+            throw new TooManyRequestsException("Login service is busy, please retry shortly", 1);
+        }
+
+        try {
+            return result.get(loginTimeoutInMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof BadCredentialsException badCredentials) {
+                loginFailureTracker.recordFailure(clientAddress, loginRequest.getUsernameOrEmail());
+                throw badCredentials;
+            }
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Login verification failed", ex.getCause());
+        } catch (TimeoutException ex) {
+            result.cancel(true);
+            throw new TooManyRequestsException("Login service is busy, please retry shortly", 1);
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Login was interrupted, please retry", 1);
+        }
+    }
+
+    /**
+     * Exchange a refresh token for a new token pair. Each refresh token is single-use: presenting one
+     * that was already rotated is treated as theft and revokes every token issued to the user.
+     */
     public JwtResponse refreshToken(String refreshToken) {
-        if (tokenProvider.validateToken(refreshToken)) {
-            String username = tokenProvider.getUsernameFromToken(refreshToken);
-            String newAccessToken = tokenProvider.generateTokenFromUsername(username);
-            String newRefreshToken = tokenProvider.generateRefreshToken(username);
-
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<String> roles = user.getRoles().stream()
-                    .map(role -> "ROLE_" + role.getName().name())
-                    .collect(Collectors.toList());
-
-            return new JwtResponse(
-                    newAccessToken,
-                    newRefreshToken,
-                    user.getId(),
-                    user.getUsername(),
-                    user.getEmail(),
-                    roles
-            );
-        } else {
-            throw new RuntimeException("Invalid refresh token");
+        Claims claims = parseRefreshToken(refreshToken);
+        UUID tokenId = tokenProvider.getTokenId(claims);
+        Long userId = tokenProvider.getUserIdFromClaims(claims);
+
+        if (!tokenProvider.isVersionCurrentInStore(claims)) {
+            throw new BadCredentialsException("Refresh token has been revoked");
+        }
+        if (revocationStore.isRevoked(tokenId) || !revocationStore.revoke(tokenId, userId, claims.getExpiration())) {
+            log.warn("Reuse of rotated refresh token detected for user {}; revoking all sessions", userId);
+            securityVersionRegistry.bump(userId);
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new BadCredentialsException("User not found"));
+        UserPrincipal userPrincipal = UserPrincipal.create(user);
+
+        String newAccessToken = tokenProvider.generateToken(userPrincipal);
+        String newRefreshToken = tokenProvider.generateRefreshToken(userPrincipal);
+
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
+
+        return new JwtResponse(
+                newAccessToken,
+                newRefreshToken,
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                roles
+        );
+    }
+
+    /**
+     * Revoke a refresh token so it can no longer be exchanged
+     */
+    public MessageResponse revokeRefreshToken(String refreshToken) {
+        Claims claims = parseRefreshToken(refreshToken);
+        revocationStore.revoke(tokenProvider.getTokenId(claims), tokenProvider.getUserIdFromClaims(claims),
+                claims.getExpiration());
+        return new MessageResponse("Refresh token revoked successfully!");
+    }
+
+    private Claims parseRefreshToken(String refreshToken) {
+        Claims claims = tokenProvider.getValidClaims(refreshToken);
+        if (claims == null
+                || !tokenProvider.isRefreshToken(claims)
+                || tokenProvider.getTokenId(claims) == null
+                || tokenProvider.getUserIdFromClaims(claims) == null) {
+            throw new BadCredentialsException("Invalid refresh token");
         }
+        return claims;
     }
-} 
\ No newline at end of file
+}
@@ -1,23 +1,39 @@
 package com.sd_project.sd_course.service;
 
+import com.sd_project.sd_course.cache.CountCache;
+import com.sd_project.sd_course.cache.ProductCache;
 import com.sd_project.sd_course.dto.request.CategoryCreateRequest;
 import com.sd_project.sd_course.dto.request.CategoryUpdateRequest;
+import com.sd_project.sd_course.dto.request.FieldSelection;
 import com.sd_project.sd_course.dto.response.CategoryResponse;
 import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.event.DomainEventBus;
 import com.sd_project.sd_course.exception.ConflictException;
 import com.sd_project.sd_course.exception.ResourceNotFoundException;
 import com.sd_project.sd_course.mapper.CategoryMapper;
+import com.sd_project.sd_course.outbox.Outbox;
 import com.sd_project.sd_course.repository.CategoryRepository;
+import com.sd_project.sd_course.repository.CategorySpecifications;
+import com.sd_project.sd_course.repository.SelectedColumnsQuery;
+import com.sd_project.sd_course.sharding.CategoryShardReplicator;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import com.sd_project.sd_course.suggest.SuggestionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -25,8 +41,18 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class CategoryService {
 
+    private static final String PRODUCTS_TABLE = "products";
+
     private final CategoryRepository categoryRepository;
+    private final SelectedColumnsQuery selectedColumnsQuery;
     private final CategoryMapper categoryMapper;
+    private final ShardRouter shardRouter;
+    private final CategoryShardReplicator categoryShardReplicator;
+    private final CountCache countCache;
+    private final ProductCache productCache;
+    private final SuggestionService suggestionService;
+    private final Outbox outbox;
+    private final DomainEventBus domainEventBus;
 
     @Cacheable("categories")
     public List<CategoryResponse> getAllCategories() {
@@ -37,20 +63,38 @@ public class CategoryService {
                 .toList();
     }
 
-    public Page<CategoryResponse> getAllCategories(Pageable pageable) {
+    /**
+     * All categories ordered by name, with only the columns of the selected fields
+     */
+    public List<CategoryResponse> getAllCategories(FieldSelection fields) {
+        log.debug("Fetching all categories with fields: {}", fields.fields());
+        return selectCategories(null, Sort.by("name"), fields);
+    }
+
+    public Slice<CategoryResponse> getAllCategories(Pageable pageable, FieldSelection fields) {
         log.debug("Fetching categories with pagination: {}", pageable);
-        Page<Category> categoryPage = categoryRepository.findAll(pageable);
-        return categoryPage.map(this::mapToResponse);
+        if (fields.isAll()) {
+            return categoryRepository.findAll(pageable).map(this::mapToResponse);
+        }
+        return selectedColumnsQuery.findSlice(Category.class, null, fields.attributesSortedBy(pageable.getSort()), pageable)
+                .map(row -> mapToPartialResponse(row, fields));
     }
 
-    public CategoryResponse getCategoryById(Long id) {
+    public CategoryResponse getCategoryById(Long id, FieldSelection fields) {
         log.debug("Fetching category by id: {}", id);
-        Category category = findCategoryById(id);
-        return mapToResponse(category);
+        if (fields.isAll()) {
+            return mapToResponse(findCategoryById(id));
+        }
+        return selectCategories(CategorySpecifications.hasId(id), Sort.unsorted(), fields).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
     }
 
-    public List<CategoryResponse> searchCategories(String keyword) {
+    public List<CategoryResponse> searchCategories(String keyword, FieldSelection fields) {
         log.debug("Searching categories with keyword: {}", keyword);
+        if (!fields.isAll()) {
+            return selectCategories(CategorySpecifications.nameContains(keyword), Sort.by("name"), fields);
+        }
         List<Category> categories = categoryRepository.findByNameContainingIgnoreCaseOrderByNameAsc(keyword);
         return categories.stream()
                 .map(this::mapToResponse)
@@ -69,6 +113,11 @@ public class CategoryService {
         Category category = categoryMapper.toEntity(request);
 
         Category savedCategory = categoryRepository.save(category);
+        categoryShardReplicator.replicateAfterCommit(savedCategory);
+        suggestionService.categorySaved(savedCategory.getId(), savedCategory.getName());
+        outbox.record(OutboxEvent.CATEGORY, savedCategory.getId(), OutboxEvent.CREATED,
+                categoryMapper.toResponse(savedCategory));
+        domainEventBus.categorySaved(savedCategory.getId());
         log.info("Category created successfully with id: {}", savedCategory.getId());
         
         return mapToResponse(savedCategory);
@@ -89,6 +138,12 @@ public class CategoryService {
         categoryMapper.updateEntityFromRequest(request, category);
 
         Category updatedCategory = categoryRepository.save(category);
+        categoryShardReplicator.replicateAfterCommit(updatedCategory);
+        suggestionService.categorySaved(updatedCategory.getId(), updatedCategory.getName());
+        outbox.record(OutboxEvent.CATEGORY, id, OutboxEvent.UPDATED, categoryMapper.toResponse(updatedCategory));
+        domainEventBus.categorySaved(id);
+        // Product responses embed the category name
+        productCache.clearAfterCommit();
         log.info("Category updated successfully with id: {}", updatedCategory.getId());
         
         return mapToResponse(updatedCategory);
@@ -101,12 +156,22 @@ public class CategoryService {
         Category category = findCategoryById(id);
         
         // Check if category has products
-        long productCount = categoryRepository.countProductsByCategoryId(id);
+        long productCount = countProducts(id);
         if (productCount > 0) {
             throw new ConflictException("Cannot delete category with existing products. Found " + productCount + " products.");
         }
 
-        categoryRepository.delete(category);
+        try {
+            // Flush now so a product added since the count hits the foreign key here, as a conflict
+            categoryRepository.delete(category);
+            categoryRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            throw new ConflictException("Cannot delete category with existing products.");
+        }
+        categoryShardReplicator.deleteAfterCommit(id);
+        suggestionService.categoryDeleted(id);
+        outbox.record(OutboxEvent.CATEGORY, id, OutboxEvent.DELETED, Map.of("id", id));
+        domainEventBus.categoryDeleted(id);
         log.info("Category deleted successfully with id: {}", id);
     }
 
@@ -120,8 +185,36 @@ public class CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
     }
 
+    private long countProducts(Long categoryId) {
+        return shardRouter.sumOnAllShards(() -> categoryRepository.countProductsByCategoryId(categoryId));
+    }
+
+    private List<CategoryResponse> selectCategories(Specification<Category> filter, Sort sort, FieldSelection fields) {
+        return selectedColumnsQuery.findAll(Category.class, filter, fields.attributesSortedBy(sort), sort).stream()
+                .map(row -> mapToPartialResponse(row, fields))
+                .toList();
+    }
+
+    /**
+     * Response with only the selected fields; products are counted only if productCount was selected
+     */
+    private CategoryResponse mapToPartialResponse(Map<String, Object> row, FieldSelection fields) {
+        Long id = (Long) row.get("id");
+        return CategoryResponse.builder()
+                .id(id)
+                .name((String) row.get("name"))
+                .description((String) row.get("description"))
+                .productCount(fields.includes("productCount") ? cachedProductCount(id) : null)
+                .createdAt((LocalDateTime) row.get("createdAt"))
+                .updatedAt((LocalDateTime) row.get("updatedAt"))
+                .build();
+    }
+
     private CategoryResponse mapToResponse(Category category) {
-        long productCount = categoryRepository.countProductsByCategoryId(category.getId());
-        return categoryMapper.toResponseWithProductCount(category, productCount);
+        return categoryMapper.toResponseWithProductCount(category, cachedProductCount(category.getId()));
+    }
+
+    private long cachedProductCount(Long categoryId) {
+        return countCache.get(PRODUCTS_TABLE, "category:" + categoryId, () -> countProducts(categoryId));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.SyncTokenExpiredException;
+import com.sd_project.sd_course.repository.OutboxEventRepository;
+import com.sd_project.sd_course.sharding.KWayMerge;
+import com.sd_project.sd_course.sharding.ShardContext;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Change feed of committed product and category changes, read from the published outbox.
+ *
+ * Every shard has its own gap-free sequence of positions, so a cursor is the last position read on each shard.
+ * A page merges the shards by their next events, taking each shard's events strictly in position order and using
+ * publish time only to interleave the shards. Publish times come from whichever node relayed the batch, so with
+ * clock skew they can run backwards within a shard; sorting by them could hand out a later position first and
+ * move the cursor past events that were never delivered. Reads may be served by replicas: a lagging replica
+ * only shows fewer new events, never a different order. Events are kept for the retention period; a cursor behind
+ * that is rejected, as some of its events are gone.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class ChangeFeedService {
+
+    /**
+     * Last position read on each shard; encoded as the positions joined by dots
+     */
+    record FeedCursor(List<Long> positions) {
+
+        String encode() {
+            return positions.stream().map(String::valueOf).collect(Collectors.joining("."));
+        }
+
+        static FeedCursor decode(String cursor, int shardCount) {
+            try {
+                List<Long> positions = Arrays.stream(cursor.split("\\.", -1)).map(Long::parseLong).toList();
+                if (positions.size() != shardCount || positions.stream().anyMatch(position -> position < 0)) {
+                    throw new BadRequestException("Invalid change feed cursor");
+                }
+                return new FeedCursor(positions);
+            } catch (NumberFormatException ex) {
+                throw new BadRequestException("Invalid change feed cursor");
+            }
+        }
+    }
+
+    private record ShardEvent(int shard, OutboxEvent event) {
+
+        /**
+         * Order between the heads of two shards; within a shard the merge keeps position order
+         */
+        private static final Comparator<ShardEvent> ORDER =
+                Comparator.comparing((ShardEvent e) -> e.event().getPublishedAt())
+                        .thenComparingInt(ShardEvent::shard);
+    }
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ShardRouter shardRouter;
+    private final Duration retention;
+    private final int maxLimit;
+
+    public ChangeFeedService(OutboxEventRepository outboxEventRepository,
+                             ShardRouter shardRouter,
+                             @Value("${app.outbox.retention-days:7}") long retentionDays,
+                             @Value("${app.outbox.max-limit:1000}") int maxLimit) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.shardRouter = shardRouter;
+        this.retention = Duration.ofDays(retentionDays);
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Cursor after the latest published event, for readers that only want changes from now on
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String headCursor() {
+        return new FeedCursor(shardRouter.onAllShards(outboxEventRepository::findMaxPosition)).encode();
+    }
+
+    /**
+     * The first events after the cursor, in publish order; without a cursor the feed is replayed from its
+     * oldest retained event
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChangeFeedResponse getEvents(String cursor, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new BadRequestException("Limit must be between 1 and " + maxLimit);
+        }
+        int shardCount = shardRouter.getShardCount();
+        boolean replay = cursor == null || cursor.isBlank();
+        List<Long> positions = new ArrayList<>(replay
+                ? Collections.nCopies(shardCount, 0L)
+                : FeedCursor.decode(cursor, shardCount).positions());
+        log.debug("Fetching up to {} change feed events after {}", limit, positions);
+
+        Limit fetch = Limit.of(limit + 1);
+        List<List<OutboxEvent>> shardEvents = shardRouter.onAllShards(() ->
+                outboxEventRepository.findPublishedAfter(positions.get(ShardContext.current()), fetch));
+        List<List<ShardEvent>> events = new ArrayList<>(shardEvents.size());
+        int available = 0;
+        for (int shard = 0; shard < shardEvents.size(); shard++) {
+            List<OutboxEvent> page = shardEvents.get(shard);
+            if (!replay && !page.isEmpty() && page.get(0).getPosition() != positions.get(shard) + 1) {
+                throw new SyncTokenExpiredException("Change feed cursor is older than " + retention.toDays()
+                        + " days; replay the feed without a cursor after rebuilding from the catalog");
+            }
+            List<ShardEvent> shardPage = new ArrayList<>(page.size());
+            for (OutboxEvent event : page) {
+                shardPage.add(new ShardEvent(shard, event));
+            }
+            events.add(shardPage);
+            available += page.size();
+        }
+
+        List<ShardEvent> merged = KWayMerge.page(events, ShardEvent.ORDER, 0, limit);
+        List<ChangeFeedEventResponse> items = new ArrayList<>(merged.size());
+        for (ShardEvent shardEvent : merged) {
+            positions.set(shardEvent.shard(), shardEvent.event().getPosition());
+            items.add(toItem(shardEvent.event(), new FeedCursor(List.copyOf(positions)).encode()));
+        }
+        return ChangeFeedResponse.builder()
+                .events(items)
+                .nextCursor(new FeedCursor(positions).encode())
+                .hasMore(available > limit)
+                .build();
+    }
+
+    /**
+     * Drop events published before the retention on every shard; cursors from before then are rejected
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.compaction-interval-ms:3600000}",
+               initialDelayString = "${app.outbox.compaction-interval-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void compact() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int removed = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            try {
+                removed += shardRouter.onShard(shard, () -> outboxEventRepository.deletePublishedBefore(before));
+            } catch (Exception ex) {
+                log.warn("Could not compact outbox events on shard {}: {}", shard, ex.getMessage());
+            }
+        }
+        log.info("Compacted {} expired outbox events", removed);
+    }
+
+    private static ChangeFeedEventResponse toItem(OutboxEvent event, String cursor) {
+        return ChangeFeedEventResponse.builder()
+                .cursor(cursor)
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .eventType(event.getEventType())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+}
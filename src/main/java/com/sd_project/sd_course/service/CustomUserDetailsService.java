@@ -1,5 +1,7 @@
 package com.sd_project.sd_course.service;
 
+import com.sd_project.sd_course.datasource.Workload;
+import com.sd_project.sd_course.datasource.WorkloadType;
 import com.sd_project.sd_course.entity.User;
 import com.sd_project.sd_course.repository.UserRepository;
 import com.sd_project.sd_course.security.UserPrincipal;
@@ -12,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
+@Workload(WorkloadType.AUTH)
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
@@ -1,23 +1,59 @@
 package com.sd_project.sd_course.service;
 
+import com.sd_project.sd_course.cache.CountCache;
+import com.sd_project.sd_course.cache.ProductCache;
+import com.sd_project.sd_course.cache.SearchResultCache;
+import com.sd_project.sd_course.cache.SearchResultCache.SearchKey;
+import com.sd_project.sd_course.cache.SearchResultCache.SearchResult;
+import com.sd_project.sd_course.dto.request.CountMode;
+import com.sd_project.sd_course.dto.request.FieldSelection;
 import com.sd_project.sd_course.dto.request.ProductCreateRequest;
 import com.sd_project.sd_course.dto.request.ProductUpdateRequest;
+import com.sd_project.sd_course.dto.response.ProductBatchItemResponse;
 import com.sd_project.sd_course.dto.response.ProductResponse;
 import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.entity.OutboxEvent;
 import com.sd_project.sd_course.entity.Product;
+import com.sd_project.sd_course.event.DomainEventBus;
+import com.sd_project.sd_course.exception.BadRequestException;
 import com.sd_project.sd_course.exception.ResourceNotFoundException;
 import com.sd_project.sd_course.mapper.ProductMapper;
+import com.sd_project.sd_course.outbox.Outbox;
 import com.sd_project.sd_course.repository.CategoryRepository;
+import com.sd_project.sd_course.repository.ProductFilter;
 import com.sd_project.sd_course.repository.ProductRepository;
+import com.sd_project.sd_course.repository.ProductSpecifications;
+import com.sd_project.sd_course.repository.ProductTombstoneRepository;
+import com.sd_project.sd_course.repository.RowCountEstimator;
+import com.sd_project.sd_course.repository.SelectedColumnsQuery;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import com.sd_project.sd_course.suggest.SuggestionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -25,105 +61,252 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ProductService {
 
+    private static final String PRODUCTS_TABLE = "products";
+
+    /**
+     * Sort properties backed by an index on products
+     */
+    private static final Set<String> SEARCH_SORT_PROPERTIES = Set.of("id", "name", "price", "createdAt");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
     private final ProductMapper productMapper;
+    private final ShardRouter shardRouter;
+    private final RowCountEstimator rowCountEstimator;
+    private final SelectedColumnsQuery selectedColumnsQuery;
+    private final CountCache countCache;
+    private final ProductCache productCache;
+    private final SearchResultCache searchResultCache;
+    private final SuggestionService suggestionService;
+    private final Outbox outbox;
+    private final DomainEventBus domainEventBus;
+
+    @Value("${app.products.batch.max-ids:200}")
+    private int maxBatchIds;
 
-    public Page<ProductResponse> getAllProducts(Pageable pageable) {
+    public Slice<ProductResponse> getAllProducts(Pageable pageable, FieldSelection fields) {
         log.debug("Fetching products with pagination: {}", pageable);
-        Page<Product> productPage = productRepository.findAll(pageable);
-        return productPage.map(this::mapToResponse);
+        return listProducts(pageable, Sort.unsorted(), null, fields, productRepository::findAllBy);
+    }
+
+    public Long countAllProducts(CountMode mode) {
+        return countProducts(mode, "all",
+                () -> rowCountEstimator.estimateTableRows(PRODUCTS_TABLE),
+                productRepository::count);
     }
 
     public ProductResponse getProductById(Long id) {
         log.debug("Fetching product by id: {}", id);
-        Product product = findProductById(id);
-        return mapToResponse(product);
+        suggestionService.recordView(SuggestionService.PRODUCT, id);
+        ProductResponse cached = productCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long version = productCache.version();
+        return shardRouter.onShard(shardRouter.shardForProduct(id), () -> {
+            ProductResponse product = mapToResponse(findProductById(id));
+            productCache.put(version, product);
+            return product;
+        });
     }
 
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
+    /**
+     * Products for the given ids in request order, with a not-found entry for each id that does not exist.
+     * Cached products are served from memory and the rest are loaded in one query per shard.
+     */
+    public List<ProductBatchItemResponse> getProductsByIds(List<Long> ids) {
+        log.debug("Fetching {} products by id", ids.size());
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Product IDs cannot be null");
+        }
+        if (ids.size() > maxBatchIds) {
+            throw new BadRequestException("At most " + maxBatchIds + " product IDs can be fetched at once");
+        }
+
+        Map<Long, ProductResponse> products = loadProducts(new LinkedHashSet<>(ids));
+        return ids.stream()
+                .map(id -> ProductBatchItemResponse.builder()
+                        .id(id)
+                        .found(products.containsKey(id))
+                        .product(products.get(id))
+                        .build())
+                .toList();
+    }
+
+    public Slice<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable, FieldSelection fields) {
         log.debug("Fetching products by category id: {} with pagination: {}", categoryId, pageable);
         
         // Verify category exists
         if (!categoryRepository.existsById(categoryId)) {
             throw new ResourceNotFoundException("Category", "id", categoryId);
         }
+        suggestionService.recordView(SuggestionService.CATEGORY, categoryId);
         
-        Page<Product> productPage = productRepository.findByCategoryIdOrderByNameAsc(categoryId, pageable);
-        return productPage.map(this::mapToResponse);
+        return listProducts(pageable, Sort.by("name"), ProductSpecifications.inCategory(categoryId), fields,
+                page -> productRepository.findByCategoryIdOrderByNameAsc(categoryId, page));
+    }
+
+    public Long countProductsByCategory(Long categoryId, CountMode mode) {
+        return countProducts(mode, "category:" + categoryId,
+                () -> rowCountEstimator.estimateRows("SELECT 1 FROM products WHERE category_id = ?", categoryId),
+                () -> productRepository.countByCategoryId(categoryId));
     }
 
-    public Page<ProductResponse> searchProducts(String keyword, Pageable pageable) {
+    public Slice<ProductResponse> searchProducts(String keyword, Pageable pageable, FieldSelection fields) {
         log.debug("Searching products with keyword: {} and pagination: {}", keyword, pageable);
-        Page<Product> productPage = productRepository.searchByNameOrDescription(keyword, pageable);
-        return productPage.map(this::mapToResponse);
+        SearchKey key = SearchKey.of("search", keyword, null, null, null, null, pageable, false);
+        return cachedSearch(key, pageable, fields, () -> fields.isAll()
+                ? shardRouter.scatterSlice(pageable,
+                        page -> productRepository.searchByNameOrDescription(keyword, page),
+                        this::mapToResponse)
+                : listProducts(pageable, Sort.unsorted(), ProductSpecifications.nameOrDescriptionContains(keyword),
+                        fields, null));
     }
 
-    public Page<ProductResponse> advancedSearchProducts(String keyword, Long categoryId, 
-                                                       BigDecimal minPrice, BigDecimal maxPrice, 
-                                                       Boolean inStock, Pageable pageable) {
+    /**
+     * Search with only the supplied filters in the query. Totals are counted only when requested,
+     * and then cached per filter combination; otherwise a slice is returned and no count query runs.
+     */
+    public Slice<ProductResponse> advancedSearchProducts(String keyword, Long categoryId,
+                                                        BigDecimal minPrice, BigDecimal maxPrice,
+                                                        Boolean inStock, Pageable pageable,
+                                                        boolean includeTotal, FieldSelection fields) {
         log.debug("Advanced search - keyword: {}, categoryId: {}, minPrice: {}, maxPrice: {}, inStock: {}", 
                 keyword, categoryId, minPrice, maxPrice, inStock);
-        
-        Page<Product> productPage = productRepository.findWithFilters(
-                keyword, categoryId, minPrice, maxPrice, inStock, pageable);
-        return productPage.map(this::mapToResponse);
+
+        requireIndexedSort(pageable.getSort());
+        ProductFilter filter = new ProductFilter(keyword, categoryId, minPrice, maxPrice, inStock);
+        Specification<Product> filters = filter.toSpecification();
+        Supplier<Slice<ProductResponse>> search = () -> {
+            Slice<ProductResponse> slice = listProducts(pageable, Sort.unsorted(), filters, fields,
+                    page -> productRepository.findBy(filters, query -> query.slice(page)));
+            if (!includeTotal) {
+                return slice;
+            }
+            long total = countCache.get(PRODUCTS_TABLE, filter.signature(),
+                    () -> shardRouter.sumOnAllShards(() -> productRepository.count(filters)));
+            return new PageImpl<>(slice.getContent(), pageable, total);
+        };
+        SearchKey key = SearchKey.of("advanced", keyword, categoryId, minPrice, maxPrice, inStock, pageable, includeTotal);
+        return cachedSearch(key, pageable, fields, search);
+    }
+
+    /**
+     * One batch of a keyset scan in id order: the first products after afterId that match the filters.
+     * Each batch is a primary-key range query, so a full scan costs the same per batch from start to end.
+     */
+    public Slice<ProductResponse> scanProducts(String keyword, Long categoryId,
+                                               BigDecimal minPrice, BigDecimal maxPrice, Boolean inStock,
+                                               Long afterId, int batchSize) {
+        log.debug("Scanning products after id {} in batches of {}", afterId, batchSize);
+        Specification<Product> filters = ProductSpecifications.matching(keyword, categoryId, minPrice, maxPrice, inStock);
+        if (afterId != null) {
+            filters = filters.and(ProductSpecifications.idGreaterThan(afterId));
+        }
+        Specification<Product> batch = filters;
+        return shardRouter.scatterSlice(PageRequest.of(0, batchSize, Sort.by("id")),
+                page -> productRepository.findBy(batch, query -> query.slice(page)),
+                this::mapToResponse);
     }
 
-    public Page<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+    public Slice<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable,
+                                                          FieldSelection fields) {
         log.debug("Fetching products by price range: {} - {} with pagination: {}", minPrice, maxPrice, pageable);
-        Page<Product> productPage = productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
-        return productPage.map(this::mapToResponse);
+        Specification<Product> filter = Specification.allOf(
+                ProductSpecifications.priceAtLeast(minPrice), ProductSpecifications.priceAtMost(maxPrice));
+        return listProducts(pageable, Sort.unsorted(), filter, fields,
+                page -> productRepository.findByPriceBetween(minPrice, maxPrice, page));
     }
 
-    public Page<ProductResponse> getProductsInStock(Pageable pageable) {
+    public Long countProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, CountMode mode) {
+        return countProducts(mode, "price:" + minPrice + ':' + maxPrice,
+                () -> rowCountEstimator.estimateRows(
+                        "SELECT 1 FROM products WHERE price BETWEEN ? AND ?", minPrice, maxPrice),
+                () -> productRepository.countByPriceBetween(minPrice, maxPrice));
+    }
+
+    public Slice<ProductResponse> getProductsInStock(Pageable pageable, FieldSelection fields) {
         log.debug("Fetching products in stock with pagination: {}", pageable);
-        Page<Product> productPage = productRepository.findByStockQuantityGreaterThan(0, pageable);
-        return productPage.map(this::mapToResponse);
+        return listProducts(pageable, Sort.unsorted(), ProductSpecifications.inStock(), fields,
+                page -> productRepository.findByStockQuantityGreaterThan(0, page));
+    }
+
+    public Long countProductsInStock(CountMode mode) {
+        return countProducts(mode, "in-stock",
+                () -> rowCountEstimator.estimateRows("SELECT 1 FROM products WHERE stock_quantity > 0"),
+                () -> productRepository.countByStockQuantityGreaterThan(0));
     }
 
     @Transactional
     public ProductResponse createProduct(ProductCreateRequest request) {
         log.debug("Creating product with name: {}", request.getName());
         
-        // Verify category exists
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
+        return shardRouter.onShard(shardRouter.shardForCategory(request.getCategoryId()), () -> {
+            // Verify category exists
+            Category category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
 
-        Product product = productMapper.toEntity(request);
-        product.setCategory(category);
+            Product product = productMapper.toEntity(request);
+            product.setCategory(category);
 
-        Product savedProduct = productRepository.save(product);
-        log.info("Product created successfully with id: {}", savedProduct.getId());
-        
-        return mapToResponse(savedProduct);
+            Product savedProduct = productRepository.save(product);
+            suggestionService.productSaved(savedProduct.getId(), savedProduct.getName());
+            log.info("Product created successfully with id: {}", savedProduct.getId());
+            
+            ProductResponse response = mapToResponse(savedProduct);
+            outbox.record(OutboxEvent.PRODUCT, savedProduct.getId(), OutboxEvent.CREATED, response);
+            domainEventBus.productSaved(savedProduct.getId(), category.getId(), savedProduct.getStockQuantity());
+            return response;
+        });
     }
 
     @Transactional
     public ProductResponse updateProduct(Long id, ProductUpdateRequest request) {
         log.debug("Updating product with id: {}", id);
         
-        Product product = findProductById(id);
-        
-        // Verify category exists if changed
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
+        productCache.evictAfterCommit(id);
+        return shardRouter.onShard(shardRouter.shardForProduct(id), () -> {
+            Product product = findProductById(id);
+            Long previousCategoryId = product.getCategory().getId();
+            
+            // Verify category exists if changed
+            Category category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", request.getCategoryId()));
 
-        productMapper.updateEntityFromRequest(request, product);
-        product.setCategory(category);
+            productMapper.updateEntityFromRequest(request, product);
+            product.setCategory(category);
 
-        Product updatedProduct = productRepository.save(product);
-        log.info("Product updated successfully with id: {}", updatedProduct.getId());
-        
-        return mapToResponse(updatedProduct);
+            Product updatedProduct = productRepository.save(product);
+            suggestionService.productSaved(updatedProduct.getId(), updatedProduct.getName());
+            log.info("Product updated successfully with id: {}", updatedProduct.getId());
+            
+            ProductResponse response = mapToResponse(updatedProduct);
+            // Subscribers to the old category learn that the product left it
+            outbox.record(OutboxEvent.PRODUCT, id, OutboxEvent.UPDATED, response,
+                    previousCategoryId.equals(category.getId())
+                            ? Map.of()
+                            : Map.of(OutboxEvent.PREVIOUS_CATEGORY_ID, previousCategoryId));
+            domainEventBus.productSaved(id, category.getId(), updatedProduct.getStockQuantity());
+            return response;
+        });
     }
 
     @Transactional
     public void deleteProduct(Long id) {
         log.debug("Deleting product with id: {}", id);
         
-        Product product = findProductById(id);
-        productRepository.delete(product);
+        productCache.evictAfterCommit(id);
+        shardRouter.onShard(shardRouter.shardForProduct(id), () -> {
+            Product product = findProductById(id);
+            productRepository.delete(product);
+            productTombstoneRepository.insertIfAbsent(id, product.getCategory().getId());
+            outbox.record(OutboxEvent.PRODUCT, id, OutboxEvent.DELETED,
+                    Map.of("id", id, "categoryId", product.getCategory().getId()));
+            domainEventBus.productDeleted(id, product.getCategory().getId());
+            suggestionService.productDeleted(id);
+            return null;
+        });
         
         log.info("Product deleted successfully with id: {}", id);
     }
@@ -132,43 +315,52 @@ public class ProductService {
     public ProductResponse updateStock(Long id, Integer quantity) {
         log.debug("Updating stock for product id: {} to quantity: {}", id, quantity);
         
-        Product product = findProductById(id);
-        product.setStockQuantity(quantity);
+        productCache.evictAfterCommit(id);
+        return shardRouter.onShard(shardRouter.shardForProduct(id), () -> {
+            Product product = findProductById(id);
+            product.setStockQuantity(quantity);
         
-        Product updatedProduct = productRepository.save(product);
-        log.info("Stock updated successfully for product id: {}", id);
+            Product updatedProduct = productRepository.save(product);
+            log.info("Stock updated successfully for product id: {}", id);
         
-        return mapToResponse(updatedProduct);
+            return stockChanged(updatedProduct);
+        });
     }
 
     @Transactional
     public ProductResponse addStock(Long id, Integer quantity) {
         log.debug("Adding stock for product id: {} with quantity: {}", id, quantity);
         
-        Product product = findProductById(id);
-        product.addStock(quantity);
+        productCache.evictAfterCommit(id);
+        return shardRouter.onShard(shardRouter.shardForProduct(id), () -> {
+            Product product = findProductById(id);
+            product.addStock(quantity);
         
-        Product updatedProduct = productRepository.save(product);
-        log.info("Stock added successfully for product id: {}", id);
+            Product updatedProduct = productRepository.save(product);
+            log.info("Stock added successfully for product id: {}", id);
         
-        return mapToResponse(updatedProduct);
+            return stockChanged(updatedProduct);
+        });
     }
 
     @Transactional
     public ProductResponse removeStock(Long id, Integer quantity) {
         log.debug("Removing stock for product id: {} with quantity: {}", id, quantity);
         
-        Product product = findProductById(id);
-        product.removeStock(quantity);
+        productCache.evictAfterCommit(id);
+        return shardRouter.onShard(shardRouter.shardForProduct(id), () -> {
+            Product product = findProductById(id);
+            product.removeStock(quantity);
         
-        Product updatedProduct = productRepository.save(product);
-        log.info("Stock removed successfully for product id: {}", id);
+            Product updatedProduct = productRepository.save(product);
+            log.info("Stock removed successfully for product id: {}", id);
         
-        return mapToResponse(updatedProduct);
+            return stockChanged(updatedProduct);
+        });
     }
 
     public boolean existsById(Long id) {
-        return productRepository.existsById(id);
+        return shardRouter.onShard(shardRouter.shardForProduct(id), () -> productRepository.existsById(id));
     }
 
     // Helper methods
@@ -177,7 +369,128 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
 
+    /**
+     * Scatter a product listing over the shards. Without a field selection whole products are loaded with
+     * the listing's own query; with one, only the selected columns are queried using the equivalent filter.
+     *
+     * @param inherentOrder ordering the full query applies before the pageable's sort
+     */
+    private Slice<ProductResponse> listProducts(Pageable pageable, Sort inherentOrder, Specification<Product> filter,
+                                                FieldSelection fields, Function<Pageable, Slice<Product>> fullQuery) {
+        if (fields.isAll()) {
+            return shardRouter.scatterSlice(pageable, inherentOrder, fullQuery, this::mapToResponse);
+        }
+        List<String> attributes = fields.attributesSortedBy(inherentOrder.and(pageable.getSort()));
+        return shardRouter.scatterSlice(pageable, inherentOrder,
+                page -> selectedColumnsQuery.findSlice(Product.class, filter, attributes,
+                                withSort(page, inherentOrder.and(page.getSort())))
+                        .map(productMapper::toPartialResponse),
+                Function.identity());
+    }
+
+    private static Pageable withSort(Pageable pageable, Sort sort) {
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    /**
+     * Serve a search page from the result cache, hydrating its ids through the product cache. On a miss, or if
+     * a cached product has disappeared, run the search and remember the ids it returned.
+     *
+     * A page holds the same ids whichever fields are selected, so one entry serves every selection: hits are
+     * whole products that the JSON writer trims, while a miss with a selection queries only its columns and
+     * leaves the product cache alone, since its partial responses must not be served as whole products.
+     */
+    private Slice<ProductResponse> cachedSearch(SearchKey key, Pageable pageable, FieldSelection fields,
+                                                Supplier<Slice<ProductResponse>> search) {
+        SearchResult cached = searchResultCache.get(key);
+        if (cached != null) {
+            Map<Long, ProductResponse> products = loadProducts(cached.ids());
+            if (products.size() == cached.ids().size()) {
+                List<ProductResponse> content = cached.ids().stream().map(products::get).toList();
+                return cached.total() != null
+                        ? new PageImpl<>(content, pageable, cached.total())
+                        : new SliceImpl<>(content, pageable, cached.hasNext());
+            }
+        }
+
+        long version = searchResultCache.version();
+        Slice<ProductResponse> result = search.get();
+        if (fields.isAll()) {
+            result.forEach(product -> productCache.put(version, product));
+        }
+        Long total = result instanceof Page<ProductResponse> page ? page.getTotalElements() : null;
+        searchResultCache.put(key, version,
+                new SearchResult(result.map(ProductResponse::getId).getContent(), result.hasNext(), total));
+        return result;
+    }
+
+    /**
+     * Products by id, from the product cache where possible and otherwise with one query per shard that
+     * holds any of the missing ids. Ids that do not exist are absent from the result.
+     */
+    private Map<Long, ProductResponse> loadProducts(Collection<Long> ids) {
+        Map<Long, ProductResponse> found = new HashMap<>();
+        Map<Integer, List<Long>> missesByShard = new HashMap<>();
+        for (Long id : ids) {
+            ProductResponse cached = productCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                int shard;
+                try {
+                    shard = shardRouter.shardForProduct(id);
+                } catch (ResourceNotFoundException ex) {
+                    // The id names a shard that does not exist, so the product cannot either
+                    continue;
+                }
+                missesByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(id);
+            }
+        }
+        if (missesByShard.isEmpty()) {
+            return found;
+        }
+
+        long version = productCache.version();
+        shardRouter.onShards(missesByShard, misses -> productRepository.findAllWithCategoryByIdIn(misses).stream()
+                        .map(this::mapToResponse)
+                        .toList())
+                .forEach(products -> products.forEach(product -> {
+                    found.put(product.getId(), product);
+                    productCache.put(version, product);
+                }));
+        return found;
+    }
+
+    /**
+     * Total for a product listing in the requested mode, summed over all shards; null for {@link CountMode#NONE}
+     */
+    private Long countProducts(CountMode mode, String signature, LongSupplier estimate, LongSupplier exact) {
+        return switch (mode) {
+            case NONE -> null;
+            case ESTIMATE -> shardRouter.sumOnAllShards(estimate);
+            case EXACT -> countCache.get(PRODUCTS_TABLE, signature, () -> shardRouter.sumOnAllShards(exact));
+        };
+    }
+
+    private void requireIndexedSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SEARCH_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BadRequestException("Cannot sort by '" + order.getProperty() + "'; sortable fields are "
+                        + String.join(", ", SEARCH_SORT_PROPERTIES.stream().sorted().toList()));
+            }
+        }
+    }
+
+    private ProductResponse stockChanged(Product product) {
+        ProductResponse response = mapToResponse(product);
+        outbox.record(OutboxEvent.PRODUCT, product.getId(), OutboxEvent.STOCK_CHANGED, response);
+        domainEventBus.productStockChanged(product.getId(), product.getCategory().getId(), product.getStockQuantity());
+        return response;
+    }
+
     private ProductResponse mapToResponse(Product product) {
         return productMapper.toResponse(product);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.datasource.Workload;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.dto.response.ProductDeltaItemResponse;
+import com.sd_project.sd_course.dto.response.ProductDeltaResponse;
+import com.sd_project.sd_course.entity.Product;
+import com.sd_project.sd_course.entity.ProductTombstone;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.SyncTokenExpiredException;
+import com.sd_project.sd_course.mapper.ProductMapper;
+import com.sd_project.sd_course.repository.ProductRepository;
+import com.sd_project.sd_course.repository.ProductTombstoneRepository;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Delta sync for offline catalog copies: products created, updated or deleted after a sync token.
+ *
+ * A token is a position (changedAt, id) in the order products change. Changed products are found through the
+ * (updated_at, id) index and deletions through tombstones. updated_at, deleted_at and the tokens all come from
+ * the database clock, so the application servers' clocks play no part. updated_at is taken when a transaction
+ * starts, not when it commits, so a change only becomes visible after the settle window has passed; transactions must
+ * finish within that window or a client that has already moved past the change would miss it. Reads go to the
+ * primary for the same reason, as a lagging replica would hide recent changes.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@Workload(WorkloadType.WRITE)
+public class ProductSyncService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Position after a change; encoded as an opaque URL-safe string
+     */
+    record SyncToken(LocalDateTime changedAt, long id) {
+
+        private static final Comparator<SyncToken> ORDER =
+                Comparator.comparing(SyncToken::changedAt).thenComparingLong(SyncToken::id);
+
+        String encode() {
+            String raw = changedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SyncToken decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new SyncToken(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+                throw new BadRequestException("Invalid sync token");
+            }
+        }
+    }
+
+    private record Change(SyncToken position, Product product, ProductTombstone tombstone) {
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductMapper productMapper;
+    private final ShardRouter shardRouter;
+    private final Duration settleWindow;
+    private final Duration tombstoneRetention;
+    private final int maxLimit;
+
+    public ProductSyncService(ProductRepository productRepository,
+                              ProductTombstoneRepository productTombstoneRepository,
+                              ProductMapper productMapper,
+                              ShardRouter shardRouter,
+                              @Value("${app.products.changes.settle-window-ms:5000}") long settleWindowMs,
+                              @Value("${app.products.changes.tombstone-retention-days:30}") long tombstoneRetentionDays,
+                              @Value("${app.products.changes.max-limit:1000}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productMapper = productMapper;
+        this.shardRouter = shardRouter;
+        this.settleWindow = Duration.ofMillis(settleWindowMs);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Upper bound of the changes that are safe to hand out now; every change before it has committed
+     */
+    public String currentToken() {
+        return new SyncToken(databaseNow().minus(settleWindow), 0).encode();
+    }
+
+    /**
+     * One page of changes after the since token, up to the current token
+     */
+    public ProductDeltaResponse getChanges(String since, int limit) {
+        return getChanges(since, currentToken(), limit);
+    }
+
+    /**
+     * The first changes after the since token, oldest first, up to the until token.
+     * Without a since token every product is returned and deletions are left out, as the client has nothing yet.
+     *
+     * @param until token from {@link #currentToken()}, fixed for the whole sync so that paging ends
+     */
+    public ProductDeltaResponse getChanges(String since, String until, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new BadRequestException("Limit must be between 1 and " + maxLimit);
+        }
+        SyncToken from = since == null || since.isBlank() ? new SyncToken(BEGINNING, 0) : SyncToken.decode(since);
+        LocalDateTime to = SyncToken.decode(until).changedAt();
+        boolean initial = since == null || since.isBlank();
+        if (!initial && from.changedAt().isBefore(databaseNow().minus(tombstoneRetention))) {
+            throw new SyncTokenExpiredException("Sync token is older than " + tombstoneRetention.toDays()
+                    + " days; download the full catalog again without a since token");
+        }
+        log.debug("Fetching up to {} product changes between {} and {}", limit, from, to);
+
+        List<Change> changes = new ArrayList<>();
+        if (from.changedAt().isBefore(to)) {
+            Limit fetch = Limit.of(limit + 1);
+            shardRouter.onAllShards(() -> productRepository.findChangedBetween(from.changedAt(), from.id(), to, fetch))
+                    .forEach(products -> products.forEach(product -> changes.add(
+                            new Change(new SyncToken(product.getUpdatedAt(), product.getId()), product, null))));
+            if (!initial) {
+                shardRouter.onAllShards(() -> productTombstoneRepository.findDeletedBetween(
+                                from.changedAt(), from.id(), to, fetch))
+                        .forEach(tombstones -> tombstones.forEach(tombstone -> changes.add(new Change(
+                                new SyncToken(tombstone.getDeletedAt(), tombstone.getProductId()), null, tombstone))));
+            }
+        }
+        changes.sort(Comparator.comparing(Change::position, SyncToken.ORDER));
+
+        boolean hasMore = changes.size() > limit;
+        List<ProductDeltaItemResponse> items = changes.stream()
+                .limit(limit)
+                .map(this::toItem)
+                .toList();
+        String nextToken = hasMore ? items.get(items.size() - 1).getToken() : until;
+        return ProductDeltaResponse.builder()
+                .changes(items)
+                .nextToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Drop tombstones older than the retention on every shard; tokens from before then are rejected
+     */
+    @Scheduled(fixedDelayString = "${app.products.changes.tombstone-compaction-interval-ms:3600000}",
+               initialDelayString = "${app.products.changes.tombstone-compaction-interval-ms:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void compactTombstones() {
+        int removed = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            try {
+                removed += shardRouter.onShard(shard, () -> productTombstoneRepository.deleteDeletedBefore(
+                        productRepository.currentTimestamp().minus(tombstoneRetention)));
+            } catch (Exception ex) {
+                log.warn("Could not compact product tombstones on shard {}: {}", shard, ex.getMessage());
+            }
+        }
+        log.info("Compacted {} expired product tombstones", removed);
+    }
+
+    /**
+     * The earliest of the shards' clocks; each shard stamps its own changes, and a watermark ahead of any of
+     * them could pass over a change that shard has yet to commit
+     */
+    private LocalDateTime databaseNow() {
+        return shardRouter.onAllShards(productRepository::currentTimestamp).stream()
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+    }
+
+    private ProductDeltaItemResponse toItem(Change change) {
+        return ProductDeltaItemResponse.builder()
+                .id(change.position().id())
+                .deleted(change.tombstone() != null)
+                .product(change.product() != null ? productMapper.toResponse(change.product()) : null)
+                .changedAt(change.position().changedAt())
+                .token(change.position().encode())
+                .build();
+    }
+}
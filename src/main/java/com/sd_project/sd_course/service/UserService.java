@@ -1,17 +1,22 @@
 package com.sd_project.sd_course.service;
 
+import com.sd_project.sd_course.cache.CountCache;
 import com.sd_project.sd_course.dto.request.UserUpdateRequest;
 import com.sd_project.sd_course.dto.response.MessageResponse;
 import com.sd_project.sd_course.dto.response.UserResponse;
 import com.sd_project.sd_course.entity.Role;
 import com.sd_project.sd_course.entity.User;
+import com.sd_project.sd_course.event.DomainEventBus;
 import com.sd_project.sd_course.exception.ResourceNotFoundException;
 import com.sd_project.sd_course.repository.RoleRepository;
 import com.sd_project.sd_course.repository.UserRepository;
+import com.sd_project.sd_course.security.SecurityVersionRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,14 +32,23 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserService {
 
+    private static final String USERS_TABLE = "users";
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final CountCache countCache;
+    private final DomainEventBus domainEventBus;
 
+    /**
+     * Page of users; the total comes from the count cache instead of a count query per page
+     */
     public Page<UserResponse> getAllUsers(Pageable pageable) {
         log.info("Fetching all users with pagination: {}", pageable);
-        Page<User> users = userRepository.findAll(pageable);
-        return users.map(this::convertToUserResponse);
+        Slice<User> users = userRepository.findAllBy(pageable);
+        long total = countCache.get(USERS_TABLE, "all", userRepository::count);
+        return new PageImpl<>(users.getContent(), pageable, total).map(this::convertToUserResponse);
     }
 
     public List<UserResponse> getAllUsers() {
@@ -108,6 +122,9 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        // Username, email, password and roles are all embedded in issued tokens
+        securityVersionRegistry.bumpAfterCommit(user.getId());
+        domainEventBus.userSaved(user.getId());
         log.info("User updated successfully: {}", updatedUser.getUsername());
         
         return convertToUserResponse(updatedUser);
@@ -121,6 +138,8 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
 
         userRepository.delete(user);
+        securityVersionRegistry.bumpAfterCommit(user.getId());
+        domainEventBus.userDeleted(user.getId());
         log.info("User deleted successfully: {}", user.getUsername());
         
         return new MessageResponse("User deleted successfully!");
@@ -144,7 +163,9 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Role not found: " + roleName));
 
         user.getRoles().add(role);
+        securityVersionRegistry.bumpAfterCommit(user.getId());
         User updatedUser = userRepository.save(user);
+        domainEventBus.userSaved(user.getId());
         
         log.info("Role {} assigned to user {} successfully", roleName, user.getUsername());
         return convertToUserResponse(updatedUser);
@@ -168,7 +189,9 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Role not found: " + roleName));
 
         user.getRoles().remove(role);
+        securityVersionRegistry.bumpAfterCommit(user.getId());
         User updatedUser = userRepository.save(user);
+        domainEventBus.userSaved(user.getId());
         
         log.info("Role {} removed from user {} successfully", roleName, user.getUsername());
         return convertToUserResponse(updatedUser);
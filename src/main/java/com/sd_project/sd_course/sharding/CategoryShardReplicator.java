@@ -0,0 +1,112 @@
+package com.sd_project.sd_course.sharding;
+
+import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.repository.CategoryRepository;
+import com.sd_project.sd_course.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps a copy of every category on each additional shard, so products can reference their category
+ * locally. Shard 0 owns categories and assigns their ids; changes are copied once its transaction
+ * commits, and a periodic pass repairs any copy that failed.
+ */
+@Slf4j
+@Component
+public class CategoryShardReplicator {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO categories (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, " +
+            "updated_at = EXCLUDED.updated_at";
+    private static final String DELETE_SQL = "DELETE FROM categories WHERE id = ?";
+    private static final String DELETE_ORPHANS_SQL =
+            "DELETE FROM categories c WHERE NOT (c.id = ANY (?)) " +
+            "AND NOT EXISTS (SELECT 1 FROM products p WHERE p.category_id = c.id)";
+
+    private final ShardSet shardSet;
+    private final CategoryRepository categoryRepository;
+
+    public CategoryShardReplicator(ShardSet shardSet, CategoryRepository categoryRepository) {
+        this.shardSet = shardSet;
+        this.categoryRepository = categoryRepository;
+    }
+
+    private record CategoryRow(Long id, String name, String description,
+                               LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Copy a saved category to the other shards once the current transaction commits
+     */
+    public void replicateAfterCommit(Category category) {
+        if (shardSet.size() == 1) {
+            return;
+        }
+        CategoryRow row = new CategoryRow(category.getId(), category.getName(), category.getDescription(),
+                category.getCreatedAt(), category.getUpdatedAt());
+        AfterCommit.run(() -> forEachAdditionalShard((shard, jdbcTemplate) -> upsert(jdbcTemplate, row)));
+    }
+
+    /**
+     * Remove a deleted category from the other shards once the current transaction commits
+     */
+    public void deleteAfterCommit(Long categoryId) {
+        if (shardSet.size() == 1) {
+            return;
+        }
+        AfterCommit.run(() -> forEachAdditionalShard(
+                (shard, jdbcTemplate) -> jdbcTemplate.update(DELETE_SQL, categoryId)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.datasource.sharding.category-sync-interval-ms:300000}",
+               initialDelayString = "${app.datasource.sharding.category-sync-interval-ms:300000}")
+    public void synchronize() {
+        if (shardSet.size() == 1) {
+            return;
+        }
+        List<CategoryRow> rows = categoryRepository.findAll().stream()
+                .map(category -> new CategoryRow(category.getId(), category.getName(), category.getDescription(),
+                        category.getCreatedAt(), category.getUpdatedAt()))
+                .toList();
+        Long[] ids = rows.stream().map(CategoryRow::id).toArray(Long[]::new);
+
+        forEachAdditionalShard((shard, jdbcTemplate) -> {
+            rows.forEach(row -> upsert(jdbcTemplate, row));
+            jdbcTemplate.update(DELETE_ORPHANS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        });
+        log.debug("Synchronized {} categories to {} additional shards", rows.size(), shardSet.size() - 1);
+    }
+
+    private interface ShardWork {
+        void run(int shard, JdbcTemplate jdbcTemplate);
+    }
+
+    private void forEachAdditionalShard(ShardWork work) {
+        for (int shard = 1; shard < shardSet.size(); shard++) {
+            try {
+                work.run(shard, new JdbcTemplate(shardSet.getDataSource(shard)));
+            } catch (Exception ex) {
+                log.warn("Could not replicate categories to shard {}: {}", shard, ex.getMessage());
+            }
+        }
+    }
+
+    private static void upsert(JdbcTemplate jdbcTemplate, CategoryRow row) {
+        jdbcTemplate.update(UPSERT_SQL, row.id(), row.name(), row.description(),
+                toTimestamp(row.createdAt()), toTimestamp(row.updatedAt()));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
@@ -0,0 +1,45 @@
+package com.sd_project.sd_course.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges lists that are each already sorted into one page of the combined order
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    /**
+     * Skip offset elements of the merged order and return up to size elements after them
+     */
+    public static <T> List<T> page(List<List<T>> sortedLists, Comparator<? super T> comparator, long offset, int size) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> comparator.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1])));
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+
+        List<T> page = new ArrayList<>(Math.min(size, 1024));
+        long skipped = 0;
+        while (!heads.isEmpty() && page.size() < size) {
+            int[] head = heads.poll();
+            List<T> list = sortedLists.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(list.get(head[1]));
+            }
+            if (head[1] + 1 < list.size()) {
+                head[1]++;
+                heads.add(head);
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sd_project.sd_course.sharding;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * R2DBC connections of all product shards, in shard order; shard 0 is the main database.
+ * The reactive counterpart of {@link ShardSet} for the non-blocking read API.
+ */
+public class ReactiveShardSet implements AutoCloseable {
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<DatabaseClient> clients;
+    private final List<ConnectionPool> pools;
+
+    /**
+     * @param shards connection factory of each shard
+     * @param pools  every pool behind the factories, closed with the set
+     */
+    public ReactiveShardSet(List<? extends ConnectionFactory> shards, List<ConnectionPool> pools) {
+        if (shards.isEmpty() || shards.size() > ShardIds.MAX_SHARDS) {
+            throw new IllegalArgumentException("Between 1 and " + ShardIds.MAX_SHARDS + " shards are supported");
+        }
+        this.clients = shards.stream().map(DatabaseClient::create).toList();
+        this.pools = List.copyOf(pools);
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    public DatabaseClient getClient(int shard) {
+        return clients.get(shard);
+    }
+
+    /**
+     * Shard holding the product with the given id, or -1 if the id points at a shard that does not exist
+     */
+    public int shardForProduct(long id) {
+        int shard = size() > 1 ? ShardIds.shardOf(id) : 0;
+        return shard < size() ? shard : -1;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(pool -> pool.disposeLater().block(CLOSE_TIMEOUT));
+    }
+}
@@ -0,0 +1,29 @@
+package com.sd_project.sd_course.sharding;
+
+/**
+ * Product ids that carry the shard they live on.
+ *
+ * Once sharding is enabled, each shard's products.id default becomes
+ * BASE + nextval(products_shard_id_seq) * MAX_SHARDS + shard, so ids are globally unique without
+ * coordination and any id can be routed without a lookup. Ids below BASE predate sharding and live
+ * on shard 0. Adding shards never changes where an existing id lives.
+ */
+public final class ShardIds {
+
+    public static final long BASE = 1L << 40;
+    public static final int MAX_SHARDS = 1024;
+
+    private ShardIds() {
+    }
+
+    public static int shardOf(long id) {
+        return id < BASE ? 0 : (int) ((id - BASE) % MAX_SHARDS);
+    }
+
+    /**
+     * Column default that generates ids for the given shard
+     */
+    static String idDefault(int shard) {
+        return "(" + BASE + " + nextval('products_shard_id_seq') * " + MAX_SHARDS + " + " + shard + ")";
+    }
+}
@@ -0,0 +1,365 @@
+package com.sd_project.sd_course.sharding;
+
+import com.sd_project.sd_course.datasource.ConsistencyContext;
+import com.sd_project.sd_course.datasource.DatabaseAccess;
+import com.sd_project.sd_course.datasource.WorkloadContext;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.sd_project.sd_course.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Places products on shards and runs queries against one shard or all of them.
+ *
+ * Single-key operations select a shard with {@link #onShard} before their first query. Connections are
+ * obtained lazily, so the shard must be chosen before the transaction issues its first statement, and a
+ * transaction stays on the shard it started on. Cross-shard reads run in parallel, each shard in its own
+ * read-only transaction on a virtual thread, and pages are assembled with a k-way merge.
+ *
+ * Scatter tasks inherit the caller's declared workload and consistency token, so a {@code @Workload(WRITE)}
+ * caller reads every shard, including the main database, from the primary.
+ *
+ * With a single shard every method runs directly on the calling thread, exactly as without sharding.
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    private static final String ID_PROPERTY = "id";
+
+    private final ShardSet shardSet;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long queryTimeoutMs;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardRouter(ShardSet shardSet,
+                       PlatformTransactionManager transactionManager,
+                       ShardingProperties properties) {
+        this.shardSet = shardSet;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryTimeoutMs = properties.getQueryTimeoutMs();
+    }
+
+    private record SortedRow<R>(Object[] keys, R value) {
+    }
+
+    private record ShardPage<R>(List<SortedRow<R>> rows, long totalElements, boolean hasNext) {
+    }
+
+    /**
+     * Routing state of the calling thread, carried over to scatter tasks on other threads
+     */
+    private record CallerContext(WorkloadType workload, long requiredLsn, DatabaseAccess.Recorder databaseAccess) {
+
+        static CallerContext capture() {
+            return new CallerContext(WorkloadContext.declared(), ConsistencyContext.getRequiredLsn(),
+                    DatabaseAccess.current());
+        }
+
+        <T> T call(Supplier<T> work) {
+            WorkloadType previous = WorkloadContext.enter(workload);
+            ConsistencyContext.require(requiredLsn);
+            DatabaseAccess.attach(databaseAccess);
+            try {
+                return work.get();
+            } finally {
+                DatabaseAccess.end();
+                ConsistencyContext.clear();
+                WorkloadContext.restore(previous);
+            }
+        }
+    }
+
+    public int getShardCount() {
+        return shardSet.size();
+    }
+
+    public boolean isSharded() {
+        return shardSet.size() > 1;
+    }
+
+    /**
+     * Shard holding the product with the given id
+     */
+    public int shardForProduct(Long id) {
+        if (!isSharded() || id == null) {
+            return 0;
+        }
+        int shard = ShardIds.shardOf(id);
+        if (shard >= shardSet.size()) {
+            throw new ResourceNotFoundException("Product", "id", id);
+        }
+        return shard;
+    }
+
+    /**
+     * Shard for new products of a category. Rendezvous hashing keeps a category's products together
+     * and moves only about 1/N of the categories when a shard is added.
+     */
+    public int shardForCategory(Long categoryId) {
+        if (!isSharded() || categoryId == null) {
+            return 0;
+        }
+        int best = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int shard = 0; shard < shardSet.size(); shard++) {
+            long score = mix(categoryId * 0x9E3779B97F4A7C15L + shard);
+            if (score > bestScore) {
+                bestScore = score;
+                best = shard;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Run work against one shard; must be called before the enclosing transaction's first query
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        return ShardContext.call(shard, work);
+    }
+
+    /**
+     * Run the same read on every shard in parallel and collect the results in shard order
+     */
+    public <T> List<T> onAllShards(Supplier<T> work) {
+        if (!isSharded()) {
+            return List.of(work.get());
+        }
+        List<Integer> shards = new ArrayList<>(shardSet.size());
+        for (int shard = 0; shard < shardSet.size(); shard++) {
+            shards.add(shard);
+        }
+        return scatterTo(shards, shard -> work.get());
+    }
+
+    /**
+     * Run a read on each of the given shards in parallel, passing each the argument it is mapped to, and
+     * collect the results in shard order. Shards without an argument are not queried at all.
+     */
+    public <A, T> List<T> onShards(Map<Integer, A> arguments, Function<A, T> work) {
+        if (arguments.isEmpty()) {
+            return List.of();
+        }
+        if (!isSharded()) {
+            return List.of(work.apply(arguments.get(0)));
+        }
+        List<Integer> shards = arguments.keySet().stream().sorted().toList();
+        return scatterTo(shards, shard -> work.apply(arguments.get(shard)));
+    }
+
+    private <T> List<T> scatterTo(List<Integer> shards, IntFunction<T> work) {
+        CallerContext caller = CallerContext.capture();
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (int shard : shards) {
+            futures.add(executor.submit(() -> caller.call(() ->
+                    ShardContext.call(shard, () -> readOnlyTransaction.execute(status -> work.apply(shard))))));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queryTimeoutMs);
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new ServiceUnavailableException("Product shards did not respond in time");
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            log.error("Shard query failed", ex.getCause());
+            throw new ServiceUnavailableException("A product shard query failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new ServiceUnavailableException("Interrupted while querying product shards");
+        }
+        return results;
+    }
+
+    public long sumOnAllShards(LongSupplier work) {
+        return onAllShards(work::getAsLong).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Run a paged query on every shard and merge the results into the requested page
+     */
+    public <E, R> Page<R> scatterPage(Pageable pageable,
+                                      Function<Pageable, Page<E>> query,
+                                      Function<E, R> mapper) {
+        return scatterPage(pageable, Sort.unsorted(), query, mapper);
+    }
+
+    /**
+     * Run a paged query on every shard and merge the results into the requested page.
+     *
+     * Each shard returns its first offset + size rows, so deep pages cost proportionally more.
+     *
+     * @param inherentOrder ordering the query applies before the pageable's sort, such as an OrderBy
+     *                      in a derived query name
+     */
+    public <E, R> Page<R> scatterPage(Pageable pageable,
+                                      Sort inherentOrder,
+                                      Function<Pageable, Page<E>> query,
+                                      Function<E, R> mapper) {
+        if (!isSharded()) {
+            return query.apply(pageable).map(mapper);
+        }
+        List<ShardPage<R>> shardPages = scatter(pageable, inherentOrder, query, mapper);
+        long total = shardPages.stream().mapToLong(ShardPage::totalElements).sum();
+        return new PageImpl<>(merge(pageable, inherentOrder, shardPages), pageable, total);
+    }
+
+    /**
+     * Run a sliced query on every shard and merge the results into the requested slice, without counting
+     */
+    public <E, R> Slice<R> scatterSlice(Pageable pageable,
+                                        Function<Pageable, Slice<E>> query,
+                                        Function<E, R> mapper) {
+        return scatterSlice(pageable, Sort.unsorted(), query, mapper);
+    }
+
+    /**
+     * Run a sliced query on every shard and merge the results into the requested slice, without counting
+     *
+     * @param inherentOrder ordering the query applies before the pageable's sort
+     */
+    public <E, R> Slice<R> scatterSlice(Pageable pageable,
+                                        Sort inherentOrder,
+                                        Function<Pageable, Slice<E>> query,
+                                        Function<E, R> mapper) {
+        if (!isSharded()) {
+            return query.apply(pageable).map(mapper);
+        }
+        List<ShardPage<R>> shardPages = scatter(pageable, inherentOrder, query, mapper);
+        long available = shardPages.stream().mapToLong(shardPage -> shardPage.rows().size()).sum();
+        boolean hasNext = pageable.isPaged()
+                && (shardPages.stream().anyMatch(ShardPage::hasNext)
+                    || available > pageable.getOffset() + pageable.getPageSize());
+        return new SliceImpl<>(merge(pageable, inherentOrder, shardPages), pageable, hasNext);
+    }
+
+    private <E, R> List<ShardPage<R>> scatter(Pageable pageable,
+                                              Sort inherentOrder,
+                                              Function<Pageable, ? extends Slice<E>> query,
+                                              Function<E, R> mapper) {
+        Sort querySort = withIdTieBreak(pageable.getSort());
+        List<Sort.Order> mergeOrder = mergeOrder(pageable, inherentOrder);
+        Pageable shardPageable = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), querySort)
+                : Pageable.unpaged(querySort);
+
+        return onAllShards(() -> {
+            Slice<E> slice = query.apply(shardPageable);
+            List<SortedRow<R>> rows = new ArrayList<>(slice.getNumberOfElements());
+            for (E entity : slice.getContent()) {
+                rows.add(new SortedRow<>(sortKeys(entity, mergeOrder), mapper.apply(entity)));
+            }
+            long total = slice instanceof Page<E> page ? page.getTotalElements() : -1;
+            return new ShardPage<>(rows, total, slice.hasNext());
+        });
+    }
+
+    private static <R> List<R> merge(Pageable pageable, Sort inherentOrder, List<ShardPage<R>> shardPages) {
+        List<List<SortedRow<R>>> rows = shardPages.stream().map(ShardPage::rows).toList();
+        return KWayMerge.page(rows, rowComparator(mergeOrder(pageable, inherentOrder)),
+                        pageable.isPaged() ? pageable.getOffset() : 0,
+                        pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE)
+                .stream()
+                .map(SortedRow::value)
+                .toList();
+    }
+
+    private static List<Sort.Order> mergeOrder(Pageable pageable, Sort inherentOrder) {
+        return withIdTieBreak(inherentOrder.and(pageable.getSort())).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Sort withIdTieBreak(Sort sort) {
+        return sort.getOrderFor(ID_PROPERTY) == null ? sort.and(Sort.by(ID_PROPERTY)) : sort;
+    }
+
+    private static Object[] sortKeys(Object entity, List<Sort.Order> orders) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        Object[] keys = new Object[orders.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = wrapper.getPropertyValue(orders.get(i).getProperty());
+        }
+        return keys;
+    }
+
+    private static <R> Comparator<SortedRow<R>> rowComparator(List<Sort.Order> orders) {
+        return (a, b) -> {
+            for (int i = 0; i < orders.size(); i++) {
+                Sort.Order order = orders.get(i);
+                int result = compareValues(a.keys()[i], b.keys()[i], order.isIgnoreCase());
+                if (result != 0) {
+                    return order.isAscending() ? result : -result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Nulls sort last ascending and first descending, matching PostgreSQL's default
+     */
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b, boolean ignoreCase) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return 1;
+        }
+        if (b == null) {
+            return -1;
+        }
+        if (ignoreCase && a instanceof String left && b instanceof String right) {
+            return left.compareToIgnoreCase(right);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.sd_project.sd_course.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Migrates additional shards and switches each shard's products.id default to shard-encoded ids
+ * (see {@link ShardIds}).
+ *
+ * Runs once the entity manager factory, and with it the Flyway migration of shard 0, is ready and
+ * before the application serves requests. Additional shards are migrated with the same scripts and
+ * settings as shard 0. Does nothing while only one shard is configured.
+ */
+@Slf4j
+@Component
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private static final String SEQUENCE = "products_shard_id_seq";
+
+    private final ShardSet shardSet;
+    private final DataSource mainDataSource;
+    private final ObjectProvider<Flyway> flyway;
+
+    public ShardSchemaInitializer(ShardSet shardSet,
+                                  @Qualifier("writeDataSource") DataSource mainDataSource,
+                                  ObjectProvider<Flyway> flyway,
+                                  EntityManagerFactory entityManagerFactory) {
+        this.shardSet = shardSet;
+        this.mainDataSource = mainDataSource;
+        this.flyway = flyway;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (shardSet.size() == 1) {
+            return;
+        }
+        for (int shard = 0; shard < shardSet.size(); shard++) {
+            DataSource dataSource = shard == 0 ? mainDataSource : shardSet.getDataSource(shard);
+            if (shard > 0) {
+                migrate(shard, dataSource);
+            }
+            initialize(shard, new JdbcTemplate(dataSource));
+        }
+    }
+
+    private void migrate(int shard, DataSource dataSource) {
+        Flyway mainFlyway = flyway.getIfAvailable();
+        if (mainFlyway == null) {
+            return;
+        }
+        Flyway.configure()
+                .configuration(mainFlyway.getConfiguration())
+                .dataSource(dataSource)
+                .load()
+                .migrate();
+        log.info("Shard {} schema is up to date", shard);
+    }
+
+    private void initialize(int shard, JdbcTemplate jdbcTemplate) {
+        Boolean hasProducts = jdbcTemplate.queryForObject("SELECT to_regclass('products') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(hasProducts)) {
+            throw new IllegalStateException("Shard " + shard + " has no products table; run the Flyway migrations against it");
+        }
+        String currentDefault = jdbcTemplate.queryForObject(
+                "SELECT column_default FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = 'products' AND column_name = 'id'",
+                String.class);
+        if (currentDefault != null && currentDefault.contains(SEQUENCE)) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+        jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN id SET DEFAULT " + ShardIds.idDefault(shard));
+        log.info("Shard {} now generates shard-encoded product ids", shard);
+    }
+}
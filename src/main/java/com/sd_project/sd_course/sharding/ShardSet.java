@@ -0,0 +1,43 @@
+package com.sd_project.sd_course.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Connection pools of the product shards beyond the main database
+ */
+public class ShardSet implements AutoCloseable {
+
+    private final List<HikariDataSource> additionalShards;
+
+    public ShardSet(List<HikariDataSource> additionalShards) {
+        if (additionalShards.size() >= ShardIds.MAX_SHARDS) {
+            throw new IllegalArgumentException("At most " + (ShardIds.MAX_SHARDS - 1) + " additional shards are supported");
+        }
+        this.additionalShards = List.copyOf(additionalShards);
+    }
+
+    /**
+     * Number of shards including the main database
+     */
+    public int size() {
+        return additionalShards.size() + 1;
+    }
+
+    /**
+     * Pool of an additional shard; shard 0 is served by the workload pools instead
+     */
+    public DataSource getDataSource(int shard) {
+        if (shard < 1 || shard > additionalShards.size()) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return additionalShards.get(shard - 1);
+    }
+
+    @Override
+    public void close() {
+        additionalShards.forEach(HikariDataSource::close);
+    }
+}
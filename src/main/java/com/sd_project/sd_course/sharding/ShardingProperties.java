@@ -0,0 +1,44 @@
+package com.sd_project.sd_course.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.sharding")
+public class ShardingProperties {
+
+    /**
+     * Product shards in addition to the main database, which is always shard 0.
+     * Entries with a blank url are ignored; the position in this list is permanent
+     * because it is encoded in the ids of the products stored there.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Upper bound for a scatter-gather query across all shards
+     */
+    private long queryTimeoutMs = 5_000;
+
+    /**
+     * How often categories are re-copied from shard 0 to the other shards
+     */
+    private long categorySyncIntervalMs = 300_000;
+
+    @Data
+    public static class Shard {
+        private String url;
+
+        /**
+         * Defaults to spring.datasource.username
+         */
+        private String username;
+
+        /**
+         * Defaults to spring.datasource.password
+         */
+        private String password;
+    }
+}
@@ -0,0 +1,316 @@
+package com.sd_project.sd_course.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.dto.response.ProductChangeResponse;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.exception.ServiceUnavailableException;
+import com.sd_project.sd_course.exception.SyncTokenExpiredException;
+import com.sd_project.sd_course.service.ChangeFeedService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed product changes to Server-Sent Events subscribers.
+ *
+ * Changes are read from the change feed, so every node sees the changes made on every other node. While
+ * anyone is subscribed, the node polls the feed from where it last was; with no subscribers it stops and
+ * starts again from the latest event once someone subscribes.
+ *
+ * Each change is serialized once and offered to every matching subscriber's bounded buffer, so a publish
+ * never waits on a client. A subscriber's buffer is written out by a short task on a virtual thread that
+ * runs only while it has frames queued; no thread is held by an idle connection. A subscriber whose buffer
+ * is full is too slow to keep up and is disconnected, and can reconnect and re-read what it needs.
+ */
+@Slf4j
+@Component
+public class ProductChangeBroadcaster {
+
+    private static final String METRIC_PREFIX = "app.products.stream";
+
+    /**
+     * One SSE frame; a frame without a type is a keep-alive comment
+     */
+    record Frame(long id, String type, String data) {
+    }
+
+    /**
+     * Product and category ids a subscriber asked for; both empty means every change
+     */
+    record Filter(Set<Long> productIds, Set<Long> categoryIds) {
+
+        boolean matches(Long productId, Set<Long> changedCategoryIds) {
+            if (productIds.isEmpty() && categoryIds.isEmpty()) {
+                return true;
+            }
+            return productIds.contains(productId) || changedCategoryIds.stream().anyMatch(categoryIds::contains);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final BlockingQueue<Frame> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        /**
+         * Queue the frame and make sure it gets sent; false if the buffer is full
+         */
+        private boolean offer(Frame frame) {
+            if (!buffer.offer(frame)) {
+                return false;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+            return true;
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Frame frame;
+                    while ((frame = buffer.poll()) != null) {
+                        emitter.send(frame.type() == null
+                                ? SseEmitter.event().comment("keep-alive")
+                                : SseEmitter.event().id(Long.toString(frame.id())).name(frame.type()).data(frame.data()));
+                    }
+                    draining.set(false);
+                } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Product stream subscriber went away: {}", e.getMessage());
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ChangeFeedService changeFeedService;
+    private final int pollBatchSize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * Where the next poll of the change feed starts; null until there is a subscriber
+     */
+    private String feedCursor;
+    private final ExecutorService senders;
+    private final Counter published;
+    private final Counter dropped;
+
+    @Autowired
+    public ProductChangeBroadcaster(ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    ChangeFeedService changeFeedService,
+                                    @Value("${app.products.stream.poll-batch-size:500}") int pollBatchSize,
+                                    @Value("${app.products.stream.buffer-size:64}") int bufferSize,
+                                    @Value("${app.products.stream.max-subscribers:10000}") int maxSubscribers,
+                                    @Value("${app.products.stream.timeout-ms:1800000}") long timeoutMs) {
+        this(objectMapper, meterRegistry, changeFeedService, pollBatchSize, bufferSize, maxSubscribers, timeoutMs,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    ProductChangeBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             ChangeFeedService changeFeedService, int pollBatchSize,
+                             int bufferSize, int maxSubscribers, long timeoutMs, ExecutorService senders) {
+        this.objectMapper = objectMapper;
+        this.changeFeedService = changeFeedService;
+        this.pollBatchSize = pollBatchSize;
+        this.senders = senders;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        Gauge.builder(METRIC_PREFIX + ".subscribers", subscribers, Set::size)
+                .description("Open product change streams")
+                .register(meterRegistry);
+        this.published = Counter.builder(METRIC_PREFIX + ".published")
+                .description("Product changes published to the stream")
+                .register(meterRegistry);
+        this.dropped = Counter.builder(METRIC_PREFIX + ".dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream of changes to the given products or to products in the given categories
+     */
+    public SseEmitter subscribe(Set<Long> productIds, Set<Long> categoryIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many open product streams. Please retry shortly.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new Filter(Set.copyOf(productIds), Set.copyOf(categoryIds)));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        // Sends the response headers right away, so the client knows the stream is open
+        subscriber.offer(new Frame(0, null, null));
+        log.debug("Product stream opened; {} subscribers", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Publish the product changes committed since the last poll, on any node
+     */
+    @Scheduled(fixedDelayString = "${app.products.stream.poll-interval-ms:500}")
+    public void pollChangeFeed() {
+        if (subscribers.isEmpty()) {
+            feedCursor = null;
+            return;
+        }
+        try {
+            if (feedCursor == null) {
+                feedCursor = changeFeedService.headCursor();
+                return;
+            }
+            ChangeFeedResponse page;
+            do {
+                page = changeFeedService.getEvents(feedCursor, pollBatchSize);
+                page.getEvents().forEach(this::onFeedEvent);
+                feedCursor = page.getNextCursor();
+            } while (page.isHasMore());
+        } catch (SyncTokenExpiredException ex) {
+            log.warn("Product stream fell behind the change feed; continuing from the latest change");
+            feedCursor = null;
+        } catch (RuntimeException ex) {
+            log.warn("Could not read the change feed for the product stream: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Keep idle connections open through proxies and find clients that have gone away
+     */
+    @Scheduled(fixedDelayString = "${app.products.stream.keep-alive-interval-ms:15000}")
+    public void sendKeepAlive() {
+        Frame keepAlive = new Frame(0, null, null);
+        subscribers.forEach(subscriber -> offerOrDrop(subscriber, keepAlive));
+    }
+
+    /**
+     * Publish one change feed event; events for categories are not streamed
+     */
+    void onFeedEvent(ChangeFeedEventResponse event) {
+        if (!OutboxEvent.PRODUCT.equals(event.getAggregateType())) {
+            return;
+        }
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(event.getPayload());
+        } catch (JsonProcessingException e) {
+            log.error("Could not read change feed payload for product {}", event.getAggregateId(), e);
+            return;
+        }
+        boolean deleted = OutboxEvent.DELETED.equals(event.getEventType());
+        Long categoryId = longOrNull(deleted ? payload.path("categoryId") : payload.path("category").path("id"));
+        ProductChangeResponse.ProductChangeResponseBuilder change = ProductChangeResponse.builder()
+                .type(changeType(event.getEventType()))
+                .productId(event.getAggregateId())
+                .categoryId(categoryId)
+                .changedAt(event.getCreatedAt());
+        if (!deleted) {
+            change.name(payload.path("name").textValue())
+                    .price(payload.path("price").isNumber() ? payload.path("price").decimalValue() : null)
+                    .stockQuantity(payload.path("stockQuantity").isNumber()
+                            ? payload.path("stockQuantity").intValue() : null)
+                    .stockStatus(payload.path("stockStatus").textValue());
+        }
+        publish(change.build(), categoryIds(categoryId, longOrNull(payload.path(OutboxEvent.PREVIOUS_CATEGORY_ID))));
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void publish(ProductChangeResponse change, Set<Long> categoryIds) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize product change for product {}", change.getProductId(), e);
+            return;
+        }
+        Frame frame = new Frame(sequence.incrementAndGet(), change.getType(), data);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(change.getProductId(), categoryIds)) {
+                offerOrDrop(subscriber, frame);
+            }
+        }
+        published.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    private void offerOrDrop(Subscriber subscriber, Frame frame) {
+        if (!subscriber.offer(frame) && unsubscribe(subscriber)) {
+            dropped.increment();
+            log.debug("Product stream subscriber dropped; {} frames unsent", subscriber.buffer.size());
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean unsubscribe(Subscriber subscriber) {
+        return subscribers.remove(subscriber);
+    }
+
+    private static String changeType(String eventType) {
+        return switch (eventType) {
+            case OutboxEvent.CREATED -> ProductChangeResponse.CREATED;
+            case OutboxEvent.STOCK_CHANGED -> ProductChangeResponse.STOCK_CHANGED;
+            case OutboxEvent.DELETED -> ProductChangeResponse.DELETED;
+            default -> ProductChangeResponse.UPDATED;
+        };
+    }
+
+    private static Long longOrNull(JsonNode node) {
+        return node.isNumber() ? node.longValue() : null;
+    }
+
+    private static Set<Long> categoryIds(Long categoryId, Long previousCategoryId) {
+        if (categoryId == null) {
+            return previousCategoryId == null ? Set.of() : Set.of(previousCategoryId);
+        }
+        return previousCategoryId == null || previousCategoryId.equals(categoryId)
+                ? Set.of(categoryId)
+                : Set.of(categoryId, previousCategoryId);
+    }
+}
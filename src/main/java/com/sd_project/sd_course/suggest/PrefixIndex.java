@@ -0,0 +1,239 @@
+package com.sd_project.sd_course.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable weighted prefix trie.
+ *
+ * Every node keeps the top-k entries of its subtree, so a lookup walks the prefix and returns that list
+ * without visiting the subtree. Updates copy only the path to the changed key and return a new index,
+ * so readers never lock and always see a consistent version. Keys are truncated to
+ * {@link #MAX_KEY_LENGTH} characters, which bounds the trie depth; suggestions are only needed for short
+ * prefixes.
+ */
+final class PrefixIndex {
+
+    static final int MAX_KEY_LENGTH = 24;
+
+    /**
+     * An indexed item: the text shown, what it refers to and its popularity
+     */
+    record Entry(String text, String type, Long id, long weight) {
+
+        boolean sameItem(Entry other) {
+            return type.equals(other.type) && id.equals(other.id);
+        }
+    }
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::text);
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node EMPTY = new Node(new char[0], new Node[0], NO_ENTRIES, NO_ENTRIES);
+
+    private record Node(char[] labels, Node[] children, Entry[] here, Entry[] top) {
+
+        int indexOf(char label) {
+            return Arrays.binarySearch(labels, label);
+        }
+
+        boolean isEmpty() {
+            return labels.length == 0 && here.length == 0;
+        }
+    }
+
+    private final Node root;
+    private final int topK;
+
+    PrefixIndex(int topK) {
+        this(EMPTY, topK);
+    }
+
+    private PrefixIndex(Node root, int topK) {
+        this.root = root;
+        this.topK = topK;
+    }
+
+    /**
+     * A key and the entry indexed under it
+     */
+    record Keyed(String key, Entry entry) {
+    }
+
+    /**
+     * Build an index in one pass, computing each node's top-k once
+     */
+    static PrefixIndex build(List<Keyed> items, int topK) {
+        List<Keyed> sorted = items.stream()
+                .map(item -> new Keyed(truncate(item.key()), item.entry()))
+                .sorted(Comparator.comparing(Keyed::key))
+                .toList();
+        PrefixIndex index = new PrefixIndex(topK);
+        return new PrefixIndex(index.build(sorted, 0, sorted.size(), 0), topK);
+    }
+
+    /**
+     * Index the entry under the key, replacing any entry for the same item under that key
+     */
+    PrefixIndex with(String key, Entry entry) {
+        return new PrefixIndex(update(root, truncate(key), 0, entry, true), topK);
+    }
+
+    /**
+     * Remove the item's entry from under the key
+     */
+    PrefixIndex without(String key, Entry entry) {
+        return new PrefixIndex(update(root, truncate(key), 0, entry, false), topK);
+    }
+
+    /**
+     * Highest-weighted entries whose key starts with the prefix, best first
+     */
+    List<Entry> top(String prefix, int limit) {
+        if (limit < 1) {
+            return List.of();
+        }
+        Node node = root;
+        String key = truncate(prefix);
+        for (int i = 0; i < key.length(); i++) {
+            int index = node.indexOf(key.charAt(i));
+            if (index < 0) {
+                return List.of();
+            }
+            node = node.children()[index];
+        }
+        return List.of(node.top()).subList(0, Math.min(limit, node.top().length));
+    }
+
+    private Node build(List<Keyed> sorted, int from, int to, int depth) {
+        List<Entry> here = new ArrayList<>();
+        int i = from;
+        while (i < to && sorted.get(i).key().length() == depth) {
+            here.add(sorted.get(i).entry());
+            i++;
+        }
+
+        List<Character> labels = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (i < to) {
+            char label = sorted.get(i).key().charAt(depth);
+            int end = i;
+            while (end < to && sorted.get(end).key().charAt(depth) == label) {
+                end++;
+            }
+            labels.add(label);
+            children.add(build(sorted, i, end, depth + 1));
+            i = end;
+        }
+
+        char[] labelArray = new char[labels.size()];
+        for (int j = 0; j < labelArray.length; j++) {
+            labelArray[j] = labels.get(j);
+        }
+        Entry[] hereArray = here.toArray(NO_ENTRIES);
+        Node[] childArray = children.toArray(new Node[0]);
+        return new Node(labelArray, childArray, hereArray, top(hereArray, childArray));
+    }
+
+    private Node update(Node node, String key, int depth, Entry entry, boolean add) {
+        char[] labels = node.labels();
+        Node[] children = node.children();
+        Entry[] here = node.here();
+
+        if (depth == key.length()) {
+            here = replace(here, entry, add);
+        } else {
+            char label = key.charAt(depth);
+            int index = node.indexOf(label);
+            Node child = index >= 0 ? children[index] : EMPTY;
+            if (index < 0 && !add) {
+                return node;
+            }
+            Node updated = update(child, key, depth + 1, entry, add);
+            if (index >= 0 && updated.isEmpty()) {
+                labels = removeAt(labels, index);
+                children = removeAt(children, index);
+            } else if (index >= 0) {
+                children = children.clone();
+                children[index] = updated;
+            } else {
+                int insertAt = -index - 1;
+                labels = insertAt(labels, insertAt, label);
+                children = insertAt(children, insertAt, updated);
+            }
+        }
+        return new Node(labels, children, here, top(here, children));
+    }
+
+    private Entry[] top(Entry[] here, Node[] children) {
+        // One entry per item, the heaviest, before cutting to top-k, so duplicates never take a slot
+        Map<String, Entry> distinct = new HashMap<>();
+        for (Entry entry : here) {
+            distinct.merge(entry.type() + ':' + entry.id(), entry, PrefixIndex::heavier);
+        }
+        for (Node child : children) {
+            for (Entry entry : child.top()) {
+                distinct.merge(entry.type() + ':' + entry.id(), entry, PrefixIndex::heavier);
+            }
+        }
+        return distinct.values().stream()
+                .sorted(BY_WEIGHT)
+                .limit(topK)
+                .toArray(Entry[]::new);
+    }
+
+    private static Entry heavier(Entry a, Entry b) {
+        return BY_WEIGHT.compare(a, b) <= 0 ? a : b;
+    }
+
+    private static Entry[] replace(Entry[] entries, Entry entry, boolean add) {
+        List<Entry> result = new ArrayList<>(entries.length + 1);
+        for (Entry existing : entries) {
+            if (!existing.sameItem(entry)) {
+                result.add(existing);
+            }
+        }
+        if (add) {
+            result.add(entry);
+        }
+        return result.toArray(NO_ENTRIES);
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static char[] removeAt(char[] array, int index) {
+        char[] result = new char[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private static Node[] removeAt(Node[] array, int index) {
+        Node[] result = new Node[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    private static char[] insertAt(char[] array, int index, char value) {
+        char[] result = new char[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+
+    private static Node[] insertAt(Node[] array, int index, Node value) {
+        Node[] result = new Node[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+}
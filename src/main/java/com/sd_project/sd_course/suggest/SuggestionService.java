@@ -0,0 +1,346 @@
+package com.sd_project.sd_course.suggest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.dto.response.SuggestionResponse;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.SyncTokenExpiredException;
+import com.sd_project.sd_course.repository.CategoryRepository;
+import com.sd_project.sd_course.repository.ProductRepository;
+import com.sd_project.sd_course.service.ChangeFeedService;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import com.sd_project.sd_course.suggest.PrefixIndex.Entry;
+import com.sd_project.sd_course.suggest.PrefixIndex.Keyed;
+import com.sd_project.sd_course.transaction.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Typeahead suggestions over product and category names, served from memory.
+ *
+ * Every word of a name starts a key, so "pro" finds "iPhone 15 Pro". Suggestions are ranked by recent
+ * views. The names are loaded from the database once at startup, in a read-only transaction. After that,
+ * writes on this node update the index when they commit, and writes on other nodes arrive through the
+ * change feed. A periodic re-rank applies and decays the view counts without touching the database.
+ */
+@Slf4j
+@Service
+public class SuggestionService {
+
+    public static final String PRODUCT = "PRODUCT";
+    public static final String CATEGORY = "CATEGORY";
+
+    private record Item(String type, Long id, String text) {
+
+        String key() {
+            return type + ':' + id;
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ShardRouter shardRouter;
+    private final ChangeFeedService changeFeedService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topK;
+    private final int pollBatchSize;
+
+    private final Map<String, Item> items = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> views = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile PrefixIndex index;
+    // Guarded by writeLock
+    private Map<String, Optional<Item>> changedDuringReload;
+    private volatile String feedCursor;
+
+    public SuggestionService(ProductRepository productRepository,
+                             CategoryRepository categoryRepository,
+                             ShardRouter shardRouter,
+                             ChangeFeedService changeFeedService,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.suggest.top-k:10}") int topK,
+                             @Value("${app.suggest.poll-batch-size:500}") int pollBatchSize) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.shardRouter = shardRouter;
+        this.changeFeedService = changeFeedService;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topK = topK;
+        this.pollBatchSize = pollBatchSize;
+        this.index = new PrefixIndex(topK);
+    }
+
+    /**
+     * Most viewed products and categories with a word starting with the prefix
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1");
+        }
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return index.top(normalized, Math.min(limit, topK)).stream()
+                .map(entry -> SuggestionResponse.builder()
+                        .text(entry.text())
+                        .type(entry.type())
+                        .id(entry.id())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Count a view towards the item's ranking; takes effect at the next rebuild
+     */
+    public void recordView(String type, Long id) {
+        String key = type + ':' + id;
+        if (items.containsKey(key)) {
+            views.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    public void productSaved(Long id, String name) {
+        AfterCommit.run(() -> put(new Item(PRODUCT, id, name)));
+    }
+
+    public void productDeleted(Long id) {
+        AfterCommit.run(() -> remove(PRODUCT + ':' + id));
+    }
+
+    public void categorySaved(Long id, String name) {
+        AfterCommit.run(() -> put(new Item(CATEGORY, id, name)));
+    }
+
+    public void categoryDeleted(Long id) {
+        AfterCommit.run(() -> remove(CATEGORY + ':' + id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Reload every name from the database. Runs at startup, and again only when this node has fallen
+     * further behind the change feed than it retains.
+     */
+    public void reload() {
+        String cursor = changeFeedService.headCursor();
+        writeLock.lock();
+        try {
+            changedDuringReload = new HashMap<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        Map<String, Item> loaded = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            categoryRepository.findAll().forEach(category -> {
+                Item item = new Item(CATEGORY, category.getId(), category.getName());
+                loaded.put(item.key(), item);
+            });
+            shardRouter.onAllShards(productRepository::findAllNames).forEach(names -> names.forEach(product -> {
+                Item item = new Item(PRODUCT, product.getId(), product.getName());
+                loaded.put(item.key(), item);
+            }));
+        });
+
+        writeLock.lock();
+        try {
+            changedDuringReload.forEach((key, item) -> {
+                if (item.isPresent()) {
+                    loaded.put(key, item.get());
+                } else {
+                    loaded.remove(key);
+                }
+            });
+            changedDuringReload = null;
+            items.clear();
+            items.putAll(loaded);
+            views.keySet().retainAll(loaded.keySet());
+            index = buildIndex();
+        } finally {
+            writeLock.unlock();
+        }
+        // Changes committed while loading are replayed from here; applying one twice is harmless
+        feedCursor = cursor;
+        log.info("Suggestion index loaded with {} names", loaded.size());
+    }
+
+    /**
+     * Apply the view counts to the ranking and halve them, so old popularity fades
+     */
+    @Scheduled(fixedDelayString = "${app.suggest.rebuild-interval-ms:300000}",
+               initialDelayString = "${app.suggest.rebuild-interval-ms:300000}")
+    public void rerank() {
+        writeLock.lock();
+        try {
+            views.keySet().retainAll(items.keySet());
+            views.values().forEach(count -> {
+                long halved = count.sumThenReset() / 2;
+                count.add(halved);
+            });
+            index = buildIndex();
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Suggestion index re-ranked over {} names", items.size());
+    }
+
+    /**
+     * Apply product and category changes made on any node
+     */
+    @Scheduled(fixedDelayString = "${app.suggest.poll-interval-ms:2000}")
+    public void pollChangeFeed() {
+        if (feedCursor == null) {
+            return;
+        }
+        try {
+            ChangeFeedResponse page;
+            do {
+                page = changeFeedService.getEvents(feedCursor, pollBatchSize);
+                page.getEvents().forEach(this::onFeedEvent);
+                feedCursor = page.getNextCursor();
+            } while (page.isHasMore());
+        } catch (SyncTokenExpiredException ex) {
+            log.warn("Suggestion index fell behind the change feed; reloading it");
+            reload();
+        } catch (RuntimeException ex) {
+            log.warn("Could not read the change feed for suggestions: {}", ex.getMessage());
+        }
+    }
+
+    void onFeedEvent(ChangeFeedEventResponse event) {
+        String type;
+        if (OutboxEvent.PRODUCT.equals(event.getAggregateType())) {
+            type = PRODUCT;
+        } else if (OutboxEvent.CATEGORY.equals(event.getAggregateType())) {
+            type = CATEGORY;
+        } else {
+            return;
+        }
+        if (OutboxEvent.DELETED.equals(event.getEventType())) {
+            remove(type + ':' + event.getAggregateId());
+            return;
+        }
+        String name = nameOf(event);
+        if (name != null) {
+            put(new Item(type, event.getAggregateId(), name));
+        }
+    }
+
+    private String nameOf(ChangeFeedEventResponse event) {
+        try {
+            JsonNode name = objectMapper.readTree(event.getPayload()).get("name");
+            return name == null || !name.isTextual() ? null : name.asText();
+        } catch (JsonProcessingException ex) {
+            log.warn("Skipping change feed event {} with unreadable payload", event.getCursor());
+            return null;
+        }
+    }
+
+    private PrefixIndex buildIndex() {
+        List<Keyed> keyed = new ArrayList<>();
+        items.values().forEach(item -> {
+            Entry entry = entry(item);
+            keys(item.text()).forEach(key -> keyed.add(new Keyed(key, entry)));
+        });
+        return PrefixIndex.build(keyed, topK);
+    }
+
+    private void put(Item item) {
+        writeLock.lock();
+        try {
+            Item previous = items.put(item.key(), item);
+            if (!item.equals(previous)) {
+                PrefixIndex next = previous == null ? index : without(index, previous);
+                Entry entry = entry(item);
+                for (String key : keys(item.text())) {
+                    next = next.with(key, entry);
+                }
+                index = next;
+            }
+            if (changedDuringReload != null) {
+                changedDuringReload.put(item.key(), Optional.of(item));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void remove(String itemKey) {
+        writeLock.lock();
+        try {
+            Item previous = items.remove(itemKey);
+            if (previous != null) {
+                index = without(index, previous);
+            }
+            views.remove(itemKey);
+            if (changedDuringReload != null) {
+                changedDuringReload.put(itemKey, Optional.empty());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private PrefixIndex without(PrefixIndex from, Item item) {
+        PrefixIndex next = from;
+        Entry entry = entry(item);
+        for (String key : keys(item.text())) {
+            next = next.without(key, entry);
+        }
+        return next;
+    }
+
+    private Entry entry(Item item) {
+        LongAdder count = views.get(item.key());
+        return new Entry(item.text(), item.type(), item.id(), count == null ? 0 : count.sum());
+    }
+
+    /**
+     * The normalized name from each word onwards
+     */
+    static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").strip();
+    }
+}
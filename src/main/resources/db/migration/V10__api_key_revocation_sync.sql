@@ -0,0 +1,4 @@
+-- Every node polls api_keys by updated_at for keys revoked elsewhere; only revoked rows are ever polled.
+
+-- ApiKeyRepository.findByRevokedTrueAndUpdatedAtAfter
+CREATE INDEX IF NOT EXISTS idx_api_keys_revoked_updated_at ON api_keys (updated_at) WHERE revoked;
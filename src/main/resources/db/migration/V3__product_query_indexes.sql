@@ -0,0 +1,37 @@
+-- Indexes matched to the ProductRepository query shapes
+-- Spring Data derives IgnoreCase comparisons as upper(column); the @Query searches use lower(column).
+-- Indexes on the partitioned products table are created on every partition.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- findByNameIgnoreCase, existsByNameIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_products_upper_name ON products (upper(name));
+
+-- findByNameContainingIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_products_upper_name_trgm ON products USING gin (upper(name) gin_trgm_ops);
+
+-- searchByNameOrDescription, findWithFilters keyword (LIKE '%term%' on either column)
+CREATE INDEX IF NOT EXISTS idx_products_lower_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_lower_description_trgm ON products USING gin (lower(description) gin_trgm_ops);
+
+-- findByPriceBetween, findAllByOrderByPriceAsc, findWithFilters price bounds
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price, id);
+
+-- findAllByOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_products_created_at ON products (created_at DESC, id);
+
+-- findLowStockProducts, findWithFilters inStock = false
+CREATE INDEX IF NOT EXISTS idx_products_stock_quantity ON products (stock_quantity);
+
+-- findInStockProducts, findByStockQuantityGreaterThan(0): paged by id or name over in-stock rows only
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_id ON products (id) WHERE stock_quantity > 0;
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_name ON products (name, id) WHERE stock_quantity > 0;
+
+-- findByCategoryIdAndInStock
+CREATE INDEX IF NOT EXISTS idx_products_category_in_stock ON products (category_id, id) WHERE stock_quantity > 0;
+
+-- CategoryRepository.existsByNameIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_categories_upper_name ON categories (upper(name));
+
+ANALYZE products;
+ANALYZE categories;
@@ -0,0 +1,18 @@
+-- Delta sync (GET /api/products/changes): products changed after a watermark, and tombstones for deletions
+
+-- Rows written before updated_at was always set would never show up in a delta
+UPDATE products SET updated_at = created_at WHERE updated_at IS NULL;
+
+-- ProductRepository.findChangedBetween: keyset scan in (updated_at, id) order
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products (updated_at, id);
+
+-- Deleted products, kept until app.products.changes.tombstone-retention-days have passed.
+-- deleted_at uses the database clock, like the updated_at trigger.
+CREATE TABLE IF NOT EXISTS product_tombstones (
+    product_id BIGINT PRIMARY KEY,
+    category_id BIGINT,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ProductTombstoneRepository.findDeletedBetween and tombstone compaction
+CREATE INDEX IF NOT EXISTS idx_product_tombstones_deleted_at ON product_tombstones (deleted_at, product_id);
@@ -0,0 +1,22 @@
+-- Transactional outbox: one row per product or category change, written in the transaction that made it.
+-- The relay publishes rows in id order and gives each a position; the change feed is read by position.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    position BIGINT,
+    published_at TIMESTAMP
+);
+
+-- OutboxEventRepository.findUnpublished: the relay's backlog only
+CREATE INDEX IF NOT EXISTS idx_outbox_events_unpublished ON outbox_events (id) WHERE position IS NULL;
+
+-- OutboxEventRepository.findPublishedAfter, findMaxPosition
+CREATE UNIQUE INDEX IF NOT EXISTS idx_outbox_events_position ON outbox_events (position);
+
+-- Outbox compaction
+CREATE INDEX IF NOT EXISTS idx_outbox_events_published_at ON outbox_events (published_at);
@@ -0,0 +1,15 @@
+-- Per-user security versions: tokens issued at or before revoked_before (epoch ms, the "ver" claim) are rejected.
+-- Rows are kept for the refresh token lifetime so a revoked session family cannot be refreshed back to life,
+-- and every node polls the table by updated_at to pick up revocations made elsewhere.
+
+CREATE TABLE IF NOT EXISTS user_security_versions (
+    user_id BIGINT PRIMARY KEY,
+    revoked_before BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- UserSecurityVersionRepository.findByUpdatedAtAfter
+CREATE INDEX IF NOT EXISTS idx_user_security_versions_updated_at ON user_security_versions (updated_at);
+
+-- UserSecurityVersionRepository.deleteRevokedBefore
+CREATE INDEX IF NOT EXISTS idx_user_security_versions_revoked_before ON user_security_versions (revoked_before);
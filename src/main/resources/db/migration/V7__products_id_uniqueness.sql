@@ -0,0 +1,41 @@
+-- Keep products.id unique after partitioning.
+-- PostgreSQL only allows unique indexes on a partitioned table that include the partition key, so the
+-- (id, category_id) primary key alone would accept the same id in two categories. Every product id is
+-- registered in product_ids, whose primary key enforces uniqueness across all partitions. BEFORE row
+-- triggers are used because a category change moves the row between partitions as a DELETE followed
+-- by an INSERT, and only the BEFORE triggers are guaranteed to fire in that order.
+
+CREATE TABLE IF NOT EXISTS product_ids (
+    id BIGINT PRIMARY KEY
+);
+
+INSERT INTO product_ids (id) SELECT id FROM products;
+
+CREATE OR REPLACE FUNCTION register_product_id()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO product_ids (id) VALUES (NEW.id);
+        RETURN NEW;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.id <> OLD.id THEN
+            RAISE EXCEPTION 'Product ids cannot be changed (product %)', OLD.id
+                USING ERRCODE = 'integrity_constraint_violation';
+        END IF;
+        RETURN NEW;
+    ELSE
+        DELETE FROM product_ids WHERE id = OLD.id;
+        RETURN OLD;
+    END IF;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER register_product_id BEFORE INSERT OR UPDATE OF id OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION register_product_id();
+
+-- The baseline declared ON DELETE SET NULL, which cannot apply to the NOT NULL partition key: deleting a
+-- category that still has products would fail with a not-null violation instead of a foreign key error.
+-- State the behaviour explicitly; CategoryService.deleteCategory reports it as 409 Conflict.
+ALTER TABLE products DROP CONSTRAINT IF EXISTS products_category_id_fkey;
+ALTER TABLE products ADD CONSTRAINT products_category_id_fkey
+    FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE RESTRICT;
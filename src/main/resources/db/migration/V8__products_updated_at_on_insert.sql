@@ -0,0 +1,5 @@
+-- Delta sync compares updated_at with a watermark taken from the database clock (ProductRepository.currentTimestamp).
+-- Updates already take updated_at from that clock through update_products_updated_at; inserts did not, so a
+-- new product carried the application server's time and clock skew could put it behind a token already handed out.
+CREATE TRIGGER insert_products_updated_at BEFORE INSERT ON products
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
@@ -0,0 +1,33 @@
+-- Tables for refresh token rotation, API keys and shared rate limits.
+-- V1 is the schema of the old database-init.sql, which databases created before Flyway are baselined at
+-- without running it, so everything added since has to come from a later version.
+
+-- Used or revoked refresh tokens (rows are compacted once the token would have expired)
+CREATE TABLE IF NOT EXISTS revoked_refresh_tokens (
+    jti UUID PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+-- RevokedRefreshTokenRepository compaction
+CREATE INDEX IF NOT EXISTS idx_revoked_refresh_tokens_expires_at ON revoked_refresh_tokens (expires_at);
+
+-- API keys for service accounts (only a keyed hash of each key is stored)
+CREATE TABLE IF NOT EXISTS api_keys (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    key_prefix VARCHAR(12) NOT NULL,
+    key_hash VARCHAR(64) UNIQUE NOT NULL,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    expires_at TIMESTAMP,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Application nodes sharing rate limit budgets
+CREATE TABLE IF NOT EXISTS rate_limit_nodes (
+    node_id VARCHAR(36) PRIMARY KEY,
+    last_seen TIMESTAMP NOT NULL
+);
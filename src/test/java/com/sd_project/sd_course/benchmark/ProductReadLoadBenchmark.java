@@ -0,0 +1,121 @@
+package com.sd_project.sd_course.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for the ProductController read endpoints.
+ *
+ * Run it against the application started once with VIRTUAL_THREADS=false and once with
+ * VIRTUAL_THREADS=true, using the same concurrency, and compare throughput and latency.
+ * The same run against the reactive read API port (app.reactive.port) compares it with the servlet stack.
+ * Disable rate limiting for the run (app.rate-limit.enabled=false) or every client is throttled.
+ *
+ * Usage: ProductReadLoadBenchmark <baseUrl> <accessToken> [concurrency] [durationSeconds]
+ *
+ * This is not a test and is not picked up by surefire.
+ */
+public class ProductReadLoadBenchmark {
+
+    private static final List<String> PATHS = List.of(
+            "/api/products?page=0&size=20",
+            "/api/products/1",
+            "/api/products/in-stock?page=0&size=20",
+            "/api/products/search?keyword=a&page=0&size=20",
+            "/api/products/price-range?minPrice=10&maxPrice=500&page=0&size=20"
+    );
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ProductReadLoadBenchmark <baseUrl> <accessToken> [concurrency] [durationSeconds]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        String token = args[1];
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Warm up JIT, connection pool and caches before measuring
+        run(client, baseUrl, token, Math.min(concurrency, 50), 5);
+        Result result = run(client, baseUrl, token, concurrency, durationSeconds);
+
+        long[] latencies = result.latenciesMicros();
+        Arrays.sort(latencies);
+        System.out.printf("concurrency=%d duration=%ds%n", concurrency, durationSeconds);
+        System.out.printf("requests=%d errors=%d throughput=%.1f req/s%n",
+                latencies.length, result.errors(), latencies.length / (double) durationSeconds);
+        System.out.printf("latency p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private record Result(long[] latenciesMicros, long errors) {
+    }
+
+    private static Result run(HttpClient client, String baseUrl, String token,
+                              int concurrency, int durationSeconds) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                int offset = worker;
+                workers.submit(() -> {
+                    long[] local = new long[1024];
+                    int count = 0;
+                    int i = offset;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PATHS.get(i++ % PATHS.size())))
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == local.length) {
+                            local = Arrays.copyOf(local, count * 2);
+                        }
+                        local[count++] = (System.nanoTime() - start) / 1_000;
+                    }
+                    samples.add(Arrays.copyOf(local, count));
+                });
+            }
+        }
+
+        long[] all = samples.stream().flatMapToLong(Arrays::stream).toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000.0;
+    }
+}
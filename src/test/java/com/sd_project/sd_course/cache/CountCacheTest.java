@@ -0,0 +1,72 @@
+package com.sd_project.sd_course.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    private final TableVersions tableVersions = new TableVersions();
+    private final CountCache countCache = new CountCache(tableVersions, 60_000, 100);
+
+    @Test
+    void get_ShouldReuseCountUntilTableIsWritten() {
+        // Given
+        AtomicLong queries = new AtomicLong();
+
+        // When
+        long first = countCache.get("products", "all", () -> 10 + queries.incrementAndGet());
+        long cached = countCache.get("products", "all", () -> 10 + queries.incrementAndGet());
+        tableVersions.bumpAfterCommit("products");
+        long recounted = countCache.get("products", "all", () -> 10 + queries.incrementAndGet());
+
+        // Then
+        assertThat(first).isEqualTo(11);
+        assertThat(cached).isEqualTo(11);
+        assertThat(recounted).isEqualTo(12);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void get_ShouldKeepSignaturesAndTablesApart() {
+        // When
+        countCache.get("products", "category:1", () -> 5);
+        countCache.get("users", "all", () -> 7);
+        tableVersions.bumpAfterCommit("users");
+
+        // Then
+        assertThat(countCache.get("products", "category:1", () -> 99)).isEqualTo(5);
+        assertThat(countCache.get("products", "category:2", () -> 3)).isEqualTo(3);
+        assertThat(countCache.get("users", "all", () -> 8)).isEqualTo(8);
+    }
+
+    @Test
+    void get_ShouldRecountAfterTtl() throws Exception {
+        // Given
+        CountCache shortLived = new CountCache(tableVersions, 1, 100);
+        shortLived.get("products", "all", () -> 1);
+
+        // When
+        Thread.sleep(5);
+
+        // Then
+        assertThat(shortLived.get("products", "all", () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void put_ShouldNotServeCountMadeBeforeAWrite() {
+        // Given
+        long version = countCache.version("products");
+        tableVersions.bumpAfterCommit("products");
+
+        // When
+        countCache.put("products", "all", version, 10);
+
+        // Then
+        assertThat(countCache.getIfPresent("products", "all")).isNull();
+        countCache.put("products", "all", countCache.version("products"), 11);
+        assertThat(countCache.getIfPresent("products", "all")).isEqualTo(11);
+    }
+}
@@ -0,0 +1,100 @@
+package com.sd_project.sd_course.cache;
+
+import com.sd_project.sd_course.cache.SearchResultCache.SearchKey;
+import com.sd_project.sd_course.cache.SearchResultCache.SearchResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final TableVersions tableVersions = new TableVersions();
+    private final AtomicLong nanos = new AtomicLong();
+    private final SearchResultCache cache = new SearchResultCache(tableVersions, 60_000, 2, nanos::get, Runnable::run);
+
+    @Test
+    void searchKey_ShouldNormalizeKeywordAndPrices() {
+        // Given
+        PageRequest page = PageRequest.of(0, 20, Sort.by("name"));
+
+        // When
+        SearchKey first = SearchKey.of("advanced", "  Gaming   Laptop ", 1L,
+                new BigDecimal("500.00"), null, true, page, false);
+        SearchKey second = SearchKey.of("advanced", "gaming laptop", 1L,
+                new BigDecimal("500"), null, true, page, false);
+
+        // Then
+        assertThat(first).isEqualTo(second);
+        assertThat(SearchKey.of("advanced", "gaming laptop", 1L, null, null, true, page.next(), false))
+                .isNotEqualTo(first);
+    }
+
+    @Test
+    void get_ShouldIgnoreResultsFromAnOlderCatalogVersion() {
+        // Given
+        SearchKey key = SearchKey.of("search", "phone", null, null, null, null, PageRequest.of(0, 10), false);
+        cache.put(key, cache.version(), new SearchResult(List.of(3L, 1L), true, null));
+
+        // When
+        SearchResult beforeWrite = cache.get(key);
+        tableVersions.bumpAfterCommit(ProductCache.PRODUCTS_TABLE);
+        SearchResult afterWrite = cache.get(key);
+
+        // Then
+        assertThat(beforeWrite.ids()).containsExactly(3L, 1L);
+        assertThat(afterWrite).isNull();
+    }
+
+    @Test
+    void put_ShouldSkipResultComputedAcrossAWrite() {
+        // Given
+        SearchKey key = SearchKey.of("search", "phone", null, null, null, null, PageRequest.of(0, 10), false);
+        long version = cache.version();
+
+        // When
+        tableVersions.bumpAfterCommit(ProductCache.PRODUCTS_TABLE);
+        cache.put(key, version, new SearchResult(List.of(1L), false, null));
+
+        // Then
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void put_ShouldStayWithinMaxEntries() {
+        // Given
+        PageRequest page = PageRequest.of(0, 10);
+        SearchKey a = SearchKey.of("search", "a", null, null, null, null, page, false);
+        SearchKey b = SearchKey.of("search", "b", null, null, null, null, page, false);
+        SearchKey c = SearchKey.of("search", "c", null, null, null, null, page, false);
+        SearchResult result = new SearchResult(List.of(1L), false, null);
+
+        // When
+        cache.put(a, cache.version(), result);
+        cache.put(b, cache.version(), result);
+        cache.put(c, cache.version(), result);
+
+        // Then
+        assertThat(Stream.of(a, b, c).filter(key -> cache.get(key) != null)).hasSize(2);
+    }
+
+    @Test
+    void get_ShouldDropEntriesAfterTtl() {
+        // Given
+        SearchKey key = SearchKey.of("search", "phone", null, null, null, null, PageRequest.of(0, 10), false);
+        cache.put(key, cache.version(), new SearchResult(List.of(1L), false, null));
+
+        // When
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        // Then
+        assertThat(cache.get(key)).isNull();
+    }
+}
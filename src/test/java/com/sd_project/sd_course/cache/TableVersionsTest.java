@@ -0,0 +1,52 @@
+package com.sd_project.sd_course.cache;
+
+import com.sd_project.sd_course.datasource.ReplicaSet;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TableVersionsTest {
+
+    private final ReplicaSet replicaSet = mock(ReplicaSet.class);
+    private final TableVersions tableVersions = new TableVersions(replicaSet);
+    private final ProductCache productCache = new ProductCache(new ConcurrentMapCacheManager(), tableVersions, 60_000);
+
+    @Test
+    void put_ShouldNotStoreALoadThatMayComeFromAReplicaBehindALocalWrite() {
+        // Given
+        when(replicaSet.hasReplayedLocalWrites()).thenReturn(false);
+
+        // When
+        long version = productCache.version();
+        productCache.put(version, product(1L));
+
+        // Then
+        assertThat(version).isEqualTo(TableVersions.UNCACHEABLE);
+        assertThat(productCache.get(1L)).isNull();
+    }
+
+    @Test
+    void put_ShouldNotStoreALoadDuringWhichAReplicaFellBehind() {
+        // Given
+        when(replicaSet.hasReplayedLocalWrites()).thenReturn(true);
+        long version = productCache.version();
+
+        // When
+        when(replicaSet.hasReplayedLocalWrites()).thenReturn(false);
+        productCache.put(version, product(1L));
+
+        // Then
+        assertThat(productCache.get(1L)).isNull();
+        when(replicaSet.hasReplayedLocalWrites()).thenReturn(true);
+        productCache.put(productCache.version(), product(1L));
+        assertThat(productCache.get(1L)).isNotNull();
+    }
+
+    private static ProductResponse product(Long id) {
+        return ProductResponse.builder().id(id).name("Product " + id).build();
+    }
+}
@@ -1,12 +1,25 @@
 package com.sd_project.sd_course.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.config.JacksonConfig;
+import com.sd_project.sd_course.config.LimiterConfig;
+import com.sd_project.sd_course.dto.response.ProductBatchItemResponse;
 import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.limiter.ConcurrencyLimiters;
+import com.sd_project.sd_course.limiter.RateLimitClusterCoordinator;
+import com.sd_project.sd_course.limiter.RateLimiter;
+import com.sd_project.sd_course.security.BearerTokenAuthenticator;
+import com.sd_project.sd_course.service.ApiKeyService;
 import com.sd_project.sd_course.service.ProductService;
+import com.sd_project.sd_course.service.ProductSyncService;
+import com.sd_project.sd_course.stream.ProductChangeBroadcaster;
+import com.sd_project.sd_course.suggest.SuggestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -24,6 +37,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import({JacksonConfig.class, LimiterConfig.class, RateLimiter.class, ConcurrencyLimiters.class, SimpleMeterRegistry.class})
 class ProductControllerTest {
 
     @Autowired
@@ -32,6 +46,24 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private SuggestionService suggestionService;
+
+    @MockBean
+    private ProductChangeBroadcaster productChangeBroadcaster;
+
+    @MockBean
+    private ProductSyncService productSyncService;
+
+    @MockBean
+    private RateLimitClusterCoordinator rateLimitClusterCoordinator;
+
+    @MockBean
+    private ApiKeyService apiKeyService;
+
+    @MockBean
+    private BearerTokenAuthenticator bearerTokenAuthenticator;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -55,7 +87,7 @@ class ProductControllerTest {
                 .build();
 
         Page<ProductResponse> productPage = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
-        when(productService.getAllProducts(any())).thenReturn(productPage);
+        when(productService.getAllProducts(any(), any())).thenReturn(productPage);
 
         // When & Then
         mockMvc.perform(get("/api/products")
@@ -104,7 +136,7 @@ class ProductControllerTest {
                 .build();
 
         Page<ProductResponse> productPage = new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1);
-        when(productService.searchProducts(any(), any())).thenReturn(productPage);
+        when(productService.searchProducts(any(), any(), any())).thenReturn(productPage);
 
         // When & Then
         mockMvc.perform(get("/api/products/search")
@@ -114,4 +146,85 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].name").value("iPhone 15"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @WithMockUser
+    void getProductsByIds_ShouldReturnResultsInRequestOrder() throws Exception {
+        // Given
+        ProductResponse product = ProductResponse.builder()
+                .id(2L)
+                .name("Test Product")
+                .price(new BigDecimal("99.99"))
+                .build();
+
+        when(productService.getProductsByIds(List.of(2L, 9L))).thenReturn(List.of(
+                ProductBatchItemResponse.builder().id(2L).found(true).product(product).build(),
+                ProductBatchItemResponse.builder().id(9L).found(false).build()));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/batch")
+                        .param("ids", "2,9")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].product.name").value("Test Product"))
+                .andExpect(jsonPath("$[1].id").value(9))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].product").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void searchProducts_ShouldWriteOnlyTheSelectedFields() throws Exception {
+        // Given
+        ProductResponse product = ProductResponse.builder()
+                .id(1L)
+                .name("iPhone 15")
+                .description("Phone")
+                .price(new BigDecimal("999.99"))
+                .build();
+        when(productService.searchProducts(any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/search")
+                        .param("keyword", "iPhone")
+                        .param("fields", "id,name")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("iPhone 15"))
+                .andExpect(jsonPath("$[0].price").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void getProductsByIds_ShouldTrimNestedProductsAndRejectUnknownFields() throws Exception {
+        // Given
+        ProductResponse product = ProductResponse.builder()
+                .id(2L)
+                .name("Test Product")
+                .price(new BigDecimal("99.99"))
+                .build();
+        when(productService.getProductsByIds(List.of(2L))).thenReturn(List.of(
+                ProductBatchItemResponse.builder().id(2L).found(true).product(product).build()));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/batch")
+                        .param("ids", "2")
+                        .param("fields", "name")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].product.name").value("Test Product"))
+                .andExpect(jsonPath("$[0].product.price").doesNotExist());
+
+        mockMvc.perform(get("/api/products/batch")
+                        .param("ids", "2")
+                        .param("fields", "name,secret")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,104 @@
+package com.sd_project.sd_course.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sd_project.sd_course.dto.response.FieldsFilter;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.proto.Product;
+import com.sd_project.sd_course.proto.ProductList;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes a page of products in each negotiable format and compares the bytes and encoding time with JSON.
+ * Sizes are asserted; timings are logged, since they depend on the machine.
+ */
+@Slf4j
+class ResponseEncodingBenchmarkTest {
+
+    private static final int PRODUCTS = 500;
+    private static final int ROUNDS = 200;
+
+    private interface Encoder {
+        byte[] encode(List<ProductResponse> products) throws Exception;
+    }
+
+    @Test
+    void binaryFormats_ShouldBeSmallerThanJson() throws Exception {
+        // Given
+        List<ProductResponse> page = IntStream.range(0, PRODUCTS).mapToObj(this::product).toList();
+        Map<String, Encoder> encoders = new LinkedHashMap<>();
+        encoders.put("json", jackson(null)::writeValueAsBytes);
+        encoders.put("smile", jackson(new SmileFactory())::writeValueAsBytes);
+        encoders.put("cbor", jackson(new CBORFactory())::writeValueAsBytes);
+        encoders.put("protobuf", products -> ProtobufMessages.toProductList(products, null, null).toByteArray());
+
+        // When
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, Encoder> encoder : encoders.entrySet()) {
+            for (int i = 0; i < ROUNDS; i++) {
+                encoder.getValue().encode(page);
+            }
+            long start = System.nanoTime();
+            int size = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                size = encoder.getValue().encode(page).length;
+            }
+            long micros = (System.nanoTime() - start) / 1_000 / ROUNDS;
+            sizes.put(encoder.getKey(), size);
+            log.info("{}: {} bytes, {} us per page of {} products", encoder.getKey(), size, micros, PRODUCTS);
+        }
+
+        // Then
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("protobuf")).isLessThan(sizes.get("smile")).isLessThan(sizes.get("cbor"));
+    }
+
+    @Test
+    void protobuf_ShouldKeepExactPricesAndLeaveMissingFieldsUnset() throws Exception {
+        // Given
+        ProductResponse partial = ProductResponse.builder().id(7L).price(new BigDecimal("1999.90")).build();
+
+        // When
+        Product decoded = ProductList.parseFrom(
+                ProtobufMessages.toProductList(List.of(partial), true, null).toByteArray()).getProducts(0);
+
+        // Then
+        assertThat(decoded.getId()).isEqualTo(7L);
+        assertThat(ProtobufMessages.fromDecimal(decoded.getPrice())).isEqualTo(new BigDecimal("1999.90"));
+        assertThat(decoded.hasName()).isFalse();
+        assertThat(decoded.hasCategory()).isFalse();
+    }
+
+    private ObjectMapper jackson(com.fasterxml.jackson.core.JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().filters(FieldsFilter.all());
+        return factory == null ? builder.build() : builder.factory(factory).build();
+    }
+
+    private ProductResponse product(int i) {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 15, 10, 30).plusMinutes(i);
+        return ProductResponse.builder()
+                .id((long) i + 1)
+                .name("Product " + i)
+                .description("Description of product " + i + " with enough text to look like a real catalog entry")
+                .price(new BigDecimal(i + 100).add(new BigDecimal("0.99")))
+                .stockQuantity(i % 50)
+                .stockStatus(i % 50 == 0 ? "OUT_OF_STOCK" : "IN_STOCK")
+                .category(ProductResponse.CategoryInfo.builder().id((long) i % 10).name("Category " + i % 10).build())
+                .createdAt(created)
+                .updatedAt(created.plusDays(1))
+                .build();
+    }
+}
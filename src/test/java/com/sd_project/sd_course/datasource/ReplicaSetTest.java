@@ -0,0 +1,42 @@
+package com.sd_project.sd_course.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplicaSetTest {
+
+    @Test
+    void parseLsn_ShouldRoundTripTextForm() {
+        // Given
+        String text = "16/B374D848";
+
+        // When
+        long lsn = ReplicaSet.parseLsn(text);
+
+        // Then
+        assertThat(lsn).isEqualTo(0x16B374D848L);
+        assertThat(ReplicaSet.formatLsn(lsn)).isEqualTo(text);
+        assertThat(ReplicaSet.parseLsn("0/1")).isLessThan(ReplicaSet.parseLsn("1/0"));
+    }
+
+    @Test
+    void parseLsn_ShouldRejectMalformedToken() {
+        assertThatThrownBy(() -> ReplicaSet.parseLsn("not-an-lsn"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void choose_ShouldReturnNullWithoutReplicas() {
+        // Given
+        ReplicaSet replicaSet = new ReplicaSet(List.of(), new DriverManagerDataSource(), 0);
+
+        // Then
+        assertThat(replicaSet.isEmpty()).isTrue();
+        assertThat(replicaSet.choose(0)).isNull();
+    }
+}
@@ -0,0 +1,46 @@
+package com.sd_project.sd_course.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkloadContextTest {
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void resolve_ShouldFollowTransactionReadOnlyFlag() {
+        // Given / When
+        WorkloadType readWrite = WorkloadContext.resolve();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        WorkloadType readOnly = WorkloadContext.resolve();
+
+        // Then
+        assertThat(readWrite).isEqualTo(WorkloadType.WRITE);
+        assertThat(readOnly).isEqualTo(WorkloadType.CATALOG);
+    }
+
+    @Test
+    void enter_ShouldOverrideAndRestoreDeclaredWorkload() {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        WorkloadType outer = WorkloadContext.enter(WorkloadType.AUTH);
+        WorkloadType inner = WorkloadContext.enter(WorkloadType.WRITE);
+        WorkloadType nested = WorkloadContext.resolve();
+        WorkloadContext.restore(inner);
+        WorkloadType afterInner = WorkloadContext.resolve();
+        WorkloadContext.restore(outer);
+
+        // Then
+        assertThat(nested).isEqualTo(WorkloadType.WRITE);
+        assertThat(afterInner).isEqualTo(WorkloadType.AUTH);
+        assertThat(WorkloadContext.resolve()).isEqualTo(WorkloadType.CATALOG);
+    }
+}
@@ -0,0 +1,40 @@
+package com.sd_project.sd_course.dto.request;
+
+import com.sd_project.sd_course.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FieldSelectionTest {
+
+    @Test
+    void forProducts_ShouldMapFieldsToTheAttributesTheyNeed() {
+        // When
+        FieldSelection selection = FieldSelection.forProducts(" name, stockStatus ,category");
+
+        // Then
+        assertThat(selection.isAll()).isFalse();
+        assertThat(selection.fields()).containsExactlyInAnyOrder("name", "stockStatus", "category");
+        assertThat(selection.attributesSortedBy(Sort.by("price")))
+                .containsExactly("id", "name", "stockQuantity", "category.id", "category.name", "price");
+        assertThat(selection.attributes()).doesNotContain("description");
+    }
+
+    @Test
+    void forProducts_ShouldSelectEverythingWhenNoFieldsAreGiven() {
+        // When / Then
+        assertThat(FieldSelection.forProducts(null).isAll()).isTrue();
+        assertThat(FieldSelection.forProducts(" , ").isAll()).isTrue();
+        assertThat(FieldSelection.forProducts(null).includes("description")).isTrue();
+    }
+
+    @Test
+    void forCategories_ShouldRejectUnknownFields() {
+        // When / Then
+        assertThatThrownBy(() -> FieldSelection.forCategories("name,price"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("price");
+    }
+}
@@ -0,0 +1,92 @@
+package com.sd_project.sd_course.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogChangeMetricsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionTemplate transactions = new TransactionTemplate(new NoResourceTransactionManager());
+    private DomainEventBus bus;
+
+    /**
+     * Runs the full commit and rollback lifecycle, including after-commit callbacks, without a database
+     */
+    private static final class NoResourceTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        CatalogChangeMetrics metrics = new CatalogChangeMetrics(meterRegistry);
+        bus = new DomainEventBus(() -> List.of(metrics), meterRegistry, 8);
+        bus.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    @Test
+    void onEvent_ShouldCountOnlyChangesThatCommitted() throws Exception {
+        // Given
+        transactions.executeWithoutResult(status -> {
+            bus.productSaved(1, 2, 5);
+            bus.productStockChanged(1, 2, 0);
+            assertThat(meterRegistry.get("app.events.published").counter().count()).isZero();
+        });
+
+        // When
+        transactions.executeWithoutResult(status -> {
+            bus.productDeleted(1, 2);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        awaitCount("PRODUCT_STOCK_CHANGED", 1);
+        assertThat(changes("PRODUCT_SAVED")).isEqualTo(1);
+        assertThat(changes("PRODUCT_DELETED")).isZero();
+        assertThat(meterRegistry.get("app.catalog.products.sold-out").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("app.events.published").counter().count()).isEqualTo(2);
+    }
+
+    private double changes(String type) {
+        return meterRegistry.get("app.catalog.changes").tag("type", type).counter().count();
+    }
+
+    private void awaitCount(String type, double count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (changes(type) < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
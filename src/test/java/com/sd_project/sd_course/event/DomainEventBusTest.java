@@ -0,0 +1,151 @@
+package com.sd_project.sd_course.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainEventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DomainEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        bus.stop();
+    }
+
+    /**
+     * Copies the ids it sees, as the slots are reused
+     */
+    private static final class RecordingConsumer implements DomainEventConsumer {
+
+        private final String name;
+        private final List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+        private final List<Boolean> endOfBatch = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+
+        private RecordingConsumer(String name, CountDownLatch release) {
+            this.name = name;
+            this.release = release;
+        }
+
+        @Override
+        public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ids.add(event.getId());
+            this.endOfBatch.add(endOfBatch);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+    }
+
+    @Test
+    void publish_ShouldDeliverEveryEventInOrderToEachConsumer() throws Exception {
+        // Given
+        CountDownLatch open = new CountDownLatch(0);
+        RecordingConsumer first = new RecordingConsumer("first", open);
+        RecordingConsumer second = new RecordingConsumer("second", open);
+        bus = new DomainEventBus(() -> List.of(first, second), meterRegistry, 8);
+        bus.start();
+
+        // When
+        for (long id = 1; id <= 100; id++) {
+            assertThat(bus.publish(DomainEventType.PRODUCT_SAVED, id, 1, 5)).isTrue();
+            if (id % 8 == 0) {
+                // A full ring drops events, so let the consumers free it before wrapping around
+                awaitSize(first.ids, (int) id);
+                awaitSize(second.ids, (int) id);
+            }
+        }
+
+        // Then
+        awaitSize(first.ids, 100);
+        awaitSize(second.ids, 100);
+        List<Long> expected = LongStream.rangeClosed(1, 100).boxed().toList();
+        assertThat(first.ids).isEqualTo(expected);
+        assertThat(second.ids).isEqualTo(expected);
+        assertThat(first.endOfBatch.get(99)).isTrue();
+        assertThat(meterRegistry.get("app.events.published").counter().count()).isEqualTo(100);
+    }
+
+    @Test
+    void publish_ShouldDropRightAwayAndMarkTheConsumerWhileItHoldsUpTheRing() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingConsumer slow = new RecordingConsumer("slow", release);
+        bus = new DomainEventBus(() -> List.of(slow), meterRegistry, 4);
+        bus.start();
+        for (long id = 1; id <= 4; id++) {
+            assertThat(bus.publish(DomainEventType.USER_SAVED, id, DomainEvent.NONE, DomainEvent.NONE)).isTrue();
+        }
+
+        // When
+        long start = System.nanoTime();
+        boolean accepted = bus.publish(DomainEventType.USER_SAVED, 5, DomainEvent.NONE, DomainEvent.NONE);
+        long elapsed = System.nanoTime() - start;
+
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(elapsed).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(meterRegistry.get("app.events.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("app.events.consumer.overruns").tag("consumer", "slow").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("app.events.consumer.slow").tag("consumer", "slow").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        awaitSize(slow.ids, 4);
+        assertThat(slow.ids).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(bus.publish(DomainEventType.USER_SAVED, 6, DomainEvent.NONE, DomainEvent.NONE)).isTrue();
+        awaitSize(slow.ids, 5);
+        assertThat(slow.ids.get(4)).isEqualTo(6L);
+        assertThat(meterRegistry.get("app.events.consumer.slow").tag("consumer", "slow").gauge().value()).isZero();
+        assertThat(meterRegistry.get("app.events.consumer.lag").tag("consumer", "slow").gauge().value()).isZero();
+    }
+
+    @Test
+    void consumer_ShouldParkWhileIdleUntilAPublishWakesIt() throws Exception {
+        // Given
+        RecordingConsumer idle = new RecordingConsumer("idle", new CountDownLatch(0));
+        bus = new DomainEventBus(() -> List.of(idle), meterRegistry, 8);
+        bus.start();
+        Thread thread = Thread.getAllStackTraces().keySet().stream()
+                .filter(candidate -> candidate.getName().equals("domain-events-idle"))
+                .findFirst()
+                .orElseThrow();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+
+        // When
+        bus.productDeleted(7, 1);
+
+        // Then
+        awaitSize(idle.ids, 1);
+        assertThat(idle.ids).containsExactly(7L);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.sd_project.sd_course.grpc;
+
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.sd_project.sd_course.limiter.AdaptiveConcurrencyLimit;
+import com.sd_project.sd_course.limiter.ConcurrencyLimitProperties;
+import com.sd_project.sd_course.limiter.ConcurrencyLimiters;
+import com.sd_project.sd_course.limiter.RateLimitClusterCoordinator;
+import com.sd_project.sd_course.limiter.RateLimitProperties;
+import com.sd_project.sd_course.limiter.RateLimiter;
+import com.sd_project.sd_course.proto.CatalogServiceGrpc;
+import com.sd_project.sd_course.proto.GetProductRequest;
+import com.sd_project.sd_course.proto.Product;
+import com.sd_project.sd_course.proto.StreamProductsRequest;
+import com.sd_project.sd_course.security.BearerTokenAuthenticator;
+import com.sd_project.sd_course.service.ApiKeyService;
+import com.sd_project.sd_course.service.CategoryService;
+import com.sd_project.sd_course.service.ProductService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CatalogGrpcServiceTest {
+
+    private static final String TOKEN = "access-token";
+
+    private final ProductService productService = mock(ProductService.class);
+    private final CategoryService categoryService = mock(CategoryService.class);
+    private final BearerTokenAuthenticator bearerTokenAuthenticator = mock(BearerTokenAuthenticator.class);
+    private final ApiKeyService apiKeyService = mock(ApiKeyService.class);
+    private final RateLimitProperties rateLimitProperties = new RateLimitProperties();
+    private final RateLimitClusterCoordinator clusterCoordinator = mock(RateLimitClusterCoordinator.class);
+    private final ConcurrencyLimiters concurrencyLimiters =
+            new ConcurrencyLimiters(new ConcurrencyLimitProperties(), new SimpleMeterRegistry());
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        when(bearerTokenAuthenticator.tokenFromHeader("Bearer " + TOKEN)).thenReturn(TOKEN);
+        when(bearerTokenAuthenticator.authenticate(TOKEN))
+                .thenReturn(User.withUsername("reader").password("").roles("USER").build());
+        when(clusterCoordinator.getActiveNodes()).thenReturn(1);
+
+        String name = InProcessServerBuilder.generateName();
+        CatalogGrpcService service = new CatalogGrpcService(productService, categoryService, 2, 2);
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service,
+                        new GrpcLimitInterceptor(new RateLimiter(rateLimitProperties, clusterCoordinator),
+                                concurrencyLimiters),
+                        new GrpcAuthenticationInterceptor(bearerTokenAuthenticator, apiKeyService)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void call_ShouldBeRejectedWithoutCredentials() {
+        // Given
+        CatalogServiceGrpc.CatalogServiceBlockingStub stub = CatalogServiceGrpc.newBlockingStub(channel);
+
+        // When / Then
+        assertThatThrownBy(() -> stub.getProduct(GetProductRequest.newBuilder().setId(1L).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(ex -> ((StatusRuntimeException) ex).getStatus().getCode())
+                .isEqualTo(Status.Code.UNAUTHENTICATED);
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void getProduct_ShouldMapNotFoundToStatus() {
+        // Given
+        when(productService.getProductById(7L)).thenThrow(new ResourceNotFoundException("Product", "id", 7L));
+
+        // When / Then
+        assertThatThrownBy(() -> authenticatedStub().getProduct(GetProductRequest.newBuilder().setId(7L).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(ex -> ((StatusRuntimeException) ex).getStatus().getCode())
+                .isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void streamProducts_ShouldScanAllBatchesInIdOrder() {
+        // Given
+        when(productService.scanProducts(isNull(), eq(3L), isNull(), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(slice(true, 1L, 2L));
+        when(productService.scanProducts(isNull(), eq(3L), isNull(), isNull(), isNull(), eq(2L), eq(2)))
+                .thenReturn(slice(true, 3L, 4L));
+        when(productService.scanProducts(isNull(), eq(3L), isNull(), isNull(), isNull(), eq(4L), eq(2)))
+                .thenReturn(slice(false, 5L));
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        authenticatedStub().streamProducts(StreamProductsRequest.newBuilder()
+                        .setCategoryId(3L)
+                        .setBatchSize(100)
+                        .build())
+                .forEachRemaining(product -> ids.add(product.getId()));
+
+        // Then
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(productService).scanProducts(isNull(), eq(3L), isNull(), isNull(), isNull(), eq(4L), eq(2));
+    }
+
+    @Test
+    void streamProducts_ShouldResumeAfterGivenId() {
+        // Given
+        when(productService.scanProducts(any(), any(), any(), any(), any(), eq(10L), eq(2)))
+                .thenReturn(slice(false, 11L));
+
+        // When
+        List<Product> products = new ArrayList<>();
+        authenticatedStub().streamProducts(StreamProductsRequest.newBuilder().setAfterId(10L).build())
+                .forEachRemaining(products::add);
+
+        // Then
+        assertThat(products).extracting(Product::getId).containsExactly(11L);
+    }
+
+    @Test
+    void getProduct_ShouldBeRateLimitedPerCaller() {
+        // Given
+        rateLimitProperties.setDefaultRate(new RateLimitProperties.Rate(0.01, 1));
+        when(productService.getProductById(1L)).thenReturn(ProductResponse.builder().id(1L).name("Product 1").build());
+        GetProductRequest request = GetProductRequest.newBuilder().setId(1L).build();
+
+        // When
+        authenticatedStub().getProduct(request);
+
+        // Then
+        assertThatThrownBy(() -> authenticatedStub().getProduct(request))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(ex -> ((StatusRuntimeException) ex).getStatus().getCode())
+                .isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    @Test
+    void getProduct_ShouldTakeAndReturnAProductsReadPermit() throws InterruptedException {
+        // Given
+        when(productService.getProductById(1L)).thenReturn(ProductResponse.builder().id(1L).name("Product 1").build());
+        AdaptiveConcurrencyLimit limit = concurrencyLimiters.forName("products").limit(true);
+        GetProductRequest request = GetProductRequest.newBuilder().setId(1L).build();
+
+        // When
+        authenticatedStub().getProduct(request);
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (limit.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertThat(limit.getInFlight()).isZero();
+        while (limit.tryAcquire()) {
+            // Exhaust the limit
+        }
+        assertThatThrownBy(() -> authenticatedStub().getProduct(request))
+                .isInstanceOf(StatusRuntimeException.class)
+                .extracting(ex -> ((StatusRuntimeException) ex).getStatus().getCode())
+                .isEqualTo(Status.Code.UNAVAILABLE);
+        verify(productService, times(1)).getProductById(1L);
+    }
+
+    private CatalogServiceGrpc.CatalogServiceBlockingStub authenticatedStub() {
+        Metadata headers = new Metadata();
+        headers.put(GrpcAuthenticationInterceptor.AUTHORIZATION, "Bearer " + TOKEN);
+        return CatalogServiceGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+
+    private static SliceImpl<ProductResponse> slice(boolean hasNext, long... ids) {
+        List<ProductResponse> products = LongStream.of(ids)
+                .mapToObj(id -> ProductResponse.builder().id(id).name("Product " + id).build())
+                .toList();
+        return new SliceImpl<>(products, PageRequest.of(0, 2), hasNext);
+    }
+}
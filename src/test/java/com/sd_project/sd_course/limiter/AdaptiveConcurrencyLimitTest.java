@@ -0,0 +1,69 @@
+package com.sd_project.sd_course.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = 1_000_000L;
+    private static final long SLOW = 20_000_000L;
+
+    @Test
+    void release_ShouldRaiseLimitWhileLatencyStaysFlat() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100);
+
+        // When
+        for (int round = 0; round < 20; round++) {
+            int admitted = fill(limit);
+            for (int i = 0; i < admitted; i++) {
+                limit.release(FAST, false);
+            }
+        }
+
+        // Then
+        assertThat(limit.getLimit()).isGreaterThan(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void release_ShouldLowerLimitWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 100);
+        limit.tryAcquire();
+        limit.release(FAST, false);
+
+        // When
+        for (int round = 0; round < 20; round++) {
+            int admitted = fill(limit);
+            for (int i = 0; i < admitted; i++) {
+                limit.release(SLOW, false);
+            }
+        }
+
+        // Then
+        assertThat(limit.getLimit()).isLessThan(50);
+    }
+
+    @Test
+    void tryAcquire_ShouldRefuseRequestsOverLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 10);
+
+        // When
+        int admitted = fill(limit);
+
+        // Then
+        assertThat(admitted).isEqualTo(3);
+        assertThat(limit.tryAcquire()).isFalse();
+    }
+
+    private static int fill(AdaptiveConcurrencyLimit limit) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        return admitted;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sd_project.sd_course.limiter;
+
+import com.sd_project.sd_course.datasource.DatabaseAccess;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitersTest {
+
+    private final ConcurrencyLimiters limiters =
+            new ConcurrencyLimiters(new ConcurrencyLimitProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void forPath_ShouldSeparateRouteClassesAndSkipExcludedPaths() {
+        // When
+        ConcurrencyLimiters.Route products = limiters.forPath("/api/products/search");
+        ConcurrencyLimiters.Route users = limiters.forPath("/api/users/7");
+
+        // Then
+        assertThat(products.getName()).isEqualTo("products");
+        assertThat(users.getName()).isEqualTo("users");
+        assertThat(products.limit(true)).isNotSameAs(users.limit(true));
+        assertThat(limiters.forPath("/api/products/stream")).isNull();
+        assertThat(limiters.forPath("/api/products/suggest")).isNull();
+        assertThat(limiters.forPath("/api/auth/login")).isNull();
+    }
+
+    @Test
+    void release_ShouldOnlyLearnFromRequestsThatReachedTheDatabase() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 20);
+        DatabaseAccess.Recorder cacheHit = DatabaseAccess.begin();
+        DatabaseAccess.end();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            ConcurrencyLimiters.release(limit, 1_000, ConcurrencyLimiters.Outcome.FAILED, cacheHit);
+            limit.tryAcquire();
+            ConcurrencyLimiters.release(limit, 1_000, ConcurrencyLimiters.Outcome.REJECTED, null);
+        }
+
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,47 @@
+package com.sd_project.sd_course.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long INTERVAL = 100_000_000L; // 10 requests per second
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenReportWait() {
+        // Given
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+
+        // When
+        int allowed = 0;
+        while (bucket.tryAcquire(now, INTERVAL, 5) == 0) {
+            allowed++;
+        }
+        long wait = bucket.tryAcquire(now, INTERVAL, 5);
+
+        // Then
+        assertThat(allowed).isEqualTo(5);
+        assertThat(wait).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillOverTime() {
+        // Given
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now, INTERVAL, 5);
+        }
+
+        // When
+        long later = now + 2 * INTERVAL;
+
+        // Then
+        assertThat(bucket.tryAcquire(later, INTERVAL, 5)).isZero();
+        assertThat(bucket.tryAcquire(later, INTERVAL, 5)).isZero();
+        assertThat(bucket.tryAcquire(later, INTERVAL, 5)).isPositive();
+        assertThat(bucket.isIdleSince(later + 10 * INTERVAL)).isTrue();
+    }
+}
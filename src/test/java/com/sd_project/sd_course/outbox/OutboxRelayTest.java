@@ -0,0 +1,91 @@
+package com.sd_project.sd_course.outbox;
+
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.repository.OutboxEventRepository;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<OutboxSubscriber> subscriberProvider = mock(ObjectProvider.class);
+    private final List<List<Long>> delivered = new ArrayList<>();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(shardRouter.getShardCount()).thenReturn(1);
+        when(shardRouter.onShard(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        OutboxSubscriber subscriber = (shard, events) ->
+                delivered.add(events.stream().map(OutboxEvent::getPosition).toList());
+        when(subscriberProvider.orderedStream()).thenAnswer(invocation -> Stream.of(subscriber));
+        relay = new OutboxRelay(outboxEventRepository, shardRouter, transactionManager, subscriberProvider,
+                new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    void relay_ShouldNumberEventsAfterTheLastPositionAndDrainInBatches() {
+        // Given
+        when(outboxEventRepository.tryLock(anyLong())).thenReturn(true);
+        List<OutboxEvent> first = List.of(event(11L), event(12L));
+        List<OutboxEvent> second = List.of(event(14L));
+        when(outboxEventRepository.findUnpublished(any())).thenReturn(first, second);
+        when(outboxEventRepository.findMaxPosition()).thenReturn(40L, 42L);
+
+        // When
+        relay.relay();
+
+        // Then
+        assertThat(delivered).containsExactly(List.of(41L, 42L), List.of(43L));
+        assertThat(second.get(0).getPublishedAt()).isNotNull();
+    }
+
+    @Test
+    void relay_ShouldLeaveTheShardToTheNodeHoldingTheLock() {
+        // Given
+        when(outboxEventRepository.tryLock(anyLong())).thenReturn(false);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository, never()).findUnpublished(any());
+        assertThat(delivered).isEmpty();
+    }
+
+    private static OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType(OutboxEvent.PRODUCT)
+                .aggregateId(id)
+                .eventType(OutboxEvent.UPDATED)
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
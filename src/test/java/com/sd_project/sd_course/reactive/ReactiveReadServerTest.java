@@ -0,0 +1,323 @@
+package com.sd_project.sd_course.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.cache.CountCache;
+import com.sd_project.sd_course.cache.ProductCache;
+import com.sd_project.sd_course.cache.SearchResultCache;
+import com.sd_project.sd_course.cache.TableVersions;
+import com.sd_project.sd_course.dto.request.CountMode;
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.dto.response.FieldsFilter;
+import com.sd_project.sd_course.limiter.AdaptiveConcurrencyLimit;
+import com.sd_project.sd_course.limiter.ConcurrencyLimitProperties;
+import com.sd_project.sd_course.limiter.ConcurrencyLimiters;
+import com.sd_project.sd_course.limiter.RateLimitClusterCoordinator;
+import com.sd_project.sd_course.limiter.RateLimitProperties;
+import com.sd_project.sd_course.limiter.RateLimiter;
+import com.sd_project.sd_course.mapper.CategoryMapperImpl;
+import com.sd_project.sd_course.mapper.ProductMapperImpl;
+import com.sd_project.sd_course.repository.ProductFilter;
+import com.sd_project.sd_course.repository.ReactiveCatalogRepository;
+import com.sd_project.sd_course.security.BearerTokenAuthenticator;
+import com.sd_project.sd_course.service.ApiKeyService;
+import com.sd_project.sd_course.suggest.SuggestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ReactiveReadServerTest {
+
+    private static final String TOKEN = "access-token";
+
+    private final ReactiveCatalogRepository repository = mock(ReactiveCatalogRepository.class);
+    private final BearerTokenAuthenticator bearerTokenAuthenticator = mock(BearerTokenAuthenticator.class);
+    private final RateLimitProperties rateLimitProperties = new RateLimitProperties();
+    private final RateLimitClusterCoordinator clusterCoordinator = mock(RateLimitClusterCoordinator.class);
+    private final ConcurrencyLimiters concurrencyLimiters =
+            new ConcurrencyLimiters(new ConcurrencyLimitProperties(), new SimpleMeterRegistry());
+
+    private WebTestClient anonymousClient;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        when(bearerTokenAuthenticator.tokenFromHeader("Bearer " + TOKEN)).thenReturn(TOKEN);
+        when(bearerTokenAuthenticator.authenticate(TOKEN))
+                .thenReturn(User.withUsername("reader").password("").roles("USER").build());
+        when(clusterCoordinator.getActiveNodes()).thenReturn(1);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().filters(FieldsFilter.all()).build();
+        ReactiveProperties properties = new ReactiveProperties();
+        ReactiveErrorHandler errorHandler = new ReactiveErrorHandler();
+        TableVersions tableVersions = new TableVersions();
+        ReactiveCatalogHandler handler = new ReactiveCatalogHandler(repository, new ProductMapperImpl(),
+                new CategoryMapperImpl(), new ProductCache(new ConcurrentMapCacheManager(), tableVersions, 60_000),
+                new SearchResultCache(tableVersions, 30_000, 100), new CountCache(tableVersions, 30_000, 100),
+                mock(SuggestionService.class), properties, 200);
+        ReactiveReadServer server = new ReactiveReadServer(handler,
+                new ReactiveAuthenticationFilter(bearerTokenAuthenticator, mock(ApiKeyService.class), errorHandler),
+                new ReactiveLimitFilter(new RateLimiter(rateLimitProperties, clusterCoordinator), concurrencyLimiters,
+                        errorHandler),
+                errorHandler, objectMapper, properties);
+
+        anonymousClient = WebTestClient.bindToRouterFunction(server.routes())
+                .handlerStrategies(server.handlerStrategies())
+                .build();
+        client = anonymousClient.mutate()
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN)
+                .build();
+    }
+
+    @Test
+    void request_ShouldBeRejectedWithoutCredentials() {
+        // When / Then
+        anonymousClient.get().uri("/api/products/1")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getAllProducts_ShouldReturnPageWithHasNextAndTotalHeaders() {
+        // Given
+        when(repository.findProducts(any(), any(), any(), eq(0L), eq(3)))
+                .thenReturn(Flux.just(product(1L, "Alpha"), product(2L, "Beta"), product(3L, "Gamma")));
+        when(repository.countProducts(any(), eq(CountMode.EXACT))).thenReturn(Mono.just(42L));
+
+        // When / Then
+        client.get().uri("/api/products?size=2&total=exact")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Has-Next", "true")
+                .expectHeader().valueEquals("X-Total-Count", "42")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].name").isEqualTo("Alpha")
+                .jsonPath("$[1].category.name").isEqualTo("Phones");
+    }
+
+    @Test
+    void getProductById_ShouldWriteOnlySelectedFields() {
+        // Given
+        when(repository.findProductById(7L)).thenReturn(Mono.just(product(7L, "Phone")));
+
+        // When
+        String body = client.get().uri("/api/products/7?fields=id,name")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertThat(body).isEqualTo("{\"id\":7,\"name\":\"Phone\"}");
+    }
+
+    @Test
+    void getProductById_ShouldReturnNotFoundForUnknownId() {
+        // Given
+        when(repository.findProductById(anyLong())).thenReturn(Mono.empty());
+
+        // When / Then
+        client.get().uri("/api/products/99")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("RESOURCE_NOT_FOUND");
+    }
+
+    @Test
+    void getProductsInStock_ShouldStreamNdjsonWhenAccepted() {
+        // Given
+        when(repository.streamProducts(any(), any(), any(), anyInt()))
+                .thenReturn(Flux.range(1, 5).map(id -> product(id, "Product " + id)));
+
+        // When
+        String body = client.get().uri("/api/products/in-stock")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertThat(body).isNotNull();
+        assertThat(body.lines()).hasSize(5).allMatch(line -> line.startsWith("{\"id\":"));
+        verify(repository).streamProducts(eq(new ProductFilter(null, null, null, null, true)),
+                any(), eq(FieldSelection.ALL), eq(new ReactiveProperties().getFetchSize()));
+    }
+
+    @Test
+    void advancedSearch_ShouldRejectSortWithoutIndex() {
+        // When / Then
+        client.get().uri("/api/products/search/advanced?sortBy=description")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("BAD_REQUEST");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getAllProducts_ShouldQueryOnlyTheSelectedFieldsAndCacheTheExactTotal() {
+        // Given
+        FieldSelection fields = FieldSelection.forProducts("name,price");
+        when(repository.findProducts(any(), any(), eq(fields), eq(0L), eq(21)))
+                .thenReturn(Flux.just(Map.of("id", 1L, "name", "Alpha", "price", new BigDecimal("9.99"))));
+        when(repository.countProducts(any(), eq(CountMode.EXACT))).thenReturn(Mono.just(1L));
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            client.get().uri("/api/products?fields=name,price&total=exact")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("X-Total-Count", "1")
+                    .expectBody()
+                    .jsonPath("$[0].name").isEqualTo("Alpha")
+                    .jsonPath("$[0].category").doesNotExist();
+        }
+
+        // Then
+        verify(repository, times(2)).findProducts(any(), any(), eq(fields), eq(0L), eq(21));
+        verify(repository, times(1)).countProducts(any(), eq(CountMode.EXACT));
+    }
+
+    @Test
+    void searchProducts_ShouldServeARepeatedSearchFromTheCaches() {
+        // Given
+        when(repository.findProducts(any(), any(), any(), eq(0L), eq(21)))
+                .thenReturn(Flux.just(product(1L, "Alpha"), product(2L, "Alphabet")));
+
+        // When
+        for (String keyword : new String[]{"alpha", " Alpha "}) {
+            client.get().uri(uri -> uri.path("/api/products/search").queryParam("keyword", keyword).build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("X-Has-Next", "false")
+                    .expectBody()
+                    .jsonPath("$[1].name").isEqualTo("Alphabet");
+        }
+
+        // Then
+        verify(repository, times(1)).findProducts(any(), any(), any(), anyLong(), anyInt());
+        verify(repository, times(0)).findProductsByIds(any());
+    }
+
+    @Test
+    void request_ShouldBeRateLimitedPerCaller() {
+        // Given
+        rateLimitProperties.setDefaultRate(new RateLimitProperties.Rate(0.01, 1));
+        when(repository.findProductById(1L)).thenReturn(Mono.just(product(1L, "Phone")));
+        client.get().uri("/api/products/1").exchange().expectStatus().isOk();
+
+        // When / Then
+        client.get().uri("/api/products/1")
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER);
+        verify(repository, times(1)).findProductById(1L);
+    }
+
+    @Test
+    void request_ShouldReturnItsPermitAndBeShedWhenTheRouteIsAtItsLimit() {
+        // Given
+        when(repository.findProductById(1L)).thenReturn(Mono.just(product(1L, "Phone")));
+        AdaptiveConcurrencyLimit limit = concurrencyLimiters.forPath("/api/products/1").limit(true);
+        client.get().uri("/api/products/1").exchange().expectStatus().isOk();
+        assertThat(limit.getInFlight()).isZero();
+        while (limit.tryAcquire()) {
+            // Exhaust the limit
+        }
+
+        // When / Then
+        client.get().uri("/api/products/2")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("SERVICE_UNAVAILABLE");
+        verify(repository, times(0)).findProductById(2L);
+    }
+
+    @Test
+    void getProductsInStock_ShouldBeShedAtTheLimitEvenWhenAStreamIsAccepted() {
+        // Given
+        AdaptiveConcurrencyLimit limit = concurrencyLimiters.forPath("/api/products/in-stock").limit(true);
+        while (limit.tryAcquire()) {
+            // Exhaust the limit
+        }
+
+        // When / Then
+        client.get().uri("/api/products/in-stock")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(503);
+        verify(repository, times(0)).streamProducts(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getProductsInStock_ShouldHoldItsPermitUntilTheStreamIsWritten() {
+        // Given
+        AdaptiveConcurrencyLimit limit = concurrencyLimiters.forPath("/api/products/in-stock").limit(true);
+        List<Integer> inFlightWhileStreaming = new ArrayList<>();
+        when(repository.streamProducts(any(), any(), any(), anyInt()))
+                .thenReturn(Flux.range(1, 3)
+                        .doOnNext(id -> inFlightWhileStreaming.add(limit.getInFlight()))
+                        .map(id -> product(id, "Product " + id)));
+
+        // When
+        client.get().uri("/api/products/in-stock")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult();
+
+        // Then
+        assertThat(inFlightWhileStreaming).containsExactly(1, 1, 1);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    /**
+     * Every product attribute, as the repository reads it without a field selection
+     */
+    private static Map<String, Object> product(long id, String name) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("name", name);
+        row.put("description", null);
+        row.put("price", new BigDecimal("9.99"));
+        row.put("stockQuantity", 5);
+        row.put("category.id", 3L);
+        row.put("category.name", "Phones");
+        row.put("createdAt", null);
+        row.put("updatedAt", null);
+        return row;
+    }
+}
@@ -0,0 +1,53 @@
+package com.sd_project.sd_course.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates a database created before Flyway from the old database-init.sql, the way the application does:
+ * baselined at V1, so V1 itself never runs there.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BaselineMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void migrate_ShouldCreateEveryTableOnADatabaseBaselinedAtV1() throws IOException {
+        // Given
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        // V1 is the old database-init.sql unchanged
+        jdbcTemplate.execute(new ClassPathResource("db/migration/V1__baseline.sql")
+                .getContentAsString(StandardCharsets.UTF_8));
+
+        // When
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public'", String.class))
+                .contains("revoked_refresh_tokens", "api_keys", "rate_limit_nodes", "user_security_versions",
+                        "product_tombstones", "outbox_events", "product_ids");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flyway_schema_history WHERE version = '1' AND type = 'BASELINE'", Long.class))
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.sd_project.sd_course.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the migrations against a real PostgreSQL and checks the constraints of the partitioned products
+ * table: ids stay unique across partitions and categories with products cannot be deleted, and its row
+ * estimate counts each row once.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProductPartitionMigrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static long firstCategory;
+    private static long secondCategory;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        firstCategory = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (name) VALUES ('Migration A') RETURNING id", Long.class);
+        secondCategory = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (name) VALUES ('Migration B') RETURNING id", Long.class);
+    }
+
+    @Test
+    void insert_ShouldRejectDuplicateIdInAnotherCategory() {
+        // Given
+        insertProduct(900_001L, firstCategory);
+
+        // When / Then
+        assertThatThrownBy(() -> insertProduct(900_001L, secondCategory))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(countProducts(900_001L)).isEqualTo(1);
+    }
+
+    @Test
+    void update_ShouldKeepIdRegisteredWhenCategoryChanges() {
+        // Given
+        insertProduct(900_002L, firstCategory);
+
+        // When
+        jdbcTemplate.update("UPDATE products SET category_id = ? WHERE id = ?", secondCategory, 900_002L);
+
+        // Then
+        assertThat(countProducts(900_002L)).isEqualTo(1);
+        assertThat(countRegisteredIds(900_002L)).isEqualTo(1);
+        assertThatThrownBy(() -> insertProduct(900_002L, firstCategory))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", 900_002L);
+        assertThat(countRegisteredIds(900_002L)).isZero();
+    }
+
+    @Test
+    void deleteCategory_ShouldBeRestrictedWhileItHasProducts() {
+        // Given
+        long category = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (name) VALUES ('Migration C') RETURNING id", Long.class);
+        insertProduct(900_003L, category);
+
+        // When / Then
+        assertThatThrownBy(() -> jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", 900_003L);
+        assertThat(jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category)).isEqualTo(1);
+    }
+
+    @Test
+    void estimateTableRows_ShouldCountEachRowOnceAfterAnalyzingThePartitionedTable() {
+        // Given
+        for (long id = 900_100L; id < 900_300L; id++) {
+            insertProduct(id, id % 2 == 0 ? firstCategory : secondCategory);
+        }
+        jdbcTemplate.execute("ANALYZE products");
+        long actual = jdbcTemplate.queryForObject("SELECT count(*) FROM products", Long.class);
+        RowCountEstimator estimator = new RowCountEstimator(jdbcTemplate.getDataSource(), new ObjectMapper());
+
+        // When
+        long estimate = estimator.estimateTableRows("products");
+
+        // Then
+        assertThat(estimate).isEqualTo(actual);
+        jdbcTemplate.update("DELETE FROM products WHERE id BETWEEN 900100 AND 900299");
+    }
+
+    private static void insertProduct(long id, long categoryId) {
+        jdbcTemplate.update("INSERT INTO products (id, name, price, stock_quantity, category_id) " +
+                "VALUES (?, 'Product ' || ?, 1.00, 1, ?)", id, id, categoryId);
+    }
+
+    private static int countProducts(long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM products WHERE id = ?", Integer.class, id);
+    }
+
+    private static int countRegisteredIds(long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM product_ids WHERE id = ?", Integer.class, id);
+    }
+}
@@ -0,0 +1,143 @@
+package com.sd_project.sd_course.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations against a real PostgreSQL, seeds it and checks with EXPLAIN that each
+ * ProductRepository query, in the SQL shape Hibernate renders for it, is answered from an index.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProductRepositoryIndexTest {
+
+    private static final String COLUMNS = "p1_0.id, p1_0.category_id, p1_0.created_at, p1_0.description, " +
+            "p1_0.name, p1_0.price, p1_0.stock_quantity, p1_0.updated_at";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static String nameTerm;
+    private static String descriptionTerm;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbcTemplate.execute("INSERT INTO categories (name, description) " +
+                "SELECT 'Category ' || g, 'Seeded category' FROM generate_series(1, 500) g");
+        jdbcTemplate.execute("INSERT INTO products (name, description, price, stock_quantity, category_id, created_at) " +
+                "SELECT 'Product ' || md5(g::text), 'Description ' || md5((g * 7)::text), " +
+                "(g % 100000) / 100.0, (g * 37) % 1000, " +
+                "(SELECT min(id) FROM categories) + g % 500, now() - g * interval '1 minute' " +
+                "FROM generate_series(1, 200000) g");
+        jdbcTemplate.execute("VACUUM ANALYZE products");
+        jdbcTemplate.execute("VACUUM ANALYZE categories");
+
+        nameTerm = jdbcTemplate.queryForObject("SELECT substr(name, 12, 8) FROM products LIMIT 1", String.class);
+        descriptionTerm = jdbcTemplate.queryForObject(
+                "SELECT substr(description, 16, 8) FROM products LIMIT 1", String.class);
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                Arguments.of("findByNameIgnoreCase",
+                        "select " + COLUMNS + " from products p1_0 where upper(p1_0.name)=upper('Product 1a2b')"),
+                Arguments.of("existsByNameIgnoreCase",
+                        "select p1_0.id from products p1_0 where upper(p1_0.name)=upper('Product 1a2b') " +
+                        "fetch first 1 rows only"),
+                Arguments.of("findByCategoryId",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.category_id=42"),
+                Arguments.of("findByCategoryIdOrderByNameAsc",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.category_id=42 " +
+                        "order by p1_0.name, p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("countByCategoryId",
+                        "select count(p1_0.id) from products p1_0 where p1_0.category_id=42"),
+                Arguments.of("findInStockProducts",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.stock_quantity>0 " +
+                        "order by p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findByStockQuantityGreaterThan",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.stock_quantity>0 " +
+                        "order by p1_0.name, p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findByCategoryIdAndInStock",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.category_id=42 and p1_0.stock_quantity>0 " +
+                        "order by p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findLowStockProducts",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.stock_quantity<=5"),
+                Arguments.of("findByPriceBetween",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.price between 10 and 12 " +
+                        "order by p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("searchByNameOrDescription",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "where lower(p1_0.name) like lower(('%'||'" + nameTerm + "'||'%')) " +
+                        "or lower(p1_0.description) like lower(('%'||'" + nameTerm + "'||'%')) " +
+                        "order by p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("searchByNameOrDescription (description match)",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "where lower(p1_0.name) like lower(('%'||'" + descriptionTerm + "'||'%')) " +
+                        "or lower(p1_0.description) like lower(('%'||'" + descriptionTerm + "'||'%')) " +
+                        "order by p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findByNameContainingIgnoreCase",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "where upper(p1_0.name) like upper('%" + nameTerm + "%') escape '\\' " +
+                        "offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findAllByOrderByNameAsc",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "order by p1_0.name, p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findAllByOrderByPriceAsc",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "order by p1_0.price, p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("findAllByOrderByCreatedAtDesc",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "order by p1_0.created_at desc, p1_0.id offset 0 rows fetch first 20 rows only"),
+                Arguments.of("ProductSpecifications (keyword and category)",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "where (lower(p1_0.name) like '%" + nameTerm + "%' escape '\\' " +
+                        "or lower(p1_0.description) like '%" + nameTerm + "%' escape '\\') " +
+                        "and p1_0.category_id=42 " +
+                        "order by p1_0.name offset 0 rows fetch first 21 rows only"),
+                Arguments.of("ProductSpecifications (price range and in stock)",
+                        "select " + COLUMNS + " from products p1_0 " +
+                        "where p1_0.price>=10 and p1_0.price<=12 and p1_0.stock_quantity>0 " +
+                        "order by p1_0.price offset 0 rows fetch first 21 rows only"),
+                Arguments.of("ProductSpecifications (out of stock)",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.stock_quantity=0 " +
+                        "order by p1_0.name offset 0 rows fetch first 21 rows only"),
+                Arguments.of("findById",
+                        "select " + COLUMNS + " from products p1_0 where p1_0.id=4242"),
+                Arguments.of("findChangedBetween",
+                        "select " + COLUMNS + ", c1_0.name from products p1_0 " +
+                        "join categories c1_0 on c1_0.id=p1_0.category_id " +
+                        "where p1_0.updated_at>='2020-01-01' " +
+                        "and (p1_0.updated_at>'2020-01-01' or p1_0.id>0) and p1_0.updated_at<'2100-01-01' " +
+                        "order by p1_0.updated_at, p1_0.id fetch first 501 rows only")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQuery_ShouldUseAnIndex(String method, String sql) {
+        // When
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        // Then
+        assertThat(plan).as(method).contains("Index").doesNotContain("Seq Scan");
+    }
+}
@@ -0,0 +1,95 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.cache.TableVersions;
+import com.sd_project.sd_course.cache.TableWriteListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations against a real PostgreSQL and checks that revocations are recorded once, listed
+ * while active and compacted only after the token they stand for has expired.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TableWriteListener.class, TableVersions.class})
+class RevokedRefreshTokenRepositoryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private RevokedRefreshTokenRepository repository;
+
+    @Test
+    void insertIfAbsent_ShouldRecordATokenOnlyOnce() {
+        // Given
+        UUID jti = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // When / Then
+        assertThat(repository.insertIfAbsent(jti, 7L, now.plusDays(1), now)).isEqualTo(1);
+        assertThat(repository.insertIfAbsent(jti, 7L, now.plusDays(1), now)).isZero();
+        assertThat(repository.existsById(jti)).isTrue();
+    }
+
+    @Test
+    void deleteExpired_ShouldRemoveOnlyRevocationsOfExpiredTokens() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        UUID expired = UUID.randomUUID();
+        UUID expiringNow = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        repository.insertIfAbsent(expired, 7L, now.minusMinutes(1), now.minusDays(1));
+        repository.insertIfAbsent(expiringNow, 7L, now, now.minusDays(1));
+        repository.insertIfAbsent(active, 7L, now.plusMinutes(1), now.minusDays(1));
+
+        // When
+        int removed = repository.deleteExpired(now);
+
+        // Then
+        assertThat(removed).isEqualTo(2);
+        assertThat(repository.existsById(expired)).isFalse();
+        assertThat(repository.existsById(expiringNow)).isFalse();
+        assertThat(repository.existsById(active)).isTrue();
+    }
+
+    @Test
+    void findActiveIdsAfter_ShouldPageThroughUnexpiredIdsInOrder() {
+        // Given
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        UUID first = new UUID(0L, 1L);
+        UUID second = new UUID(0L, 2L);
+        UUID third = new UUID(0L, 3L);
+        repository.insertIfAbsent(third, 7L, now.plusDays(1), now);
+        repository.insertIfAbsent(first, 7L, now.plusDays(1), now);
+        repository.insertIfAbsent(second, 7L, now.minusDays(1), now.minusDays(2));
+
+        // When / Then
+        assertThat(repository.findActiveIdsAfter(now, new UUID(0L, 0L), Limit.of(1))).containsExactly(first);
+        assertThat(repository.findActiveIdsAfter(now, first, Limit.of(1))).containsExactly(third);
+        assertThat(repository.findActiveIdsAfter(now, third, Limit.of(1))).isEmpty();
+    }
+}
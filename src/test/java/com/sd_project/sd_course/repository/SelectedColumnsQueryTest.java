@@ -0,0 +1,98 @@
+package com.sd_project.sd_course.repository;
+
+import com.sd_project.sd_course.cache.TableVersions;
+import com.sd_project.sd_course.cache.TableWriteListener;
+import com.sd_project.sd_course.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations against a real PostgreSQL and checks that SelectedColumnsQuery reads only the
+ * requested attributes, joins the category for dotted ones and applies the filter, sort and slice.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SelectedColumnsQuery.class, TableWriteListener.class, TableVersions.class})
+class SelectedColumnsQueryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private SelectedColumnsQuery selectedColumnsQuery;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long electronics;
+
+    @BeforeEach
+    void seed() {
+        electronics = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (name) VALUES ('Columns Electronics') RETURNING id", Long.class);
+        long books = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (name) VALUES ('Columns Books') RETURNING id", Long.class);
+        insertProduct("Camera", "12.50", electronics);
+        insertProduct("Laptop", "900.00", electronics);
+        insertProduct("Novel", "8.00", books);
+    }
+
+    @Test
+    void findSlice_ShouldReturnOnlyTheSelectedAttributes() {
+        // When
+        Slice<Map<String, Object>> slice = selectedColumnsQuery.findSlice(Product.class,
+                ProductSpecifications.inCategory(electronics), List.of("id", "name", "category.name"),
+                PageRequest.of(0, 1, Sort.by("name")));
+
+        // Then
+        assertThat(slice.getContent()).hasSize(1);
+        assertThat(slice.hasNext()).isTrue();
+        Map<String, Object> row = slice.getContent().get(0);
+        assertThat(row).containsOnlyKeys("id", "name", "category.name");
+        assertThat(row).containsEntry("name", "Camera").containsEntry("category.name", "Columns Electronics");
+    }
+
+    @Test
+    void findAll_ShouldApplyTheFilterAndSort() {
+        // When
+        List<Map<String, Object>> rows = selectedColumnsQuery.findAll(Product.class,
+                ProductSpecifications.priceAtLeast(new BigDecimal("10.00")), List.of("name", "price"),
+                Sort.by(Sort.Direction.DESC, "price"));
+
+        // Then
+        assertThat(rows).extracting(row -> row.get("name")).containsExactly("Laptop", "Camera");
+        assertThat((BigDecimal) rows.get(0).get("price")).isEqualByComparingTo("900.00");
+    }
+
+    private void insertProduct(String name, String price, long categoryId) {
+        jdbcTemplate.update("INSERT INTO products (name, price, stock_quantity, category_id) VALUES (?, ?, 1, ?)",
+                name, new BigDecimal(price), categoryId);
+    }
+}
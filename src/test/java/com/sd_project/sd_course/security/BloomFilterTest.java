@@ -0,0 +1,85 @@
+package com.sd_project.sd_course.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAnAddedId() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        List<UUID> added = randomIds(10_000);
+
+        // When
+        added.forEach(filter::add);
+
+        // Then
+        assertThat(added).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_ShouldNeverMissAnAddedIdOnceSaturated() {
+        // Given
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        List<UUID> added = randomIds(20_000);
+
+        // When
+        added.forEach(filter::add);
+
+        // Then
+        assertThat(added).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_ShouldNeverMissAnIdAddedConcurrently() throws Exception {
+        // Given
+        BloomFilter filter = new BloomFilter(40_000, 0.01);
+        ConcurrentLinkedQueue<UUID> added = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (UUID id : randomIds(10_000)) {
+                    filter.add(id);
+                    added.add(id);
+                }
+            }));
+        }
+
+        // When
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertThat(added).hasSize(40_000).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void mightContain_ShouldKeepFalsePositivesNearTheConfiguredRate() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        randomIds(10_000).forEach(filter::add);
+
+        // When
+        long falsePositives = randomIds(100_000).stream().filter(filter::mightContain).count();
+
+        // Then
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    private static List<UUID> randomIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+}
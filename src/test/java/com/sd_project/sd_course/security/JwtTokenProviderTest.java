@@ -0,0 +1,97 @@
+package com.sd_project.sd_course.security;
+
+import com.sd_project.sd_course.repository.UserSecurityVersionRepository;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "TestSecretKeyForJwtTokenProvider1234567890123456789012345678901234567890";
+
+    private final SecurityVersionRegistry registry = new SecurityVersionRegistry(mock(UserSecurityVersionRepository.class), 60_000, 120_000);
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60_000, 120_000, registry);
+
+    @Test
+    void generateToken_ShouldEmbedPrincipalClaims() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(42L, "alice", "alice@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        // When
+        Claims claims = tokenProvider.getValidClaims(tokenProvider.generateToken(principal));
+        UserPrincipal restored = tokenProvider.getPrincipalFromClaims(claims);
+
+        // Then
+        assertThat(tokenProvider.hasEmbeddedPrincipal(claims)).isTrue();
+        assertThat(restored.getId()).isEqualTo(42L);
+        assertThat(restored.getUsername()).isEqualTo("alice");
+        assertThat(restored.getEmail()).isEqualTo("alice@example.com");
+        assertThat(restored.getPassword()).isNull();
+        assertThat(restored.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void getPrincipalFromClaims_ShouldRejectTokenIssuedBeforeVersionBump() throws Exception {
+        // Given
+        UserPrincipal principal = new UserPrincipal(7L, "bob", "bob@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        Claims claims = tokenProvider.getValidClaims(tokenProvider.generateToken(principal));
+
+        // When
+        Thread.sleep(2);
+        registry.bump(7L);
+        Thread.sleep(2);
+        Claims fresh = tokenProvider.getValidClaims(tokenProvider.generateToken(principal));
+
+        // Then
+        assertThat(tokenProvider.getPrincipalFromClaims(claims)).isNull();
+        assertThat(tokenProvider.getPrincipalFromClaims(fresh)).isNotNull();
+    }
+
+    @Test
+    void bumpAfterCommit_ShouldKeepTokensValidUntilTransactionCommits() throws Exception {
+        // Given
+        UserPrincipal principal = new UserPrincipal(8L, "dave", "dave@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        Claims claims = tokenProvider.getValidClaims(tokenProvider.generateToken(principal));
+        Thread.sleep(2);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            registry.bumpAfterCommit(8L);
+
+            // Then
+            assertThat(tokenProvider.getPrincipalFromClaims(claims)).isNotNull();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(tokenProvider.getPrincipalFromClaims(claims)).isNull();
+    }
+
+    @Test
+    void generateRefreshToken_ShouldCarryTokenIdAndRefreshType() {
+        // Given
+        UserPrincipal principal = new UserPrincipal(9L, "carol", "carol@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        // When
+        Claims refresh = tokenProvider.getValidClaims(tokenProvider.generateRefreshToken(principal));
+        Claims access = tokenProvider.getValidClaims(tokenProvider.generateToken(principal));
+
+        // Then
+        assertThat(tokenProvider.isRefreshToken(refresh)).isTrue();
+        assertThat(tokenProvider.getTokenId(refresh)).isNotNull();
+        assertThat(tokenProvider.getUserIdFromClaims(refresh)).isEqualTo(9L);
+        assertThat(tokenProvider.isRefreshToken(access)).isFalse();
+    }
+}
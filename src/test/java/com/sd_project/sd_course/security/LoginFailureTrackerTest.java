@@ -0,0 +1,53 @@
+package com.sd_project.sd_course.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginFailureTrackerTest {
+
+    @Test
+    void isBlocked_ShouldBlockUsernameFromTheFailingSourceAfterThreshold() {
+        // Given
+        LoginFailureTracker tracker = new LoginFailureTracker(1024, 60_000, 100, 3);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("10.0.0.1", "Alice");
+        }
+
+        // Then
+        assertThat(tracker.isBlocked("10.0.0.1", "alice")).isTrue();
+        assertThat(tracker.isBlocked("10.0.0.1", "bob")).isFalse();
+        assertThat(tracker.isBlocked("10.0.0.99", "alice")).isFalse();
+    }
+
+    @Test
+    void isBlocked_ShouldNotLockAnAccountOutForFailuresSpreadOverSources() {
+        // Given
+        LoginFailureTracker tracker = new LoginFailureTracker(1024, 60_000, 100, 3);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            tracker.recordFailure("10.0.0." + i, "alice");
+        }
+
+        // Then
+        assertThat(tracker.isBlocked("10.0.1.1", "alice")).isFalse();
+    }
+
+    @Test
+    void isBlocked_ShouldBlockSourceAcrossUsernames() {
+        // Given
+        LoginFailureTracker tracker = new LoginFailureTracker(1024, 60_000, 5, 100);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("192.168.1.1", "user" + i);
+        }
+
+        // Then
+        assertThat(tracker.isBlocked("192.168.1.1", "someone-else")).isTrue();
+        assertThat(tracker.isBlocked("192.168.1.2", "someone-else")).isFalse();
+    }
+}
@@ -0,0 +1,93 @@
+package com.sd_project.sd_course.security;
+
+import com.sd_project.sd_course.repository.RevokedRefreshTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenRevocationStoreTest {
+
+    private final RevokedRefreshTokenRepository repository = mock(RevokedRefreshTokenRepository.class);
+    private final RefreshTokenRevocationStore store = new RefreshTokenRevocationStore(repository, 1_000, 0.01);
+    private final Set<UUID> table = new HashSet<>();
+
+    private final Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+
+    RefreshTokenRevocationStoreTest() {
+        when(repository.insertIfAbsent(any(), anyLong(), any(), any()))
+                .thenAnswer(invocation -> table.add(invocation.getArgument(0)) ? 1 : 0);
+        when(repository.existsById(any())).thenAnswer(invocation -> table.contains(invocation.<UUID>getArgument(0)));
+        when(repository.findActiveIdsAfter(any(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void revoke_ShouldSucceedOnlyForTheFirstCaller() {
+        // Given
+        UUID jti = UUID.randomUUID();
+
+        // When / Then
+        assertThat(store.revoke(jti, 7L, expiresAt)).isTrue();
+        assertThat(store.revoke(jti, 7L, expiresAt)).isFalse();
+        assertThat(store.isRevoked(jti)).isTrue();
+    }
+
+    @Test
+    void isRevoked_ShouldNotQueryTheTableForIdsTheFilterRulesOut() {
+        // Given
+        store.revoke(UUID.randomUUID(), 7L, expiresAt);
+        UUID neverRevoked = new UUID(0L, 1L);
+
+        // When / Then
+        assertThat(store.isRevoked(neverRevoked)).isFalse();
+        verify(repository, never()).existsById(neverRevoked);
+    }
+
+    @Test
+    void compact_ShouldDeleteExpiredRowsAndKeepActiveRevocations() {
+        // Given
+        UUID active = UUID.randomUUID();
+        store.revoke(active, 7L, expiresAt);
+        when(repository.findActiveIdsAfter(any(), eq(new UUID(0L, 0L)), any())).thenReturn(List.of(active));
+
+        // When: twice, so the filter that recorded the revocation is no longer kept as the previous generation
+        LocalDateTime before = LocalDateTime.now();
+        store.compact();
+        store.compact();
+
+        // Then
+        verify(repository, times(2)).deleteExpired(argThat(now -> !now.isBefore(before)));
+        assertThat(store.isRevoked(active)).isTrue();
+    }
+
+    @Test
+    void compact_ShouldKeepRevocationsMadeBeforeTheRebuildLoadedThem() {
+        // Given
+        UUID revokedDuringRebuild = UUID.randomUUID();
+        when(repository.findActiveIdsAfter(any(), any(), any())).thenAnswer(invocation -> {
+            store.revoke(revokedDuringRebuild, 7L, expiresAt);
+            return List.of();
+        });
+
+        // When
+        store.compact();
+
+        // Then
+        assertThat(store.isRevoked(revokedDuringRebuild)).isTrue();
+    }
+}
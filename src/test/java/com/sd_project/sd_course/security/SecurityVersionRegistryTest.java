@@ -0,0 +1,63 @@
+package com.sd_project.sd_course.security;
+
+import com.sd_project.sd_course.entity.UserSecurityVersion;
+import com.sd_project.sd_course.repository.UserSecurityVersionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SecurityVersionRegistryTest {
+
+    private final UserSecurityVersionRepository repository = mock(UserSecurityVersionRepository.class);
+    private final SecurityVersionRegistry registry = new SecurityVersionRegistry(repository, 60_000, 120_000);
+
+    @Test
+    void bump_ShouldPersistThreshold() {
+        // Given
+        long issued = registry.currentVersion();
+
+        // When
+        registry.bump(3L);
+
+        // Then
+        verify(repository).raise(eq(3L), anyLong());
+        assertThat(registry.isCurrent(3L, issued)).isFalse();
+    }
+
+    @Test
+    void sync_ShouldApplyBumpsMadeOnOtherNodes() {
+        // Given
+        long bumpedAt = System.currentTimeMillis();
+        when(repository.findAll()).thenReturn(List.of(
+                new UserSecurityVersion(5L, bumpedAt, LocalDateTime.now())));
+
+        // When
+        registry.sync();
+
+        // Then
+        assertThat(registry.isCurrent(5L, bumpedAt)).isFalse();
+        assertThat(registry.isCurrent(5L, bumpedAt + 1)).isTrue();
+        assertThat(registry.isCurrent(6L, bumpedAt)).isTrue();
+    }
+
+    @Test
+    void isCurrentInStore_ShouldConsultTableBeforeSync() {
+        // Given
+        long bumpedAt = System.currentTimeMillis();
+        when(repository.findRevokedBefore(5L)).thenReturn(Optional.of(bumpedAt));
+
+        // When / Then
+        assertThat(registry.isCurrent(5L, bumpedAt)).isTrue();
+        assertThat(registry.isCurrentInStore(5L, bumpedAt)).isFalse();
+        assertThat(registry.isCurrentInStore(5L, bumpedAt + 1)).isTrue();
+    }
+}
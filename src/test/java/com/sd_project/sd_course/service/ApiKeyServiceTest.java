@@ -0,0 +1,196 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.dto.request.ApiKeyCreateRequest;
+import com.sd_project.sd_course.dto.response.ApiKeyResponse;
+import com.sd_project.sd_course.entity.ApiKey;
+import com.sd_project.sd_course.entity.User;
+import com.sd_project.sd_course.repository.ApiKeyRepository;
+import com.sd_project.sd_course.repository.UserRepository;
+import com.sd_project.sd_course.repository.UserSecurityVersionRepository;
+import com.sd_project.sd_course.security.SecurityVersionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApiKeyServiceTest {
+
+    private final ApiKeyRepository apiKeyRepository = mock(ApiKeyRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ApiKeyService apiKeyService = new ApiKeyService(apiKeyRepository, userRepository,
+            new SecurityVersionRegistry(mock(UserSecurityVersionRepository.class), 60_000, 120_000),
+            "TestSecretForApiKeyHashing");
+
+    private ApiKey savedKey;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().username("pricing-bot").email("bot@example.com").password("hash").build();
+        user.setId(7L);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(apiKeyRepository.save(any(ApiKey.class))).thenAnswer(invocation -> {
+            savedKey = invocation.getArgument(0);
+            savedKey.setId(11L);
+            return savedKey;
+        });
+        when(apiKeyRepository.findById(11L)).thenAnswer(invocation -> Optional.of(savedKey));
+    }
+
+    @Test
+    void createApiKey_ShouldReturnTheKeyOnceAndStoreOnlyItsHash() {
+        // When
+        ApiKeyResponse response = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", 30));
+
+        // Then
+        assertThat(response.getKey()).startsWith("sk_");
+        assertThat(savedKey.getKeyHash()).hasSize(64).doesNotContain(response.getKey());
+        assertThat(savedKey.getKeyPrefix()).isEqualTo(response.getKey().substring(0, 9));
+        assertThat(savedKey.getExpiresAt()).isAfter(LocalDateTime.now().plusDays(29));
+
+        ApiKeyService.ApiKeyAuthentication authentication = apiKeyService.authenticate(response.getKey());
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.keyId()).isEqualTo(11L);
+        assertThat(authentication.principal().getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void authenticate_ShouldRejectUnknownAndMalformedKeys() {
+        // Given
+        String rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", null)).getKey();
+
+        // When / Then
+        assertThat(apiKeyService.authenticate(rawKey + "x")).isNull();
+        assertThat(apiKeyService.authenticate(rawKey.substring(3))).isNull();
+        assertThat(apiKeyService.authenticate(null)).isNull();
+    }
+
+    @Test
+    void authenticate_ShouldRejectAnExpiredKey() {
+        // Given
+        when(apiKeyRepository.save(any(ApiKey.class))).thenAnswer(invocation -> {
+            savedKey = invocation.getArgument(0);
+            savedKey.setId(11L);
+            savedKey.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            return savedKey;
+        });
+
+        // When
+        String rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", 1)).getKey();
+
+        // Then
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+    }
+
+    @Test
+    void createApiKey_ShouldNotIndexTheKeyWhenTheTransactionRollsBack() {
+        // Given
+        String rawKey;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", null)).getKey();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+    }
+
+    @Test
+    void revokeApiKey_ShouldTakeEffectOnceTheTransactionCommits() {
+        // Given
+        String rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", null)).getKey();
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            apiKeyService.revokeApiKey(11L);
+
+            // Then
+            assertThat(apiKeyService.authenticate(rawKey)).isNotNull();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(apiKeyRepository).revoke(11L);
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+    }
+
+    @Test
+    void revokeApiKey_ShouldKeepTheKeyWhenTheTransactionRollsBack() {
+        // Given
+        String rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", null)).getKey();
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            apiKeyService.revokeApiKey(11L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertThat(apiKeyService.authenticate(rawKey)).isNotNull();
+    }
+
+    @Test
+    void refreshIndex_ShouldNotRestoreAKeyRevokedWhileItsQueryRan() {
+        // Given
+        String rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", null)).getKey();
+        when(apiKeyRepository.findAllActiveWithUser()).thenAnswer(invocation -> {
+            apiKeyService.revokeApiKey(11L);
+            return List.of(copyOf(savedKey));
+        });
+
+        // When
+        apiKeyService.refreshIndex();
+
+        // Then
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+
+        doReturn(List.of()).when(apiKeyRepository).findAllActiveWithUser();
+        apiKeyService.refreshIndex();
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+    }
+
+    @Test
+    void syncRevocations_ShouldDropKeysRevokedOnOtherNodes() {
+        // Given
+        String rawKey = apiKeyService.createApiKey(new ApiKeyCreateRequest(7L, "pricing-sync-job", null)).getKey();
+        ApiKey revoked = copyOf(savedKey);
+        revoked.setRevoked(true);
+        revoked.setUpdatedAt(LocalDateTime.now());
+        when(apiKeyRepository.findByRevokedTrueAndUpdatedAtAfter(any())).thenReturn(List.of(revoked));
+
+        // When
+        apiKeyService.syncRevocations();
+
+        // Then
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+    }
+
+    private static ApiKey copyOf(ApiKey apiKey) {
+        ApiKey copy = ApiKey.builder()
+                .name(apiKey.getName())
+                .keyPrefix(apiKey.getKeyPrefix())
+                .keyHash(apiKey.getKeyHash())
+                .user(apiKey.getUser())
+                .expiresAt(apiKey.getExpiresAt())
+                .revoked(apiKey.isRevoked())
+                .build();
+        copy.setId(apiKey.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,242 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.dto.request.LoginRequest;
+import com.sd_project.sd_course.dto.response.JwtResponse;
+import com.sd_project.sd_course.entity.Role;
+import com.sd_project.sd_course.entity.User;
+import com.sd_project.sd_course.event.DomainEventBus;
+import com.sd_project.sd_course.exception.TooManyRequestsException;
+import com.sd_project.sd_course.repository.RevokedRefreshTokenRepository;
+import com.sd_project.sd_course.repository.RoleRepository;
+import com.sd_project.sd_course.repository.UserRepository;
+import com.sd_project.sd_course.repository.UserSecurityVersionRepository;
+import com.sd_project.sd_course.security.JwtTokenProvider;
+import com.sd_project.sd_course.security.LoginFailureTracker;
+import com.sd_project.sd_course.security.RefreshTokenRevocationStore;
+import com.sd_project.sd_course.security.SecurityVersionRegistry;
+import com.sd_project.sd_course.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String SECRET = "TestSecretKeyForAuthServiceRefreshTokens12345678901234567890123456789012345";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSecurityVersionRepository securityVersionRepository = mock(UserSecurityVersionRepository.class);
+    private final RevokedRefreshTokenRepository revokedRefreshTokenRepository = mock(RevokedRefreshTokenRepository.class);
+    private final SecurityVersionRegistry securityVersionRegistry =
+            new SecurityVersionRegistry(securityVersionRepository, 60_000, 120_000);
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 60_000, 120_000, securityVersionRegistry);
+    private final Set<UUID> revokedTokens = new HashSet<>();
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final LoginFailureTracker loginFailureTracker = new LoginFailureTracker(1024, 60_000, 100, 3);
+    private final ThreadPoolTaskExecutor loginExecutor = new ThreadPoolTaskExecutor();
+    private final AuthService authService;
+
+    private final UserPrincipal principal;
+
+    AuthServiceTest() {
+        Role role = Role.builder().name(Role.RoleName.USER).build();
+        User user = User.builder().username("alice").email("alice@example.com").password("hash")
+                .roles(Set.of(role)).build();
+        user.setId(7L);
+        principal = UserPrincipal.create(user);
+        loginExecutor.setCorePoolSize(1);
+        loginExecutor.setMaxPoolSize(1);
+        loginExecutor.setQueueCapacity(1);
+        loginExecutor.initialize();
+        authService = authService(loginExecutor);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(revokedRefreshTokenRepository.insertIfAbsent(any(), anyLong(), any(), any()))
+                .thenAnswer(invocation -> revokedTokens.add(invocation.getArgument(0)) ? 1 : 0);
+        when(revokedRefreshTokenRepository.existsById(any()))
+                .thenAnswer(invocation -> revokedTokens.contains(invocation.<UUID>getArgument(0)));
+    }
+
+    @AfterEach
+    void shutDown() {
+        loginExecutor.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticateUser_ShouldIssueTokensForValidCredentials() {
+        // Given
+        when(authenticationManager.authenticate(any())).thenReturn(authenticated());
+
+        // When
+        JwtResponse response = authService.authenticateUser(login("alice", "secret"), "10.0.0.1");
+
+        // Then
+        assertThat(response.getId()).isEqualTo(7L);
+        assertThat(tokenProvider.getValidClaims(response.getRefreshToken())).isNotNull();
+    }
+
+    @Test
+    void authenticateUser_ShouldAnswer429WithoutHashingOnceASourceKeepsFailingForAUsername() {
+        // Given
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> authService.authenticateUser(login("alice", "guess"), "10.0.0.1"))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> authService.authenticateUser(login("alice", "secret"), "10.0.0.1"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isPositive());
+        verify(authenticationManager, times(3)).authenticate(any());
+    }
+
+    @Test
+    void authenticateUser_ShouldStillLetTheOwnerInFromAnotherSource() {
+        // Given
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> authService.authenticateUser(login("alice", "guess"), "10.0.0.1"))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        reset(authenticationManager);
+        when(authenticationManager.authenticate(any())).thenReturn(authenticated());
+
+        // When
+        JwtResponse response = authService.authenticateUser(login("alice", "secret"), "192.168.1.20");
+
+        // Then
+        assertThat(response.getUsername()).isEqualTo("alice");
+    }
+
+    @Test
+    void authenticateUser_ShouldAnswer429WhenTheLoginPoolIsFull() {
+        // Given
+        ThreadPoolTaskExecutor fullExecutor = mock(ThreadPoolTaskExecutor.class);
+        when(fullExecutor.submit(ArgumentMatchers.<Callable<Authentication>>any()))
+                .thenThrow(new TaskRejectedException("Queue full"));
+        AuthService service = authService(fullExecutor);
+
+        // When / Then
+        assertThatThrownBy(() -> service.authenticateUser(login("alice", "secret"), "10.0.0.1"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(1));
+        verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    void refreshToken_ShouldIssueANewPairForAnUnusedToken() {
+        // Given
+        String refreshToken = tokenProvider.generateRefreshToken(principal);
+
+        // When
+        JwtResponse response = authService.refreshToken(refreshToken);
+
+        // Then
+        assertThat(response.getId()).isEqualTo(7L);
+        assertThat(response.getRefreshToken()).isNotEqualTo(refreshToken);
+        assertThat(tokenProvider.getPrincipalFromClaims(tokenProvider.getValidClaims(response.getAccessToken())))
+                .isNotNull();
+        verify(securityVersionRepository, never()).raise(any(), anyLong());
+    }
+
+    @Test
+    void refreshToken_ShouldRejectASecondExchangeAndRevokeEveryTokenOfTheUser() throws Exception {
+        // Given
+        String refreshToken = tokenProvider.generateRefreshToken(principal);
+        JwtResponse rotated = authService.refreshToken(refreshToken);
+        Thread.sleep(2);
+
+        // When / Then
+        assertThatThrownBy(() -> authService.refreshToken(refreshToken))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("already been used");
+        verify(securityVersionRepository).raise(eq(7L), anyLong());
+        assertThat(tokenProvider.getPrincipalFromClaims(tokenProvider.getValidClaims(rotated.getAccessToken())))
+                .isNull();
+        assertThatThrownBy(() -> authService.refreshToken(rotated.getRefreshToken()))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessageContaining("revoked");
+    }
+
+    @Test
+    void revokeRefreshToken_ShouldRejectTheTokenAfterwards() {
+        // Given
+        String refreshToken = tokenProvider.generateRefreshToken(principal);
+
+        // When
+        authService.revokeRefreshToken(refreshToken);
+
+        // Then
+        assertThatThrownBy(() -> authService.refreshToken(refreshToken))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(revokedTokens).hasSize(1);
+    }
+
+    @Test
+    void refreshToken_ShouldRejectAnAccessToken() {
+        // Given
+        String accessToken = tokenProvider.generateToken(principal);
+
+        // When / Then
+        assertThatThrownBy(() -> authService.refreshToken(accessToken))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid refresh token");
+        assertThat(revokedTokens).isEmpty();
+    }
+
+    private AuthService authService(ThreadPoolTaskExecutor executor) {
+        AuthService service = new AuthService(
+                authenticationManager,
+                userRepository,
+                mock(RoleRepository.class),
+                mock(PasswordEncoder.class),
+                tokenProvider,
+                loginFailureTracker,
+                new RefreshTokenRevocationStore(revokedRefreshTokenRepository, 1_000, 0.01),
+                securityVersionRegistry,
+                executor,
+                mock(DomainEventBus.class));
+        ReflectionTestUtils.setField(service, "loginTimeoutInMs", 5_000L);
+        return service;
+    }
+
+    private static LoginRequest login(String usernameOrEmail, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsernameOrEmail(usernameOrEmail);
+        request.setPassword(password);
+        return request;
+    }
+
+    private Authentication authenticated() {
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,128 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.SyncTokenExpiredException;
+import com.sd_project.sd_course.repository.OutboxEventRepository;
+import com.sd_project.sd_course.sharding.ShardContext;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChangeFeedServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        when(shardRouter.getShardCount()).thenReturn(2);
+        when(shardRouter.onAllShards(any())).thenAnswer(invocation -> {
+            Supplier<?> work = invocation.getArgument(0);
+            return List.of(ShardContext.call(0, work), ShardContext.call(1, work));
+        });
+        changeFeedService = new ChangeFeedService(outboxEventRepository, shardRouter, 7, 100);
+    }
+
+    @Test
+    void getEvents_ShouldMergeShardsInPublishOrderAndAdvanceEachShardsCursor() {
+        // Given
+        when(outboxEventRepository.findPublishedAfter(eq(4L), any()))
+                .thenReturn(List.of(event(5L, NOW.minusSeconds(30)), event(6L, NOW.minusSeconds(10))));
+        when(outboxEventRepository.findPublishedAfter(eq(9L), any()))
+                .thenReturn(List.of(event(10L, NOW.minusSeconds(20)), event(11L, NOW.minusSeconds(5))));
+
+        // When
+        ChangeFeedResponse page = changeFeedService.getEvents("4.9", 3);
+
+        // Then
+        assertThat(page.getEvents()).extracting(ChangeFeedEventResponse::getAggregateId)
+                .containsExactly(5L, 10L, 6L);
+        assertThat(page.getEvents()).extracting(ChangeFeedEventResponse::getCursor)
+                .containsExactly("5.9", "5.10", "6.10");
+        assertThat(page.getNextCursor()).isEqualTo("6.10");
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    void getEvents_ShouldKeepEachShardInPositionOrderWhenPublishTimesRunBackwards() {
+        // Given: shard 0's second batch was relayed by a node whose clock is behind
+        when(outboxEventRepository.findPublishedAfter(eq(4L), any()))
+                .thenReturn(List.of(event(5L, NOW.minusSeconds(10)), event(6L, NOW.minusSeconds(60))));
+        when(outboxEventRepository.findPublishedAfter(eq(9L), any()))
+                .thenReturn(List.of(event(10L, NOW.minusSeconds(20))));
+
+        // When
+        ChangeFeedResponse first = changeFeedService.getEvents("4.9", 1);
+
+        // Then
+        assertThat(first.getEvents()).extracting(ChangeFeedEventResponse::getAggregateId).containsExactly(10L);
+        assertThat(first.getNextCursor()).isEqualTo("4.10");
+
+        // When
+        when(outboxEventRepository.findPublishedAfter(eq(10L), any())).thenReturn(List.of());
+        ChangeFeedResponse second = changeFeedService.getEvents(first.getNextCursor(), 1);
+
+        // Then
+        assertThat(second.getEvents()).extracting(ChangeFeedEventResponse::getAggregateId).containsExactly(5L);
+        assertThat(second.getNextCursor()).isEqualTo("5.10");
+        assertThat(second.isHasMore()).isTrue();
+    }
+
+    @Test
+    void getEvents_ShouldReplayFromTheOldestRetainedEventWithoutACursor() {
+        // Given
+        when(outboxEventRepository.findPublishedAfter(eq(0L), any()))
+                .thenReturn(List.of(event(300L, NOW)), List.of());
+
+        // When
+        ChangeFeedResponse page = changeFeedService.getEvents(null, 10);
+
+        // Then
+        assertThat(page.getEvents()).hasSize(1);
+        assertThat(page.getNextCursor()).isEqualTo("300.0");
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    void getEvents_ShouldRejectCursorsBehindCompactedEvents() {
+        // Given
+        when(outboxEventRepository.findPublishedAfter(eq(4L), any())).thenReturn(List.of(event(300L, NOW)));
+        when(outboxEventRepository.findPublishedAfter(eq(0L), any())).thenReturn(List.of());
+
+        // When / Then
+        assertThatThrownBy(() -> changeFeedService.getEvents("4.0", 10))
+                .isInstanceOf(SyncTokenExpiredException.class);
+        assertThatThrownBy(() -> changeFeedService.getEvents("4", 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static OutboxEvent event(Long position, LocalDateTime publishedAt) {
+        return OutboxEvent.builder()
+                .id(position)
+                .aggregateType(OutboxEvent.PRODUCT)
+                .aggregateId(position)
+                .eventType(OutboxEvent.UPDATED)
+                .payload("{\"id\":" + position + "}")
+                .createdAt(publishedAt)
+                .position(position)
+                .publishedAt(publishedAt)
+                .build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.cache.CountCache;
+import com.sd_project.sd_course.cache.ProductCache;
+import com.sd_project.sd_course.cache.SearchResultCache;
+import com.sd_project.sd_course.cache.TableVersions;
+import com.sd_project.sd_course.datasource.ConsistencyContext;
+import com.sd_project.sd_course.dto.request.FieldSelection;
+import com.sd_project.sd_course.dto.response.ProductBatchItemResponse;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.entity.Product;
+import com.sd_project.sd_course.event.DomainEventBus;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.mapper.ProductMapperImpl;
+import com.sd_project.sd_course.outbox.Outbox;
+import com.sd_project.sd_course.repository.CategoryRepository;
+import com.sd_project.sd_course.repository.ProductRepository;
+import com.sd_project.sd_course.repository.ProductTombstoneRepository;
+import com.sd_project.sd_course.repository.RowCountEstimator;
+import com.sd_project.sd_course.repository.SelectedColumnsQuery;
+import com.sd_project.sd_course.sharding.ShardContext;
+import com.sd_project.sd_course.sharding.ShardIds;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import com.sd_project.sd_course.sharding.ShardSet;
+import com.sd_project.sd_course.sharding.ShardingProperties;
+import com.sd_project.sd_course.suggest.SuggestionService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private static final long ON_SHARD_ONE = ShardIds.BASE + 5L * ShardIds.MAX_SHARDS + 1;
+    private static final long ALSO_ON_SHARD_ONE = ShardIds.BASE + 6L * ShardIds.MAX_SHARDS + 1;
+    private static final long ON_SHARD_TWO = ShardIds.BASE + 5L * ShardIds.MAX_SHARDS + 2;
+    private static final long ON_MISSING_SHARD = ShardIds.BASE + 5L * ShardIds.MAX_SHARDS + 9;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ShardRouter shardRouter = new ShardRouter(
+            new ShardSet(List.of(new HikariDataSource(), new HikariDataSource())),
+            mock(PlatformTransactionManager.class), new ShardingProperties());
+    private final SelectedColumnsQuery selectedColumnsQuery = mock(SelectedColumnsQuery.class);
+    private final TableVersions tableVersions = new TableVersions();
+    private final ProductCache productCache =
+            new ProductCache(new ConcurrentMapCacheManager(), tableVersions, 60_000);
+    private final Map<Integer, Collection<Long>> queriedByShard = new ConcurrentHashMap<>();
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductService(productRepository, mock(CategoryRepository.class),
+                mock(ProductTombstoneRepository.class), new ProductMapperImpl(), shardRouter,
+                mock(RowCountEstimator.class), selectedColumnsQuery, mock(CountCache.class), productCache,
+                new SearchResultCache(tableVersions, 30_000, 100), mock(SuggestionService.class), mock(Outbox.class),
+                mock(DomainEventBus.class));
+        ReflectionTestUtils.setField(productService, "maxBatchIds", 5);
+
+        Map<Long, Product> stored = Map.of(
+                1L, product(1L), ON_SHARD_ONE, product(ON_SHARD_ONE), ON_SHARD_TWO, product(ON_SHARD_TWO));
+        when(productRepository.findAllWithCategoryByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            queriedByShard.put(ShardContext.current(), List.copyOf(ids));
+            return ids.stream().filter(stored::containsKey).map(stored::get).toList();
+        });
+    }
+
+    @Test
+    void getProductsByIds_ShouldAnswerInRequestOrderWithMissingAndRepeatedIds() {
+        // When
+        List<ProductBatchItemResponse> items = productService.getProductsByIds(
+                List.of(ON_SHARD_TWO, 404L, 1L, ON_SHARD_TWO, ON_MISSING_SHARD));
+
+        // Then
+        assertThat(items).extracting(ProductBatchItemResponse::getId)
+                .containsExactly(ON_SHARD_TWO, 404L, 1L, ON_SHARD_TWO, ON_MISSING_SHARD);
+        assertThat(items).extracting(ProductBatchItemResponse::isFound)
+                .containsExactly(true, false, true, true, false);
+        assertThat(items.get(0).getProduct().getName()).isEqualTo("Product " + ON_SHARD_TWO);
+        assertThat(items.get(1).getProduct()).isNull();
+    }
+
+    @Test
+    void getProductsByIds_ShouldQueryOnlyTheShardsThatOwnTheIds() {
+        // When
+        productService.getProductsByIds(List.of(ON_SHARD_ONE, ALSO_ON_SHARD_ONE, ON_SHARD_ONE, ON_MISSING_SHARD));
+
+        // Then
+        assertThat(queriedByShard).containsOnlyKeys(1);
+        assertThat(queriedByShard.get(1)).containsExactly(ON_SHARD_ONE, ALSO_ON_SHARD_ONE);
+    }
+
+    @Test
+    void getProductsByIds_ShouldServeCachedProductsWithoutQuerying() {
+        // Given
+        productService.getProductsByIds(List.of(1L, ON_SHARD_TWO));
+        queriedByShard.clear();
+
+        // When
+        List<ProductBatchItemResponse> items = productService.getProductsByIds(List.of(ON_SHARD_TWO, 1L));
+
+        // Then
+        assertThat(items).extracting(ProductBatchItemResponse::isFound).containsExactly(true, true);
+        assertThat(queriedByShard).isEmpty();
+    }
+
+    @Test
+    void getProductsByIds_ShouldBypassTheCacheForARequestThatMustReadItsOwnWrite() {
+        // Given
+        productService.getProductsByIds(List.of(1L));
+        queriedByShard.clear();
+
+        // When
+        ConsistencyContext.require(42L);
+        try {
+            productService.getProductsByIds(List.of(1L, ON_SHARD_TWO));
+        } finally {
+            ConsistencyContext.clear();
+        }
+
+        // Then
+        assertThat(queriedByShard).containsOnlyKeys(0, 2);
+        queriedByShard.clear();
+        productService.getProductsByIds(List.of(ON_SHARD_TWO));
+        assertThat(queriedByShard).containsOnlyKeys(2);
+    }
+
+    @Test
+    void getProductsByIds_ShouldRejectNullIdsAndOversizedBatches() {
+        // When / Then
+        assertThatThrownBy(() -> productService.getProductsByIds(List.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productService.getProductsByIds(Arrays.asList(1L, null)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProducts_ShouldSelectOnlyTheRequestedColumnsAndMapThemPartially() {
+        // Given
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1L);
+        row.put("name", "Product 1");
+        row.put("stockQuantity", 0);
+        row.put("category.id", 1L);
+        row.put("category.name", "Electronics");
+        List<String> selected = new ArrayList<>();
+        when(selectedColumnsQuery.findSlice(eq(Product.class), any(), any(), any())).thenAnswer(invocation -> {
+            selected.addAll(invocation.getArgument(2));
+            return new SliceImpl<>(ShardContext.current() == 0 ? List.of(row) : List.of());
+        });
+
+        // When
+        Slice<ProductResponse> result = productService.searchProducts("product", PageRequest.of(0, 10),
+                FieldSelection.forProducts("name,stockStatus,category"));
+
+        // Then
+        assertThat(selected).contains("id", "name", "stockQuantity", "category.id", "category.name")
+                .doesNotContain("description", "price", "createdAt", "updatedAt");
+        ProductResponse product = result.getContent().get(0);
+        assertThat(product.getName()).isEqualTo("Product 1");
+        assertThat(product.getStockStatus()).isEqualTo("OUT_OF_STOCK");
+        assertThat(product.getCategory().getName()).isEqualTo("Electronics");
+        assertThat(product.getPrice()).isNull();
+        assertThat(product.getDescription()).isNull();
+        assertThat(productCache.get(1L)).isNull();
+    }
+
+    @Test
+    void searchProducts_ShouldServeAnySelectionFromTheCachedIds() {
+        // Given
+        when(productRepository.searchByNameOrDescription(eq("product"), any())).thenAnswer(invocation ->
+                new SliceImpl<>(ShardContext.current() == 0 ? List.of(product(1L)) : List.of()));
+        productService.searchProducts("product", PageRequest.of(0, 10), FieldSelection.ALL);
+        clearInvocations(productRepository);
+
+        // When
+        Slice<ProductResponse> result = productService.searchProducts(" Product ", PageRequest.of(0, 10),
+                FieldSelection.forProducts("name"));
+
+        // Then
+        assertThat(result.getContent()).extracting(ProductResponse::getName).containsExactly("Product 1");
+        verifyNoInteractions(selectedColumnsQuery);
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    private static Product product(Long id) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electronics");
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(1);
+        product.setCategory(category);
+        return product;
+    }
+}
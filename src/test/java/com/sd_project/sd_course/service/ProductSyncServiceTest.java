@@ -0,0 +1,147 @@
+package com.sd_project.sd_course.service;
+
+import com.sd_project.sd_course.dto.response.ProductDeltaItemResponse;
+import com.sd_project.sd_course.dto.response.ProductDeltaResponse;
+import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.entity.Product;
+import com.sd_project.sd_course.entity.ProductTombstone;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.exception.SyncTokenExpiredException;
+import com.sd_project.sd_course.mapper.ProductMapperImpl;
+import com.sd_project.sd_course.repository.ProductRepository;
+import com.sd_project.sd_course.repository.ProductTombstoneRepository;
+import com.sd_project.sd_course.service.ProductSyncService.SyncToken;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductSyncServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductTombstoneRepository productTombstoneRepository = mock(ProductTombstoneRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private ProductSyncService productSyncService;
+
+    @BeforeEach
+    void setUp() {
+        when(shardRouter.onAllShards(any())).thenAnswer(invocation ->
+                List.of(invocation.<Supplier<?>>getArgument(0).get()));
+        when(productRepository.currentTimestamp()).thenReturn(NOW);
+        productSyncService = new ProductSyncService(productRepository, productTombstoneRepository,
+                new ProductMapperImpl(), shardRouter, 5000, 30, 100);
+    }
+
+    @Test
+    void getChanges_ShouldMergeUpdatesAndDeletionsInChangeOrder() {
+        // Given
+        LocalDateTime since = NOW.minusHours(1);
+        String until = new SyncToken(NOW, 0).encode();
+        when(productRepository.findChangedBetween(eq(since), eq(7L), eq(NOW), any()))
+                .thenReturn(List.of(product(3L, since.plusMinutes(1)), product(1L, since.plusMinutes(3))));
+        when(productTombstoneRepository.findDeletedBetween(eq(since), eq(7L), eq(NOW), any()))
+                .thenReturn(List.of(tombstone(2L, since.plusMinutes(2))));
+
+        // When
+        ProductDeltaResponse delta = productSyncService.getChanges(new SyncToken(since, 7L).encode(), until, 10);
+
+        // Then
+        assertThat(delta.getChanges()).extracting(ProductDeltaItemResponse::getId).containsExactly(3L, 2L, 1L);
+        assertThat(delta.getChanges()).extracting(ProductDeltaItemResponse::isDeleted)
+                .containsExactly(false, true, false);
+        assertThat(delta.getChanges().get(1).getProduct()).isNull();
+        assertThat(delta.getChanges().get(2).getProduct().getName()).isEqualTo("Product 1");
+        assertThat(delta.isHasMore()).isFalse();
+        assertThat(delta.getNextToken()).isEqualTo(until);
+    }
+
+    @Test
+    void getChanges_ShouldResumeAfterTheLastChangeWhenMoreAreWaiting() {
+        // Given
+        LocalDateTime since = NOW.minusHours(1);
+        when(productRepository.findChangedBetween(any(), any(), any(), any()))
+                .thenReturn(List.of(product(4L, since.plusMinutes(1)), product(5L, since.plusMinutes(1)),
+                        product(6L, since.plusMinutes(2))));
+        when(productTombstoneRepository.findDeletedBetween(any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        ProductDeltaResponse delta = productSyncService.getChanges(
+                new SyncToken(since, 0).encode(), new SyncToken(NOW, 0).encode(), 2);
+
+        // Then
+        assertThat(delta.getChanges()).extracting(ProductDeltaItemResponse::getId).containsExactly(4L, 5L);
+        assertThat(delta.isHasMore()).isTrue();
+        assertThat(SyncToken.decode(delta.getNextToken())).isEqualTo(new SyncToken(since.plusMinutes(1), 5L));
+    }
+
+    @Test
+    void getChanges_ShouldLeaveOutDeletionsOnAFullDownload() {
+        // Given
+        when(productRepository.findChangedBetween(any(), any(), any(), any()))
+                .thenReturn(List.of(product(1L, NOW.minusDays(400))));
+
+        // When
+        ProductDeltaResponse delta = productSyncService.getChanges(null, new SyncToken(NOW, 0).encode(), 10);
+
+        // Then
+        assertThat(delta.getChanges()).extracting(ProductDeltaItemResponse::getId).containsExactly(1L);
+        verifyNoInteractions(productTombstoneRepository);
+    }
+
+    @Test
+    void currentToken_ShouldTrailTheEarliestShardClockByTheSettleWindow() {
+        // Given
+        doReturn(List.of(NOW, NOW.minusSeconds(3), NOW.plusSeconds(2))).when(shardRouter).onAllShards(any());
+
+        // When
+        String token = productSyncService.currentToken();
+
+        // Then
+        assertThat(SyncToken.decode(token)).isEqualTo(new SyncToken(NOW.minusSeconds(8), 0));
+    }
+
+    @Test
+    void getChanges_ShouldRejectTokensOlderThanTheTombstones() {
+        // Given
+        String since = new SyncToken(NOW.minusDays(31), 1L).encode();
+
+        // When / Then
+        assertThatThrownBy(() -> productSyncService.getChanges(since, 10))
+                .isInstanceOf(SyncTokenExpiredException.class);
+        assertThatThrownBy(() -> productSyncService.getChanges("not-a-token", 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static Product product(Long id, LocalDateTime updatedAt) {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electronics");
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(1);
+        product.setCategory(category);
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+
+    private static ProductTombstone tombstone(Long productId, LocalDateTime deletedAt) {
+        return ProductTombstone.builder().productId(productId).categoryId(1L).deletedAt(deletedAt).build();
+    }
+}
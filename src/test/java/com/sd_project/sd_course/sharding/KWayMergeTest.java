@@ -0,0 +1,36 @@
+package com.sd_project.sd_course.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KWayMergeTest {
+
+    private final List<List<Integer>> shards = List.of(
+            List.of(1, 4, 7, 10),
+            List.of(2, 5, 8),
+            List.of(),
+            List.of(3, 6, 9, 11, 12)
+    );
+
+    @Test
+    void page_ShouldMergeFirstPageInGlobalOrder() {
+        // When
+        List<Integer> page = KWayMerge.page(shards, Comparator.naturalOrder(), 0, 5);
+
+        // Then
+        assertThat(page).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void page_ShouldSkipOffsetAndStopAtEnd() {
+        // When
+        List<Integer> page = KWayMerge.page(shards, Comparator.naturalOrder(), 10, 5);
+
+        // Then
+        assertThat(page).containsExactly(11, 12);
+    }
+}
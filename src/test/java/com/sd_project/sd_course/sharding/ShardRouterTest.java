@@ -0,0 +1,67 @@
+package com.sd_project.sd_course.sharding;
+
+import com.sd_project.sd_course.datasource.ConsistencyContext;
+import com.sd_project.sd_course.datasource.WorkloadContext;
+import com.sd_project.sd_course.datasource.WorkloadType;
+import com.sd_project.sd_course.exception.ResourceNotFoundException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ShardRouterTest {
+
+    private final ShardRouter router = new ShardRouter(
+            new ShardSet(List.of(new HikariDataSource(), new HikariDataSource())),
+            mock(PlatformTransactionManager.class), new ShardingProperties());
+
+    @Test
+    void shardForProduct_ShouldDecodeShardFromId() {
+        // Given
+        long onShardTwo = ShardIds.BASE + 42L * ShardIds.MAX_SHARDS + 2;
+
+        // Then
+        assertThat(router.shardForProduct(onShardTwo)).isEqualTo(2);
+        assertThat(router.shardForProduct(17L)).isZero();
+        assertThatThrownBy(() -> router.shardForProduct(ShardIds.BASE + 7))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void shardForCategory_ShouldBeStableAndUseEveryShard() {
+        // When
+        List<Integer> placements = IntStream.rangeClosed(1, 300)
+                .mapToObj(id -> router.shardForCategory((long) id))
+                .toList();
+
+        // Then
+        assertThat(placements).allMatch(shard -> shard >= 0 && shard < 3);
+        assertThat(placements).contains(0, 1, 2);
+        assertThat(router.shardForCategory(5L)).isEqualTo(router.shardForCategory(5L));
+    }
+
+    @Test
+    void onAllShards_ShouldCarryCallerWorkloadAndConsistencyToken() {
+        // Given
+        WorkloadType previous = WorkloadContext.enter(WorkloadType.WRITE);
+        ConsistencyContext.require(1234L);
+
+        try {
+            // When
+            List<String> seen = router.onAllShards(() ->
+                    ShardContext.current() + ":" + WorkloadContext.resolve() + ":" + ConsistencyContext.getRequiredLsn());
+
+            // Then
+            assertThat(seen).containsExactly("0:WRITE:1234", "1:WRITE:1234", "2:WRITE:1234");
+        } finally {
+            ConsistencyContext.clear();
+            WorkloadContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.sd_project.sd_course.stream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.controller.ProductController;
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.dto.response.FieldsFilter;
+import com.sd_project.sd_course.dto.response.ProductResponse;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.exception.ServiceUnavailableException;
+import com.sd_project.sd_course.service.ChangeFeedService;
+import com.sd_project.sd_course.service.ProductService;
+import com.sd_project.sd_course.service.ProductSyncService;
+import com.sd_project.sd_course.suggest.SuggestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ProductChangeBroadcasterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .filters(FieldsFilter.all())
+            .build();
+    private final ChangeFeedService changeFeedService = mock(ChangeFeedService.class);
+    private ExecutorService senders;
+    private ProductChangeBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void stream_ShouldPushOnlyChangesFromTheFeedMatchingTheFilter() throws Exception {
+        // Given
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        broadcaster = broadcaster(16, 100);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(
+                mock(ProductService.class), mock(SuggestionService.class), broadcaster,
+                mock(ProductSyncService.class), objectMapper)).build();
+        MvcResult result = mockMvc.perform(get("/api/products/stream").param("categoryIds", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        when(changeFeedService.headCursor()).thenReturn("10");
+        when(changeFeedService.getEvents("10", 500)).thenReturn(ChangeFeedResponse.builder()
+                .events(List.of(
+                        event(OutboxEvent.STOCK_CHANGED, product(5L, 1L, 3), Map.of()),
+                        event(OutboxEvent.STOCK_CHANGED, product(6L, 2L, 4), Map.of()),
+                        event(OutboxEvent.UPDATED, product(7L, 2L, 9), Map.of(OutboxEvent.PREVIOUS_CATEGORY_ID, 1L)),
+                        event(OutboxEvent.DELETED, 8L, Map.of("id", 8L, "categoryId", 1L))))
+                .nextCursor("14")
+                .build());
+
+        // When
+        broadcaster.pollChangeFeed();
+        broadcaster.pollChangeFeed();
+
+        // Then
+        String content = awaitContent(result, "event:DELETED");
+        assertThat(result.getResponse().getContentType()).startsWith("text/event-stream");
+        assertThat(content)
+                .contains("event:STOCK_CHANGED", "\"productId\":5", "\"stockQuantity\":3")
+                .contains("event:UPDATED", "\"productId\":7")
+                .contains("\"productId\":8")
+                .doesNotContain("\"productId\":6");
+    }
+
+    @Test
+    void publish_ShouldDisconnectSubscriberWhoseBufferIsFull() throws Exception {
+        // Given
+        senders = Executors.newSingleThreadExecutor();
+        CountDownLatch senderBusy = new CountDownLatch(1);
+        senders.execute(() -> {
+            try {
+                senderBusy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        broadcaster = broadcaster(3, 100);
+        broadcaster.subscribe(Set.of(), Set.of());
+        broadcaster.subscribe(Set.of(99L), Set.of());
+
+        // When
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.onFeedEvent(event(OutboxEvent.STOCK_CHANGED, product(id, 1L, 1), Map.of()));
+        }
+        senderBusy.countDown();
+
+        // Then
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_ShouldRejectWhenTooManyStreamsAreOpen() {
+        // Given
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        broadcaster = broadcaster(16, 1);
+        broadcaster.subscribe(Set.of(), Set.of());
+
+        // When / Then
+        assertThatThrownBy(() -> broadcaster.subscribe(Set.of(), Set.of()))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private ProductChangeBroadcaster broadcaster(int bufferSize, int maxSubscribers) {
+        return new ProductChangeBroadcaster(objectMapper, new SimpleMeterRegistry(), changeFeedService, 500,
+                bufferSize, maxSubscribers, 60_000, senders);
+    }
+
+    private ChangeFeedEventResponse event(String type, ProductResponse product, Map<String, Object> extraFields)
+            throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>(objectMapper.convertValue(product, new TypeReference<>() {
+        }));
+        payload.putAll(extraFields);
+        return event(type, product.getId(), payload);
+    }
+
+    private ChangeFeedEventResponse event(String type, Long productId, Map<String, Object> payload) throws Exception {
+        return ChangeFeedEventResponse.builder()
+                .aggregateType(OutboxEvent.PRODUCT)
+                .aggregateId(productId)
+                .eventType(type)
+                .payload(objectMapper.writeValueAsString(payload))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static ProductResponse product(Long id, Long categoryId, int stock) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("9.99"))
+                .stockQuantity(stock)
+                .stockStatus("IN_STOCK")
+                .category(ProductResponse.CategoryInfo.builder().id(categoryId).name("Category").build())
+                .build();
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+}
@@ -0,0 +1,92 @@
+package com.sd_project.sd_course.suggest;
+
+import com.sd_project.sd_course.suggest.PrefixIndex.Entry;
+import com.sd_project.sd_course.suggest.PrefixIndex.Keyed;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private static final Entry PHONE = new Entry("iPhone 15 Pro", "PRODUCT", 1L, 5);
+    private static final Entry PHONES = new Entry("Phones", "CATEGORY", 2L, 9);
+    private static final Entry CASE = new Entry("Phone Case", "PRODUCT", 3L, 1);
+
+    @Test
+    void top_ShouldReturnMatchesByWeightWithoutDuplicates() {
+        // Given
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new Keyed("iphone 15 pro", PHONE),
+                new Keyed("15 pro", PHONE),
+                new Keyed("pro", PHONE),
+                new Keyed("phones", PHONES),
+                new Keyed("phone case", CASE),
+                new Keyed("case", CASE)), 10);
+
+        // When / Then
+        assertThat(index.top("p", 10)).containsExactly(PHONES, PHONE, CASE);
+        assertThat(index.top("phone", 2)).containsExactly(PHONES, CASE);
+        assertThat(index.top("x", 10)).isEmpty();
+    }
+
+    @Test
+    void with_ShouldReplaceTheItemAndLeaveTheOldIndexUnchanged() {
+        // Given
+        PrefixIndex before = new PrefixIndex(10).with("phone case", CASE);
+        Entry popularCase = new Entry("Phone Case", "PRODUCT", 3L, 50);
+
+        // When
+        PrefixIndex after = before.with("phone case", popularCase).with("phones", PHONES);
+
+        // Then
+        assertThat(after.top("ph", 10)).containsExactly(popularCase, PHONES);
+        assertThat(before.top("ph", 10)).containsExactly(CASE);
+    }
+
+    @Test
+    void without_ShouldRemoveTheItemAndPruneEmptyBranches() {
+        // Given
+        PrefixIndex index = new PrefixIndex(10).with("phones", PHONES).with("phone case", CASE);
+
+        // When
+        PrefixIndex removed = index.without("phone case", CASE);
+
+        // Then
+        assertThat(removed.top("phone", 10)).containsExactly(PHONES);
+        assertThat(removed.top("phone ", 10)).isEmpty();
+    }
+
+    @Test
+    void top_ShouldKeepOnlyTopKPerPrefix() {
+        // Given
+        PrefixIndex index = new PrefixIndex(2)
+                .with("phones", PHONES)
+                .with("phone case", CASE)
+                .with("phone 15", PHONE);
+
+        // When / Then
+        assertThat(index.top("phone", 10)).containsExactly(PHONES, PHONE);
+    }
+
+    @Test
+    void top_ShouldCountAnItemIndexedUnderSeveralKeysOnce() {
+        // Given
+        PrefixIndex index = PrefixIndex.build(List.of(
+                new Keyed("pro", PHONE),
+                new Keyed("phone 15 pro", PHONE),
+                new Keyed("phone case", CASE)), 2);
+
+        // When / Then
+        assertThat(index.top("p", 2)).containsExactly(PHONE, CASE);
+        assertThat(index.top("p", -1)).isEmpty();
+    }
+
+    @Test
+    void keys_ShouldStartAtEveryWordOfTheNormalizedName() {
+        // When / Then
+        assertThat(SuggestionService.keys("iPhone 15-Pro")).containsExactly("iphone 15 pro", "15 pro", "pro");
+        assertThat(SuggestionService.normalize("  Phone,  Case ")).isEqualTo("phone case");
+    }
+}
@@ -0,0 +1,98 @@
+package com.sd_project.sd_course.suggest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sd_project.sd_course.dto.response.ChangeFeedEventResponse;
+import com.sd_project.sd_course.dto.response.ChangeFeedResponse;
+import com.sd_project.sd_course.dto.response.SuggestionResponse;
+import com.sd_project.sd_course.entity.Category;
+import com.sd_project.sd_course.entity.OutboxEvent;
+import com.sd_project.sd_course.exception.BadRequestException;
+import com.sd_project.sd_course.repository.CategoryRepository;
+import com.sd_project.sd_course.repository.ProductRepository;
+import com.sd_project.sd_course.service.ChangeFeedService;
+import com.sd_project.sd_course.sharding.ShardRouter;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SuggestionServiceTest {
+
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final ShardRouter shardRouter = mock(ShardRouter.class);
+    private final ChangeFeedService changeFeedService = mock(ChangeFeedService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SuggestionService service = new SuggestionService(mock(ProductRepository.class),
+            categoryRepository, shardRouter, changeFeedService, new ObjectMapper(), transactionManager, 10, 500);
+
+    @Test
+    void suggest_ShouldRejectLimitBelowOne() {
+        // When / Then
+        assertThatThrownBy(() -> service.suggest("pho", -1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.suggest("pho", 0)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void reload_ShouldLoadNamesInReadOnlyTransaction() {
+        // Given
+        when(changeFeedService.headCursor()).thenReturn("0");
+        Category phones = Category.builder().name("Phones").build();
+        phones.setId(2L);
+        when(categoryRepository.findAll()).thenReturn(List.of(phones));
+        when(shardRouter.onAllShards(any())).thenReturn(List.of(List.of()));
+
+        // When
+        service.reload();
+
+        // Then
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        assertThat(service.suggest("pho", 5)).extracting(SuggestionResponse::getText).containsExactly("Phones");
+    }
+
+    @Test
+    void pollChangeFeed_ShouldApplyChangesMadeOnOtherNodes() {
+        // Given
+        when(changeFeedService.headCursor()).thenReturn("0");
+        when(shardRouter.onAllShards(any())).thenReturn(List.of(List.of()));
+        service.reload();
+        when(changeFeedService.getEvents(eq("0"), anyInt())).thenReturn(page("2", false,
+                event(OutboxEvent.PRODUCT, 7L, OutboxEvent.CREATED, "{\"id\":7,\"name\":\"Phone Case\"}"),
+                event(OutboxEvent.CATEGORY, 3L, OutboxEvent.CREATED, "{\"id\":3,\"name\":\"Phones\"}")));
+        when(changeFeedService.getEvents(eq("2"), anyInt())).thenReturn(page("3", false,
+                event(OutboxEvent.PRODUCT, 7L, OutboxEvent.DELETED, "{\"id\":7}")));
+
+        // When
+        service.pollChangeFeed();
+        List<SuggestionResponse> afterCreate = service.suggest("pho", 5);
+        service.pollChangeFeed();
+        List<SuggestionResponse> afterDelete = service.suggest("pho", 5);
+
+        // Then
+        assertThat(afterCreate).extracting(SuggestionResponse::getText).containsExactlyInAnyOrder("Phone Case", "Phones");
+        assertThat(afterDelete).extracting(SuggestionResponse::getText).containsExactly("Phones");
+    }
+
+    private static ChangeFeedResponse page(String nextCursor, boolean hasMore, ChangeFeedEventResponse... events) {
+        return ChangeFeedResponse.builder().events(List.of(events)).nextCursor(nextCursor).hasMore(hasMore).build();
+    }
+
+    private static ChangeFeedEventResponse event(String aggregateType, Long id, String eventType, String payload) {
+        return ChangeFeedEventResponse.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(id)
+                .eventType(eventType)
+                .payload(payload)
+                .build();
+    }
+}